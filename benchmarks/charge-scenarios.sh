@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Test de charge par scénarios (cohorte en première connexion, admins, coordinateurs, formateurs)
+# sur l'application démarrée avec H2 et un SMTP GreenMail embarqués : débit et p50/p90/p99 par endpoint.
+#
+# Prérequis (racine du projet) : mvn -q install -DskipTests
+# Usage : benchmarks/charge-scenarios.sh
+# Variables : DUREE_S (60), COHORTE (10), ADMINS (2), COORDINATEURS (3), FORMATEURS (20) : utilisateurs virtuels
+#             PAUSE_MS (temps de réflexion entre deux itérations, 0), LATENCE_JDBC_MS (0), PORT (18082)
+#             TAILLE_COHORTE (1000), NB_FORMATEURS (50), NB_COORDINATEURS (5), NB_SESSIONS (200) : données créées
+#             PROFIL (profil Spring supplémentaire, ex. virtual), CSV (fichier de résultats, target/charge-scenarios.csv)
+set -euo pipefail
+cd "$(dirname "$0")"
+
+DUREE_S=${DUREE_S:-60}
+COHORTE=${COHORTE:-10}
+ADMINS=${ADMINS:-2}
+COORDINATEURS=${COORDINATEURS:-3}
+FORMATEURS=${FORMATEURS:-20}
+PAUSE_MS=${PAUSE_MS:-0}
+LATENCE_JDBC_MS=${LATENCE_JDBC_MS:-0}
+PORT=${PORT:-18082}
+PORT_CODES=$((PORT + 17))
+TAILLE_COHORTE=${TAILLE_COHORTE:-1000}
+NB_FORMATEURS=${NB_FORMATEURS:-50}
+NB_COORDINATEURS=${NB_COORDINATEURS:-5}
+NB_SESSIONS=${NB_SESSIONS:-200}
+CSV=${CSV:-target/charge-scenarios.csv}
+
+mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+CP="target/classes:$(cat target/classpath.txt)"
+
+profil=""
+if [ -n "${PROFIL:-}" ]; then
+    profil="--spring.profiles.active=$PROFIL"
+fi
+
+java -Dcharge.latence-jdbc-ms="$LATENCE_JDBC_MS" -Dcharge.sessions="$NB_SESSIONS" -Dcharge.cohorte="$TAILLE_COHORTE" \
+    -Dcharge.formateurs="$NB_FORMATEURS" -Dcharge.coordinateurs="$NB_COORDINATEURS" -Dcharge.codes-port="$PORT_CODES" \
+    -cp "$CP" com.example.gestionpaimentback.charge.ServeurCharge --server.port="$PORT" $profil \
+    > target/serveur-scenarios.log 2>&1 &
+serveur=$!
+trap 'kill "$serveur" 2>/dev/null || true' EXIT
+
+until grep -qs "SERVEUR DE CHARGE" target/serveur-scenarios.log; do
+    if ! kill -0 "$serveur" 2>/dev/null; then
+        echo "Échec du démarrage, voir target/serveur-scenarios.log" >&2
+        exit 1
+    fi
+    sleep 1
+done
+
+java -cp "$CP" com.example.gestionpaimentback.charge.ScenariosCharge \
+    --url="http://localhost:$PORT" --codes-url="http://localhost:$PORT_CODES" --duree-s="$DUREE_S" \
+    --cohorte="$COHORTE" --admins="$ADMINS" --coordinateurs="$COORDINATEURS" --formateurs="$FORMATEURS" \
+    --pause-ms="$PAUSE_MS" --taille-cohorte="$TAILLE_COHORTE" --nb-formateurs="$NB_FORMATEURS" \
+    --nb-coordinateurs="$NB_COORDINATEURS" --csv="$CSV" \
+    | tee target/charge-scenarios.txt
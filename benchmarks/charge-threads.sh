@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Comparaison threads plateforme / threads virtuels (profil "virtual", JDK 21+ requis)
+# sur un GET authentifié (/api/sessions/formateur/{id} par défaut) : débit, p50/p99 et concurrence max par niveau.
+#
+# Prérequis (racine du projet) : mvn -q install -DskipTests
+# Usage : benchmarks/charge-threads.sh
+# Variables : LATENCE_JDBC_MS (aller-retour SQL simulé, 5), NIVEAUX (50,200,800,2000), DUREE_S (15), PORT (18082),
+#             CHEMIN (/api/sessions/formateur/{id}), NB_SESSIONS (20), MODES ("platform virtual")
+set -euo pipefail
+cd "$(dirname "$0")"
+
+LATENCE_JDBC_MS=${LATENCE_JDBC_MS:-5}
+NIVEAUX=${NIVEAUX:-50,200,800,2000}
+DUREE_S=${DUREE_S:-15}
+PORT=${PORT:-18082}
+CHEMIN_DEFAUT='/api/sessions/formateur/{id}'
+CHEMIN=${CHEMIN:-$CHEMIN_DEFAUT}
+NB_SESSIONS=${NB_SESSIONS:-20}
+MODES=${MODES:-platform virtual}
+
+mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+CP="target/classes:$(cat target/classpath.txt)"
+
+for mode in $MODES; do
+    profil=""
+    if [ "$mode" = virtual ]; then
+        profil="--spring.profiles.active=virtual"
+    fi
+
+    java -Dcharge.latence-jdbc-ms="$LATENCE_JDBC_MS" -Dcharge.sessions="$NB_SESSIONS" -cp "$CP" \
+        com.example.gestionpaimentback.charge.ServeurCharge --server.port="$PORT" $profil \
+        > "target/serveur-$mode.log" 2>&1 &
+    serveur=$!
+
+    until grep -qs "SERVEUR DE CHARGE" "target/serveur-$mode.log"; do
+        if ! kill -0 "$serveur" 2>/dev/null; then
+            echo "Échec du démarrage ($mode), voir target/serveur-$mode.log" >&2
+            exit 1
+        fi
+        sleep 1
+    done
+
+    java -cp "$CP" com.example.gestionpaimentback.charge.ClientCharge \
+        --url="http://localhost:$PORT" --chemin="$CHEMIN" --niveaux="$NIVEAUX" --duree-s="$DUREE_S" --mode="$mode" \
+        | tee "target/charge-$mode.txt"
+
+    kill "$serveur"
+    wait "$serveur" || true
+done
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Lance les benchmarks JMH et enregistre le résultat en JSON sous target/jmh/<commit>.json
+# puis, si REFERENCE est fourni, le compare au résultat de ce commit (ou fichier).
+#
+# Prérequis (racine du projet) : mvn -q install -DskipTests
+# Usage : benchmarks/jmh.sh [options JMH]        ex. : benchmarks/jmh.sh Mapping -p sessions=1000
+# Variables : REFERENCE (commit ou fichier .json à comparer), SEUIL (% de dégradation toléré, 10)
+set -euo pipefail
+cd "$(dirname "$0")"
+
+SEUIL=${SEUIL:-10}
+COMMIT=$(git rev-parse --short HEAD)
+if [ -n "$(git status --porcelain -- ../src .)" ]; then
+    COMMIT="$COMMIT-modifie"
+fi
+
+mvn -q package
+mkdir -p target/jmh
+java -jar target/benchmarks.jar "$@" -rf json -rff "target/jmh/$COMMIT.json"
+echo "Résultats : target/jmh/$COMMIT.json"
+
+if [ -n "${REFERENCE:-}" ]; then
+    fichier=$REFERENCE
+    if [ ! -f "$fichier" ]; then
+        fichier="target/jmh/$(git rev-parse --short "$REFERENCE").json"
+    fi
+    java -cp target/benchmarks.jar com.example.gestionpaimentback.benchmark.ComparaisonResultats \
+        "$fichier" "target/jmh/$COMMIT.json" --seuil="$SEUIL"
+fi
@@ -0,0 +1,86 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.security.SignedTokenCodec;
+import com.example.gestionpaimentback.security.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Coût d'authentification d'une requête déjà connectée, par mode (8 threads, 10 000 utilisateurs)
+// - session : lookup de la session par id (comme le manager Tomcat) puis HttpSessionSecurityContextRepository
+// - jeton : vérification HMAC + décodage, sans état côté serveur
+// Le mode session garde en plus une session par utilisateur en mémoire sur le noeud qui l'a créée
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+public class AuthentificationBenchmark {
+
+    private static final int NB_UTILISATEURS = 10_000;
+
+    private final HttpSessionSecurityContextRepository repository = new HttpSessionSecurityContextRepository();
+    private final Map<String, MockHttpSession> sessions = new ConcurrentHashMap<>();
+    private String[] idsSession;
+
+    private SignedTokenCodec codec;
+    private String[] jetons;
+
+    @Setup
+    public void setUp() {
+        idsSession = new String[NB_UTILISATEURS];
+        jetons = new String[NB_UTILISATEURS];
+        codec = new SignedTokenCodec(
+                Map.of("k1", "cle-de-benchmark-32-octets-min!!".getBytes(StandardCharsets.UTF_8)),
+                "k1", Duration.ofHours(1));
+        long maintenant = System.currentTimeMillis() / 1000;
+
+        for (int i = 0; i < NB_UTILISATEURS; i++) {
+            String email = "formateur" + i + "@test.tn";
+            List<String> roles = List.of("ROLE_FORMATEUR");
+            UserDetailsImpl userDetails = new UserDetailsImpl((long) i, email, null,
+                    List.of(new SimpleGrantedAuthority("ROLE_FORMATEUR")));
+
+            MockHttpSession session = new MockHttpSession(null, "session-" + i);
+            session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                    new SecurityContextImpl(new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities())));
+            sessions.put(session.getId(), session);
+            idsSession[i] = session.getId();
+
+            jetons[i] = codec.emettre((long) i, email, roles, maintenant);
+        }
+    }
+
+    @Benchmark
+    public Authentication session() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/home");
+        request.setSession(sessions.get(idsSession[ThreadLocalRandom.current().nextInt(NB_UTILISATEURS)]));
+        SecurityContext context = repository.loadDeferredContext(request).get();
+        return context.getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication jeton() {
+        SignedTokenCodec.Contenu contenu = codec.lire(
+                jetons[ThreadLocalRandom.current().nextInt(NB_UTILISATEURS)], System.currentTimeMillis() / 1000);
+        UserDetailsImpl userDetails = contenu.versUserDetails();
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+}
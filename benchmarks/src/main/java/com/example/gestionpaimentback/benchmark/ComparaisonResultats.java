@@ -0,0 +1,103 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compare deux fichiers de résultats JMH (-rf json) benchmark par benchmark (mêmes @Param)
+// Régression : écart défavorable supérieur au seuil ET aux marges d'erreur cumulées -> code de sortie 1
+// Usage : java -cp target/benchmarks.jar com.example.gestionpaimentback.benchmark.ComparaisonResultats
+//             reference.json courant.json [--seuil=10]
+public class ComparaisonResultats {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : ComparaisonResultats <reference.json> <courant.json> [--seuil=<pourcentage>]");
+            System.exit(2);
+        }
+        double seuil = 10;
+        for (String arg : args) {
+            if (arg.startsWith("--seuil=")) {
+                seuil = Double.parseDouble(arg.substring("--seuil=".length()));
+            }
+        }
+
+        Map<String, JsonNode> reference = lire(new File(args[0]));
+        Map<String, JsonNode> courant = lire(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "benchmark", "référence", "courant", "écart", "");
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entree : courant.entrySet()) {
+            JsonNode ref = reference.get(entree.getKey());
+            JsonNode cour = entree.getValue();
+            String unite = cour.at("/primaryMetric/scoreUnit").asText();
+            double scoreCourant = cour.at("/primaryMetric/score").asDouble();
+            if (ref == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  nouveau (%s)%n", entree.getKey(), "-", scoreCourant, "", unite);
+                continue;
+            }
+            if (!unite.equals(ref.at("/primaryMetric/scoreUnit").asText())) {
+                System.out.printf("%-70s unités différentes, ignoré%n", entree.getKey());
+                continue;
+            }
+            double scoreRef = ref.at("/primaryMetric/score").asDouble();
+            double erreur = erreur(ref) + erreur(cour);
+
+            // Débit : plus haut est mieux ; temps (avgt, sample, ss) : plus bas est mieux
+            boolean debit = "thrpt".equals(cour.get("mode").asText());
+            double ecart = (scoreCourant - scoreRef) / scoreRef * 100;
+            double degradation = debit ? -ecart : ecart;
+            boolean regression = degradation > seuil && Math.abs(scoreCourant - scoreRef) > erreur;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%n", entree.getKey(), scoreRef, scoreCourant, ecart,
+                    regression ? "RÉGRESSION (" + unite + ")" : unite);
+        }
+        for (String cle : reference.keySet()) {
+            if (!courant.containsKey(cle)) {
+                System.out.printf("%-70s absent du résultat courant%n", cle);
+            }
+        }
+
+        System.out.println(regressions == 0 ? "Aucune régression au-delà de " + seuil + " %"
+                : regressions + " régression(s) au-delà de " + seuil + " %");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Clé : nom court du benchmark + paramètres (+ threads si différent de 1)
+    private static Map<String, JsonNode> lire(File fichier) throws IOException {
+        Map<String, JsonNode> resultats = new LinkedHashMap<>();
+        for (JsonNode resultat : new ObjectMapper().readTree(fichier)) {
+            String nom = resultat.get("benchmark").asText();
+            StringBuilder cle = new StringBuilder(nom.substring(nom.lastIndexOf('.', nom.lastIndexOf('.') - 1) + 1));
+            JsonNode params = resultat.get("params");
+            if (params != null) {
+                Map<String, String> tries = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> champs = params.fields();
+                while (champs.hasNext()) {
+                    Map.Entry<String, JsonNode> champ = champs.next();
+                    tries.put(champ.getKey(), champ.getValue().asText());
+                }
+                cle.append(tries);
+            }
+            int threads = resultat.path("threads").asInt(1);
+            if (threads != 1) {
+                cle.append(" t=").append(threads);
+            }
+            resultats.put(cle.toString(), resultat);
+        }
+        return resultats;
+    }
+
+    private static double erreur(JsonNode resultat) {
+        double erreur = resultat.at("/primaryMetric/scoreError").asDouble(0);
+        return Double.isNaN(erreur) ? 0 : erreur;
+    }
+}
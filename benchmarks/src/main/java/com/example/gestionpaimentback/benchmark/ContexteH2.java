@@ -0,0 +1,47 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.GestionpaimentbackApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Contexte Spring sans serveur web sur une base H2 en mémoire (mode MySQL), schéma créé par Hibernate
+final class ContexteH2 {
+
+    private ContexteH2() {}
+
+    // proprietes : --cle=valeur supplémentaires
+    static ConfigurableApplicationContext demarrer(String base, String... proprietes) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + base + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.mail.host=localhost",
+                "--spring.mail.port=3025",
+                "--app.mail.outbox.poll-interval-ms=3600000",
+                // Un seul noeud : index des affectations et calendrier activés, comme pour les mesures d'origine
+                "--app.sessions.index.enabled=true",
+                "--app.sessions.calendrier.enabled=true",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.gestionpaimentback=WARN"));
+        arguments.addAll(List.of(proprietes));
+        return new SpringApplicationBuilder(GestionpaimentbackApplication.class)
+                .web(WebApplicationType.NONE)
+                // Arguments de ligne de commande : prioritaires sur application.properties
+                .run(arguments.toArray(String[]::new));
+    }
+
+    // <nombre> sessions sur 40 semaines à partir du 01/09/2025, niveaux L1-L3 et semestres S1-S2 en alternance
+    static void insererSessions(JdbcTemplate jdbc, int nombre) {
+        jdbc.update("INSERT INTO sessions (classe, specialite, promotion, niveau, semestre, dated, datef) " +
+                "SELECT CONCAT('Classe ', X), 'Informatique', '2025', CONCAT('L', MOD(X, 3) + 1), " +
+                "CONCAT('S', MOD(X, 2) + 1), DATEADD('WEEK', MOD(X, 40), DATE '2025-09-01'), " +
+                "DATEADD('WEEK', MOD(X, 40) + 4, DATE '2025-09-01') FROM SYSTEM_RANGE(0, " + (nombre - 1) + ")");
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.service.EmailService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Débit de EmailService.genererCode() (un code par première connexion / renvoi)
+// Ex. : java -jar target/benchmarks.jar GenerationCode -t 4 pour mesurer la contention entre threads
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class GenerationCodeBenchmark {
+
+    // genererCode n'utilise aucune dépendance injectée
+    private final EmailService emailService = new EmailService();
+
+    @Benchmark
+    public String genererCode() {
+        return emailService.genererCode();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.gestionpaimentback.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.example.gestionpaimentback.config.LogSampler;
+import com.example.gestionpaimentback.config.PhaseMetrics;
+import com.example.gestionpaimentback.controller.AdminController;
+import com.example.gestionpaimentback.controller.SessionController;
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.dto.SessionFormateurRow;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.security.UserDetailsImpl;
+import com.example.gestionpaimentback.service.AdminService;
+import com.example.gestionpaimentback.service.SessionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Coût CPU de la mise en forme des réponses, sans base : les services renvoient des entités déjà chargées
+// - UserDetailsImpl.build (utilisateur à 2 rôles)
+// - SessionController.getAllSessions : rattachement des lignes formateur aux SessionDTO (projections déjà lues)
+// - AdminController.getFormateurs : List<Map>
+// Variantes *Json : sérialisation Jackson en plus
+// Ex. : java -jar target/benchmarks.jar Mapping -p sessions=1000 -rf json -rff target/jmh/mapping.json
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"100", "1000"})
+    public int sessions;
+
+    @Param({"3"})
+    public int formateursParSession;
+
+    // Comme Spring Boot : module java.time, dates en ISO-8601
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    private List<User> formateurs;
+    private SessionController sessionController;
+    private AdminController adminController;
+
+    @Setup
+    public void setUp() {
+        // Niveau de production : sans configuration, logback est en DEBUG et les logs par ligne fausseraient la mesure
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.example.gestionpaimentback")).setLevel(Level.INFO);
+
+        Role formateur = new Role(Role.ERole.ROLE_FORMATEUR);
+        Role coordinateur = new Role(Role.ERole.ROLE_COORDINATEUR);
+        int nbFormateurs = Math.max(1, sessions / 2);
+        formateurs = new ArrayList<>(nbFormateurs);
+        for (int i = 0; i < nbFormateurs; i++) {
+            User user = new User("Prénom" + i, "Nom" + i, "formateur" + i + "@test.tn", "$2a$10$hash");
+            user.setId((long) i + 1);
+            user.setStatus(1);
+            user.setRoles(i % 10 == 0 ? Set.of(formateur, coordinateur) : Set.of(formateur));
+            formateurs.add(user);
+        }
+        List<Session> liste = new ArrayList<>(sessions);
+        LocalDate debut = LocalDate.of(2025, 9, 1);
+        for (int i = 0; i < sessions; i++) {
+            Session session = new Session((long) i + 1, "Classe " + i, "Informatique", "2025", "L" + (i % 3 + 1),
+                    "S" + (i % 2 + 1), debut.plusWeeks(i % 40), debut.plusWeeks(i % 40 + 4));
+            for (int f = 0; f < formateursParSession; f++) {
+                session.getFormateurs().add(formateurs.get((i + f * 7) % nbFormateurs));
+            }
+            liste.add(session);
+        }
+
+        PhaseMetrics phaseMetrics = new PhaseMetrics(new SimpleMeterRegistry(), 1, 30_000);
+        LogSampler logSampler = new LogSampler();
+
+        // Résultats des deux requêtes de SessionService.listerSessions, servis par un faux repository
+        List<SessionDTO> dtos = new ArrayList<>(liste.size());
+        List<SessionFormateurRow> lignes = new ArrayList<>();
+        for (Session session : liste) {
+            dtos.add(new SessionDTO(session.getIdSession(), session.getClasse(), session.getSpecialite(),
+                    session.getPromotion(), session.getNiveau(), session.getSemestre(), session.getDateD(), session.getDateF()));
+            for (User user : session.getFormateurs()) {
+                lignes.add(new SessionFormateurRow(session.getIdSession(), user.getId(), user.getFirstName(),
+                        user.getLastName(), user.getEmail()));
+            }
+        }
+        SessionRepository repository = (SessionRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{SessionRepository.class}, (proxy, methode, arguments) -> switch (methode.getName()) {
+                    case "findSessionDTOs" -> dtos;
+                    case "findAllFormateurRows" -> lignes;
+                    default -> throw new UnsupportedOperationException(methode.getName());
+                });
+        SessionService sessionService = new SessionService();
+        ReflectionTestUtils.setField(sessionService, "sessionRepository", repository);
+        ReflectionTestUtils.setField(sessionService, "phaseMetrics", phaseMetrics);
+        sessionController = new SessionController();
+        ReflectionTestUtils.setField(sessionController, "sessionService", sessionService);
+
+        AdminService adminService = new AdminService() {
+            @Override
+            public List<User> getFormateurs() {
+                return formateurs;
+            }
+        };
+        adminController = new AdminController(adminService, null, null, null, null, null, null, null, logSampler);
+    }
+
+    @Benchmark
+    public UserDetailsImpl userDetailsBuild() {
+        return UserDetailsImpl.build(formateurs.get(ThreadLocalRandom.current().nextInt(formateurs.size())));
+    }
+
+    @Benchmark
+    public Object sessionsMapping() {
+        return sessionController.getAllSessions(null, null, false, null).getBody();
+    }
+
+    @Benchmark
+    public byte[] sessionsJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(sessionController.getAllSessions(null, null, false, null).getBody());
+    }
+
+    @Benchmark
+    public Object formateursMapping() {
+        return adminController.getFormateurs().getBody();
+    }
+
+    @Benchmark
+    public byte[] formateursJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(adminController.getFormateurs().getBody());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.dto.AffectationsBatchRequest;
+import com.example.gestionpaimentback.service.SessionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Affecter <sessions> x <parSession> couples session / formateur (H2 en mémoire, sans HTTP) :
+// - unitaire : SessionService.assignerFormateur par couple (POST /api/sessions/{id}/affecter)
+// - lot : SessionService.appliquerAffectations en une requête (POST /api/sessions/affectations)
+// Requêtes : instructions préparées par Hibernate (le lot passe en plus par JDBC : INSERT par paquets de 1000)
+// Ex. : java -Xmx2g -Dsessions=2000 -cp target/benchmarks.jar \
+//           com.example.gestionpaimentback.benchmark.MesureAffectations
+public class MesureAffectations {
+
+    private static final int SESSIONS = Integer.getInteger("sessions", 2000);
+    private static final int PAR_SESSION = Integer.getInteger("parSession", 3);
+    private static final int FORMATEURS = 500;
+    private static final int REPETITIONS = Integer.getInteger("repetitions", 3);
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-affectations",
+                "--spring.jpa.properties.hibernate.generate_statistics=true");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO users (first_name, last_name, email, password, created_at, status) " +
+                "SELECT CONCAT('Prenom', X), CONCAT('Nom', X), CONCAT('formateur', X, '@test.tn'), " +
+                "'$2a$10$abcdefghijklmnopqrstuuL6xX5h2cV0w8Jm5a1Qd0sN3oYkR8Hm2', CURRENT_TIMESTAMP, 1 " +
+                "FROM SYSTEM_RANGE(0, " + (FORMATEURS - 1) + ")");
+        jdbc.update("INSERT INTO user_roles (user_id, role_id) SELECT u.id, r.id FROM users u, roles r " +
+                "WHERE r.name = 'ROLE_FORMATEUR'");
+        long premierFormateur = jdbc.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        ContexteH2.insererSessions(jdbc, SESSIONS);
+        long premiereSession = jdbc.queryForObject("SELECT MIN(id_session) FROM sessions", Long.class);
+
+        List<AffectationsBatchRequest.Ligne> lignes = new ArrayList<>(SESSIONS);
+        for (int s = 0; s < SESSIONS; s++) {
+            List<Long> formateurIds = new ArrayList<>(PAR_SESSION);
+            for (int f = 0; f < PAR_SESSION; f++) {
+                formateurIds.add(premierFormateur + (s * 7L + f * 101L) % FORMATEURS);
+            }
+            lignes.add(new AffectationsBatchRequest.Ligne(premiereSession + s, formateurIds));
+        }
+        int couples = SESSIONS * PAR_SESSION;
+
+        SessionService sessionService = context.getBean(SessionService.class);
+        Statistics statistiques = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        System.out.printf("%-10s %10s %10s %14s %12s%n", "mode", "couples", "durée", "couples/s", "requêtes");
+        for (int i = 0; i < REPETITIONS; i++) {
+            jdbc.update("DELETE FROM session_formateurs");
+            statistiques.clear();
+            long depart = System.nanoTime();
+            for (AffectationsBatchRequest.Ligne ligne : lignes) {
+                for (Long formateurId : ligne.getFormateurIds()) {
+                    sessionService.assignerFormateur(ligne.getSessionId(), formateurId);
+                }
+            }
+            long unitaire = System.nanoTime() - depart;
+            afficher("unitaire", couples, unitaire, statistiques.getPrepareStatementCount());
+
+            jdbc.update("DELETE FROM session_formateurs");
+            statistiques.clear();
+            depart = System.nanoTime();
+            sessionService.appliquerAffectations(new AffectationsBatchRequest(lignes, List.of()));
+            long lot = System.nanoTime() - depart;
+            afficher("lot", couples, lot, statistiques.getPrepareStatementCount());
+            System.out.printf("accélération x%.0f%n", (double) unitaire / lot);
+        }
+        context.close();
+    }
+
+    private static void afficher(String mode, int couples, long nanos, long requetes) {
+        System.out.printf("%-10s %10d %7.0f ms %14.0f %12d%n", mode, couples, nanos / 1e6, couples / (nanos / 1e9), requetes);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.example.gestionpaimentback.service.SessionService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// <threads> coordinateurs affectent en même temps des formateurs distincts aux mêmes <sessions> sessions
+// (H2 en mémoire, sans HTTP), chaque thread <parThread> formateurs par session :
+// - ancien : findById, ajout à Session.formateurs puis save (merge de la copie détachée, comme avant)
+// - direct : SessionService.assignerFormateur (INSERT ... ON DUPLICATE KEY UPDATE sur session_formateurs)
+// perdus : appels terminés sans erreur dont le couple manque en base ; échecs : exceptions (verrou optimiste)
+// Ex. : java -Dthreads=16 -cp target/benchmarks.jar com.example.gestionpaimentback.benchmark.MesureAffectationsConcurrentes
+public class MesureAffectationsConcurrentes {
+
+    private static final int THREADS = Integer.getInteger("threads", 8);
+    private static final int SESSIONS = Integer.getInteger("sessions", 20);
+    private static final int PAR_THREAD = Integer.getInteger("parThread", 10);
+    private static final int REPETITIONS = Integer.getInteger("repetitions", 3);
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-affectations-concurrentes");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        int formateurs = THREADS * PAR_THREAD;
+        jdbc.update("INSERT INTO users (first_name, last_name, email, password, created_at, status) " +
+                "SELECT CONCAT('Prenom', X), CONCAT('Nom', X), CONCAT('formateur', X, '@test.tn'), " +
+                "'$2a$10$abcdefghijklmnopqrstuuL6xX5h2cV0w8Jm5a1Qd0sN3oYkR8Hm2', CURRENT_TIMESTAMP, 1 " +
+                "FROM SYSTEM_RANGE(0, " + (formateurs - 1) + ")");
+        jdbc.update("INSERT INTO user_roles (user_id, role_id) SELECT u.id, r.id FROM users u, roles r " +
+                "WHERE r.name = 'ROLE_FORMATEUR'");
+        long premierFormateur = jdbc.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        ContexteH2.insererSessions(jdbc, SESSIONS);
+        long premiereSession = jdbc.queryForObject("SELECT MIN(id_session) FROM sessions", Long.class);
+
+        SessionRepository sessionRepository = context.getBean(SessionRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        SessionService sessionService = context.getBean(SessionService.class);
+        Affectation ancien = (sessionId, formateurId) -> {
+            Session session = sessionRepository.findById(sessionId).orElseThrow();
+            User formateur = userRepository.findById(formateurId).orElseThrow();
+            session.getFormateurs().add(formateur);
+            sessionRepository.save(session);
+        };
+        Affectation direct = sessionService::assignerFormateur;
+
+        int couples = SESSIONS * formateurs;
+        System.out.printf("%d threads, %d sessions, %d couples%n", THREADS, SESSIONS, couples);
+        System.out.printf("%-8s %10s %14s %10s %10s%n", "mode", "durée", "couples/s", "perdus", "échecs");
+        for (int i = 0; i < REPETITIONS; i++) {
+            mesurer("ancien", ancien, jdbc, premiereSession, premierFormateur);
+            mesurer("direct", direct, jdbc, premiereSession, premierFormateur);
+        }
+        context.close();
+    }
+
+    private interface Affectation {
+        void affecter(Long sessionId, Long formateurId);
+    }
+
+    private static void mesurer(String mode, Affectation affectation, JdbcTemplate jdbc,
+                                long premiereSession, long premierFormateur) throws Exception {
+        jdbc.update("DELETE FROM session_formateurs");
+        Set<String> reussis = ConcurrentHashMap.newKeySet();
+        AtomicInteger echecs = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> taches = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            long premier = premierFormateur + (long) t * PAR_THREAD;
+            taches.add(pool.submit(() -> {
+                depart.await();
+                // Sessions parcourues dans le même ordre par tous les threads : même session au même moment
+                for (int s = 0; s < SESSIONS; s++) {
+                    for (int f = 0; f < PAR_THREAD; f++) {
+                        long sessionId = premiereSession + s;
+                        long formateurId = premier + f;
+                        try {
+                            affectation.affecter(sessionId, formateurId);
+                            reussis.add(sessionId + ":" + formateurId);
+                        } catch (RuntimeException e) {
+                            echecs.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        long debut = System.nanoTime();
+        depart.countDown();
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        long nanos = System.nanoTime() - debut;
+        pool.shutdown();
+
+        Set<String> enBase = new HashSet<>(jdbc.queryForList(
+                "SELECT CONCAT(session_id, ':', formateur_id) FROM session_formateurs", String.class));
+        reussis.removeAll(enBase);
+        int couples = SESSIONS * THREADS * PAR_THREAD;
+        System.out.printf("%-8s %7.0f ms %14.0f %10d %10d%n", mode, nanos / 1e6, couples / (nanos / 1e9),
+                reussis.size(), echecs.get());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.service.InMemoryVerificationCodeStore;
+import com.example.gestionpaimentback.service.VerificationCodeStore;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Débit émission + vérification d'un code (opérations/s) sur <threads> threads : store JPA (H2 en mémoire)
+// face au store en mémoire (roue temporelle)
+// Ex. : java -Dthreads=8 -DparThread=1000 -cp target/benchmarks.jar \
+//           com.example.gestionpaimentback.benchmark.MesureCodesVerification
+public class MesureCodesVerification {
+
+    private static final int THREADS = Integer.getInteger("threads", 8);
+    private static final int PAR_THREAD = Integer.getInteger("parThread", 1000);
+    private static final int REPETITIONS = Integer.getInteger("repetitions", 3);
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-codes-verification");
+        VerificationCodeStore jpa = context.getBean(VerificationCodeStore.class);
+        InMemoryVerificationCodeStore memoire = new InMemoryVerificationCodeStore(1000, 1024);
+
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            System.out.printf("Codes (émission + vérification) : %.0f ops/s JPA, %.0f ops/s mémoire%n",
+                    mesurer(jpa, "jpa-" + repetition), mesurer(memoire, "mem-" + repetition));
+        }
+        context.close();
+    }
+
+    private static double mesurer(VerificationCodeStore store, String prefixe) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> taches = new ArrayList<>();
+
+        long debut = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            taches.add(pool.submit(() -> {
+                for (int i = 0; i < PAR_THREAD; i++) {
+                    String email = prefixe + "-" + thread + "-" + i + "@test.tn";
+                    store.enregistrer(email, "555555");
+                    if (!store.verifierEtConsommer(email, "555555")) {
+                        throw new IllegalStateException("Code refusé pour " + email);
+                    }
+                }
+            }));
+        }
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        long duree = System.nanoTime() - debut;
+        pool.shutdown();
+
+        return THREADS * PAR_THREAD / (duree / 1e9);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.dto.ConflitPlanning;
+import com.example.gestionpaimentback.service.AffectationIndex;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Conflits de planning sur <sessions> sessions de 4 semaines (réparties sur 40 semaines), <parSession> formateurs
+// chacune parmi <formateurs> (H2 en mémoire, sans HTTP) :
+// - contrôle d'une affectation : IntervalTree du formateur contre requête SQL (sessions du formateur qui chevauchent)
+// - liste complète : un passage sur les plannings contre auto-jointure SQL
+// Ex. : java -Xmx2g -Dsessions=200000 -cp target/benchmarks.jar \
+//           com.example.gestionpaimentback.benchmark.MesureConflitsPlanning
+public class MesureConflitsPlanning {
+
+    private static final int SESSIONS = Integer.getInteger("sessions", 100_000);
+    private static final int PAR_SESSION = Integer.getInteger("parSession", 3);
+    private static final int FORMATEURS = Integer.getInteger("formateurs", 5000);
+    private static final int CONTROLES = Integer.getInteger("controles", 100_000);
+    private static final int REQUETES = Integer.getInteger("requetes", 2000);
+
+    private static final String CHEVAUCHEMENTS = "SELECT s.id_session FROM session_formateurs sf " +
+            "JOIN sessions s ON s.id_session = sf.session_id " +
+            "WHERE sf.formateur_id = ? AND s.id_session <> ? AND s.dated <= ? AND s.datef >= ?";
+    private static final String TOUS_LES_CONFLITS = "SELECT COUNT(*) FROM session_formateurs a " +
+            "JOIN session_formateurs b ON b.formateur_id = a.formateur_id AND b.session_id < a.session_id " +
+            "JOIN sessions sa ON sa.id_session = a.session_id JOIN sessions sb ON sb.id_session = b.session_id " +
+            "WHERE sa.dated <= sb.datef AND sb.dated <= sa.datef";
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-conflits-planning");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO users (first_name, last_name, email, password, created_at, status) " +
+                "SELECT CONCAT('Prenom', X), CONCAT('Nom', X), CONCAT('formateur', X, '@test.tn'), " +
+                "'$2a$10$abcdefghijklmnopqrstuuL6xX5h2cV0w8Jm5a1Qd0sN3oYkR8Hm2', CURRENT_TIMESTAMP, 1 " +
+                "FROM SYSTEM_RANGE(0, " + (FORMATEURS - 1) + ")");
+        long premierFormateur = jdbc.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        ContexteH2.insererSessions(jdbc, SESSIONS);
+        long premiereSession = jdbc.queryForObject("SELECT MIN(id_session) FROM sessions", Long.class);
+        for (int f = 0; f < PAR_SESSION; f++) {
+            jdbc.update("INSERT INTO session_formateurs (session_id, formateur_id) " +
+                    "SELECT s.id_session, ? + MOD(s.id_session * 7 + ?, ?) FROM sessions s",
+                    premierFormateur, f * 101L, FORMATEURS);
+        }
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_sf_formateur ON session_formateurs (formateur_id, session_id)");
+
+        AffectationIndex index = context.getBean(AffectationIndex.class);
+        index.reconstruire();
+        Map<String, Object> statistiques = index.getStatistiques();
+        System.out.printf("couples %s, sessions datées %s, reconstruction %s ms%n", statistiques.get("couples"),
+                statistiques.get("sessionsDatees"), statistiques.get("derniereReconstructionMs"));
+
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        for (int repetition = 0; repetition < 3; repetition++) {
+            long trouves = 0;
+            long depart = System.nanoTime();
+            for (int i = 0; i < CONTROLES; i++) {
+                trouves += index.conflits(premiereSession + aleatoire.nextInt(SESSIONS),
+                        premierFormateur + aleatoire.nextInt(FORMATEURS)).size();
+            }
+            afficher("contrôle index", System.nanoTime() - depart, CONTROLES, trouves);
+
+            trouves = 0;
+            depart = System.nanoTime();
+            for (int i = 0; i < REQUETES; i++) {
+                long sessionId = premiereSession + aleatoire.nextInt(SESSIONS);
+                Map<String, Object> periode = jdbc.queryForMap("SELECT dated, datef FROM sessions WHERE id_session = ?", sessionId);
+                trouves += jdbc.queryForList(CHEVAUCHEMENTS, Long.class, premierFormateur + aleatoire.nextInt(FORMATEURS),
+                        sessionId, periode.get("datef"), periode.get("dated")).size();
+            }
+            afficher("contrôle SQL", System.nanoTime() - depart, REQUETES, trouves);
+        }
+
+        for (int repetition = 0; repetition < 2; repetition++) {
+            List<ConflitPlanning> conflits = new ArrayList<>();
+            long depart = System.nanoTime();
+            long total = index.tousLesConflits(10_000, conflits);
+            System.out.printf("liste index : %d conflits en %.0f ms%n", total, (System.nanoTime() - depart) / 1e6);
+
+            depart = System.nanoTime();
+            long totalSql = jdbc.queryForObject(TOUS_LES_CONFLITS, Long.class);
+            System.out.printf("liste SQL   : %d conflits en %.0f ms%n", totalSql, (System.nanoTime() - depart) / 1e6);
+        }
+        context.close();
+    }
+
+    private static void afficher(String mesure, long nanos, int nombre, long trouves) {
+        System.out.printf("%-16s %10.2f µs  (%.1f conflits en moyenne)%n", mesure, nanos / 1e3 / nombre, (double) trouves / nombre);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.service.SmtpTransportPool;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+// Débit SMTP en messages/s vers un GreenMail local : JavaMailSender.send (une connexion par email) face à
+// SmtpTransportPool (une connexion empruntée pour <messages> envois)
+// Ex. : java -Dmessages=500 -cp target/benchmarks.jar com.example.gestionpaimentback.benchmark.MesureEnvoiSmtp
+public class MesureEnvoiSmtp {
+
+    private static final int MESSAGES = Integer.getInteger("messages", 200);
+    private static final int REPETITIONS = Integer.getInteger("repetitions", 3);
+    private static final int PORT = 3025;
+
+    public static void main(String[] args) throws Exception {
+        GreenMail greenMail = new GreenMail(new ServerSetup(PORT, null, ServerSetup.PROTOCOL_SMTP))
+                .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+        greenMail.start();
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-envoi-smtp",
+                "--spring.mail.properties.mail.smtp.auth=false",
+                "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                "--spring.mail.properties.mail.smtp.starttls.required=false");
+        JavaMailSenderImpl mailSender = context.getBean(JavaMailSenderImpl.class);
+        SmtpTransportPool transportPool = context.getBean(SmtpTransportPool.class);
+
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            long debut = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                SimpleMailMessage message = new SimpleMailMessage();
+                message.setTo("formateur" + i + "@test.tn");
+                message.setSubject("Code " + i);
+                message.setText("Ton code de vérification est : " + (100000 + i));
+                mailSender.send(message);
+            }
+            double unitaire = MESSAGES / ((System.nanoTime() - debut) / 1e9);
+
+            debut = System.nanoTime();
+            try (SmtpTransportPool.Connexion connexion = transportPool.emprunter()) {
+                for (int i = 0; i < MESSAGES; i++) {
+                    MimeMessage message = mailSender.createMimeMessage();
+                    MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+                    helper.setTo("formateur" + i + "@test.tn");
+                    helper.setSubject("Code " + i);
+                    helper.setText("Ton code de vérification est : " + (100000 + i));
+                    connexion.envoyer(message);
+                }
+            }
+            double pool = MESSAGES / ((System.nanoTime() - debut) / 1e9);
+
+            System.out.printf("SMTP : %.0f msg/s par envoi unitaire, %.0f msg/s via le pool%n", unitaire, pool);
+        }
+        context.close();
+        greenMail.stop();
+    }
+}
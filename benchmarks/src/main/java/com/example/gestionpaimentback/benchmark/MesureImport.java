@@ -0,0 +1,108 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.example.gestionpaimentback.service.SessionImportService;
+import com.example.gestionpaimentback.service.SessionService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+// POST /api/sessions/import sans HTTP (H2 en mémoire) : lignes par seconde pour <sessions> sessions à 2 formateurs,
+// en CSV et en JSON Lines, face à la création une par une (SessionService.createSession, <unitaires> sessions)
+// Ex. : java -Xmx2g -Dsessions=100000 -cp target/benchmarks.jar \
+//           com.example.gestionpaimentback.benchmark.MesureImport
+public class MesureImport {
+
+    private static final int SESSIONS = Integer.getInteger("sessions", 100_000);
+    private static final int UNITAIRES = Integer.getInteger("unitaires", 5_000);
+    private static final int FORMATEURS = 1000;
+    private static final int REPETITIONS = Integer.getInteger("repetitions", 3);
+
+    public static void main(String[] args) throws IOException {
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-import");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO users (first_name, last_name, email, password, created_at, status) " +
+                "SELECT CONCAT('Prenom', X), CONCAT('Nom', X), CONCAT('formateur', X, '@test.tn'), " +
+                "'$2a$10$abcdefghijklmnopqrstuuL6xX5h2cV0w8Jm5a1Qd0sN3oYkR8Hm2', CURRENT_TIMESTAMP, 1 " +
+                "FROM SYSTEM_RANGE(0, " + (FORMATEURS - 1) + ")");
+        jdbc.update("INSERT INTO user_roles (user_id, role_id) SELECT u.id, r.id FROM users u, roles r " +
+                "WHERE r.name = 'ROLE_FORMATEUR'");
+        long premierId = jdbc.queryForObject("SELECT MIN(id) FROM users", Long.class);
+
+        byte[] csv = fichier(premierId, false);
+        byte[] jsonl = fichier(premierId, true);
+        SessionImportService importService = context.getBean(SessionImportService.class);
+        SessionService sessionService = context.getBean(SessionService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        System.out.printf("%-12s %10s %10s %14s%n", "mode", "lignes", "durée", "lignes/s");
+        for (int i = 0; i < REPETITIONS; i++) {
+            importer("csv", importService, csv, SessionImportService.Format.CSV);
+            importer("jsonl", importService, jsonl, SessionImportService.Format.JSONL);
+
+            // Chemin de POST /api/sessions + affectation : une entité, un save (IDENTITY) par session
+            User a = userRepository.findById(premierId).orElseThrow();
+            User b = userRepository.findById(premierId + 1).orElseThrow();
+            LocalDate debut = LocalDate.of(2025, 9, 1);
+            long depart = System.nanoTime();
+            for (int s = 0; s < UNITAIRES; s++) {
+                Session session = new Session(null, "Unitaire " + s, "Informatique", "2025", "L1", "S1",
+                        debut, debut.plusWeeks(12));
+                session.getFormateurs().add(a);
+                session.getFormateurs().add(b);
+                sessionService.createSession(session);
+            }
+            afficher("unitaire", UNITAIRES, System.nanoTime() - depart);
+        }
+        context.close();
+    }
+
+    private static void importer(String mode, SessionImportService service, byte[] contenu,
+                                 SessionImportService.Format format) throws IOException {
+        long depart = System.nanoTime();
+        Map<String, Object> bilan;
+        try (SessionImportService.SourceImport source = service.ouvrir(new ByteArrayInputStream(contenu), format)) {
+            bilan = service.importer(source, evenement -> {});
+        }
+        afficher(mode, ((Number) bilan.get("importees")).longValue(), System.nanoTime() - depart);
+    }
+
+    private static void afficher(String mode, long lignes, long nanos) {
+        System.out.printf("%-12s %10d %7.0f ms %14.0f%n", mode, lignes, nanos / 1e6, lignes / (nanos / 1e9));
+    }
+
+    private static byte[] fichier(long premierId, boolean jsonl) {
+        StringBuilder contenu = new StringBuilder(SESSIONS * 100);
+        if (!jsonl) {
+            contenu.append("classe;specialite;promotion;niveau;semestre;dateD;dateF;formateurIds\n");
+        }
+        LocalDate debut = LocalDate.of(2025, 9, 1);
+        for (int i = 0; i < SESSIONS; i++) {
+            LocalDate dateD = debut.plusWeeks(i % 40);
+            long f1 = premierId + i % FORMATEURS;
+            long f2 = premierId + (i * 7 + 101) % FORMATEURS;
+            if (f2 == f1) {
+                f2 = premierId + (f1 - premierId + 1) % FORMATEURS;
+            }
+            if (jsonl) {
+                contenu.append("{\"classe\":\"Classe ").append(i).append("\",\"specialite\":\"Informatique\",")
+                        .append("\"promotion\":\"2025\",\"niveau\":\"L").append(i % 3 + 1).append("\",\"semestre\":\"S")
+                        .append(i % 2 + 1).append("\",\"dateD\":\"").append(dateD).append("\",\"dateF\":\"")
+                        .append(dateD.plusWeeks(4)).append("\",\"formateurIds\":[").append(f1).append(',').append(f2)
+                        .append("]}\n");
+            } else {
+                contenu.append("Classe ").append(i).append(";Informatique;2025;L").append(i % 3 + 1).append(";S")
+                        .append(i % 2 + 1).append(';').append(dateD).append(';').append(dateD.plusWeeks(4)).append(';')
+                        .append(f1).append('|').append(f2).append('\n');
+            }
+        }
+        return contenu.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.service.AffectationIndex;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Empreinte mémoire et latence de AffectationIndex pour <sessions> x <parSession> affectations (1 million par défaut)
+// sur <formateurs> formateurs (H2 en mémoire, sans HTTP) :
+// - reconstruction depuis session_formateurs, octets des bitmaps et tas occupé après GC
+// - check-formateur et identifiants des sessions d'un formateur : index contre requêtes JPA
+// Ex. : java -Xmx2g -Dsessions=200000 -cp target/benchmarks.jar \
+//           com.example.gestionpaimentback.benchmark.MesureIndexAffectations
+public class MesureIndexAffectations {
+
+    private static final int SESSIONS = Integer.getInteger("sessions", 100_000);
+    private static final int PAR_SESSION = Integer.getInteger("parSession", 10);
+    private static final int FORMATEURS = Integer.getInteger("formateurs", 5000);
+    private static final int LECTURES = Integer.getInteger("lectures", 200_000);
+    private static final int REQUETES = Integer.getInteger("requetes", 5000);
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-index-affectations");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO users (first_name, last_name, email, password, created_at, status) " +
+                "SELECT CONCAT('Prenom', X), CONCAT('Nom', X), CONCAT('formateur', X, '@test.tn'), " +
+                "'$2a$10$abcdefghijklmnopqrstuuL6xX5h2cV0w8Jm5a1Qd0sN3oYkR8Hm2', CURRENT_TIMESTAMP, 1 " +
+                "FROM SYSTEM_RANGE(0, " + (FORMATEURS - 1) + ")");
+        long premierFormateur = jdbc.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        ContexteH2.insererSessions(jdbc, SESSIONS);
+        long premiereSession = jdbc.queryForObject("SELECT MIN(id_session) FROM sessions", Long.class);
+        // f * 101 < FORMATEURS : formateurs distincts pour une même session
+        for (int f = 0; f < PAR_SESSION; f++) {
+            jdbc.update("INSERT INTO session_formateurs (session_id, formateur_id) " +
+                    "SELECT s.id_session, ? + MOD(s.id_session * 7 + ?, ?) FROM sessions s",
+                    premierFormateur, f * 101L, FORMATEURS);
+        }
+
+        AffectationIndex index = context.getBean(AffectationIndex.class);
+        SessionRepository sessionRepository = context.getBean(SessionRepository.class);
+        long tasAvant = tasOccupe();
+        index.reconstruire();
+        long tas = tasOccupe() - tasAvant;
+        Map<String, Object> statistiques = index.getStatistiques();
+        long couples = (Long) statistiques.get("couples");
+        long octets = (Long) statistiques.get("octets");
+        System.out.printf("couples %d, sessions %s, formateurs %s, reconstruction %s ms%n", couples,
+                statistiques.get("sessions"), statistiques.get("formateurs"), statistiques.get("derniereReconstructionMs"));
+        System.out.printf("bitmaps %.1f Mo (%.1f octets / couple), tas après GC %.1f Mo (%.1f octets / couple)%n",
+                octets / 1e6, (double) octets / couples, tas / 1e6, (double) tas / couples);
+
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        System.out.printf("%-28s %14s%n", "lecture", "moyenne");
+        for (int repetition = 0; repetition < 3; repetition++) {
+            long trouves = 0;
+            long depart = System.nanoTime();
+            for (int i = 0; i < LECTURES; i++) {
+                if (index.contient(premiereSession + aleatoire.nextInt(SESSIONS), premierFormateur + aleatoire.nextInt(FORMATEURS))) {
+                    trouves++;
+                }
+            }
+            afficher("index check-formateur", System.nanoTime() - depart, LECTURES);
+
+            depart = System.nanoTime();
+            for (int i = 0; i < LECTURES; i++) {
+                trouves += index.sessionsDuFormateur(premierFormateur + aleatoire.nextInt(FORMATEURS)).size();
+            }
+            afficher("index sessions du formateur", System.nanoTime() - depart, LECTURES);
+
+            depart = System.nanoTime();
+            for (int i = 0; i < REQUETES; i++) {
+                if (sessionRepository.isFormateurInSession(premiereSession + aleatoire.nextInt(SESSIONS),
+                        premierFormateur + aleatoire.nextInt(FORMATEURS))) {
+                    trouves++;
+                }
+            }
+            afficher("requête check-formateur", System.nanoTime() - depart, REQUETES);
+
+            depart = System.nanoTime();
+            for (int i = 0; i < REQUETES; i++) {
+                trouves += sessionRepository.findSessionIdsByFormateurId(premierFormateur + aleatoire.nextInt(FORMATEURS)).size();
+            }
+            afficher("requête sessions du formateur", System.nanoTime() - depart, REQUETES);
+            System.out.println("contrôle " + trouves);
+        }
+        context.close();
+    }
+
+    private static long tasOccupe() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void afficher(String lecture, long nanos, int nombre) {
+        System.out.printf("%-28s %11.2f µs%n", lecture, nanos / 1e3 / nombre);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.SessionSpecifications;
+import com.example.gestionpaimentback.service.SessionCalendrierIndex;
+import com.example.gestionpaimentback.service.SessionService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Sessions en cours sur une semaine : <parSemaine> sessions de 4 semaines commencent chaque semaine, sur <annees>
+// années d'historique (H2 en mémoire, sans HTTP). Identifiants lus dans SessionCalendrierIndex,
+// GET /active (index puis IN), requête SQL de chevauchement, et nombre de sessions par jour sur 5 semaines.
+// Même nombre de sessions par semaine quel que soit <annees> : seule la taille de la table change
+// Ex. : java -Xmx2g -Dannees=8 -cp target/benchmarks.jar \
+//           com.example.gestionpaimentback.benchmark.MesureSessionsActives
+public class MesureSessionsActives {
+
+    private static final int PAR_SEMAINE = Integer.getInteger("parSemaine", 200);
+    private static final int ANNEES = Integer.getInteger("annees", 2);
+    private static final int LECTURES = Integer.getInteger("lectures", 20_000);
+    private static final int REQUETES = Integer.getInteger("requetes", 500);
+    private static final LocalDate ORIGINE = LocalDate.of(2020, 1, 6);
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-sessions-actives");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        int semaines = 52 * ANNEES;
+        int sessions = PAR_SEMAINE * semaines;
+        jdbc.update("INSERT INTO sessions (classe, specialite, promotion, niveau, semestre, dated, datef) " +
+                "SELECT CONCAT('Classe ', X), 'Informatique', '2025', 'L1', 'S1', " +
+                "DATEADD('WEEK', MOD(X, " + semaines + "), DATE '" + ORIGINE + "'), " +
+                "DATEADD('DAY', 27, DATEADD('WEEK', MOD(X, " + semaines + "), DATE '" + ORIGINE + "')) " +
+                "FROM SYSTEM_RANGE(0, " + (sessions - 1) + ")");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_sessions_dated ON sessions (dated, datef)");
+
+        SessionCalendrierIndex index = context.getBean(SessionCalendrierIndex.class);
+        SessionRepository sessionRepository = context.getBean(SessionRepository.class);
+        SessionService sessionService = context.getBean(SessionService.class);
+        index.reconstruire();
+        System.out.printf("sessions datées %s sur %d semaines, reconstruction %s ms%n",
+                index.getStatistiques().get("sessionsDatees"), semaines, index.getStatistiques().get("derniereReconstructionMs"));
+
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        for (int repetition = 0; repetition < 3; repetition++) {
+            long trouves = 0;
+            long depart = System.nanoTime();
+            for (int i = 0; i < LECTURES; i++) {
+                LocalDate du = ORIGINE.plusDays(aleatoire.nextInt(semaines * 7));
+                trouves += index.sessionsActives(du, du.plusDays(6)).size();
+            }
+            afficher("index semaine", System.nanoTime() - depart, LECTURES, trouves);
+
+            trouves = 0;
+            depart = System.nanoTime();
+            int[] parJour = new int[35];
+            for (int i = 0; i < LECTURES; i++) {
+                trouves += index.sessionsActivesParJour(ORIGINE.plusDays(aleatoire.nextInt(semaines * 7)), parJour);
+            }
+            afficher("index par jour", System.nanoTime() - depart, LECTURES, trouves);
+
+            trouves = 0;
+            depart = System.nanoTime();
+            for (int i = 0; i < REQUETES; i++) {
+                LocalDate du = ORIGINE.plusDays(aleatoire.nextInt(semaines * 7));
+                trouves += sessionRepository.findSessionDTOs(SessionSpecifications.actives(du, du.plusDays(6)),
+                        Sort.Direction.ASC, null).size();
+            }
+            afficher("SQL semaine", System.nanoTime() - depart, REQUETES, trouves);
+
+            trouves = 0;
+            depart = System.nanoTime();
+            for (int i = 0; i < REQUETES; i++) {
+                LocalDate du = ORIGINE.plusDays(aleatoire.nextInt(semaines * 7));
+                trouves += sessionService.getSessionsActives(du, du.plusDays(6)).size();
+            }
+            afficher("GET /active", System.nanoTime() - depart, REQUETES, trouves);
+        }
+        context.close();
+    }
+
+    private static void afficher(String mesure, long nanos, int nombre, long trouves) {
+        System.out.printf("%-16s %10.2f µs  (%.0f sessions en moyenne)%n", mesure, nanos / 1e3 / nombre, (double) trouves / nombre);
+    }
+}
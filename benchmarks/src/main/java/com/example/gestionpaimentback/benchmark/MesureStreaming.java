@@ -0,0 +1,129 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.dto.SessionFilter;
+import com.example.gestionpaimentback.service.SessionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// GET /api/sessions complet vs ?stream=true sur un gros volume (H2 en mémoire), sans HTTP :
+// - premier octet : délai avant la première écriture sur la sortie
+// - total : durée jusqu'au dernier octet
+// - tas vivant max : tas occupé après GC, maximum sur la requête, moins l'occupation avant (base H2 comprise)
+// Ex. : java -Xmx3g -Dsessions=500000 -cp target/benchmarks.jar \
+//           com.example.gestionpaimentback.benchmark.MesureStreaming
+public class MesureStreaming {
+
+    private static final int SESSIONS = Integer.getInteger("sessions", 500_000);
+    private static final int FORMATEURS = Integer.getInteger("formateurs", 1000);
+    private static final int FORMATEURS_PAR_SESSION = 2;
+    private static final int REPETITIONS = Integer.getInteger("repetitions", 3);
+
+    private static final AtomicLong tasApresGcMax = new AtomicLong();
+
+    public static void main(String[] args) throws IOException {
+        ConfigurableApplicationContext context = ContexteH2.demarrer("mesure-streaming");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        System.out.println("Insertion de " + SESSIONS + " sessions, " + FORMATEURS_PAR_SESSION + " formateurs chacune...");
+        jdbc.update("INSERT INTO users (first_name, last_name, email, password, created_at, status) " +
+                "SELECT CONCAT('Prenom', X), CONCAT('Nom', X), CONCAT('formateur', X, '@test.tn'), " +
+                "'$2a$10$abcdefghijklmnopqrstuuL6xX5h2cV0w8Jm5a1Qd0sN3oYkR8Hm2', CURRENT_TIMESTAMP, 1 " +
+                "FROM SYSTEM_RANGE(0, " + (FORMATEURS - 1) + ")");
+        long premierId = jdbc.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        ContexteH2.insererSessions(jdbc, SESSIONS);
+        for (int f = 0; f < FORMATEURS_PAR_SESSION; f++) {
+            jdbc.update("INSERT INTO session_formateurs (session_id, formateur_id) " +
+                    "SELECT s.id_session, ? + MOD(s.id_session * 7 + ?, ?) FROM sessions s",
+                    premierId, f * 101L, FORMATEURS);
+        }
+
+        SessionService sessionService = context.getBean(SessionService.class);
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        ecouterGc();
+
+        System.out.printf("%-10s %16s %12s %14s %18s%n", "mode", "premier octet", "total", "octets", "tas vivant max");
+        for (int i = 0; i < REPETITIONS; i++) {
+            mesurer("liste", sortie -> {
+                List<SessionDTO> sessions = sessionService.listerSessions();
+                objectMapper.writeValue(sortie, sessions);
+            });
+            mesurer("streaming", sortie -> sessionService.ecrireSessionsJson(new SessionFilter(), sortie));
+        }
+        context.close();
+    }
+
+    private interface Ecriture {
+        void ecrire(OutputStream sortie) throws IOException;
+    }
+
+    private static void mesurer(String mode, Ecriture ecriture) throws IOException {
+        System.gc();
+        long base = tasUtilise();
+        tasApresGcMax.set(base);
+        SortieComptee sortie = new SortieComptee();
+        long debut = System.nanoTime();
+        ecriture.ecrire(sortie);
+        long fin = System.nanoTime();
+        System.out.printf("%-10s %13.1f ms %9.0f ms %14d %15d Mo%n", mode,
+                (sortie.premierOctet - debut) / 1e6, (fin - debut) / 1e6, sortie.octets,
+                Math.max(0, tasApresGcMax.get() - base) / (1024 * 1024));
+    }
+
+    private static long tasUtilise() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Après chaque GC : somme des zones du tas occupées, c.-à-d. les objets encore vivants
+    private static void ecouterGc() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notification, contexte) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                long apres = info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+                        .filter(zone -> !zone.getKey().contains("Metaspace") && !zone.getKey().contains("Code")
+                                && !zone.getKey().contains("Class"))
+                        .map(Map.Entry::getValue).mapToLong(MemoryUsage::getUsed).sum();
+                tasApresGcMax.accumulateAndGet(apres, Math::max);
+            }, null, null);
+        }
+    }
+
+    private static final class SortieComptee extends OutputStream {
+        private long octets;
+        private long premierOctet;
+
+        @Override
+        public void write(int b) {
+            marquer();
+            octets++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            marquer();
+            octets += len;
+        }
+
+        private void marquer() {
+            if (premierOctet == 0) {
+                premierOctet = System.nanoTime();
+            }
+        }
+    }
+}
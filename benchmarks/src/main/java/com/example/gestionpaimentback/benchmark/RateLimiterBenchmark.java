@@ -0,0 +1,46 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.security.TokenBucketLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Coût de TokenBucketLimiter.tenter() sur le chemin nominal, sous contention (8 threads)
+// - cleChaude : tous les threads sur la même clé (pire cas de CAS)
+// - clesReparties : 10 000 clés (cas réel : un email / une IP par client)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    private static final int NB_CLES = 10_000;
+
+    private TokenBucketLimiter limiter;
+    private String[] cles;
+
+    @Setup
+    public void setUp() {
+        // 1 milliard de jetons par heure : toutes les tentatives sont accordées (chemin nominal)
+        limiter = new TokenBucketLimiter(1_000_000_000, Duration.ofHours(1).toNanos(), 16, 100_000);
+        cles = new String[NB_CLES];
+        for (int i = 0; i < NB_CLES; i++) {
+            cles[i] = "formateur" + i + "@test.tn";
+        }
+    }
+
+    @Benchmark
+    public long cleChaude() {
+        return limiter.tenter("formateur0@test.tn");
+    }
+
+    @Benchmark
+    public long clesReparties() {
+        return limiter.tenter(cles[ThreadLocalRandom.current().nextInt(NB_CLES)]);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.gestionpaimentback.benchmark;
+
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.example.gestionpaimentback.service.SessionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Latence des requêtes des repositories (JPA réel, H2 embarqué en mode MySQL) sur un volume réaliste :
+// <utilisateurs> comptes (90 % formateurs, 8 % coordinateurs, 2 % admins), <sessions> sessions,
+// 3 formateurs par session. Données insérées en SQL après création du schéma par Hibernate.
+// Ex. : java -jar target/benchmarks.jar Repository -p utilisateurs=20000 -rf json -rff target/jmh/repository.json
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RepositoryBenchmark {
+
+    private static final int FORMATEURS_PAR_SESSION = 3;
+
+    @Param({"5000"})
+    public int utilisateurs;
+
+    @Param({"2000"})
+    public int sessions;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private SessionRepository sessionRepository;
+    private SessionService sessionService;
+    private int nbFormateurs;
+    private long premierId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ContexteH2.demarrer("bench-repo");
+        userRepository = context.getBean(UserRepository.class);
+        sessionRepository = context.getBean(SessionRepository.class);
+        sessionService = context.getBean(SessionService.class);
+        initialiserDonnees(context.getBean(JdbcTemplate.class));
+    }
+
+    private void initialiserDonnees(JdbcTemplate jdbc) {
+        nbFormateurs = utilisateurs * 90 / 100;
+        int nbCoordinateurs = utilisateurs * 8 / 100;
+
+        jdbc.update("INSERT INTO users (first_name, last_name, email, password, created_at, status) " +
+                "SELECT CONCAT('Prenom', X), CONCAT('Nom', X), CONCAT('utilisateur', X, '@test.tn'), " +
+                "'$2a$10$abcdefghijklmnopqrstuuL6xX5h2cV0w8Jm5a1Qd0sN3oYkR8Hm2', CURRENT_TIMESTAMP, 1 " +
+                "FROM SYSTEM_RANGE(0, " + (utilisateurs - 1) + ")");
+        premierId = jdbc.queryForObject("SELECT MIN(id) FROM users", Long.class);
+
+        // Utilisateurs [0, nbFormateurs) : formateurs, puis coordinateurs, puis admins
+        jdbc.update("INSERT INTO user_roles (user_id, role_id) SELECT u.id, r.id FROM users u, roles r " +
+                "WHERE r.name = CASE WHEN u.id - ? < ? THEN ? WHEN u.id - ? < ? THEN ? ELSE ? END",
+                premierId, nbFormateurs, Role.ERole.ROLE_FORMATEUR.name(),
+                premierId, nbFormateurs + nbCoordinateurs, Role.ERole.ROLE_COORDINATEUR.name(),
+                Role.ERole.ROLE_ADMIN.name());
+
+        ContexteH2.insererSessions(jdbc, sessions);
+        for (int f = 0; f < FORMATEURS_PAR_SESSION; f++) {
+            jdbc.update("INSERT INTO session_formateurs (session_id, formateur_id) " +
+                    "SELECT s.id_session, ? + MOD(s.id_session * 7 + ?, ?) FROM sessions s",
+                    premierId, f * 101L, nbFormateurs);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private int formateurAleatoire() {
+        return ThreadLocalRandom.current().nextInt(nbFormateurs);
+    }
+
+    @Benchmark
+    public List<UserRepository.LoginRow> findLoginRowsByEmail() {
+        return userRepository.findLoginRowsByEmail("utilisateur" + formateurAleatoire() + "@test.tn");
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmail("utilisateur" + formateurAleatoire() + "@test.tn");
+    }
+
+    @Benchmark
+    public Boolean existsByEmail() {
+        return userRepository.existsByEmail("utilisateur" + formateurAleatoire() + "@test.tn");
+    }
+
+    @Benchmark
+    public List<Session> findByFormateurId() {
+        return sessionRepository.findByFormateurId(premierId + formateurAleatoire());
+    }
+
+    // /api/admin/formateurs : tous les formateurs et leurs rôles
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<User> findByRolesName() {
+        return userRepository.findByRoles_Name(Role.ERole.ROLE_FORMATEUR);
+    }
+
+    // Ancien chemin de /api/sessions : entités, formateurs et rôles EAGER
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Session> sessionsFindAll() {
+        return sessionRepository.findAll();
+    }
+
+    // /api/sessions : projections SessionDTO + lignes formateur, deux requêtes
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<SessionDTO> sessionsListerDTO() {
+        return sessionService.listerSessions();
+    }
+
+    // /api/sessions/formateur/{id} : projection, une requête
+    @Benchmark
+    public List<SessionDTO> sessionsFormateurDTO() {
+        return sessionService.getSessionsByFormateur(premierId + formateurAleatoire());
+    }
+}
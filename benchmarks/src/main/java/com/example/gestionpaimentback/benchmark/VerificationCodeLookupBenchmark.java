@@ -0,0 +1,86 @@
+package com.example.gestionpaimentback.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Latence des recherches de VerificationCodeRepository sur une table historique volumineuse,
+// avec et sans l'index (email, used, created_at). Base H2 embarquée en mode MySQL.
+// Ex. : java -jar target/benchmarks.jar VerificationCodeLookup -p lignes=10000000
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class VerificationCodeLookupBenchmark {
+
+    private static final int NB_EMAILS = 200_000;
+
+    @Param({"10000000"})
+    public int lignes;
+
+    @Param({"false", "true"})
+    public boolean index;
+
+    private Connection connexion;
+    private PreparedStatement parEmailEtCode;
+    private PreparedStatement dernierActif;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connexion = DriverManager.getConnection("jdbc:h2:mem:codes;MODE=MySQL", "sa", "");
+        try (Statement st = connexion.createStatement()) {
+            st.execute("CREATE TABLE verification_codes (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "email VARCHAR(255) NOT NULL, code VARCHAR(6) NOT NULL, created_at TIMESTAMP NOT NULL, " +
+                    "expires_at TIMESTAMP NOT NULL, used BOOLEAN NOT NULL)");
+            // Historique : quelques codes par email, tous utilisés sauf le plus récent
+            st.execute("INSERT INTO verification_codes (email, code, created_at, expires_at, used) " +
+                    "SELECT CONCAT('formateur', MOD(X, " + NB_EMAILS + "), '@test.tn'), " +
+                    "LPAD(CAST(MOD(X * 7919, 1000000) AS VARCHAR), 6, '0'), " +
+                    "DATEADD('SECOND', X, TIMESTAMP '2020-01-01 00:00:00'), " +
+                    "DATEADD('SECOND', X + 600, TIMESTAMP '2020-01-01 00:00:00'), " +
+                    "X <= " + (lignes - NB_EMAILS) + " FROM SYSTEM_RANGE(1, " + lignes + ")");
+            if (index) {
+                st.execute("CREATE INDEX idx_verification_codes_email_used_created ON verification_codes (email, used, created_at)");
+            }
+        }
+        parEmailEtCode = connexion.prepareStatement(
+                "SELECT id, expires_at FROM verification_codes WHERE email = ? AND code = ? AND used = FALSE");
+        dernierActif = connexion.prepareStatement(
+                "SELECT id, code FROM verification_codes WHERE email = ? AND used = FALSE ORDER BY created_at DESC LIMIT 1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connexion.close();
+    }
+
+    private String emailAleatoire() {
+        return "formateur" + ThreadLocalRandom.current().nextInt(NB_EMAILS) + "@test.tn";
+    }
+
+    @Benchmark
+    public boolean findByEmailAndCodeAndUsedFalse() throws SQLException {
+        parEmailEtCode.setString(1, emailAleatoire());
+        parEmailEtCode.setString(2, "123456");
+        try (ResultSet rs = parEmailEtCode.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    @Benchmark
+    public boolean findTopByEmailAndUsedFalseOrderByCreatedAtDesc() throws SQLException {
+        dernierActif.setString(1, emailAleatoire());
+        try (ResultSet rs = dernierActif.executeQuery()) {
+            return rs.next();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.gestionpaimentback.charge;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Charge en boucle fermée sur un GET authentifié à plusieurs niveaux de concurrence
+// Par niveau : débit, p50 / p99 / max, erreurs et requêtes simultanément en vol
+// Usage : ClientCharge --url=http://localhost:18082 --chemin=/api/sessions/formateur/{id}
+//                      --niveaux=50,200,800 --duree-s=15 --seuil-p99-ms=1000
+// {id} est remplacé par l'id du formateur connecté
+public class ClientCharge {
+
+    private static final Pattern USER_ID = Pattern.compile("\"userId\"\\s*:\\s*(\\d+)");
+    private static final Pattern JSESSIONID = Pattern.compile("JSESSIONID=([^;]+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = lireOptions(args);
+        String url = options.getOrDefault("url", "http://localhost:18082");
+        int[] niveaux = Arrays.stream(options.getOrDefault("niveaux", "50,200,800,2000").split(","))
+                .mapToInt(n -> Integer.parseInt(n.trim())).toArray();
+        Duration duree = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duree-s", "15")));
+        long seuilP99Ms = Long.parseLong(options.getOrDefault("seuil-p99-ms", "1000"));
+        String mode = options.getOrDefault("mode", "?");
+        String chemin = options.getOrDefault("chemin", "/api/sessions/formateur/{id}");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        HttpResponse<String> connexion = client.send(HttpRequest.newBuilder(URI.create(url + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + ServeurCharge.EMAIL_FORMATEUR
+                        + "\",\"password\":\"" + ServeurCharge.MOT_DE_PASSE + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher userId = USER_ID.matcher(connexion.body());
+        Matcher cookie = JSESSIONID.matcher(connexion.headers().firstValue("Set-Cookie").orElse(""));
+        if (connexion.statusCode() != 200 || !userId.find() || !cookie.find()) {
+            throw new IllegalStateException("Connexion impossible : " + connexion.statusCode() + " " + connexion.body());
+        }
+        HttpRequest requete = HttpRequest.newBuilder(URI.create(url + chemin.replace("{id}", userId.group(1))))
+                .header("Cookie", "JSESSIONID=" + cookie.group(1))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        System.out.printf("%-9s %8s %10s %9s %9s %9s %8s %8s%n",
+                "mode", "niveau", "req/s", "p50 ms", "p99 ms", "max ms", "erreurs", "en vol");
+        int concurrenceMax = 0;
+        for (int niveau : niveaux) {
+            Resultat resultat = executer(client, requete, niveau, duree);
+            System.out.printf("%-9s %8d %10.1f %9.1f %9.1f %9.1f %8d %8d%n", mode, niveau,
+                    resultat.debit(), resultat.percentileMs(50), resultat.percentileMs(99), resultat.percentileMs(100),
+                    resultat.erreurs, resultat.enVolMax);
+            if (resultat.erreurs == 0 && resultat.percentileMs(99) <= seuilP99Ms) {
+                concurrenceMax = niveau;
+            }
+        }
+        System.out.println("Concurrence max (0 erreur, p99 <= " + seuilP99Ms + " ms) : " + concurrenceMax);
+    }
+
+    private static Resultat executer(HttpClient client, HttpRequest requete, int niveau, Duration duree)
+            throws InterruptedException {
+        AtomicInteger enVol = new AtomicInteger();
+        LongAccumulator enVolMax = new LongAccumulator(Math::max, 0);
+        AtomicLong erreurs = new AtomicLong();
+        // Chaque thread remplit son propre tableau, publié par countDown()
+        long[][] latences = new long[niveau][];
+        int[] tailles = new int[niveau];
+        CountDownLatch fin = new CountDownLatch(niveau);
+        long debut = System.nanoTime();
+        long limite = debut + duree.toNanos();
+
+        for (int t = 0; t < niveau; t++) {
+            int index = t;
+            Thread thread = new Thread(() -> {
+                long[] tampon = new long[1024];
+                int n = 0;
+                try {
+                    while (System.nanoTime() < limite) {
+                        long depart = System.nanoTime();
+                        enVolMax.accumulate(enVol.incrementAndGet());
+                        try {
+                            HttpResponse<Void> reponse = client.send(requete, HttpResponse.BodyHandlers.discarding());
+                            if (reponse.statusCode() != 200) {
+                                erreurs.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            erreurs.incrementAndGet();
+                        } finally {
+                            enVol.decrementAndGet();
+                        }
+                        if (n == tampon.length) {
+                            tampon = Arrays.copyOf(tampon, n * 2);
+                        }
+                        tampon[n++] = System.nanoTime() - depart;
+                    }
+                } finally {
+                    latences[index] = tampon;
+                    tailles[index] = n;
+                    fin.countDown();
+                }
+            }, "charge-" + t);
+            thread.start();
+        }
+        fin.await();
+        long ecoule = System.nanoTime() - debut;
+
+        int total = 0;
+        for (int taille : tailles) {
+            total += taille;
+        }
+        long[] toutes = new long[total];
+        int position = 0;
+        for (int t = 0; t < niveau; t++) {
+            System.arraycopy(latences[t], 0, toutes, position, tailles[t]);
+            position += tailles[t];
+        }
+        Arrays.sort(toutes);
+        return new Resultat(toutes, ecoule, erreurs.get(), enVolMax.get());
+    }
+
+    private static Map<String, String> lireOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static final class Resultat {
+        private final long[] latencesTriees;
+        private final long dureeNanos;
+        private final long erreurs;
+        private final long enVolMax;
+
+        private Resultat(long[] latencesTriees, long dureeNanos, long erreurs, long enVolMax) {
+            this.latencesTriees = latencesTriees;
+            this.dureeNanos = dureeNanos;
+            this.erreurs = erreurs;
+            this.enVolMax = enVolMax;
+        }
+
+        private double debit() {
+            return latencesTriees.length / (dureeNanos / 1e9);
+        }
+
+        private double percentileMs(int p) {
+            if (latencesTriees.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * latencesTriees.length) - 1;
+            return latencesTriees[Math.max(0, Math.min(index, latencesTriees.length - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.gestionpaimentback.charge;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.TimeUnit;
+
+// Simule l'aller-retour réseau vers MySQL sur la base H2 embarquée : chaque requête SQL
+// bloque le thread appelant -Dcharge.latence-jdbc-ms (0 par défaut)
+public class LatenceReseauInspector implements StatementInspector {
+
+    private static final long LATENCE_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("charge.latence-jdbc-ms", 0));
+
+    @Override
+    public String inspect(String sql) {
+        if (LATENCE_NANOS > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(LATENCE_NANOS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sql;
+    }
+}
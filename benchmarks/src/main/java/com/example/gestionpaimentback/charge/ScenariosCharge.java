@@ -0,0 +1,381 @@
+package com.example.gestionpaimentback.charge;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Charge réaliste sur ServeurCharge : plusieurs populations d'utilisateurs virtuels en parallèle, en boucle fermée
+// - cohorte : première connexion (signin -> code reçu par SMTP -> verify-code -> check-auth), un compte par passage
+// - admins : /api/admin/users puis /api/admin/formateurs
+// - coordinateurs : création d'une session puis affectation d'un formateur (/api/sessions/{id}/affecter)
+// - formateurs : consultation de /api/sessions/formateur/{id}
+// Rapport par endpoint : requêtes, débit, p50 / p90 / p99 / max, erreurs (et --csv=<fichier> pour comparer des runs)
+// Usage : ScenariosCharge --url=http://localhost:18082 --codes-url=http://localhost:18099 --duree-s=60
+//                         --cohorte=10 --admins=2 --coordinateurs=3 --formateurs=20 --pause-ms=0
+//                         --nb-formateurs=50 --nb-coordinateurs=5 --taille-cohorte=1000
+// Les nb-* / taille-cohorte doivent correspondre aux -Dcharge.* du serveur
+public class ScenariosCharge {
+
+    private static final Pattern USER_ID = Pattern.compile("\"userId\"\\s*:\\s*(\\d+)");
+    private static final Pattern ID_SESSION = Pattern.compile("\"idSession\"\\s*:\\s*(\\d+)");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern JSESSIONID = Pattern.compile("JSESSIONID=([^;]+)");
+    private static final String CODE_RECU = "SMTP code reçu (signin -> boîte)";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String url;
+    private final String codesUrl;
+    private final long pauseMs;
+    private final long limite;
+    private final int tailleCohorte;
+    private final AtomicInteger cohorteSuivante = new AtomicInteger();
+    private final Map<String, Mesures> resultats = new TreeMap<>();
+    private List<Long> idsFormateurs;
+
+    private ScenariosCharge(Map<String, String> options, long limite) {
+        this.url = options.getOrDefault("url", "http://localhost:18082");
+        this.codesUrl = options.getOrDefault("codes-url", "http://localhost:18099");
+        this.pauseMs = Long.parseLong(options.getOrDefault("pause-ms", "0"));
+        this.tailleCohorte = Integer.parseInt(options.getOrDefault("taille-cohorte", "1000"));
+        this.limite = limite;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = lireOptions(args);
+        Duration duree = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duree-s", "60")));
+        int cohorte = Integer.parseInt(options.getOrDefault("cohorte", "10"));
+        int admins = Integer.parseInt(options.getOrDefault("admins", "2"));
+        int coordinateurs = Integer.parseInt(options.getOrDefault("coordinateurs", "3"));
+        int formateurs = Integer.parseInt(options.getOrDefault("formateurs", "20"));
+        int nbFormateurs = Integer.parseInt(options.getOrDefault("nb-formateurs", "50"));
+        int nbCoordinateurs = Integer.parseInt(options.getOrDefault("nb-coordinateurs", "5"));
+
+        long debut = System.nanoTime();
+        ScenariosCharge charge = new ScenariosCharge(options, debut + duree.toNanos());
+        charge.chargerIdsFormateurs();
+
+        List<Runnable> utilisateurs = new ArrayList<>();
+        for (int i = 0; i < cohorte; i++) {
+            utilisateurs.add(charge::premiereConnexion);
+        }
+        for (int i = 0; i < admins; i++) {
+            utilisateurs.add(charge::admin);
+        }
+        for (int i = 0; i < coordinateurs; i++) {
+            String email = ServeurCharge.emailCoordinateur(i % nbCoordinateurs);
+            utilisateurs.add(() -> charge.coordinateur(email));
+        }
+        for (int i = 0; i < formateurs; i++) {
+            String email = ServeurCharge.emailFormateur(i % nbFormateurs);
+            utilisateurs.add(() -> charge.formateur(email));
+        }
+
+        CountDownLatch fin = new CountDownLatch(utilisateurs.size());
+        for (int i = 0; i < utilisateurs.size(); i++) {
+            Runnable scenario = utilisateurs.get(i);
+            Thread thread = new Thread(() -> {
+                try {
+                    scenario.run();
+                } finally {
+                    fin.countDown();
+                }
+            }, "vu-" + i);
+            thread.start();
+        }
+        fin.await();
+        charge.rapport(System.nanoTime() - debut, options.get("csv"));
+    }
+
+    // ---- Scénarios (un thread par utilisateur virtuel, mesures locales fusionnées à la fin) ----
+
+    private void premiereConnexion() {
+        Map<String, Mesures> mesures = new HashMap<>();
+        while (System.nanoTime() < limite) {
+            int index = cohorteSuivante.getAndIncrement();
+            if (index >= tailleCohorte) {
+                break; // cohorte épuisée : chaque compte ne fait qu'une première connexion
+            }
+            String email = ServeurCharge.emailCohorte(index);
+            long depart = System.nanoTime();
+            HttpResponse<String> signin = envoyer(mesures, "POST /api/auth/signin (code)", post("/api/auth/signin",
+                    "{\"email\":\"" + email + "\",\"password\":\"" + ServeurCharge.MOT_DE_PASSE + "\"}", null));
+            if (signin == null || !signin.body().contains("code_sent")) {
+                continue;
+            }
+            String code = attendreCode(email, depart, mesures);
+            if (code == null) {
+                continue;
+            }
+            HttpResponse<String> verification = envoyer(mesures, "POST /api/auth/verify-code",
+                    post("/api/auth/verify-code", "{\"email\":\"" + email + "\",\"code\":\"" + code + "\"}", null));
+            Connexion connexion = verification != null ? Connexion.depuis(verification) : null;
+            if (connexion != null) {
+                envoyer(mesures, "GET /api/auth/check-auth", get("/api/auth/check-auth", connexion));
+            }
+            pause();
+        }
+        fusionner(mesures);
+    }
+
+    private void admin() {
+        Map<String, Mesures> mesures = new HashMap<>();
+        Connexion connexion = connecter(ServeurCharge.EMAIL_ADMIN, mesures);
+        while (connexion != null && System.nanoTime() < limite) {
+            envoyer(mesures, "GET /api/admin/users", get("/api/admin/users", connexion));
+            envoyer(mesures, "GET /api/admin/formateurs", get("/api/admin/formateurs", connexion));
+            pause();
+        }
+        fusionner(mesures);
+    }
+
+    private void coordinateur(String email) {
+        Map<String, Mesures> mesures = new HashMap<>();
+        Connexion connexion = connecter(email, mesures);
+        int n = 0;
+        while (connexion != null && System.nanoTime() < limite) {
+            LocalDate debut = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(365));
+            HttpResponse<String> creation = envoyer(mesures, "POST /api/sessions", post("/api/sessions",
+                    "{\"classe\":\"Charge " + Thread.currentThread().getName() + "-" + (n++) + "\","
+                            + "\"specialite\":\"Informatique\",\"promotion\":\"2025\",\"niveau\":\"L1\","
+                            + "\"semestre\":\"S1\",\"dateD\":\"" + debut + "\",\"dateF\":\"" + debut.plusWeeks(4) + "\"}",
+                    connexion));
+            Matcher idSession = creation != null ? ID_SESSION.matcher(creation.body()) : null;
+            if (idSession != null && idSession.find() && !idsFormateurs.isEmpty()) {
+                long formateurId = idsFormateurs.get(ThreadLocalRandom.current().nextInt(idsFormateurs.size()));
+                envoyer(mesures, "POST /api/sessions/{id}/affecter", post("/api/sessions/" + idSession.group(1)
+                        + "/affecter", "{\"formateurId\":" + formateurId + "}", connexion));
+            }
+            pause();
+        }
+        fusionner(mesures);
+    }
+
+    private void formateur(String email) {
+        Map<String, Mesures> mesures = new HashMap<>();
+        Connexion connexion = connecter(email, mesures);
+        while (connexion != null && System.nanoTime() < limite) {
+            envoyer(mesures, "GET /api/sessions/formateur/{id}",
+                    get("/api/sessions/formateur/" + connexion.userId, connexion));
+            pause();
+        }
+        fusionner(mesures);
+    }
+
+    // ---- Outils ----
+
+    private void chargerIdsFormateurs() {
+        Map<String, Mesures> mesures = new HashMap<>();
+        Connexion admin = connecter(ServeurCharge.EMAIL_ADMIN, mesures);
+        HttpResponse<String> reponse = admin != null
+                ? envoyer(mesures, "GET /api/admin/formateurs", get("/api/admin/formateurs", admin)) : null;
+        if (reponse == null) {
+            throw new IllegalStateException("Impossible de lister les formateurs (serveur démarré ?)");
+        }
+        idsFormateurs = new ArrayList<>();
+        Matcher id = ID.matcher(reponse.body());
+        while (id.find()) {
+            idsFormateurs.add(Long.parseLong(id.group(1)));
+        }
+    }
+
+    private Connexion connecter(String email, Map<String, Mesures> mesures) {
+        HttpResponse<String> reponse = envoyer(mesures, "POST /api/auth/signin", post("/api/auth/signin",
+                "{\"email\":\"" + email + "\",\"password\":\"" + ServeurCharge.MOT_DE_PASSE + "\"}", null));
+        return reponse != null ? Connexion.depuis(reponse) : null;
+    }
+
+    // Délai entre le signin et l'arrivée du code dans la boîte GreenMail (outbox + SMTP)
+    private String attendreCode(String email, long depart, Map<String, Mesures> mesures) {
+        HttpRequest requete = HttpRequest.newBuilder(URI.create(codesUrl + "/codes?email="
+                + URLEncoder.encode(email, StandardCharsets.UTF_8))).GET().build();
+        long abandon = depart + Duration.ofSeconds(30).toNanos();
+        while (System.nanoTime() < abandon) {
+            try {
+                HttpResponse<String> reponse = client.send(requete, HttpResponse.BodyHandlers.ofString());
+                if (reponse.statusCode() == 200) {
+                    mesures.computeIfAbsent(CODE_RECU, cle -> new Mesures()).ajouter(System.nanoTime() - depart, true);
+                    return reponse.body().trim();
+                }
+                Thread.sleep(20);
+            } catch (IOException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        mesures.computeIfAbsent(CODE_RECU, cle -> new Mesures()).ajouter(System.nanoTime() - depart, false);
+        return null;
+    }
+
+    // null si erreur réseau ou statut hors 2xx (compté en erreur)
+    private HttpResponse<String> envoyer(Map<String, Mesures> mesures, String endpoint, HttpRequest requete) {
+        long depart = System.nanoTime();
+        HttpResponse<String> reponse = null;
+        try {
+            reponse = client.send(requete, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            // compté en erreur
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean ok = reponse != null && reponse.statusCode() / 100 == 2;
+        mesures.computeIfAbsent(endpoint, cle -> new Mesures()).ajouter(System.nanoTime() - depart, ok);
+        return ok ? reponse : null;
+    }
+
+    private HttpRequest post(String chemin, String json, Connexion connexion) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url + chemin))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (connexion != null) {
+            builder.header(connexion.entete, connexion.valeur);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest get(String chemin, Connexion connexion) {
+        return HttpRequest.newBuilder(URI.create(url + chemin))
+                .header(connexion.entete, connexion.valeur)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private void pause() {
+        if (pauseMs > 0) {
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void fusionner(Map<String, Mesures> mesures) {
+        mesures.forEach((endpoint, m) -> resultats.computeIfAbsent(endpoint, cle -> new Mesures()).fusionner(m));
+    }
+
+    private void rapport(long dureeNanos, String csv) throws IOException {
+        double secondes = dureeNanos / 1e9;
+        System.out.printf("%-38s %8s %9s %9s %9s %9s %9s %8s%n",
+                "endpoint", "requêtes", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "erreurs");
+        List<String> lignes = new ArrayList<>();
+        lignes.add("endpoint,requetes,req_s,p50_ms,p90_ms,p99_ms,max_ms,erreurs");
+        for (Map.Entry<String, Mesures> entree : resultats.entrySet()) {
+            Mesures m = entree.getValue().trier();
+            System.out.printf("%-38s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %8d%n", entree.getKey(), m.n, m.n / secondes,
+                    m.percentileMs(50), m.percentileMs(90), m.percentileMs(99), m.percentileMs(100), m.erreurs);
+            lignes.add(String.format(Locale.ROOT, "\"%s\",%d,%.1f,%.2f,%.2f,%.2f,%.2f,%d", entree.getKey(),
+                    m.n, m.n / secondes, m.percentileMs(50), m.percentileMs(90), m.percentileMs(99),
+                    m.percentileMs(100), m.erreurs));
+        }
+        if (csv != null) {
+            try (PrintWriter sortie = new PrintWriter(Files.newBufferedWriter(Path.of(csv)))) {
+                lignes.forEach(sortie::println);
+            }
+            System.out.println("CSV : " + csv);
+        }
+    }
+
+    private static Map<String, String> lireOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    // Session (cookie JSESSIONID) ou jeton (app.auth.mode=token), selon la réponse de connexion
+    private static final class Connexion {
+        private final String entete;
+        private final String valeur;
+        private final long userId;
+
+        private Connexion(String entete, String valeur, long userId) {
+            this.entete = entete;
+            this.valeur = valeur;
+            this.userId = userId;
+        }
+
+        private static Connexion depuis(HttpResponse<String> reponse) {
+            Matcher userId = USER_ID.matcher(reponse.body());
+            if (!userId.find()) {
+                return null;
+            }
+            long id = Long.parseLong(userId.group(1));
+            Matcher token = TOKEN.matcher(reponse.body());
+            if (token.find()) {
+                return new Connexion("Authorization", "Bearer " + token.group(1), id);
+            }
+            Matcher cookie = JSESSIONID.matcher(String.join(";", reponse.headers().allValues("Set-Cookie")));
+            return cookie.find() ? new Connexion("Cookie", "JSESSIONID=" + cookie.group(1), id) : null;
+        }
+    }
+
+    private static final class Mesures {
+        private long[] latences = new long[256];
+        private int n;
+        private long erreurs;
+
+        private void ajouter(long nanos, boolean ok) {
+            if (n == latences.length) {
+                latences = Arrays.copyOf(latences, n * 2);
+            }
+            latences[n++] = nanos;
+            if (!ok) {
+                erreurs++;
+            }
+        }
+
+        private void fusionner(Mesures autre) {
+            if (n + autre.n > latences.length) {
+                latences = Arrays.copyOf(latences, Math.max(latences.length * 2, n + autre.n));
+            }
+            System.arraycopy(autre.latences, 0, latences, n, autre.n);
+            n += autre.n;
+            erreurs += autre.erreurs;
+        }
+
+        private Mesures trier() {
+            Arrays.sort(latences, 0, n);
+            return this;
+        }
+
+        private double percentileMs(int p) {
+            if (n == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * n) - 1;
+            return latences[Math.max(0, Math.min(index, n - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.gestionpaimentback.charge;
+
+import com.example.gestionpaimentback.GestionpaimentbackApplication;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.store.StoredMessage;
+import com.icegreen.greenmail.user.GreenMailUser;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Démarre l'application sur H2 (mode MySQL) pour les tests de charge, puis crée les données de départ
+// Les propriétés ci-dessous sont des valeurs par défaut : tout argument --cle=valeur les remplace
+// -Dcharge.sessions : nombre de sessions créées, toutes affectées au formateur de test (20)
+// -Dcharge.formateurs / charge.coordinateurs : comptes actifs (50 / 5), plus un admin
+// -Dcharge.cohorte : comptes en première connexion (status 0) pour le scénario avec code (1000)
+// -Dcharge.smtp : serveur SMTP GreenMail embarqué sur spring.mail.port (true) ; les codes reçus
+//                 sont lisibles sur http://localhost:<charge.codes-port>/codes?email=... (18099)
+public class ServeurCharge {
+
+    public static final String EMAIL_FORMATEUR = "charge-formateur@test.tn";
+    public static final String EMAIL_ADMIN = "charge-admin@test.tn";
+    public static final String MOT_DE_PASSE = "motdepasse";
+    private static final int NB_SESSIONS = Integer.getInteger("charge.sessions", 20);
+    private static final int NB_FORMATEURS = Integer.getInteger("charge.formateurs", 50);
+    private static final int NB_COORDINATEURS = Integer.getInteger("charge.coordinateurs", 5);
+    private static final int TAILLE_COHORTE = Integer.getInteger("charge.cohorte", 1000);
+    private static final boolean SMTP = Boolean.parseBoolean(System.getProperty("charge.smtp", "true"));
+    private static final int PORT_CODES = Integer.getInteger("charge.codes-port", 18099);
+    private static final Pattern CODE = Pattern.compile("\\b(\\d{6})\\b");
+
+    public static void main(String[] args) throws IOException {
+        defaut("spring.datasource.url", "jdbc:h2:mem:charge;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        defaut("spring.datasource.username", "sa");
+        defaut("spring.datasource.password", "");
+        defaut("spring.jpa.hibernate.ddl-auto", "create-drop");
+        defaut("spring.jpa.show-sql", "false");
+        defaut("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        defaut("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                LatenceReseauInspector.class.getName());
+        defaut("spring.mail.host", "localhost");
+        defaut("spring.mail.port", "3025");
+        defaut("spring.mail.properties.mail.smtp.auth", "false");
+        defaut("spring.mail.properties.mail.smtp.starttls.enable", "false");
+        defaut("spring.mail.properties.mail.smtp.starttls.required", "false");
+        defaut("spring.mail.properties.mail.debug", "false");
+        defaut("app.rate-limit.enabled", "false");
+
+        if (SMTP) {
+            demarrerSmtp(Integer.parseInt(System.getProperty("spring.mail.port")));
+        }
+        ConfigurableApplicationContext context = SpringApplication.run(GestionpaimentbackApplication.class, args);
+        User formateur = initialiserDonnees(context);
+        System.out.println("🚀 SERVEUR DE CHARGE PRÊT - formateur " + formateur.getId() + " (" + EMAIL_FORMATEUR + ")");
+    }
+
+    public static String emailFormateur(int i) {
+        return i == 0 ? EMAIL_FORMATEUR : "charge-formateur" + i + "@test.tn";
+    }
+
+    public static String emailCoordinateur(int i) {
+        return "charge-coordinateur" + i + "@test.tn";
+    }
+
+    public static String emailCohorte(int i) {
+        return "charge-cohorte" + i + "@test.tn";
+    }
+
+    private static void defaut(String cle, String valeur) {
+        if (System.getProperty(cle) == null) {
+            System.setProperty(cle, valeur);
+        }
+    }
+
+    // GreenMail accepte tout destinataire ; le dernier code reçu par email est servi en texte brut (404 sinon)
+    private static void demarrerSmtp(int port) throws IOException {
+        // Authentification désactivée : spring.mail.username / password de production sont acceptés tels quels
+        GreenMail greenMail = new GreenMail(new ServerSetup(port, null, ServerSetup.PROTOCOL_SMTP))
+                .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+        greenMail.start();
+
+        HttpServer serveur = HttpServer.create(new InetSocketAddress(PORT_CODES), 0);
+        serveur.createContext("/codes", echange -> {
+            String requete = echange.getRequestURI().getRawQuery();
+            String email = requete != null && requete.startsWith("email=")
+                    ? URLDecoder.decode(requete.substring("email=".length()), StandardCharsets.UTF_8) : null;
+            repondre(echange, email != null ? dernierCode(greenMail, email) : null);
+        });
+        serveur.setExecutor(Executors.newFixedThreadPool(4));
+        serveur.start();
+    }
+
+    private static String dernierCode(GreenMail greenMail, String email) {
+        try {
+            GreenMailUser user = greenMail.getUserManager().getUserByEmail(email);
+            if (user == null) {
+                return null;
+            }
+            List<StoredMessage> messages = greenMail.getManagers().getImapHostManager().getInbox(user).getMessages();
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                Matcher code = CODE.matcher(messages.get(i).getMimeMessage().getContent().toString());
+                if (code.find()) {
+                    return code.group(1);
+                }
+            }
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void repondre(HttpExchange echange, String code) throws IOException {
+        if (code == null) {
+            echange.sendResponseHeaders(404, -1);
+        } else {
+            byte[] corps = code.getBytes(StandardCharsets.UTF_8);
+            echange.sendResponseHeaders(200, corps.length);
+            try (OutputStream sortie = echange.getResponseBody()) {
+                sortie.write(corps);
+            }
+        }
+        echange.close();
+    }
+
+    private static User initialiserDonnees(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        RoleRepository roleRepository = context.getBean(RoleRepository.class);
+        SessionRepository sessionRepository = context.getBean(SessionRepository.class);
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+
+        // Un seul hachage BCrypt pour tous les comptes : même mot de passe, démarrage rapide
+        String hash = passwordEncoder.encode(MOT_DE_PASSE);
+        Role formateurRole = roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow();
+        Role coordinateurRole = roleRepository.findByName(Role.ERole.ROLE_COORDINATEUR).orElseThrow();
+        Role adminRole = roleRepository.findByName(Role.ERole.ROLE_ADMIN).orElseThrow();
+
+        List<User> formateurs = new ArrayList<>(NB_FORMATEURS);
+        for (int i = 0; i < Math.max(1, NB_FORMATEURS); i++) {
+            formateurs.add(utilisateur("Formateur" + i, emailFormateur(i), hash, 1, formateurRole));
+        }
+        formateurs = userRepository.saveAll(formateurs);
+
+        List<User> autres = new ArrayList<>();
+        autres.add(utilisateur("Admin", EMAIL_ADMIN, hash, 1, adminRole));
+        for (int i = 0; i < NB_COORDINATEURS; i++) {
+            autres.add(utilisateur("Coordinateur" + i, emailCoordinateur(i), hash, 1, coordinateurRole));
+        }
+        for (int i = 0; i < TAILLE_COHORTE; i++) {
+            autres.add(utilisateur("Cohorte" + i, emailCohorte(i), hash, 0, formateurRole));
+        }
+        userRepository.saveAll(autres);
+
+        // Toutes les sessions au formateur de test, plus un second formateur en tourniquet
+        User formateur = formateurs.get(0);
+        LocalDate debut = LocalDate.now().withDayOfMonth(1);
+        List<Session> sessions = new ArrayList<>(NB_SESSIONS);
+        for (int i = 0; i < NB_SESSIONS; i++) {
+            Session session = new Session(null, "Classe " + i, "Informatique", "2025", "L" + (i % 3 + 1),
+                    "S" + (i % 2 + 1), debut.plusWeeks(i), debut.plusWeeks(i + 4));
+            session.getFormateurs().add(formateur);
+            session.getFormateurs().add(formateurs.get(i % formateurs.size()));
+            sessions.add(session);
+        }
+        sessionRepository.saveAll(sessions);
+        return formateur;
+    }
+
+    private static User utilisateur(String prenom, String email, String hash, int status, Role role) {
+        User user = new User(prenom, "Charge", email, hash);
+        user.setStatus(status);
+        user.setRoles(Set.of(role));
+        return user;
+    }
+}
@@ -2,7 +2,7 @@
 
 import React, { useState, useEffect } from 'react';
 import { FaPlus, FaEdit, FaTrash, FaCalendar, FaSchool, FaGraduationCap, FaUser, FaTimes } from 'react-icons/fa';
-import { Session, User } from '@/app/types';
+import { Session, SessionFilters, User } from '@/app/types';
 import { apiService } from '@/app/services/api';
 
 interface SessionManagerProps {
@@ -20,6 +20,18 @@ export const SessionManager: React.FC<SessionManagerProps> = ({ isVisible }) =>
   const [editingSession, setEditingSession] = useState<Session | null>(null);
   const [formateursLoaded, setFormateursLoaded] = useState(false); 
 
+  // Pagination par curseur : une page à la fois, "Charger plus" ajoute la suivante
+  const PAGE_SIZE = 50;
+  const [filters, setFilters] = useState<SessionFilters>({});
+  const [nextCursor, setNextCursor] = useState<number | null>(null);
+  const [total, setTotal] = useState<number | undefined>(undefined);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // Import en masse : progression et erreurs par ligne au fil de la réponse
+  const [importing, setImporting] = useState(false);
+  const [importProgress, setImportProgress] = useState<string>('');
+  const [importErrors, setImportErrors] = useState<string[]>([]);
+
   const [formData, setFormData] = useState({
     classe: '',
     specialite: '',
@@ -42,30 +54,93 @@ export const SessionManager: React.FC<SessionManagerProps> = ({ isVisible }) =>
     }
   }, [isVisible]);
 
-  const loadSessions = async () => {
+  // Recharge la première page (après création, modification, affectation ou changement de filtre)
+  const loadSessions = async (activeFilters: SessionFilters = filters) => {
     try {
       setLoading(true);
       setError('');
-      const sessionsData = await apiService.getSessions();
+      const page = await apiService.getSessionsPage(activeFilters, null, PAGE_SIZE, true);
       
       console.log('📋 Sessions chargées:', {
-        count: sessionsData.length,
-        sessions: sessionsData.map(s => ({
-          id: s.idSession,
-          classe: s.classe,
-          formateursCount: s.formateurs?.length || 0
-        }))
+        count: page.items.length,
+        total: page.total,
+        nextCursor: page.nextCursor
       });
       
-      setSessions(Array.isArray(sessionsData) ? sessionsData : []);
+      setSessions(page.items);
+      setNextCursor(page.nextCursor);
+      setTotal(page.total);
     } catch (error: any) {
       setError(`Erreur de chargement: ${error.message}`);
       setSessions([]);
+      setNextCursor(null);
+      setTotal(undefined);
     } finally {
       setLoading(false);
     }
   };
 
+  const loadMoreSessions = async () => {
+    if (nextCursor == null) return;
+    try {
+      setLoadingMore(true);
+      const page = await apiService.getSessionsPage(filters, nextCursor, PAGE_SIZE);
+      setSessions(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error: any) {
+      setError(`Erreur de chargement: ${error.message}`);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const applyFilters = (e: React.FormEvent) => {
+    e.preventDefault();
+    loadSessions(filters);
+  };
+
+  const exportCsv = async () => {
+    try {
+      setError('');
+      await apiService.downloadSessionsCsv(filters);
+    } catch (error: any) {
+      setError(`Erreur d'export: ${error.message}`);
+    }
+  };
+
+  const importFile = async (e: React.ChangeEvent<HTMLInputElement>) => {
+    const file = e.target.files?.[0];
+    e.target.value = '';
+    if (!file) return;
+    try {
+      setImporting(true);
+      setError('');
+      setImportErrors([]);
+      setImportProgress('Import en cours...');
+      await apiService.importSessions(file, (event) => {
+        if (event.type === 'erreur') {
+          setImportErrors(prev => [...prev, `Ligne ${event.ligne} : ${event.message}`]);
+        } else if (event.type === 'progression') {
+          setImportProgress(`${event.importees} sessions importées (${event.lues} lignes lues)`);
+        } else {
+          setImportProgress('');
+          setSuccess(`Import terminé : ${event.importees} sessions, ${event.affectations} affectations, ${event.rejetees} lignes rejetées`);
+        }
+      });
+      loadSessions();
+    } catch (error: any) {
+      setImportProgress('');
+      setError(`Erreur d'import: ${error.message}`);
+    } finally {
+      setImporting(false);
+    }
+  };
+
+  const resetFilters = () => {
+    setFilters({});
+    loadSessions({});
+  };
+
   // 🔥 CORRECTION : Améliorer loadFormateurs
   const loadFormateurs = async () => {
   try {
@@ -435,6 +510,78 @@ export const SessionManager: React.FC<SessionManagerProps> = ({ isVisible }) =>
         </div>
       )}
 
+      {/* Filtres (appliqués côté serveur) */}
+      <form onSubmit={applyFilters} className="mb-4 grid grid-cols-2 md:grid-cols-6 gap-3 items-end">
+        <input
+          type="text"
+          value={filters.promotion || ''}
+          onChange={(e) => setFilters({...filters, promotion: e.target.value})}
+          className="bg-slate-700/50 border border-cyan-500/30 rounded-xl px-3 py-2 text-white text-sm placeholder-cyan-100/50 focus:outline-none focus:border-cyan-400"
+          placeholder="Promotion"
+        />
+        <select
+          value={filters.niveau || ''}
+          onChange={(e) => setFilters({...filters, niveau: e.target.value})}
+          className="bg-slate-700/50 border border-cyan-500/30 rounded-xl px-3 py-2 text-white text-sm focus:outline-none focus:border-cyan-400"
+        >
+          <option value="">Tous niveaux</option>
+          <option value="Débutant">Débutant</option>
+          <option value="Intermédiaire">Intermédiaire</option>
+          <option value="Avancé">Avancé</option>
+          <option value="Expert">Expert</option>
+        </select>
+        <select
+          value={filters.semestre || ''}
+          onChange={(e) => setFilters({...filters, semestre: e.target.value})}
+          className="bg-slate-700/50 border border-cyan-500/30 rounded-xl px-3 py-2 text-white text-sm focus:outline-none focus:border-cyan-400"
+        >
+          <option value="">Tous semestres</option>
+          {['S1', 'S2', 'S3', 'S4', 'S5', 'S6'].map(s => (
+            <option key={s} value={s}>{s}</option>
+          ))}
+        </select>
+        <input
+          type="text"
+          value={filters.specialite || ''}
+          onChange={(e) => setFilters({...filters, specialite: e.target.value})}
+          className="bg-slate-700/50 border border-cyan-500/30 rounded-xl px-3 py-2 text-white text-sm placeholder-cyan-100/50 focus:outline-none focus:border-cyan-400"
+          placeholder="Spécialité"
+        />
+        <input
+          type="date"
+          value={filters.dateDMin || ''}
+          onChange={(e) => setFilters({...filters, dateDMin: e.target.value})}
+          className="bg-slate-700/50 border border-cyan-500/30 rounded-xl px-3 py-2 text-white text-sm focus:outline-none focus:border-cyan-400"
+          title="Début à partir du"
+        />
+        <div className="flex gap-2">
+          <button type="submit" className="flex-1 px-3 py-2 bg-cyan-500/20 hover:bg-cyan-500/30 border border-cyan-500/30 rounded-xl text-cyan-300 text-sm transition-colors">
+            Filtrer
+          </button>
+          <button type="button" onClick={resetFilters} className="px-3 py-2 bg-slate-600/50 hover:bg-slate-500/50 border border-slate-500/30 rounded-xl text-white text-sm transition-colors" title="Réinitialiser">
+            <FaTimes />
+          </button>
+          <button type="button" onClick={exportCsv} className="px-3 py-2 bg-slate-600/50 hover:bg-slate-500/50 border border-slate-500/30 rounded-xl text-white text-sm transition-colors" title="Exporter en CSV">
+            CSV
+          </button>
+          <label className={`px-3 py-2 bg-slate-600/50 hover:bg-slate-500/50 border border-slate-500/30 rounded-xl text-white text-sm transition-colors ${importing ? 'opacity-50' : 'cursor-pointer'}`} title="Importer un fichier CSV ou JSON Lines">
+            Import
+            <input type="file" accept=".csv,.jsonl,.ndjson" className="hidden" disabled={importing} onChange={importFile} />
+          </label>
+        </div>
+      </form>
+
+      {(importProgress || importErrors.length > 0) && (
+        <div className="bg-slate-700/30 border border-cyan-500/20 rounded-xl p-3 text-sm text-cyan-100/80">
+          {importProgress && <p>{importProgress}</p>}
+          {importErrors.length > 0 && (
+            <ul className="mt-2 max-h-40 overflow-y-auto text-red-300">
+              {importErrors.map((erreur, index) => <li key={index}>{erreur}</li>)}
+            </ul>
+          )}
+        </div>
+      )}
+
       {/* Liste des sessions avec affectation des formateurs */}
       <div className="bg-white/5 backdrop-blur-lg border border-cyan-500/20 rounded-2xl overflow-hidden">
         {loading ? (
@@ -559,6 +706,20 @@ export const SessionManager: React.FC<SessionManagerProps> = ({ isVisible }) =>
                   ))}
                 </tbody>
               </table>
+              <div className="flex items-center justify-between p-4 text-cyan-100/70 text-sm">
+                <span>
+                  {sessions.length}{total !== undefined ? ` / ${total}` : ''} session(s)
+                </span>
+                {nextCursor != null && (
+                  <button
+                    onClick={loadMoreSessions}
+                    disabled={loadingMore}
+                    className="px-4 py-2 bg-cyan-500/20 hover:bg-cyan-500/30 border border-cyan-500/30 rounded-xl text-cyan-300 transition-colors disabled:opacity-50"
+                  >
+                    {loadingMore ? 'Chargement...' : 'Charger plus'}
+                  </button>
+                )}
+              </div>
             </div>
           )
         )}
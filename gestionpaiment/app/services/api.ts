@@ -1,16 +1,31 @@
 // CORRECTION COMPLÈTE du fichier api.ts
 import { User, AuthResponse } from '@/app/types';
-import { Session } from '@/app/types';
+import { Session, SessionPage, SessionFilters, SessionImportEvent, ConflitPlanning } from '@/app/types';
 
 const API_BASE_URL = 'http://localhost:8082/api';
 
+// Mode jeton (app.auth.mode=token) : le backend renvoie un jeton au lieu de créer une session
+const TOKEN_KEY = 'authToken';
+
 class ApiService {
+  private getToken(): string | null {
+    return typeof window !== 'undefined' ? localStorage.getItem(TOKEN_KEY) : null;
+  }
+
+  private storeToken(response: any) {
+    if (typeof window !== 'undefined' && response?.token) {
+      localStorage.setItem(TOKEN_KEY, response.token);
+    }
+  }
+
   private async fetchWithAuth(url: string, options: RequestInit = {}) {
+    const token = this.getToken();
     const response = await fetch(`${API_BASE_URL}${url}`, {
       ...options,
       credentials: 'include',
       headers: {
         'Content-Type': 'application/json',
+        ...(token ? { Authorization: `Bearer ${token}` } : {}),
         ...options.headers,
       },
     });
@@ -44,10 +59,12 @@ class ApiService {
   // 🔐 AUTH
   // ===========================================================
   async login(email: string, password: string): Promise<AuthResponse> {
-    return this.fetchWithAuth('/auth/signin', {
+    const response = await this.fetchWithAuth('/auth/signin', {
       method: 'POST',
       body: JSON.stringify({ email, password }),
     });
+    this.storeToken(response);
+    return response;
   }
 
   async register(userData: any): Promise<AuthResponse> {
@@ -58,10 +75,12 @@ class ApiService {
   }
 
   async verifyCode(email: string, code: string): Promise<AuthResponse> {
-    return this.fetchWithAuth('/auth/verify-code', {
+    const response = await this.fetchWithAuth('/auth/verify-code', {
       method: 'POST',
       body: JSON.stringify({ email, code }),
     });
+    this.storeToken(response);
+    return response;
   }
 
   async resendCode(email: string): Promise<void> {
@@ -82,7 +101,13 @@ class ApiService {
   }
 
   async logout(): Promise<void> {
-    await this.fetchWithAuth('/auth/logout', { method: 'POST' });
+    try {
+      await this.fetchWithAuth('/auth/logout', { method: 'POST' });
+    } finally {
+      if (typeof window !== 'undefined') {
+        localStorage.removeItem(TOKEN_KEY);
+      }
+    }
   }
 
   // ===========================================================
@@ -162,6 +187,80 @@ class ApiService {
     }
   }
 
+  // Une page de sessions : passer le nextCursor de la page précédente pour obtenir la suivante
+  async getSessionsPage(filters: SessionFilters = {}, cursor?: number | null, limit = 50, includeTotal = false): Promise<SessionPage> {
+    const params = this.filterParams(filters);
+    params.append('limit', String(limit));
+    if (cursor != null) params.append('cursor', String(cursor));
+    if (includeTotal) params.append('includeTotal', 'true');
+
+    const response = await this.fetchWithAuth(`/sessions?${params.toString()}`);
+    return {
+      items: Array.isArray(response?.items) ? response.items : [],
+      nextCursor: response?.nextCursor ?? null,
+      limit: response?.limit ?? limit,
+      total: response?.total,
+    };
+  }
+
+  // Export CSV avec les filtres de la liste. Avec une session (cookie), le navigateur télécharge le flux
+  // directement sur le disque ; en mode jeton l'en-tête Authorization impose un fetch, fichier en mémoire
+  async downloadSessionsCsv(filters: SessionFilters = {}): Promise<void> {
+    const url = `${API_BASE_URL}/sessions/export?${this.filterParams(filters).toString()}`;
+    const token = this.getToken();
+    if (!token) {
+      window.location.href = url;
+      return;
+    }
+    const response = await fetch(url, { headers: { Authorization: `Bearer ${token}` } });
+    if (!response.ok) {
+      const errorData = await response.json().catch(() => null);
+      throw new Error(errorData?.error || `Export impossible (${response.status})`);
+    }
+    const lien = document.createElement('a');
+    lien.href = URL.createObjectURL(await response.blob());
+    lien.download = 'sessions.csv';
+    lien.click();
+    URL.revokeObjectURL(lien.href);
+  }
+
+  // Import CSV / JSON Lines : chaque événement (progression, erreur par ligne, bilan) est transmis dès sa réception
+  async importSessions(file: File, onEvent: (event: SessionImportEvent) => void): Promise<void> {
+    const token = this.getToken();
+    const body = new FormData();
+    body.append('file', file);
+    const response = await fetch(`${API_BASE_URL}/sessions/import`, {
+      method: 'POST',
+      credentials: 'include',
+      headers: token ? { Authorization: `Bearer ${token}` } : {},
+      body,
+    });
+    if (!response.ok || !response.body) {
+      const errorData = await response.json().catch(() => null);
+      throw new Error(errorData?.error || `Import impossible (${response.status})`);
+    }
+
+    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+    let buffer = '';
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += value;
+      const lines = buffer.split('\n');
+      buffer = lines.pop() ?? '';
+      lines.filter(line => line.trim()).forEach(line => onEvent(JSON.parse(line)));
+    }
+    if (buffer.trim()) onEvent(JSON.parse(buffer));
+  }
+
+  private filterParams(filters: SessionFilters): URLSearchParams {
+    const params = new URLSearchParams();
+    Object.entries(filters).forEach(([key, value]) => {
+      if (value) params.append(key, value);
+    });
+    return params;
+  }
+
   async assignerFormateur(sessionId: number, formateurId: number): Promise<Session> {
     console.log(`🎯 Assigner formateur ${formateurId} à session ${sessionId}`);
     return this.fetchWithAuth(`/sessions/${sessionId}/assign-formateur/${formateurId}`, {
@@ -170,6 +269,32 @@ class ApiService {
     });
   }
 
+  // Affectations en masse en une transaction : [{ sessionId, formateurIds }] à affecter et à retirer
+  async appliquerAffectations(
+    affecter: { sessionId: number; formateurIds: number[] }[],
+    retirer: { sessionId: number; formateurIds: number[] }[] = []
+  ): Promise<{ ajoutees: number; dejaPresentes: number; retirees: number; absentes: number; conflits: ConflitPlanning[] }> {
+    return this.fetchWithAuth('/sessions/affectations', {
+      method: 'POST',
+      body: JSON.stringify({ affecter, retirer }),
+    });
+  }
+
+  // Tous les chevauchements de planning ; au plus `limit` détaillés
+  async getConflitsPlanning(limit?: number): Promise<{ total: number; conflits: ConflitPlanning[]; tronque: boolean }> {
+    return this.fetchWithAuth(`/sessions/conflits${limit !== undefined ? `?limit=${limit}` : ''}`);
+  }
+
+  // Sessions en cours du `from` au `to` inclus (dates ISO ; to absent : ce seul jour)
+  async getSessionsActives(from: string, to?: string): Promise<Session[]> {
+    return this.fetchWithAuth(`/sessions/active?from=${from}${to ? `&to=${to}` : ''}`);
+  }
+
+  // Vues calendrier : parJour[i] = sessions en cours le jour from + i
+  async getSessionsActivesParJour(from: string, to?: string): Promise<{ from: string; to: string; sessions: number; parJour: number[] }> {
+    return this.fetchWithAuth(`/sessions/active?from=${from}${to ? `&to=${to}` : ''}&counts=true`);
+  }
+
   async retirerFormateur(sessionId: number, formateurId: number): Promise<Session> {
     console.log(`🗑️ Retirer formateur ${formateurId} de session ${sessionId}`);
     return this.fetchWithAuth(`/sessions/${sessionId}/retirer/${formateurId}`, {
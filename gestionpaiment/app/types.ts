@@ -47,7 +47,52 @@ export interface Session {
   formateurNom?: string;
   formateurEmail?: string;
   formateurAssigne?: boolean;
+
+  // Réponse d'une affectation : chevauchements de planning du formateur
+  conflits?: ConflitPlanning[];
+}
+
+// Formateur affecté à deux sessions qui se recouvrent, du debut à la fin du chevauchement
+export interface ConflitPlanning {
+  formateurId: number;
+  sessionId: number;
+  autreSessionId: number;
+  debut: string;
+  fin: string;
+}
+
+// Page de GET /api/sessions (pagination par curseur, ordre idSession décroissant)
+export interface SessionPage {
+  items: Session[];
+  nextCursor: number | null;
+  limit: number;
+  total?: number;
 }
+
+export interface SessionFilters {
+  promotion?: string;
+  niveau?: string;
+  semestre?: string;
+  specialite?: string;
+  classe?: string;
+  dateDMin?: string;
+  dateDMax?: string;
+  dateFMin?: string;
+  dateFMax?: string;
+}
+
+// Une ligne de la réponse de POST /api/sessions/import (NDJSON)
+export interface SessionImportEvent {
+  type: 'progression' | 'erreur' | 'termine';
+  ligne?: number;
+  message?: string;
+  lues?: number;
+  importees?: number;
+  rejetees?: number;
+  affectations?: number;
+  dureeMs?: number;
+}
+
 export interface Formateur {
   id: number;
   firstName: string;
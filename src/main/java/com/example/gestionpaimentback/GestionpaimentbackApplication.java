@@ -2,8 +2,10 @@ package com.example.gestionpaimentback;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class GestionpaimentbackApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,43 @@
+package com.example.gestionpaimentback.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+// Identifiant de corrélation par requête : repris de X-Request-Id (proxy, frontend) ou généré,
+// placé dans le MDC (requestId dans chaque ligne de log) et renvoyé dans la réponse
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String ENTETE = "X-Request-Id";
+    public static final String CLE_MDC = "requestId";
+
+    private static final Pattern ID_VALIDE = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String id = request.getHeader(ENTETE);
+        if (id == null || !ID_VALIDE.matcher(id).matches()) {
+            id = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        }
+        MDC.put(CLE_MDC, id);
+        response.setHeader(ENTETE, id);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(CLE_MDC);
+        }
+    }
+}
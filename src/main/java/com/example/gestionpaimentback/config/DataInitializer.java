@@ -2,6 +2,8 @@ package com.example.gestionpaimentback.config;
 
 import com.example.gestionpaimentback.entity.Role;
 import com.example.gestionpaimentback.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -9,6 +11,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     @Autowired
     private RoleRepository roleRepository;
 
@@ -17,17 +21,17 @@ public class DataInitializer implements CommandLineRunner {
         // Créer les rôles
         if (roleRepository.findByName(Role.ERole.ROLE_ADMIN).isEmpty()) {
             roleRepository.save(new Role(Role.ERole.ROLE_ADMIN));
-            System.out.println("Role ADMIN créé");
+            log.info("Role ADMIN créé");
         }
         if (roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).isEmpty()) {
             roleRepository.save(new Role(Role.ERole.ROLE_FORMATEUR));
-            System.out.println("Role FORMATEUR créé");
+            log.info("Role FORMATEUR créé");
         }
         if (roleRepository.findByName(Role.ERole.ROLE_COORDINATEUR).isEmpty()) {
             roleRepository.save(new Role(Role.ERole.ROLE_COORDINATEUR));
-            System.out.println("Role COORDINATEUR créé");
+            log.info("Role COORDINATEUR créé");
         }
 
-        System.out.println("Tous les rôles sont initialisés!");
+        log.info("Tous les rôles sont initialisés!");
     }
 }
\ No newline at end of file
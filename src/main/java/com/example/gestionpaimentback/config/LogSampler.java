@@ -0,0 +1,19 @@
+package com.example.gestionpaimentback.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Échantillonnage des logs DEBUG écrits pour chaque ligne d'une liste (1 ligne sur N)
+// À tester après log.isDebugEnabled() pour ne rien construire quand DEBUG est coupé
+@Component
+public class LogSampler {
+
+    @Value("${app.logging.sampling.rows:100}")
+    private int uneLigneSur;
+
+    public boolean echantillonner() {
+        return uneLigneSur <= 1 || ThreadLocalRandom.current().nextInt(uneLigneSur) == 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.gestionpaimentback.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Durée de chaque phase des endpoints auth / sessions / admin + compteurs d'issue des connexions
+// Exposés en Prometheus sur /actuator/prometheus (app_phase_seconds_bucket{phase="..."}, app_auth_outcome_total)
+// Timers et compteurs créés une seule fois : l'enregistrement ne coûte que quelques incréments atomiques
+@Component
+public class PhaseMetrics {
+
+    public enum Phase {
+        MOT_DE_PASSE("auth.password_match"),
+        RECHERCHE_UTILISATEUR("auth.user_lookup"),
+        PERSISTANCE_CODE("auth.code_persist"),
+        MISE_EN_FILE_MAIL("mail.enqueue"),
+        ENVOI_SMTP("mail.smtp_send"),
+        REQUETE_SESSIONS("sessions.list_query"),
+        MAPPING_SESSIONS("sessions.list_mapping"),
+        REQUETE_FORMATEURS("admin.formateurs_query");
+
+        private final String nom;
+
+        Phase(String nom) {
+            this.nom = nom;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+    private final Map<String, Counter> issues = new ConcurrentHashMap<>();
+
+    public PhaseMetrics(MeterRegistry registry,
+                        @Value("${app.metrics.histogram.min-ms:1}") long minMs,
+                        @Value("${app.metrics.histogram.max-ms:30000}") long maxMs) {
+        this.registry = registry;
+        for (Phase phase : Phase.values()) {
+            // Histogramme à buckets fixes (agrégeable entre noeuds) plutôt que percentiles calculés localement
+            timers.put(phase, Timer.builder("app.phase")
+                    .description("Durée d'une phase de traitement")
+                    .tag("phase", phase.getNom())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(minMs))
+                    .maximumExpectedValue(Duration.ofMillis(maxMs))
+                    .register(registry));
+        }
+    }
+
+    public <T> T mesurer(Phase phase, Supplier<T> action) {
+        return timers.get(phase).record(action);
+    }
+
+    public void mesurer(Phase phase, Runnable action) {
+        timers.get(phase).record(action);
+    }
+
+    public void enregistrer(Phase phase, long dureeNanos) {
+        timers.get(phase).record(Duration.ofNanos(dureeNanos));
+    }
+
+    // endpoint : signin, verify-code... ; issue : success, code_sent, invalid_password...
+    public void compter(String endpoint, String issue) {
+        issues.computeIfAbsent(endpoint + '|' + issue, cle -> Counter.builder("app.auth.outcome")
+                .description("Issue des requêtes d'authentification")
+                .tag("endpoint", endpoint)
+                .tag("outcome", issue)
+                .register(registry)).increment();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.gestionpaimentback.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+
+// Mode d'exécution des requêtes (profil "virtual" -> spring.threads.virtual.enabled)
+// Restent volontairement sur des threads plateforme :
+// - PasswordHasher : BCrypt est du calcul pur, un pool à la taille des coeurs reste optimal
+// - EmailOutboxWorker : SMTPTransport (jakarta.mail) synchronise ses écritures réseau,
+//   un thread virtuel y resterait épinglé à son carrier pendant tout l'envoi
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtuelsDemandes;
+
+    @PostConstruct
+    public void afficherMode() {
+        boolean supportes = JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+        if (virtuelsDemandes && !supportes) {
+            log.atWarn().setMessage("⚠️ Threads virtuels demandés mais non supportés : pool de threads plateforme de Tomcat")
+                    .addKeyValue("jdk", JavaVersion.getJavaVersion()).log();
+        } else {
+            log.atInfo().setMessage("🧵 Mode d'exécution")
+                    .addKeyValue("threads", virtuelsDemandes ? "virtuels" : "plateforme").log();
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package com.example.gestionpaimentback.controller;
 
-import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.config.LogSampler;
 import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.security.RateLimiter;
+import com.example.gestionpaimentback.security.TokenService;
 import com.example.gestionpaimentback.service.AdminService;
+import com.example.gestionpaimentback.service.AffectationIndex;
+import com.example.gestionpaimentback.service.EmailOutboxWorker;
+import com.example.gestionpaimentback.service.SessionCalendrierIndex;
+import com.example.gestionpaimentback.service.UserDetailsCache;
+import com.example.gestionpaimentback.service.VerificationCodePurgeJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -17,40 +28,59 @@ import java.util.stream.Collectors;
 @CrossOrigin("*")
 public class AdminController {
 
-    private final AdminService adminService;
+    private static final Logger log = LoggerFactory.getLogger(AdminController.class);
 
-    public AdminController(AdminService adminService) {
+    private final AdminService adminService;
+    private final EmailOutboxWorker emailOutboxWorker;
+    private final UserDetailsCache userDetailsCache;
+    private final VerificationCodePurgeJob verificationCodePurgeJob;
+    private final RateLimiter rateLimiter;
+    private final TokenService tokenService;
+    private final AffectationIndex affectationIndex;
+    private final SessionCalendrierIndex calendrierIndex;
+    private final LogSampler logSampler;
+
+    public AdminController(AdminService adminService, EmailOutboxWorker emailOutboxWorker,
+                           UserDetailsCache userDetailsCache, VerificationCodePurgeJob verificationCodePurgeJob,
+                           RateLimiter rateLimiter, TokenService tokenService, AffectationIndex affectationIndex,
+                           SessionCalendrierIndex calendrierIndex, LogSampler logSampler) {
         this.adminService = adminService;
+        this.emailOutboxWorker = emailOutboxWorker;
+        this.userDetailsCache = userDetailsCache;
+        this.verificationCodePurgeJob = verificationCodePurgeJob;
+        this.rateLimiter = rateLimiter;
+        this.tokenService = tokenService;
+        this.affectationIndex = affectationIndex;
+        this.calendrierIndex = calendrierIndex;
+        this.logSampler = logSampler;
     }
     @GetMapping("/users")
     public List<User> getAllUsers() {
         return adminService.getAllUsers();
     }
 
+    // ?stream=true : même tableau (sans mot de passe) écrit au fil du curseur, mémoire constante
+    @GetMapping(value = "/users", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody corps = adminService::ecrireUtilisateursJson;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(corps);
+    }
+
 
     @GetMapping("/formateurs")
     public ResponseEntity<?> getFormateurs() {
         try {
-            System.out.println("=== 🚀 GET /admin/formateurs ===");
-
             List<User> formateurs = adminService.getFormateurs();
 
-            System.out.println("📊 " + formateurs.size() + " formateurs trouvés dans le controller");
-
-            // 🔥 LOG DÉTAILLÉ
-            for (User formateur : formateurs) {
-                System.out.println("👨‍🏫 Formateur: " + formateur.getId() + " - " +
-                        formateur.getFirstName() + " " + formateur.getLastName() +
-                        " - " + formateur.getEmail());
-
-                // Afficher les rôles
-                if (formateur.getRoles() != null) {
-                    System.out.println("   Rôles: " + formateur.getRoles().size());
-                    for (Role role : formateur.getRoles()) {
-                        System.out.println("   - " + role.getName());
+            // 🔥 LOG DÉTAILLÉ (DEBUG, échantillonné)
+            if (log.isDebugEnabled()) {
+                for (User formateur : formateurs) {
+                    if (logSampler.echantillonner()) {
+                        log.atDebug().setMessage("👨‍🏫 Formateur").addKeyValue("id", formateur.getId())
+                                .addKeyValue("email", formateur.getEmail())
+                                .addKeyValue("roles", formateur.getRoles() != null ? formateur.getRoles().size() : 0)
+                                .log();
                     }
-                } else {
-                    System.out.println("   ❌ Aucun rôle trouvé");
                 }
             }
 
@@ -75,14 +105,12 @@ public class AdminController {
                 return formateurMap;
             }).collect(Collectors.toList());
 
-            System.out.println("📤 Envoi de " + formattedFormateurs.size() + " formateurs formatés");
-            System.out.println("=== ✅ FIN GET /admin/formateurs ===");
+            log.atDebug().setMessage("📤 GET /admin/formateurs").addKeyValue("formateurs", formattedFormateurs.size()).log();
 
             return new ResponseEntity<>(formattedFormateurs, HttpStatus.OK);
 
         } catch (Exception e) {
-            System.out.println("❌ ERREUR GET FORMATEURS: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Erreur GET formateurs", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -92,6 +120,48 @@ public class AdminController {
         return adminService.getCoordinateurs();
     }
 
+    // Profondeur et latence de la file d'envoi des emails
+    @GetMapping("/email-outbox/stats")
+    public Map<String, Object> getEmailOutboxStats() {
+        return emailOutboxWorker.getStatistiques();
+    }
+
+    // Hits / misses / évictions du cache des utilisateurs
+    @GetMapping("/cache/user-details/stats")
+    public Map<String, Object> getUserDetailsCacheStats() {
+        return userDetailsCache.getStatistiques();
+    }
+
+    // Lignes supprimées et durée de la dernière purge des codes
+    @GetMapping("/verification-codes/purge/stats")
+    public Map<String, Object> getVerificationCodePurgeStats() {
+        return verificationCodePurgeJob.getStatistiques();
+    }
+
+    // Refus et nombre de clés suivies par règle de limitation
+    @GetMapping("/rate-limit/stats")
+    public Map<String, Object> getRateLimitStats() {
+        return rateLimiter.getStatistiques();
+    }
+
+    // Mode d'authentification, jetons acceptés / rejetés et révocations en cours
+    @GetMapping("/auth/token/stats")
+    public Map<String, Object> getTokenStats() {
+        return tokenService.getStatistiques();
+    }
+
+    // Couples, sessions, formateurs et octets de l'index des affectations
+    @GetMapping("/sessions/index/stats")
+    public Map<String, Object> getAffectationIndexStats() {
+        return affectationIndex.getStatistiques();
+    }
+
+    // Sessions datées du calendrier (GET /api/sessions/active) ; actif indépendamment de l'index des affectations
+    @GetMapping("/sessions/calendrier/stats")
+    public Map<String, Object> getCalendrierStats() {
+        return calendrierIndex.getStatistiques();
+    }
+
     @DeleteMapping("/users/{id}")
     public String deleteUser(@PathVariable Long id) {
         adminService.deleteUser(id);
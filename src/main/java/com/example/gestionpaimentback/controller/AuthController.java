@@ -1,25 +1,34 @@
 package com.example.gestionpaimentback.controller;
 
+import com.example.gestionpaimentback.config.PhaseMetrics;
 import com.example.gestionpaimentback.dto.*;
 import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.security.PasswordHasher;
+import com.example.gestionpaimentback.security.RateLimiter;
+import com.example.gestionpaimentback.security.TokenAuthenticationFilter;
+import com.example.gestionpaimentback.security.TokenService;
 import com.example.gestionpaimentback.security.UserDetailsImpl;
 import com.example.gestionpaimentback.service.AuthService;
 import com.example.gestionpaimentback.service.EmailService;
 import com.example.gestionpaimentback.service.UserDetailsServiceImpl;
 import com.example.gestionpaimentback.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,72 +39,83 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private AuthService authService;
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+    @Autowired
+    private RateLimiter rateLimiter;
+    @Autowired
+    private TokenService tokenService;
     @Autowired
     private EmailService emailService;
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    PasswordEncoder encoder;
+    private PhaseMetrics phaseMetrics;
     @PostMapping("/generate")
     public String generate() {
-        return encoder.encode("admin123");
+        return passwordHasher.encode("admin123");
     }
     @PostMapping("/signin")
     public ResponseEntity<?> initiateLogin(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        ResponseEntity<?> limite = limiteDepassee(RateLimiter.Regle.SIGNIN, loginRequest.getEmail(), request);
+        if (limite != null) {
+            return limite;
+        }
         try {
-            System.out.println("🔐 CONNEXION TENTATIVE : " + loginRequest.getEmail());
+            log.atDebug().setMessage("🔐 Connexion tentative").addKeyValue("email", loginRequest.getEmail()).log();
 
-            UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(loginRequest.getEmail());
+            // Une seule requête : hash, statut et rôles
+            UserDetailsImpl userDetails = userDetailsService.loadUserForLogin(loginRequest.getEmail());
 
-            if (!passwordEncoder.matches(loginRequest.getPassword(), userDetails.getPassword())) {
-                System.out.println("❌ MOT DE PASSE INCORRECT");
+            if (!authService.verifierMotDePasse(userDetails, loginRequest.getPassword())) {
+                log.atInfo().setMessage("❌ Mot de passe incorrect").addKeyValue("email", loginRequest.getEmail()).log();
+                phaseMetrics.compter("signin", "invalid_password");
                 Map<String, String> errorResponse = new HashMap<>();
                 errorResponse.put("error", "Mot de passe invalide!");
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
             // Vérifier le statut de l'utilisateur
-            Optional<User> userOptional = userRepository.findByEmail(loginRequest.getEmail());
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-
-                if (user.getStatus() == 0) {
-                    // Première connexion - envoyer le code
-                    System.out.println("🆕 PREMIÈRE CONNEXION - ENVOI DU CODE...");
-                    emailService.sauvegarderEtEnvoyerCode(loginRequest.getEmail());
-
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("message", "Code de vérification envoyé pour première connexion!");
-                    response.put("status", "code_sent");
-                    response.put("email", loginRequest.getEmail());
-                    response.put("nextStep", "verify_code");
-                    response.put("firstLogin", true);
-
-                    return ResponseEntity.ok(response);
-                } else {
-                    // Utilisateur déjà vérifié - connexion directe
-                    System.out.println("✅ UTILISATEUR DÉJÀ VÉRIFIÉ - CONNEXION DIRECTE");
-                    return connecterUtilisateur(userDetails, request);
-                }
-            }
+            if (userDetails.getStatus() == 0) {
+                // Première connexion - envoyer le code
+                log.atInfo().setMessage("🆕 Première connexion - envoi du code").addKeyValue("email", loginRequest.getEmail()).log();
+                emailService.envoyerCodePremiereConnexion(loginRequest.getEmail());
 
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Utilisateur non trouvé");
-            return ResponseEntity.badRequest().body(errorResponse);
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "Code de vérification envoyé pour première connexion!");
+                response.put("status", "code_sent");
+                response.put("email", loginRequest.getEmail());
+                response.put("nextStep", "verify_code");
+                response.put("firstLogin", true);
+
+                phaseMetrics.compter("signin", "code_sent");
+                return ResponseEntity.ok(response);
+            } else {
+                // Utilisateur déjà vérifié - connexion directe
+                return compterConnexion("signin", connecterUtilisateur(userDetails, request));
+            }
 
         } catch (UsernameNotFoundException e) {
-            System.out.println("❌ UTILISATEUR NON TROUVÉ : " + loginRequest.getEmail());
+            log.atInfo().setMessage("❌ Utilisateur non trouvé").addKeyValue("email", loginRequest.getEmail()).log();
+            phaseMetrics.compter("signin", "user_not_found");
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Utilisateur non trouvé avec cet email");
             return ResponseEntity.badRequest().body(errorResponse);
+        } catch (PasswordHasher.SaturationException e) {
+            log.atWarn().setMessage("⏳ Serveur saturé").addKeyValue("erreur", e.getMessage()).log();
+            phaseMetrics.compter("signin", "saturated");
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Serveur occupé, réessayez dans un instant");
+            return ResponseEntity.status(503).header("Retry-After", "1").body(errorResponse);
         } catch (Exception e) {
-            System.out.println("❌ ERREUR CONNEXION : " + e.getMessage());
+            log.atError().setMessage("❌ Erreur connexion").addKeyValue("email", loginRequest.getEmail()).setCause(e).log();
+            phaseMetrics.compter("signin", "error");
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Erreur de connexion: " + e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
@@ -104,37 +124,61 @@ public class AuthController {
 
     @PostMapping("/verify-code")
     public ResponseEntity<?> verifyCodeAndLogin(@RequestBody VerifyCodeRequest verifyCodeRequest, HttpServletRequest request) {
+        ResponseEntity<?> limite = limiteDepassee(RateLimiter.Regle.VERIFY_CODE, verifyCodeRequest.getEmail(), request);
+        if (limite != null) {
+            return limite;
+        }
         try {
-            System.out.println("🔑 VÉRIFICATION CODE : " + verifyCodeRequest.getEmail());
+            log.atDebug().setMessage("🔑 Vérification code").addKeyValue("email", verifyCodeRequest.getEmail()).log();
 
             // Utiliser la nouvelle méthode qui active l'utilisateur
             boolean isValid = emailService.verifierCodeEtActiver(verifyCodeRequest.getEmail(), verifyCodeRequest.getCode());
 
             if (!isValid) {
-                System.out.println("❌ CODE INVALIDE : " + verifyCodeRequest.getCode());
+                log.atInfo().setMessage("❌ Code invalide").addKeyValue("email", verifyCodeRequest.getEmail()).log();
+                phaseMetrics.compter("verify-code", "invalid_code");
                 Map<String, String> errorResponse = new HashMap<>();
                 errorResponse.put("error", "Code invalide ou expiré!");
                 return ResponseEntity.badRequest().body(errorResponse);
             }
 
-            UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(verifyCodeRequest.getEmail());
+            UserDetailsImpl userDetails = userDetailsService.loadUserForLogin(verifyCodeRequest.getEmail());
 
             // Connexion de l'utilisateur
-            return connecterUtilisateur(userDetails, request);
+            return compterConnexion("verify-code", connecterUtilisateur(userDetails, request));
 
         } catch (UsernameNotFoundException e) {
-            System.out.println("❌ UTILISATEUR NON TROUVÉ LORS DE LA VÉRIFICATION");
+            log.atInfo().setMessage("❌ Utilisateur non trouvé lors de la vérification").addKeyValue("email", verifyCodeRequest.getEmail()).log();
+            phaseMetrics.compter("verify-code", "user_not_found");
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Utilisateur non trouvé");
             return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
-            System.out.println("❌ ERREUR VÉRIFICATION : " + e.getMessage());
+            log.atError().setMessage("❌ Erreur vérification").addKeyValue("email", verifyCodeRequest.getEmail()).setCause(e).log();
+            phaseMetrics.compter("verify-code", "error");
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Erreur de vérification: " + e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
 
+    // 429 + Retry-After si l'email ou l'IP a dépassé sa limite, sinon null
+    private ResponseEntity<?> limiteDepassee(RateLimiter.Regle regle, String email, HttpServletRequest request) {
+        long retryAfter = rateLimiter.verifier(regle, email, request);
+        if (retryAfter == 0) {
+            return null;
+        }
+        phaseMetrics.compter(regle.getNom(), "rate_limited");
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Trop de tentatives, réessayez dans " + retryAfter + " secondes");
+        return ResponseEntity.status(429).header("Retry-After", String.valueOf(retryAfter)).body(errorResponse);
+    }
+
+    private ResponseEntity<?> compterConnexion(String endpoint, ResponseEntity<?> reponse) {
+        phaseMetrics.compter(endpoint, reponse.getStatusCode().is2xxSuccessful() ? "success" : "error");
+        return reponse;
+    }
+
     // Méthode utilitaire pour connecter l'utilisateur
     private ResponseEntity<?> connecterUtilisateur(UserDetailsImpl userDetails, HttpServletRequest request) {
         try {
@@ -148,12 +192,20 @@ public class AuthController {
             SecurityContext securityContext = SecurityContextHolder.getContext();
             securityContext.setAuthentication(authentication);
 
-            HttpSession session = request.getSession(true);
-            session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, securityContext);
-            session.setMaxInactiveInterval(86400);
-
-            System.out.println("✅ CONNEXION RÉUSSIE : " + userDetails.getEmail());
-            System.out.println("🔐 SESSION CRÉÉE - ID: " + session.getId());
+            // Mode jeton : rien n'est stocké côté serveur, le client renvoie le jeton à chaque requête
+            String token = null;
+            HttpSession session = null;
+            if (tokenService.isActif()) {
+                token = tokenService.emettre(userDetails);
+                log.atInfo().setMessage("✅ Connexion réussie").addKeyValue("email", userDetails.getEmail())
+                        .addKeyValue("mode", "token").log();
+            } else {
+                session = request.getSession(true);
+                session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, securityContext);
+                session.setMaxInactiveInterval(86400);
+                log.atInfo().setMessage("✅ Connexion réussie").addKeyValue("email", userDetails.getEmail())
+                        .addKeyValue("mode", "session").log();
+            }
 
             List<String> roles = userDetails.getAuthorities().stream()
                     .map(item -> item.getAuthority())
@@ -166,13 +218,20 @@ public class AuthController {
             response.put("email", userDetails.getEmail());
             response.put("roles", roles);
             response.put("redirectTo", "/dashboard");
-            response.put("sessionCreated", true);
-            response.put("sessionId", session.getId());
+            if (token != null) {
+                response.put("sessionCreated", false);
+                response.put("token", token);
+                response.put("tokenType", "Bearer");
+                response.put("expiresIn", tokenService.getDureeSecondes());
+            } else {
+                response.put("sessionCreated", true);
+                response.put("sessionId", session.getId());
+            }
 
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.out.println("❌ ERREUR CONNEXION UTILISATEUR : " + e.getMessage());
+            log.atError().setMessage("❌ Erreur connexion utilisateur").addKeyValue("email", userDetails.getEmail()).setCause(e).log();
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Erreur lors de la connexion: " + e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
@@ -180,9 +239,13 @@ public class AuthController {
     }
 
     @PostMapping("/resend-code")
-    public ResponseEntity<?> resendCode(@RequestBody ResendCodeRequest resendCodeRequest) {
+    public ResponseEntity<?> resendCode(@RequestBody ResendCodeRequest resendCodeRequest, HttpServletRequest request) {
+        ResponseEntity<?> limite = limiteDepassee(RateLimiter.Regle.RESEND_CODE, resendCodeRequest.getEmail(), request);
+        if (limite != null) {
+            return limite;
+        }
         try {
-            System.out.println("🔄 RENVOI CODE : " + resendCodeRequest.getEmail());
+            log.atInfo().setMessage("🔄 Renvoi code").addKeyValue("email", resendCodeRequest.getEmail()).log();
 
             // Vérifier si l'utilisateur existe et n'est pas encore vérifié
             Optional<User> userOptional = userRepository.findByEmail(resendCodeRequest.getEmail());
@@ -200,7 +263,7 @@ public class AuthController {
             }
 
         } catch (Exception e) {
-            System.out.println("❌ ERREUR RENVOI CODE : " + e.getMessage());
+            log.atError().setMessage("❌ Erreur renvoi code").addKeyValue("email", resendCodeRequest.getEmail()).setCause(e).log();
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Erreur lors de l'envoi du code: " + e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
@@ -210,17 +273,15 @@ public class AuthController {
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@RequestBody RegisterRequest registerRequest) {
         try {
-            System.out.println("📝 INSCRIPTION : " + registerRequest.getEmail());
-
             if (authService.existsByEmail(registerRequest.getEmail())) {
-                System.out.println("❌ EMAIL DÉJÀ UTILISÉ : " + registerRequest.getEmail());
+                log.atInfo().setMessage("❌ Email déjà utilisé").addKeyValue("email", registerRequest.getEmail()).log();
                 Map<String, String> errorResponse = new HashMap<>();
                 errorResponse.put("error", "Cet email est déjà utilisé!");
                 return ResponseEntity.badRequest().body(errorResponse);
             }
             User user = authService.registerUser(registerRequest);
-            System.out.println("✅ UTILISATEUR INSCRIT : " + user.getEmail());
-            System.out.println("📊 STATUT UTILISATEUR : " + user.getStatus());
+            log.atInfo().setMessage("✅ Utilisateur inscrit").addKeyValue("email", user.getEmail())
+                    .addKeyValue("status", user.getStatus()).log();
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Utilisateur inscrit avec succès! Un code de vérification sera envoyé à votre première connexion.");
@@ -234,89 +295,59 @@ public class AuthController {
                     .collect(Collectors.toList()));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.out.println("❌ ERREUR INSCRIPTION : " + e.getMessage());
+            log.atError().setMessage("❌ Erreur inscription").addKeyValue("email", registerRequest.getEmail()).setCause(e).log();
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Erreur lors de l'inscription: " + e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
 
+    // Servi uniquement depuis le principal du contexte de sécurité : aucun accès base
+    // ETag sur (id, email, rôles, session) -> 304 sans corps tant que rien ne change
     @GetMapping("/check-auth")
     public ResponseEntity<?> checkAuthentication(HttpServletRequest request) {
-        Map<String, Object> response = new HashMap<>();
-
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             HttpSession session = request.getSession(false);
 
-            System.out.println("🔍 CHECK-AUTH - Authentification: " + authentication);
-
-            // Vérification basique
             if (authentication == null || !authentication.isAuthenticated()
-                    || authentication.getName().equals("anonymousUser")) {
-
-                System.out.println("❌ Utilisateur NON AUTHENTIFIÉ");
-
-                response.put("authenticated", false);
-                response.put("message", "Non authentifié");
-                response.put("sessionActive", session != null);
-                return ResponseEntity.status(401).body(response);
+                    || !(authentication.getPrincipal() instanceof UserDetailsImpl userDetails)) {
+                return ResponseEntity.status(401).body(
+                        new CheckAuthResponse(false, "Non authentifié", session != null, null, null, null));
             }
 
-            String email = authentication.getName();
-
-            // ➤ Récupération de l'utilisateur connecté
-            User user = userRepository.findByEmail(email).orElse(null);
-
-            if (user == null) {
-                System.out.println("❌ UTILISATEUR INTROUVABLE EN BD : " + email);
-
-                response.put("authenticated", false);
-                response.put("message", "Utilisateur introuvable");
-                response.put("sessionActive", session != null);
-                return ResponseEntity.status(404).body(response);
-            }
+            List<String> roles = userDetails.getAuthorities().stream()
+                    .map(auth -> auth.getAuthority())
+                    .collect(Collectors.toList());
 
             // Vérification des rôles
-            boolean hasAccess = authentication.getAuthorities().stream()
-                    .anyMatch(auth ->
-                            auth.getAuthority().equals("ROLE_ADMIN") ||
-                                    auth.getAuthority().equals("ROLE_FORMATEUR") ||
-                                    auth.getAuthority().equals("ROLE_COORDINATEUR")
+            boolean hasAccess = roles.stream()
+                    .anyMatch(role ->
+                            role.equals("ROLE_ADMIN") ||
+                                    role.equals("ROLE_FORMATEUR") ||
+                                    role.equals("ROLE_COORDINATEUR")
                     );
 
             if (!hasAccess) {
-                System.out.println("🚫 ACCÈS REFUSÉ - RÔLES INSUFFISANTS");
-
-                response.put("authenticated", false);
-                response.put("message", "Accès refusé - Rôles insuffisants");
-                response.put("roles", authentication.getAuthorities().stream()
-                        .map(a -> a.getAuthority())
-                        .collect(Collectors.toList()));
-                return ResponseEntity.status(403).body(response);
+                log.atInfo().setMessage("🚫 Accès refusé - rôles insuffisants").addKeyValue("email", userDetails.getEmail()).log();
+                return ResponseEntity.status(403).body(new CheckAuthResponse(false,
+                        "Accès refusé - Rôles insuffisants", session != null, null, null, roles));
             }
 
             // ➤ Réponse finale avec ID du user connecté (important pour le dashboard)
-            System.out.println("✅ UTILISATEUR AUTHENTIFIÉ : " + email);
-
-            response.put("authenticated", true);
-            response.put("message", "Utilisateur authentifié");
-            response.put("sessionActive", session != null);
-
-            // ➤ Ajout important
-            response.put("id", user.getId());               // 🔥 indispensable
-            response.put("email", user.getEmail());
-            response.put("username", user.getEmail());      // pour compatibilité
-            response.put("roles", authentication.getAuthorities()
-                    .stream()
-                    .map(auth -> auth.getAuthority())
-                    .collect(Collectors.toList()));
+            String etag = "\"" + DigestUtils.md5DigestAsHex((userDetails.getId() + "|" + userDetails.getEmail()
+                    + "|" + roles + "|" + (session != null)).getBytes(StandardCharsets.UTF_8)) + "\"";
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(new CheckAuthResponse(true, "Utilisateur authentifié", session != null,
+                            userDetails.getId(), userDetails.getEmail(), roles));
 
         } catch (Exception e) {
-            System.out.println("❌ ERREUR CHECK-AUTH : " + e.getMessage());
+            log.error("❌ Erreur check-auth", e);
 
+            Map<String, Object> response = new HashMap<>();
             response.put("authenticated", false);
             response.put("message", "Erreur serveur");
             response.put("error", e.getMessage());
@@ -337,11 +368,9 @@ public class AuthController {
         response.put("sessionId", session != null ? session.getId() : "NO_SESSION");
         response.put("authenticationClass", authentication.getClass().getSimpleName());
 
-        System.out.println("🐛 DEBUG SESSION:");
-        System.out.println("👤 User: " + authentication.getName());
-        System.out.println("🔐 Auth: " + authentication.isAuthenticated());
-        System.out.println("🎯 Roles: " + authentication.getAuthorities());
-        System.out.println("💾 Session: " + (session != null ? session.getId() : "NONE"));
+        log.atDebug().setMessage("🐛 Debug session").addKeyValue("user", authentication.getName())
+                .addKeyValue("roles", authentication.getAuthorities())
+                .addKeyValue("session", session != null).log();
 
         return ResponseEntity.ok(response);
     }
@@ -352,7 +381,12 @@ public class AuthController {
             HttpSession session = request.getSession(false);
             if (session != null) {
                 session.invalidate();
-                System.out.println("✅ SESSION INVALIDÉE : " + session.getId());
+                log.debug("✅ Session invalidée");
+            }
+
+            String token = TokenAuthenticationFilter.extraireJeton(request);
+            if (tokenService.isActif() && token != null && tokenService.revoquer(token)) {
+                log.debug("✅ Jeton révoqué");
             }
 
             SecurityContextHolder.clearContext();
@@ -362,7 +396,7 @@ public class AuthController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.out.println("❌ ERREUR DÉCONNEXION : " + e.getMessage());
+            log.error("❌ Erreur déconnexion", e);
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Erreur lors de la déconnexion");
             return ResponseEntity.badRequest().body(errorResponse);
@@ -371,17 +405,20 @@ public class AuthController {
 
     @GetMapping("/test")
     public ResponseEntity<?> testEndpoint() {
-        System.out.println("🧪 TEST ENDPOINT APPELÉ");
         Map<String, String> response = new HashMap<>();
         response.put("message", "API Auth fonctionne!");
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/test-email")
-    public ResponseEntity<?> testEmail(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> testEmail(@RequestBody Map<String, String> body, HttpServletRequest request) {
+        ResponseEntity<?> limite = limiteDepassee(RateLimiter.Regle.TEST_EMAIL, body.get("email"), request);
+        if (limite != null) {
+            return limite;
+        }
         try {
-            String email = request.get("email");
-            System.out.println("📧 TEST EMAIL : " + email);
+            String email = body.get("email");
+            log.atInfo().setMessage("📧 Test email").addKeyValue("email", email).log();
 
             emailService.sauvegarderEtEnvoyerCode(email);
 
@@ -393,7 +430,7 @@ public class AuthController {
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.out.println("❌ ERREUR TEST EMAIL : " + e.getMessage());
+            log.atError().setMessage("❌ Erreur test email").addKeyValue("email", body.get("email")).setCause(e).log();
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Erreur test email: " + e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
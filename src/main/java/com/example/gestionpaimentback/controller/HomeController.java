@@ -1,16 +1,22 @@
 package com.example.gestionpaimentback.controller;
 
+import com.example.gestionpaimentback.dto.HomeResponse;
+import com.example.gestionpaimentback.security.UserDetailsImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -18,43 +24,36 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/home")
 public class HomeController {
 
+    private static final Logger log = LoggerFactory.getLogger(HomeController.class);
+
+    // Construit depuis le principal uniquement (aucun accès base), 304 si l'ETag n'a pas changé
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'FORMATEUR', 'COORDINATEUR')")
-    public Map<String, Object> getHome(HttpServletRequest request) {
+    public ResponseEntity<HomeResponse> getHome(HttpServletRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         HttpSession session = request.getSession(false);
 
-        System.out.println("HomeController appelé");
-        System.out.println("Utilisateur: " + authentication.getName());
-        System.out.println("Authentifié: " + authentication.isAuthenticated());
-        System.out.println("Rôles: " + authentication.getAuthorities());
-        System.out.println("Classe: " + authentication.getClass().getSimpleName());
-        System.out.println("Session: " + (session != null ? session.getId() : "AUCUNE"));
-
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof UserDetailsImpl userDetails)) {
 
-        if (authentication instanceof AnonymousAuthenticationToken ||
-                !authentication.isAuthenticated() ||
-                "anonymousUser".equals(authentication.getName())) {
-
-            System.out.println(" ACCÈS REFUSÉ - UTILISATEUR ANONYME");
             throw new AccessDeniedException("Accès non autorisé");
         }
 
-        Map<String, Object> homeData = new HashMap<>();
-        homeData.put("message", "Bienvenue sur la page d'accueil!");
-        homeData.put("user", authentication.getName());
-        homeData.put("username", authentication.getName());
-        homeData.put("authenticated", authentication.isAuthenticated());
-        homeData.put("roles", authentication.getAuthorities()
+        log.atDebug().setMessage("🏠 Accueil").addKeyValue("email", userDetails.getEmail()).log();
+
+        List<String> roles = userDetails.getAuthorities()
                 .stream()
                 .map(auth -> auth.getAuthority())
-                .collect(Collectors.toList()));
-        homeData.put("timestamp", System.currentTimeMillis());
-        homeData.put("sessionActive", session != null);
-        homeData.put("sessionId", session != null ? session.getId() : "none");
+                .collect(Collectors.toList());
+        String sessionId = session != null ? session.getId() : null;
 
-        System.out.println("Données envoyées à l'utilisateur: " + authentication.getName());
+        String etag = "\"" + DigestUtils.md5DigestAsHex((userDetails.getId() + "|" + userDetails.getEmail()
+                + "|" + roles + "|" + sessionId).getBytes(StandardCharsets.UTF_8)) + "\"";
 
-        return homeData;
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(new HomeResponse("Bienvenue sur la page d'accueil!", userDetails.getId(),
+                        userDetails.getEmail(), roles, sessionId));
     }
-}
\ No newline at end of file
+}
@@ -1,78 +1,195 @@
 package com.example.gestionpaimentback.controller;
 
+import com.example.gestionpaimentback.dto.AffectationsBatchRequest;
+import com.example.gestionpaimentback.dto.ConflitPlanning;
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.dto.SessionFilter;
+import com.example.gestionpaimentback.dto.SessionPage;
 import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.service.ConflitPlanningException;
+import com.example.gestionpaimentback.service.SessionImportService;
 import com.example.gestionpaimentback.service.SessionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.Semaphore;
 
 @RestController
 @RequestMapping("/api/sessions")
 @CrossOrigin(origins = "*")
 public class SessionController {
 
+    private static final Logger log = LoggerFactory.getLogger(SessionController.class);
+
     @Autowired
     private SessionService sessionService;
 
+    @Autowired
+    private SessionImportService sessionImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.sessions.export.max-concurrent:2}")
+    private int exportsMax;
+
+    @Value("${app.sessions.import.max-concurrent:1}")
+    private int importsMax;
+
+    private Semaphore exportsEnCours;
+    private Semaphore importsEnCours;
+
+    @PostConstruct
+    public void initialiserExports() {
+        exportsEnCours = new Semaphore(exportsMax);
+        importsEnCours = new Semaphore(importsMax);
+    }
+
     // ✅ GET - Récupérer toutes les sessions AVEC FORMATEURS
+    // Sans paramètre : tableau complet (compatibilité). Avec limit, cursor, includeTotal ou un filtre :
+    // page {items, nextCursor, limit[, total]}, ordre idSession décroissant, filtres appliqués en SQL
     @GetMapping
-    public ResponseEntity<?> getAllSessions() {
+    public ResponseEntity<?> getAllSessions(@RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) Long cursor,
+                                            @RequestParam(defaultValue = "false") boolean includeTotal,
+                                            SessionFilter filtre) {
         try {
-            System.out.println("=== 🚀 GET ALL SESSIONS ===");
-
-            List<Session> sessions = sessionService.getAllSessions();
-
-            System.out.println("📊 " + sessions.size() + " sessions trouvées");
-
-            // 🔥 CORRECTION : Formater les données pour inclure les formateurs
-            List<Map<String, Object>> formattedSessions = sessions.stream().map(session -> {
-                Map<String, Object> sessionMap = new HashMap<>();
-                sessionMap.put("idSession", session.getIdSession());
-                sessionMap.put("classe", session.getClasse());
-                sessionMap.put("specialite", session.getSpecialite());
-                sessionMap.put("promotion", session.getPromotion());
-                sessionMap.put("niveau", session.getNiveau());
-                sessionMap.put("semestre", session.getSemestre());
-                sessionMap.put("dateD", session.getDateD() != null ? session.getDateD().toString() : null);
-                sessionMap.put("dateF", session.getDateF() != null ? session.getDateF().toString() : null);
-
-                // 🔥 CORRECTION : Inclure les formateurs
-                if (session.getFormateurs() != null) {
-                    List<Map<String, Object>> formateursList = session.getFormateurs().stream().map(formateur -> {
-                        Map<String, Object> formateurMap = new HashMap<>();
-                        formateurMap.put("id", formateur.getId());
-                        formateurMap.put("firstName", formateur.getFirstName());
-                        formateurMap.put("lastName", formateur.getLastName());
-                        formateurMap.put("email", formateur.getEmail());
-                        return formateurMap;
-                    }).collect(Collectors.toList());
-                    sessionMap.put("formateurs", formateursList);
-
-                    System.out.println("📋 Session " + session.getIdSession() + " - " + session.getClasse() +
-                            " a " + formateursList.size() + " formateur(s)");
-                } else {
-                    sessionMap.put("formateurs", List.of());
-                    System.out.println("📋 Session " + session.getIdSession() + " - " + session.getClasse() + " a 0 formateur");
-                }
-
-                return sessionMap;
-            }).collect(Collectors.toList());
-
-            System.out.println("=== ✅ FIN GET ALL SESSIONS ===");
-            return new ResponseEntity<>(formattedSessions, HttpStatus.OK);
+            if (limit == null && cursor == null && !includeTotal && (filtre == null || filtre.estVide())) {
+                List<SessionDTO> sessions = sessionService.listerSessions();
+                log.atDebug().setMessage("📊 GET ALL SESSIONS").addKeyValue("sessions", sessions.size()).log();
+                return new ResponseEntity<>(sessions, HttpStatus.OK);
+            }
+
+            SessionPage page = sessionService.getSessionsPage(filtre, cursor, limit, includeTotal);
+            Map<String, Object> response = new HashMap<>();
+            response.put("items", page.getItems());
+            response.put("nextCursor", page.getNextCursor());
+            response.put("limit", page.getLimit());
+            if (page.getTotal() != null) {
+                response.put("total", page.getTotal());
+            }
+            return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
-            System.out.println("❌ ERREUR GET ALL SESSIONS: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Erreur GET ALL SESSIONS", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // ✅ GET ?stream=true - Tableau complet (mêmes filtres) écrit au fil du curseur, sans tout charger en mémoire
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamSessions(SessionFilter filtre) {
+        StreamingResponseBody corps = sortie -> sessionService.ecrireSessionsJson(filtre, sortie);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(corps);
+    }
+
+    // ✅ GET - Export CSV des sessions et de leurs formateurs (mêmes filtres que la liste), écrit au fil du curseur.
+    // Chaque export garde une connexion JDBC jusqu'au dernier octet : au-delà de app.sessions.export.max-concurrent
+    // exports simultanés, 503 plutôt que d'épuiser le pool au détriment des autres requêtes
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exporterSessions(SessionFilter filtre) {
+        if (!exportsEnCours.tryAcquire()) {
+            log.atWarn().setMessage("⏳ Export refusé : exports simultanés au maximum").addKeyValue("max", exportsMax).log();
+            throw new RefusAvantStreaming(HttpStatus.SERVICE_UNAVAILABLE, "Trop d'exports en cours, réessayez dans un instant");
+        }
+        StreamingResponseBody corps = sortie -> {
+            try {
+                sessionService.ecrireSessionsCsv(filtre, sortie);
+            } finally {
+                exportsEnCours.release();
+            }
+        };
+        String fichier = "sessions-" + LocalDate.now() + ".csv";
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fichier).build().toString())
+                .body(corps);
+    }
+
+    // ✅ POST - Import en masse : fichier CSV (.csv) ou JSON Lines (.jsonl) dans le champ "file".
+    // Réponse application/x-ndjson au fil de l'import : progression après chaque lot, une erreur par ligne rejetée,
+    // puis le bilan (type "termine"). En-tête CSV incomplet ou format inconnu : 400 avant tout import
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> importerSessions(@RequestParam("file") MultipartFile fichier) {
+        SessionImportService.Format format = SessionImportService.Format.depuis(fichier.getOriginalFilename(),
+                fichier.getContentType());
+        if (format == null) {
+            throw new RefusAvantStreaming(HttpStatus.BAD_REQUEST, "Format non reconnu : fichier .csv ou .jsonl attendu");
+        }
+        if (!importsEnCours.tryAcquire()) {
+            log.atWarn().setMessage("⏳ Import refusé : imports simultanés au maximum").addKeyValue("max", importsMax).log();
+            throw new RefusAvantStreaming(HttpStatus.SERVICE_UNAVAILABLE, "Un import est déjà en cours, réessayez dans un instant");
+        }
+        SessionImportService.SourceImport source;
+        try {
+            source = sessionImportService.ouvrir(fichier.getInputStream(), format);
+        } catch (IllegalArgumentException | IOException e) {
+            importsEnCours.release();
+            throw new RefusAvantStreaming(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        log.atInfo().setMessage("📥 Import de sessions").addKeyValue("fichier", fichier.getOriginalFilename())
+                .addKeyValue("format", format).addKeyValue("octets", fichier.getSize()).log();
+
+        StreamingResponseBody corps = sortie -> {
+            try (source) {
+                sessionImportService.importer(source, evenement -> {
+                    try {
+                        sortie.write(objectMapper.writeValueAsBytes(evenement));
+                        sortie.write('\n');
+                        sortie.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                importsEnCours.release();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corps);
+    }
+
+    // Refus d'un export / import avant le début du streaming : un corps StreamingResponseBody serait écrit
+    // de manière asynchrone, l'erreur est donc renvoyée en JSON classique par le handler ci-dessous
+    private static class RefusAvantStreaming extends RuntimeException {
+        private final HttpStatus statut;
+
+        RefusAvantStreaming(HttpStatus statut, String message) {
+            super(message);
+            this.statut = statut;
+        }
+    }
+
+    @ExceptionHandler(RefusAvantStreaming.class)
+    public ResponseEntity<Map<String, String>> refusAvantStreaming(RefusAvantStreaming e) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", e.getMessage());
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.status(e.statut);
+        if (e.statut == HttpStatus.SERVICE_UNAVAILABLE) {
+            reponse.header("Retry-After", "5");
+        }
+        return reponse.body(errorResponse);
+    }
+
     // ✅ GET - Récupérer une session par ID
     @GetMapping("/{id}")
     public ResponseEntity<Session> getSessionById(@PathVariable Long id) {
@@ -90,7 +207,7 @@ public class SessionController {
     @PostMapping
     public ResponseEntity<?> createSession(@RequestBody Map<String, Object> sessionData) {
         try {
-            System.out.println("📥 Données reçues pour création session: " + sessionData);
+            log.atDebug().setMessage("📥 Création session").addKeyValue("donnees", sessionData).log();
 
             Session session = new Session();
             session.setClasse((String) sessionData.get("classe"));
@@ -102,22 +219,27 @@ public class SessionController {
             session.setDateF(java.time.LocalDate.parse((String) sessionData.get("dateF")));
 
             Session newSession = sessionService.createSession(session);
-            System.out.println("✅ Session créée avec ID: " + newSession.getIdSession());
+            log.atInfo().setMessage("✅ Session créée").addKeyValue("idSession", newSession.getIdSession()).log();
 
             return new ResponseEntity<>(newSession, HttpStatus.CREATED);
         } catch (Exception e) {
-            System.out.println("❌ Erreur création session: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Erreur création session", e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     // ✅ PUT - Modifier une session
+    // "version" facultative dans le corps : si elle ne correspond plus (modifiée entre-temps), 409
     @PutMapping("/{id}")
-    public ResponseEntity<Session> updateSession(@PathVariable Long id, @RequestBody Session sessionDetails) {
+    public ResponseEntity<?> updateSession(@PathVariable Long id, @RequestBody Session sessionDetails) {
         try {
             Session updatedSession = sessionService.updateSession(id, sessionDetails);
             return new ResponseEntity<>(updatedSession, HttpStatus.OK);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.atWarn().setMessage("⚠️ Session modifiée entre-temps").addKeyValue("idSession", id).log();
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "La session a été modifiée entre-temps, rechargez-la avant de l'enregistrer");
+            return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -143,73 +265,151 @@ public class SessionController {
     @GetMapping("/formateur/{formateurId}")
     public ResponseEntity<?> getSessionsByFormateur(@PathVariable Long formateurId) {
         try {
-            System.out.println("📥 Récupération sessions pour formateur: " + formateurId);
-
-            List<Session> sessions = sessionService.getSessionsByFormateur(formateurId);
-
-            System.out.println("📋 " + sessions.size() + " sessions trouvées pour formateur " + formateurId);
-
-            // Formater les données pour le frontend
-            List<Map<String, Object>> formattedSessions = sessions.stream().map(session -> {
-                Map<String, Object> sessionMap = new HashMap<>();
-                sessionMap.put("idSession", session.getIdSession());
-                sessionMap.put("classe", session.getClasse());
-                sessionMap.put("specialite", session.getSpecialite());
-                sessionMap.put("promotion", session.getPromotion());
-                sessionMap.put("niveau", session.getNiveau());
-                sessionMap.put("semestre", session.getSemestre());
-                sessionMap.put("dateD", session.getDateD() != null ? session.getDateD().toString() : null);
-                sessionMap.put("dateF", session.getDateF() != null ? session.getDateF().toString() : null);
-
-                return sessionMap;
-            }).collect(Collectors.toList());
+            // Projection : mêmes champs qu'avant, sans charger formateurs ni rôles
+            List<SessionDTO> sessions = sessionService.getSessionsByFormateur(formateurId);
+            return new ResponseEntity<>(sessions, HttpStatus.OK);
+        } catch (Exception e) {
+            log.atError().setMessage("❌ Erreur récupération sessions formateur").addKeyValue("formateurId", formateurId)
+                    .setCause(e).log();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-            return new ResponseEntity<>(formattedSessions, HttpStatus.OK);
+    // ✅ GET - Identifiants des sessions d'un formateur (index en mémoire, sans requête)
+    @GetMapping("/formateur/{formateurId}/ids")
+    public ResponseEntity<?> getSessionIdsByFormateur(@PathVariable Long formateurId) {
+        try {
+            return new ResponseEntity<>(sessionService.getSessionIdsByFormateur(formateurId), HttpStatus.OK);
         } catch (Exception e) {
-            System.out.println("❌ Erreur récupération sessions formateur: " + e.getMessage());
+            log.atError().setMessage("❌ Erreur identifiants sessions formateur").addKeyValue("formateurId", formateurId)
+                    .setCause(e).log();
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    // ✅ POST - Assigner un formateur à une session
+    // ✅ POST - Assigner un formateur à une session (idempotent : déjà affecté -> 200, rien ne change)
+    // Réponse : la session et ses formateurs (SessionDTO), plus les chevauchements de planning du formateur
+    // (conflits). Mode rejeter : 409 et les chevauchements, rien n'est affecté
     @PostMapping("/{sessionId}/affecter")
     public ResponseEntity<?> affecterFormateur(
             @PathVariable Long sessionId,
             @RequestBody Map<String, Long> request) {
         try {
             Long formateurId = request.get("formateurId");
-            System.out.println("🎯 Affectation session " + sessionId + " -> formateur " + formateurId);
-
-            Session session = sessionService.assignerFormateur(sessionId, formateurId);
-
-            System.out.println("✅ Formateur affecté avec succès");
+            boolean ajoute = sessionService.assignerFormateur(sessionId, formateurId);
+
+            SessionDTO session = sessionService.getSessionDTO(sessionId);
+            List<ConflitPlanning> conflits = sessionService.getConflitsAffectation(sessionId, formateurId);
+            if (!conflits.isEmpty()) {
+                session.setConflits(conflits);
+            }
+            log.atInfo().setMessage("🎯 Formateur affecté").addKeyValue("sessionId", sessionId)
+                    .addKeyValue("formateurId", formateurId).addKeyValue("dejaAffecte", !ajoute)
+                    .addKeyValue("conflits", conflits.size()).log();
             return new ResponseEntity<>(session, HttpStatus.OK);
+        } catch (ConflitPlanningException e) {
+            log.atWarn().setMessage("📅 Affectation refusée, conflit de planning").addKeyValue("sessionId", sessionId)
+                    .addKeyValue("conflits", e.getConflits().size()).log();
+            return new ResponseEntity<>(refusConflits(e), HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
-            System.out.println("❌ Erreur affectation: " + e.getMessage());
+            log.atWarn().setMessage("❌ Erreur affectation").addKeyValue("sessionId", sessionId)
+                    .addKeyValue("erreur", e.getMessage()).log();
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
-            System.out.println("❌ Erreur serveur affectation: " + e.getMessage());
+            log.atError().setMessage("❌ Erreur serveur affectation").addKeyValue("sessionId", sessionId).setCause(e).log();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // ✅ POST - Affectations en masse en une transaction :
+    // {"affecter": [{"sessionId": 1, "formateurIds": [4, 5]}], "retirer": [{"sessionId": 2, "formateurIds": [4]}]}
+    // Identifiant inconnu ou requête incohérente : 400, rien n'est appliqué
+    @PostMapping("/affectations")
+    public ResponseEntity<?> appliquerAffectations(@RequestBody AffectationsBatchRequest requete) {
+        try {
+            return new ResponseEntity<>(sessionService.appliquerAffectations(requete), HttpStatus.OK);
+        } catch (ConflitPlanningException e) {
+            log.atWarn().setMessage("📅 Affectations en masse refusées, conflits de planning")
+                    .addKeyValue("conflits", e.getConflits().size()).log();
+            return new ResponseEntity<>(refusConflits(e), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            log.atWarn().setMessage("❌ Affectations en masse refusées").addKeyValue("erreur", e.getMessage()).log();
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.atError().setMessage("❌ Erreur serveur affectations en masse").setCause(e).log();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static Map<String, Object> refusConflits(ConflitPlanningException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", e.getMessage());
+        errorResponse.put("conflits", e.getConflits());
+        return errorResponse;
+    }
+
+    // ✅ GET - Tous les chevauchements de planning (formateur affecté à deux sessions qui se recouvrent),
+    // en un passage sur l'index : {"total", "conflits" (au plus ?limit), "tronque", "dureeMs"}
+    @GetMapping("/conflits")
+    public ResponseEntity<?> listerConflits(@RequestParam(value = "limit", required = false) Integer limite) {
+        try {
+            return new ResponseEntity<>(sessionService.listerConflits(limite), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            log.atError().setMessage("❌ Erreur liste des conflits").setCause(e).log();
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    // ✅ DELETE - Retirer un formateur d'une session
+    // ✅ GET - Sessions en cours sur une période, par l'index en mémoire : ?from=2025-09-01&to=2025-09-07
+    // (to absent : ce seul jour). counts=true : {"from", "to", "sessions", "parJour"} pour les vues calendrier
+    @GetMapping("/active")
+    public ResponseEntity<?> getSessionsActives(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean counts) {
+        try {
+            if (counts) {
+                return new ResponseEntity<>(sessionService.compterSessionsActives(from, to), HttpStatus.OK);
+            }
+            return new ResponseEntity<>(sessionService.getSessionsActives(from, to), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            log.atError().setMessage("❌ Erreur sessions actives").addKeyValue("from", from).addKeyValue("to", to)
+                    .setCause(e).log();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // ✅ DELETE - Retirer un formateur d'une session (idempotent : pas affecté -> 200, rien ne change)
     @DeleteMapping("/{sessionId}/retirer/{formateurId}")
     public ResponseEntity<?> retirerFormateur(
             @PathVariable Long sessionId,
             @PathVariable Long formateurId) {
         try {
-            System.out.println("🗑️ Retrait formateur " + formateurId + " de session " + sessionId);
-
-            Session session = sessionService.retirerFormateur(sessionId, formateurId);
+            boolean retire = sessionService.retirerFormateur(sessionId, formateurId);
 
-            System.out.println("✅ Formateur retiré avec succès");
-            return new ResponseEntity<>(session, HttpStatus.OK);
+            log.atInfo().setMessage("🗑️ Formateur retiré").addKeyValue("sessionId", sessionId)
+                    .addKeyValue("formateurId", formateurId).addKeyValue("etaitAffecte", retire).log();
+            return new ResponseEntity<>(sessionService.getSessionDTO(sessionId), HttpStatus.OK);
         } catch (RuntimeException e) {
-            System.out.println("❌ Erreur retrait: " + e.getMessage());
+            log.atWarn().setMessage("❌ Erreur retrait").addKeyValue("sessionId", sessionId)
+                    .addKeyValue("formateurId", formateurId).addKeyValue("erreur", e.getMessage()).log();
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
-            System.out.println("❌ Erreur serveur retrait: " + e.getMessage());
+            log.atError().setMessage("❌ Erreur serveur retrait").addKeyValue("sessionId", sessionId).setCause(e).log();
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -219,10 +419,9 @@ public class SessionController {
     public ResponseEntity<Boolean> isFormateurInSession(@PathVariable Long sessionId, @PathVariable Long formateurId) {
         try {
             boolean isInSession = sessionService.isFormateurInSession(sessionId, formateurId);
-            System.out.println("🔍 Formateur " + formateurId + " dans session " + sessionId + ": " + isInSession);
             return new ResponseEntity<>(isInSession, HttpStatus.OK);
         } catch (Exception e) {
-            System.out.println("❌ Erreur vérification formateur: " + e.getMessage());
+            log.atError().setMessage("❌ Erreur vérification formateur").addKeyValue("sessionId", sessionId).setCause(e).log();
             return new ResponseEntity<>(false, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -2,6 +2,7 @@ package com.example.gestionpaimentback.controller;
 
 import com.example.gestionpaimentback.entity.User;
 import com.example.gestionpaimentback.repository.UserRepository;
+import com.example.gestionpaimentback.service.UserDetailsCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,6 +22,9 @@ public class UserProfileController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     // Récupérer le profil utilisateur
     @GetMapping("/profile")
     @PreAuthorize("hasAnyRole('ADMIN', 'FORMATEUR', 'COORDINATEUR')")
@@ -86,6 +90,7 @@ public class UserProfileController {
                 }
 
                 userRepository.save(user);
+                userDetailsCache.invalider(user.getEmail());
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("message", "Profil mis à jour avec succès");
@@ -0,0 +1,4 @@
+package com.example.gestionpaimentback.dto;
+
+// Un couple de la table session_formateurs
+public record AffectationPaire(Long sessionId, Long formateurId) {}
@@ -0,0 +1,42 @@
+package com.example.gestionpaimentback.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Corps de POST /api/sessions/affectations : par session, les formateurs à affecter et ceux à retirer
+// {"affecter": [{"sessionId": 1, "formateurIds": [4, 5]}], "retirer": [{"sessionId": 2, "formateurIds": [4]}]}
+public class AffectationsBatchRequest {
+    private List<Ligne> affecter = new ArrayList<>();
+    private List<Ligne> retirer = new ArrayList<>();
+
+    public AffectationsBatchRequest() {}
+
+    public AffectationsBatchRequest(List<Ligne> affecter, List<Ligne> retirer) {
+        this.affecter = affecter;
+        this.retirer = retirer;
+    }
+
+    public List<Ligne> getAffecter() { return affecter; }
+    public void setAffecter(List<Ligne> affecter) { this.affecter = affecter; }
+
+    public List<Ligne> getRetirer() { return retirer; }
+    public void setRetirer(List<Ligne> retirer) { this.retirer = retirer; }
+
+    public static class Ligne {
+        private Long sessionId;
+        private List<Long> formateurIds = new ArrayList<>();
+
+        public Ligne() {}
+
+        public Ligne(Long sessionId, List<Long> formateurIds) {
+            this.sessionId = sessionId;
+            this.formateurIds = formateurIds;
+        }
+
+        public Long getSessionId() { return sessionId; }
+        public void setSessionId(Long sessionId) { this.sessionId = sessionId; }
+
+        public List<Long> getFormateurIds() { return formateurIds; }
+        public void setFormateurIds(List<Long> formateurIds) { this.formateurIds = formateurIds; }
+    }
+}
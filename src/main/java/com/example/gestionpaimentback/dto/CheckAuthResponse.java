@@ -0,0 +1,48 @@
+package com.example.gestionpaimentback.dto;
+
+import java.util.List;
+
+public class CheckAuthResponse {
+    private boolean authenticated;
+    private String message;
+    private boolean sessionActive;
+    private Long id;
+    private String email;
+    private String username;
+    private List<String> roles;
+
+    public CheckAuthResponse() {}
+
+    public CheckAuthResponse(boolean authenticated, String message, boolean sessionActive,
+                             Long id, String email, List<String> roles) {
+        this.authenticated = authenticated;
+        this.message = message;
+        this.sessionActive = sessionActive;
+        this.id = id;
+        this.email = email;
+        this.username = email;
+        this.roles = roles;
+    }
+
+    public boolean isAuthenticated() { return authenticated; }
+    public void setAuthenticated(boolean authenticated) { this.authenticated = authenticated; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public boolean isSessionActive() { return sessionActive; }
+    public void setSessionActive(boolean sessionActive) { this.sessionActive = sessionActive; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    // pour compatibilité
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public List<String> getRoles() { return roles; }
+    public void setRoles(List<String> roles) { this.roles = roles; }
+}
@@ -0,0 +1,6 @@
+package com.example.gestionpaimentback.dto;
+
+import java.time.LocalDate;
+
+// Un formateur affecté (ou à affecter) à deux sessions dont les périodes se chevauchent, de debut à fin inclus
+public record ConflitPlanning(Long formateurId, Long sessionId, Long autreSessionId, LocalDate debut, LocalDate fin) {}
@@ -0,0 +1,51 @@
+package com.example.gestionpaimentback.dto;
+
+import java.util.List;
+
+public class HomeResponse {
+    private String message;
+    private Long userId;
+    private String user;
+    private String username;
+    private boolean authenticated;
+    private List<String> roles;
+    private boolean sessionActive;
+    private String sessionId;
+
+    public HomeResponse() {}
+
+    public HomeResponse(String message, Long userId, String user, List<String> roles, String sessionId) {
+        this.message = message;
+        this.userId = userId;
+        this.user = user;
+        this.username = user;
+        this.authenticated = true;
+        this.roles = roles;
+        this.sessionActive = sessionId != null;
+        this.sessionId = sessionId != null ? sessionId : "none";
+    }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getUser() { return user; }
+    public void setUser(String user) { this.user = user; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public boolean isAuthenticated() { return authenticated; }
+    public void setAuthenticated(boolean authenticated) { this.authenticated = authenticated; }
+
+    public List<String> getRoles() { return roles; }
+    public void setRoles(List<String> roles) { this.roles = roles; }
+
+    public boolean isSessionActive() { return sessionActive; }
+    public void setSessionActive(boolean sessionActive) { this.sessionActive = sessionActive; }
+
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+}
@@ -1,8 +1,13 @@
 package com.example.gestionpaimentback.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
+// formateurs absent du JSON quand non chargé (sessions d'un formateur)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class SessionDTO {
     private Long idSession;
     private String classe;
@@ -14,10 +19,25 @@ public class SessionDTO {
     private LocalDate dateF;
     private Set<FormateurDTO> formateurs;
     private boolean formateurAssigne; // Pour le formateur connecté
+    // Réponse d'une affectation : chevauchements de planning signalés (absent sinon)
+    private List<ConflitPlanning> conflits;
 
     // Constructeurs
     public SessionDTO() {}
 
+    // Projection JPQL / Criteria : colonnes de la table sessions uniquement
+    public SessionDTO(Long idSession, String classe, String specialite, String promotion,
+                      String niveau, String semestre, LocalDate dateD, LocalDate dateF) {
+        this.idSession = idSession;
+        this.classe = classe;
+        this.specialite = specialite;
+        this.promotion = promotion;
+        this.niveau = niveau;
+        this.semestre = semestre;
+        this.dateD = dateD;
+        this.dateF = dateF;
+    }
+
     public Long getIdSession() {
         return idSession;
     }
@@ -97,5 +117,12 @@ public class SessionDTO {
     public void setFormateurAssigne(boolean formateurAssigne) {
         this.formateurAssigne = formateurAssigne;
     }
-}
 
+    public List<ConflitPlanning> getConflits() {
+        return conflits;
+    }
+
+    public void setConflits(List<ConflitPlanning> conflits) {
+        this.conflits = conflits;
+    }
+}
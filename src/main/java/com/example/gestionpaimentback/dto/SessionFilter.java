@@ -0,0 +1,58 @@
+package com.example.gestionpaimentback.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Filtres optionnels de GET /api/sessions (paramètres de requête), tous combinés en ET
+public class SessionFilter {
+    private String promotion;
+    private String niveau;
+    private String semestre;
+    private String specialite;
+    private String classe;
+
+    // Bornes incluses, format ISO (2025-09-01)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateDMin;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateDMax;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFMin;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFMax;
+
+    public SessionFilter() {}
+
+    public boolean estVide() {
+        return promotion == null && niveau == null && semestre == null && specialite == null && classe == null
+                && dateDMin == null && dateDMax == null && dateFMin == null && dateFMax == null;
+    }
+
+    public String getPromotion() { return promotion; }
+    public void setPromotion(String promotion) { this.promotion = promotion; }
+
+    public String getNiveau() { return niveau; }
+    public void setNiveau(String niveau) { this.niveau = niveau; }
+
+    public String getSemestre() { return semestre; }
+    public void setSemestre(String semestre) { this.semestre = semestre; }
+
+    public String getSpecialite() { return specialite; }
+    public void setSpecialite(String specialite) { this.specialite = specialite; }
+
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+
+    public LocalDate getDateDMin() { return dateDMin; }
+    public void setDateDMin(LocalDate dateDMin) { this.dateDMin = dateDMin; }
+
+    public LocalDate getDateDMax() { return dateDMax; }
+    public void setDateDMax(LocalDate dateDMax) { this.dateDMax = dateDMax; }
+
+    public LocalDate getDateFMin() { return dateFMin; }
+    public void setDateFMin(LocalDate dateFMin) { this.dateFMin = dateFMin; }
+
+    public LocalDate getDateFMax() { return dateFMax; }
+    public void setDateFMax(LocalDate dateFMax) { this.dateFMax = dateFMax; }
+}
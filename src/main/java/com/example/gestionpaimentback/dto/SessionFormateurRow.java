@@ -0,0 +1,28 @@
+package com.example.gestionpaimentback.dto;
+
+// Un couple session / formateur lu par projection (SELECT new), rattaché ensuite à son SessionDTO
+public class SessionFormateurRow {
+    private final Long sessionId;
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+
+    public SessionFormateurRow(Long sessionId, Long id, String firstName, String lastName, String email) {
+        this.sessionId = sessionId;
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    public Long getSessionId() { return sessionId; }
+
+    public Long getId() { return id; }
+
+    public String getFirstName() { return firstName; }
+
+    public String getLastName() { return lastName; }
+
+    public String getEmail() { return email; }
+}
@@ -0,0 +1,26 @@
+package com.example.gestionpaimentback.dto;
+
+import java.util.List;
+
+// Une page de GET /api/sessions : nextCursor est null sur la dernière page, total seulement si demandé
+public class SessionPage {
+    private final List<SessionDTO> items;
+    private final Long nextCursor;
+    private final int limit;
+    private final Long total;
+
+    public SessionPage(List<SessionDTO> items, Long nextCursor, int limit, Long total) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+        this.total = total;
+    }
+
+    public List<SessionDTO> getItems() { return items; }
+
+    public Long getNextCursor() { return nextCursor; }
+
+    public int getLimit() { return limit; }
+
+    public Long getTotal() { return total; }
+}
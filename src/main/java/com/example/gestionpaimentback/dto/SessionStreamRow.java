@@ -0,0 +1,60 @@
+package com.example.gestionpaimentback.dto;
+
+import java.time.LocalDate;
+
+// Une ligne du curseur de streaming : colonnes de la session, puis du formateur (null si aucun)
+public class SessionStreamRow {
+    private final Long idSession;
+    private final String classe;
+    private final String specialite;
+    private final String promotion;
+    private final String niveau;
+    private final String semestre;
+    private final LocalDate dateD;
+    private final LocalDate dateF;
+    private final Long formateurId;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+
+    public SessionStreamRow(Long idSession, String classe, String specialite, String promotion, String niveau,
+                            String semestre, LocalDate dateD, LocalDate dateF,
+                            Long formateurId, String firstName, String lastName, String email) {
+        this.idSession = idSession;
+        this.classe = classe;
+        this.specialite = specialite;
+        this.promotion = promotion;
+        this.niveau = niveau;
+        this.semestre = semestre;
+        this.dateD = dateD;
+        this.dateF = dateF;
+        this.formateurId = formateurId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    public Long getIdSession() { return idSession; }
+
+    public String getClasse() { return classe; }
+
+    public String getSpecialite() { return specialite; }
+
+    public String getPromotion() { return promotion; }
+
+    public String getNiveau() { return niveau; }
+
+    public String getSemestre() { return semestre; }
+
+    public LocalDate getDateD() { return dateD; }
+
+    public LocalDate getDateF() { return dateF; }
+
+    public Long getFormateurId() { return formateurId; }
+
+    public String getFirstName() { return firstName; }
+
+    public String getLastName() { return lastName; }
+
+    public String getEmail() { return email; }
+}
@@ -0,0 +1,62 @@
+package com.example.gestionpaimentback.dto;
+
+import com.example.gestionpaimentback.entity.Role;
+
+import java.time.LocalDateTime;
+
+// Une ligne du curseur de streaming des utilisateurs : un rôle par ligne (null si aucun), sans mot de passe
+public class UserStreamRow {
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final LocalDateTime createdAt;
+    private final Integer status;
+    private final String cin;
+    private final String rib;
+    private final String bankName;
+    private final String fonctionnalite;
+    private final Integer roleId;
+    private final Role.ERole roleName;
+
+    public UserStreamRow(Long id, String firstName, String lastName, String email, LocalDateTime createdAt,
+                         Integer status, String cin, String rib, String bankName, String fonctionnalite,
+                         Integer roleId, Role.ERole roleName) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.createdAt = createdAt;
+        this.status = status;
+        this.cin = cin;
+        this.rib = rib;
+        this.bankName = bankName;
+        this.fonctionnalite = fonctionnalite;
+        this.roleId = roleId;
+        this.roleName = roleName;
+    }
+
+    public Long getId() { return id; }
+
+    public String getFirstName() { return firstName; }
+
+    public String getLastName() { return lastName; }
+
+    public String getEmail() { return email; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public Integer getStatus() { return status; }
+
+    public String getCin() { return cin; }
+
+    public String getRib() { return rib; }
+
+    public String getBankName() { return bankName; }
+
+    public String getFonctionnalite() { return fonctionnalite; }
+
+    public Integer getRoleId() { return roleId; }
+
+    public Role.ERole getRoleName() { return roleName; }
+}
@@ -0,0 +1,90 @@
+package com.example.gestionpaimentback.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next", columnList = "statut, next_attempt_at")
+})
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destinataire;
+
+    @Column(nullable = false)
+    private String sujet;
+
+    @Column(nullable = false, length = 2000)
+    private String contenu;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EStatut statut = EStatut.PENDING;
+
+    @Column(nullable = false)
+    private int tentatives = 0;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "derniere_erreur", length = 500)
+    private String derniereErreur;
+
+    public EmailOutbox() {}
+
+    public EmailOutbox(String destinataire, String sujet, String contenu) {
+        this.destinataire = destinataire;
+        this.sujet = sujet;
+        this.contenu = contenu;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getDestinataire() { return destinataire; }
+    public void setDestinataire(String destinataire) { this.destinataire = destinataire; }
+
+    public String getSujet() { return sujet; }
+    public void setSujet(String sujet) { this.sujet = sujet; }
+
+    public String getContenu() { return contenu; }
+    public void setContenu(String contenu) { this.contenu = contenu; }
+
+    public EStatut getStatut() { return statut; }
+    public void setStatut(EStatut statut) { this.statut = statut; }
+
+    public int getTentatives() { return tentatives; }
+    public void setTentatives(int tentatives) { this.tentatives = tentatives; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+
+    public String getDerniereErreur() { return derniereErreur; }
+    public void setDerniereErreur(String derniereErreur) { this.derniereErreur = derniereErreur; }
+
+    public enum EStatut {
+        PENDING,
+        SENDING,
+        SENT,
+        FAILED
+    }
+}
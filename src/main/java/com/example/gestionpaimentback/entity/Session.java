@@ -1,12 +1,21 @@
 package com.example.gestionpaimentback.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "sessions")
+// Filtres de GET /api/sessions : InnoDB ajoute la clé primaire à chaque index secondaire, le parcours
+// par idSession décroissant (pagination par curseur) reste donc dans l'index une fois les égalités posées
+@Table(name = "sessions", indexes = {
+        @Index(name = "idx_sessions_promotion_niveau_semestre", columnList = "promotion, niveau, semestre"),
+        @Index(name = "idx_sessions_specialite", columnList = "specialite"),
+        @Index(name = "idx_sessions_classe", columnList = "classe"),
+        @Index(name = "idx_sessions_dated", columnList = "dated"),
+        @Index(name = "idx_sessions_datef", columnList = "datef")
+})
 public class Session {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +29,13 @@ public class Session {
     private LocalDate dateD;
     private LocalDate dateF;
 
+    // Verrou optimiste des modifications de champs (PUT) ; les affectations passent par session_formateurs
+    // sans charger l'entité et ne l'incrémentent pas. Défaut 0 : lignes existantes et INSERT JDBC (import)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // 🔥 CORRECTION : Chargement EAGER obligatoire
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
@@ -69,6 +85,9 @@ public class Session {
     public LocalDate getDateF() { return dateF; }
     public void setDateF(LocalDate dateF) { this.dateF = dateF; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public Set<User> getFormateurs() { return formateurs; }
     public void setFormateurs(Set<User> formateurs) { this.formateurs = formateurs; }
 }
\ No newline at end of file
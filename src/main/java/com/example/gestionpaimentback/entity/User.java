@@ -1,5 +1,6 @@
 package com.example.gestionpaimentback.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -71,6 +72,8 @@ public class User {
     private Set<Role> roles = new HashSet<>();
 
 
+    // Côté inverse : non sérialisé (User -> sessions -> formateurs -> ... boucle sans fin)
+    @JsonIgnore
     @ManyToMany(mappedBy = "formateurs")
     private Set<Session> sessions = new HashSet<>();
     // Constructeurs
@@ -1,11 +1,17 @@
 package com.example.gestionpaimentback.entity;
 
 import jakarta.persistence.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "verification_codes")
+@Table(name = "verification_codes", indexes = {
+        @Index(name = "idx_verification_codes_email_used_created", columnList = "email, used, created_at"),
+        @Index(name = "idx_verification_codes_created", columnList = "created_at")
+})
 public class VerificationCode {
+    public static final Duration DUREE_VALIDITE = Duration.ofMinutes(10);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,7 +38,7 @@ public class VerificationCode {
         this.email = email;
         this.code = code;
         this.createdAt = LocalDateTime.now();
-        this.expiresAt = LocalDateTime.now().plusMinutes(10);
+        this.expiresAt = this.createdAt.plus(DUREE_VALIDITE);
     }
 
     // Getters et Setters
@@ -0,0 +1,35 @@
+package com.example.gestionpaimentback.repository;
+
+import com.example.gestionpaimentback.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Messages prêts à partir (en attente et dont le délai de retry est écoulé)
+    @Query("SELECT o.id FROM EmailOutbox o WHERE o.statut = 'PENDING' AND o.nextAttemptAt <= :now ORDER BY o.nextAttemptAt")
+    List<Long> findIdsPrets(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Réservation atomique : un seul worker (ou un seul noeud) obtient la ligne
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.statut = 'SENDING', o.nextAttemptAt = :now WHERE o.id = :id AND o.statut = 'PENDING'")
+    int reserver(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Remettre en file les messages restés en SENDING (noeud arrêté pendant l'envoi)
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.statut = 'PENDING' WHERE o.statut = 'SENDING' AND o.nextAttemptAt < :limite")
+    int libererBloques(@Param("limite") LocalDateTime limite);
+
+    long countByStatut(EmailOutbox.EStatut statut);
+}
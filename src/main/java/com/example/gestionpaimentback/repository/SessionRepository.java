@@ -1,15 +1,20 @@
 package com.example.gestionpaimentback.repository;
 
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.dto.SessionFormateurRow;
 import com.example.gestionpaimentback.entity.Session;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface SessionRepository extends JpaRepository<Session, Long> {
+public interface SessionRepository extends JpaRepository<Session, Long>, JpaSpecificationExecutor<Session>,
+        SessionRepositoryCustom {
     // ✅ NOUVEAU : Trouver les sessions d'un formateur
     @Query("SELECT s FROM Session s JOIN s.formateurs f WHERE f.id = :formateurId")
     List<Session> findByFormateurId(@Param("formateurId") Long formateurId);
@@ -18,4 +23,35 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END " +
             "FROM Session s JOIN s.formateurs f WHERE s.id = :sessionId AND f.id = :formateurId")
     boolean isFormateurInSession(@Param("sessionId") Long sessionId, @Param("formateurId") Long formateurId);
+
+    // Affectations en masse : identifiants existants parmi ceux demandés
+    @Query("SELECT s.idSession FROM Session s WHERE s.idSession IN :ids")
+    List<Long> findIdsExistants(@Param("ids") Collection<Long> ids);
+
+    // Repli de l'index des affectations : identifiants seuls, lus dans session_formateurs
+    @Query("SELECT s.idSession FROM Session s JOIN s.formateurs f WHERE f.id = :formateurId ORDER BY s.idSession")
+    List<Long> findSessionIdsByFormateurId(@Param("formateurId") Long formateurId);
+
+    // Lecture seule : les sessions d'un formateur, colonnes de sessions uniquement
+    @Query("SELECT new com.example.gestionpaimentback.dto.SessionDTO(s.idSession, s.classe, s.specialite, " +
+            "s.promotion, s.niveau, s.semestre, s.dateD, s.dateF) " +
+            "FROM Session s JOIN s.formateurs f WHERE f.id = :formateurId ORDER BY s.idSession")
+    List<SessionDTO> findDTOByFormateurId(@Param("formateurId") Long formateurId);
+
+    // Identifiants lus dans l'index : requête JPQL fixe (traduction mise en cache) plutôt qu'un critère construit
+    // à chaque appel
+    @Query("SELECT new com.example.gestionpaimentback.dto.SessionDTO(s.idSession, s.classe, s.specialite, " +
+            "s.promotion, s.niveau, s.semestre, s.dateD, s.dateF) " +
+            "FROM Session s WHERE s.idSession IN :ids ORDER BY s.idSession")
+    List<SessionDTO> findDTOByIds(@Param("ids") Collection<Long> ids);
+
+    // Formateurs affectés (une ligne par couple session / formateur), sans mot de passe ni rôles.
+    // SELECT new plutôt qu'une projection par interface : pas de proxy par ligne
+    @Query("SELECT new com.example.gestionpaimentback.dto.SessionFormateurRow(s.idSession, f.id, f.firstName, " +
+            "f.lastName, f.email) FROM Session s JOIN s.formateurs f")
+    List<SessionFormateurRow> findAllFormateurRows();
+
+    @Query("SELECT new com.example.gestionpaimentback.dto.SessionFormateurRow(s.idSession, f.id, f.firstName, " +
+            "f.lastName, f.email) FROM Session s JOIN s.formateurs f WHERE s.idSession IN :sessionIds")
+    List<SessionFormateurRow> findFormateurRowsBySessionIds(@Param("sessionIds") Collection<Long> sessionIds);
 }
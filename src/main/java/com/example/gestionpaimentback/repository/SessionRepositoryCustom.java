@@ -0,0 +1,47 @@
+package com.example.gestionpaimentback.repository;
+
+import com.example.gestionpaimentback.dto.AffectationPaire;
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.dto.SessionStreamRow;
+import com.example.gestionpaimentback.entity.Session;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface SessionRepositoryCustom {
+
+    // Projection filtrée par spécification, triée sur idSession ; limite null = toutes les lignes
+    List<SessionDTO> findSessionDTOs(Specification<Session> spec, Sort.Direction ordre, Integer limite);
+
+    // Curseur en avant seulement : une ligne par couple session / formateur (sessions sans formateur incluses),
+    // triées par idSession. À consommer dans une transaction et à fermer (try-with-resources)
+    Stream<SessionStreamRow> streamSessionsAvecFormateurs(Specification<Session> spec);
+
+    // session_formateurs en SQL ensembliste, sans charger les agrégats. À appeler dans une transaction :
+    // les entités Session déjà chargées dans le contexte de persistance ne voient pas ces changements
+
+    // Parmi les couples demandés, ceux déjà présents
+    Set<AffectationPaire> findAffectationsExistantes(Collection<AffectationPaire> paires);
+
+    // INSERT par lots : un couple déjà présent (insertion concurrente) est ignoré sans erreur, une clé étrangère
+    // violée lève une exception. Renvoie les couples effectivement ajoutés
+    List<AffectationPaire> insererAffectations(Collection<AffectationPaire> paires);
+
+    // DELETE par lots, renvoie le nombre de lignes supprimées
+    int supprimerAffectations(Collection<AffectationPaire> paires);
+
+    // Un couple, une instruction : true si la ligne a été ajoutée / supprimée, false si déjà dans l'état voulu
+    boolean insererAffectation(Long sessionId, Long formateurId);
+
+    boolean supprimerAffectation(Long sessionId, Long formateurId);
+
+    int supprimerAffectationsDeSession(Long sessionId);
+
+    // SELECT ... FOR UPDATE sur les lignes users de ces formateurs, par id croissant : les affectations d'un même
+    // formateur sont sérialisées jusqu'à la fin de la transaction, quel que soit le noeud
+    void verrouillerFormateurs(Collection<Long> formateurIds);
+}
@@ -0,0 +1,188 @@
+package com.example.gestionpaimentback.repository;
+
+import com.example.gestionpaimentback.dto.AffectationPaire;
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.dto.SessionStreamRow;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+// Les spécifications de SessionSpecifications, mais en SELECT new SessionDTO(...) : ni entité gérée
+// ni chargement EAGER des formateurs et de leurs rôles
+public class SessionRepositoryImpl implements SessionRepositoryCustom {
+
+    // Lignes lues par aller-retour sur le curseur (MySQL : nécessite useCursorFetch=true dans l'URL)
+    static final int TAILLE_LOT_CURSEUR = 500;
+
+    // Identifiants par clause IN / couples par lot JDBC (avec rewriteBatchedStatements, un INSERT multi-lignes)
+    static final int TAILLE_LOT_AFFECTATIONS = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<SessionDTO> findSessionDTOs(Specification<Session> spec, Sort.Direction ordre, Integer limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SessionDTO> query = cb.createQuery(SessionDTO.class);
+        Root<Session> session = query.from(Session.class);
+        query.select(cb.construct(SessionDTO.class,
+                session.get("idSession"), session.get("classe"), session.get("specialite"), session.get("promotion"),
+                session.get("niveau"), session.get("semestre"), session.get("dateD"), session.get("dateF")));
+
+        Predicate predicat = spec != null ? spec.toPredicate(session, query, cb) : null;
+        if (predicat != null) {
+            query.where(predicat);
+        }
+        query.orderBy(ordre == Sort.Direction.DESC ? cb.desc(session.get("idSession")) : cb.asc(session.get("idSession")));
+
+        TypedQuery<SessionDTO> requete = entityManager.createQuery(query);
+        if (limite != null) {
+            requete.setMaxResults(limite);
+        }
+        return requete.getResultList();
+    }
+
+    @Override
+    public Stream<SessionStreamRow> streamSessionsAvecFormateurs(Specification<Session> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SessionStreamRow> query = cb.createQuery(SessionStreamRow.class);
+        Root<Session> session = query.from(Session.class);
+        Join<Session, User> formateur = session.join("formateurs", JoinType.LEFT);
+        query.select(cb.construct(SessionStreamRow.class,
+                session.get("idSession"), session.get("classe"), session.get("specialite"), session.get("promotion"),
+                session.get("niveau"), session.get("semestre"), session.get("dateD"), session.get("dateF"),
+                formateur.get("id"), formateur.get("firstName"), formateur.get("lastName"), formateur.get("email")));
+
+        Predicate predicat = spec != null ? spec.toPredicate(session, query, cb) : null;
+        if (predicat != null) {
+            query.where(predicat);
+        }
+        query.orderBy(cb.asc(session.get("idSession")));
+
+        // getResultStream : ScrollableResults FORWARD_ONLY, rien n'est gardé dans le contexte de persistance
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, TAILLE_LOT_CURSEUR)
+                .getResultStream();
+    }
+
+    @Override
+    public Set<AffectationPaire> findAffectationsExistantes(Collection<AffectationPaire> paires) {
+        Set<Long> sessionIds = new LinkedHashSet<>();
+        paires.forEach(paire -> sessionIds.add(paire.sessionId()));
+        Set<AffectationPaire> demandees = paires instanceof Set<AffectationPaire> ensemble ? ensemble : new HashSet<>(paires);
+
+        Set<AffectationPaire> existantes = new HashSet<>();
+        List<Long> ids = new ArrayList<>(sessionIds);
+        for (int debut = 0; debut < ids.size(); debut += TAILLE_LOT_AFFECTATIONS) {
+            List<Long> lot = ids.subList(debut, Math.min(debut + TAILLE_LOT_AFFECTATIONS, ids.size()));
+            String marqueurs = String.join(", ", Collections.nCopies(lot.size(), "?"));
+            jdbcTemplate.query("SELECT session_id, formateur_id FROM session_formateurs WHERE session_id IN (" + marqueurs + ")",
+                    ligne -> {
+                        AffectationPaire paire = new AffectationPaire(ligne.getLong(1), ligne.getLong(2));
+                        if (demandees.contains(paire)) {
+                            existantes.add(paire);
+                        }
+                    }, lot.toArray());
+        }
+        return existantes;
+    }
+
+    // ON DUPLICATE KEY UPDATE sans effet plutôt qu'INSERT IGNORE : seul le doublon est absorbé, une clé étrangère
+    // violée (session ou formateur supprimé entre-temps) remonte en exception. Compte 1 : ligne ajoutée ; 0 : déjà
+    // présente (MySQL : nécessite useAffectedRows=true dans l'URL, sinon le doublon compte aussi 1)
+    private static final String INSERT_AFFECTATION = "INSERT INTO session_formateurs (session_id, formateur_id) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE session_id = session_id";
+
+    @Override
+    public List<AffectationPaire> insererAffectations(Collection<AffectationPaire> paires) {
+        int[][] comptes = jdbcTemplate.batchUpdate(INSERT_AFFECTATION, paires, TAILLE_LOT_AFFECTATIONS, (insert, paire) -> {
+            insert.setLong(1, paire.sessionId());
+            insert.setLong(2, paire.formateurId());
+        });
+        // Les comptes suivent l'ordre des couples, lot par lot. Un lot réécrit en INSERT multi-lignes peut
+        // répondre SUCCESS_NO_INFO : le couple est alors compté comme ajouté (affecter l'index est idempotent)
+        List<AffectationPaire> ajoutees = new ArrayList<>(paires.size());
+        Iterator<AffectationPaire> iterateur = paires.iterator();
+        for (int[] lot : comptes) {
+            for (int compte : lot) {
+                AffectationPaire paire = iterateur.next();
+                if (compte > 0 || compte == Statement.SUCCESS_NO_INFO) {
+                    ajoutees.add(paire);
+                }
+            }
+        }
+        return ajoutees;
+    }
+
+    @Override
+    public boolean insererAffectation(Long sessionId, Long formateurId) {
+        return jdbcTemplate.update(INSERT_AFFECTATION, sessionId, formateurId) > 0;
+    }
+
+    @Override
+    public boolean supprimerAffectation(Long sessionId, Long formateurId) {
+        return jdbcTemplate.update("DELETE FROM session_formateurs WHERE session_id = ? AND formateur_id = ?",
+                sessionId, formateurId) > 0;
+    }
+
+    @Override
+    public int supprimerAffectationsDeSession(Long sessionId) {
+        return jdbcTemplate.update("DELETE FROM session_formateurs WHERE session_id = ?", sessionId);
+    }
+
+    @Override
+    public int supprimerAffectations(Collection<AffectationPaire> paires) {
+        int[][] comptes = jdbcTemplate.batchUpdate("DELETE FROM session_formateurs WHERE session_id = ? AND formateur_id = ?",
+                paires, TAILLE_LOT_AFFECTATIONS, (delete, paire) -> {
+                    delete.setLong(1, paire.sessionId());
+                    delete.setLong(2, paire.formateurId());
+                });
+        int supprimees = 0;
+        for (int[] lot : comptes) {
+            for (int compte : lot) {
+                supprimees += Math.max(compte, 0);
+            }
+        }
+        return supprimees;
+    }
+
+    @Override
+    public void verrouillerFormateurs(Collection<Long> formateurIds) {
+        // Ordre croissant d'un lot à l'autre : pas d'interblocage entre deux transactions
+        List<Long> ids = new ArrayList<>(new TreeSet<>(formateurIds));
+        for (int debut = 0; debut < ids.size(); debut += TAILLE_LOT_AFFECTATIONS) {
+            List<Long> lot = ids.subList(debut, Math.min(debut + TAILLE_LOT_AFFECTATIONS, ids.size()));
+            String marqueurs = String.join(", ", Collections.nCopies(lot.size(), "?"));
+            jdbcTemplate.queryForList("SELECT id FROM users WHERE id IN (" + marqueurs + ") ORDER BY id FOR UPDATE",
+                    Long.class, lot.toArray());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.gestionpaimentback.repository;
+
+import com.example.gestionpaimentback.dto.SessionFilter;
+import com.example.gestionpaimentback.entity.Session;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Prédicats SQL de GET /api/sessions : seuls les filtres renseignés sont ajoutés au WHERE
+public final class SessionSpecifications {
+
+    private SessionSpecifications() {}
+
+    // curseur : idSession de la dernière ligne de la page précédente (ordre idSession décroissant)
+    public static Specification<Session> filtrer(SessionFilter filtre, Long curseur) {
+        return (root, query, cb) -> {
+            List<Predicate> predicats = new ArrayList<>();
+            if (curseur != null) {
+                predicats.add(cb.lessThan(root.get("idSession"), curseur));
+            }
+            if (filtre != null) {
+                egal(predicats, cb, root.get("promotion"), filtre.getPromotion());
+                egal(predicats, cb, root.get("niveau"), filtre.getNiveau());
+                egal(predicats, cb, root.get("semestre"), filtre.getSemestre());
+                egal(predicats, cb, root.get("specialite"), filtre.getSpecialite());
+                egal(predicats, cb, root.get("classe"), filtre.getClasse());
+                if (filtre.getDateDMin() != null) {
+                    predicats.add(cb.greaterThanOrEqualTo(root.get("dateD"), filtre.getDateDMin()));
+                }
+                if (filtre.getDateDMax() != null) {
+                    predicats.add(cb.lessThanOrEqualTo(root.get("dateD"), filtre.getDateDMax()));
+                }
+                if (filtre.getDateFMin() != null) {
+                    predicats.add(cb.greaterThanOrEqualTo(root.get("dateF"), filtre.getDateFMin()));
+                }
+                if (filtre.getDateFMax() != null) {
+                    predicats.add(cb.lessThanOrEqualTo(root.get("dateF"), filtre.getDateFMax()));
+                }
+            }
+            return cb.and(predicats.toArray(new Predicate[0]));
+        };
+    }
+
+    // Sessions datées en cours sur [du, au], comme SessionCalendrierIndex : fin avant début,
+    // la session n'occupe que son premier jour
+    public static Specification<Session> actives(LocalDate du, LocalDate au) {
+        return (root, query, cb) -> cb.and(
+                cb.isNotNull(root.get("dateF")),
+                cb.lessThanOrEqualTo(root.get("dateD"), au),
+                cb.or(cb.greaterThanOrEqualTo(root.get("dateF"), du), cb.greaterThanOrEqualTo(root.get("dateD"), du)));
+    }
+
+    private static void egal(List<Predicate> predicats, CriteriaBuilder cb, Path<String> colonne, String valeur) {
+        if (valeur != null && !valeur.isBlank()) {
+            predicats.add(cb.equal(colonne, valeur));
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.gestionpaimentback.repository;
 
+import com.example.gestionpaimentback.dto.UserStreamRow;
 import com.example.gestionpaimentback.entity.Role;
 import com.example.gestionpaimentback.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 // Dans UserRepository.java
@@ -19,4 +27,40 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // 🔥 CETTE METHODE DOIT EXISTER
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :roleName")
     List<User> findByRoles_Name(@Param("roleName") Role.ERole roleName);
+
+    // Import de sessions : contrôle des formateurIds sans charger les entités
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.name = :roleName")
+    List<Long> findIdsByRoleName(@Param("roleName") Role.ERole roleName);
+
+    // Affectations en masse : parmi les ids demandés, ceux qui ont le rôle
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.name = :roleName AND u.id IN :ids")
+    List<Long> findIdsByRoleNameAndIdIn(@Param("roleName") Role.ERole roleName, @Param("ids") Collection<Long> ids);
+
+    // Connexion : id, hash, statut et rôles en une seule requête (une ligne par rôle)
+    @Query("SELECT u.id AS id, u.email AS email, u.password AS password, u.status AS status, r.name AS roleName " +
+            "FROM User u LEFT JOIN u.roles r WHERE u.email = :email")
+    List<LoginRow> findLoginRowsByEmail(@Param("email") String email);
+
+    // Compare-and-set : n'écrit que si le hash est encore celui qui a été vérifié. Un rehash en arrière-plan
+    // n'écrase pas un mot de passe changé entre-temps ; 0 si le hash a changé
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id AND u.password = :ancienHash")
+    int updatePassword(@Param("id") Long id, @Param("ancienHash") String ancienHash, @Param("password") String password);
+
+    // Curseur en avant seulement pour /api/admin/users?stream=true : une ligne par rôle, triées par id.
+    // À consommer dans une transaction et à fermer (try-with-resources)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.gestionpaimentback.dto.UserStreamRow(u.id, u.firstName, u.lastName, u.email, " +
+            "u.createdAt, u.status, u.cin, u.rib, u.bankName, u.fonctionnalite, r.id, r.name) " +
+            "FROM User u LEFT JOIN u.roles r ORDER BY u.id")
+    Stream<UserStreamRow> streamAvecRoles();
+
+    interface LoginRow {
+        Long getId();
+        String getEmail();
+        String getPassword();
+        Integer getStatus();
+        Role.ERole getRoleName();
+    }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package com.example.gestionpaimentback.repository;
 
 import com.example.gestionpaimentback.entity.VerificationCode;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,4 +25,13 @@ public interface VerificationCodeRepository extends JpaRepository<VerificationCo
 
     //  méthode pour trouver le code actif le plus récent
     Optional<VerificationCode> findTopByEmailAndUsedFalseOrderByCreatedAtDesc(String email);
+
+    // Purge : codes utilisés ou expirés, plus anciens que la rétention (index sur created_at)
+    @Query("SELECT v.id FROM VerificationCode v WHERE v.createdAt < :limite AND (v.used = true OR v.expiresAt < :now)")
+    List<Long> findIdsPurgeables(@Param("limite") LocalDateTime limite, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM VerificationCode v WHERE v.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.example.gestionpaimentback.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+// BCrypt sur un pool dédié, borné au nombre de coeurs : une rafale de connexions
+// ne peut plus occuper tous les threads Tomcat ni tous les CPU
+@Component
+public class PasswordHasher {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // 0 = nombre de coeurs
+    @Value("${app.security.hashing.threads:0}")
+    private int nbThreads;
+
+    @Value("${app.security.hashing.queue-capacity:64}")
+    private int capaciteFile;
+
+    @Value("${app.security.hashing.timeout-ms:10000}")
+    private long delaiMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void demarrer() {
+        int threads = nbThreads > 0 ? nbThreads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capaciteFile),
+                new CustomizableThreadFactory("bcrypt-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executer(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return executer(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    // Hash stocké avec un coût inférieur à la configuration : recalcul en arrière-plan
+    public void rehashSiNecessaire(CharSequence rawPassword, String encodedPassword, Consumer<String> nouveauHash) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        try {
+            executor.execute(() -> nouveauHash.accept(passwordEncoder.encode(rawPassword)));
+        } catch (RejectedExecutionException e) {
+            // Pool saturé : ce sera fait à la prochaine connexion
+        }
+    }
+
+    private <T> T executer(Callable<T> tache) {
+        Future<T> future;
+        try {
+            future = executor.submit(tache);
+        } catch (RejectedExecutionException e) {
+            throw new SaturationException("Trop de vérifications de mot de passe en cours");
+        }
+
+        try {
+            return future.get(delaiMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new SaturationException("Vérification du mot de passe trop longue");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SaturationException("Vérification du mot de passe interrompue");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public static class SaturationException extends RuntimeException {
+        public SaturationException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.gestionpaimentback.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Limitation des endpoints d'authentification par email et par IP
+// Règles : app.rate-limit.<endpoint>.email / .ip au format "<requêtes>/<secondes>"
+@Component
+public class RateLimiter {
+
+    public enum Regle {
+        SIGNIN("signin", "5/60", "30/60"),
+        VERIFY_CODE("verify-code", "10/60", "30/60"),
+        RESEND_CODE("resend-code", "3/600", "10/60"),
+        TEST_EMAIL("test-email", "3/600", "5/60");
+
+        private final String nom;
+        private final String parEmailDefaut;
+        private final String parIpDefaut;
+
+        Regle(String nom, String parEmailDefaut, String parIpDefaut) {
+            this.nom = nom;
+            this.parEmailDefaut = parEmailDefaut;
+            this.parIpDefaut = parIpDefaut;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean actif;
+
+    @Value("${app.rate-limit.stripes:16}")
+    private int nbStripes;
+
+    @Value("${app.rate-limit.max-keys-per-stripe:10000}")
+    private int maxClesParStripe;
+
+    // Derrière un reverse proxy de confiance uniquement
+    @Value("${app.rate-limit.trust-forwarded-for:false}")
+    private boolean fairConfianceForwardedFor;
+
+    private final Map<Regle, TokenBucketLimiter> parEmail = new EnumMap<>(Regle.class);
+    private final Map<Regle, TokenBucketLimiter> parIp = new EnumMap<>(Regle.class);
+    private final Map<Regle, AtomicLong> refus = new EnumMap<>(Regle.class);
+
+    @PostConstruct
+    public void initialiser() {
+        for (Regle regle : Regle.values()) {
+            String prefixe = "app.rate-limit." + regle.nom;
+            parEmail.put(regle, creer(environment.getProperty(prefixe + ".email", regle.parEmailDefaut)));
+            parIp.put(regle, creer(environment.getProperty(prefixe + ".ip", regle.parIpDefaut)));
+            refus.put(regle, new AtomicLong());
+        }
+    }
+
+    private TokenBucketLimiter creer(String definition) {
+        String[] parties = definition.split("/");
+        int capacite = Integer.parseInt(parties[0].trim());
+        long periode = Duration.ofSeconds(Long.parseLong(parties[1].trim())).toNanos();
+        return new TokenBucketLimiter(capacite, periode, nbStripes, maxClesParStripe);
+    }
+
+    // 0 si la requête passe, sinon le nombre de secondes pour l'en-tête Retry-After
+    public long verifier(Regle regle, String email, HttpServletRequest request) {
+        if (!actif) {
+            return 0;
+        }
+
+        long attente = parIp.get(regle).tenter(adresseClient(request));
+        if (attente == 0 && email != null) {
+            attente = parEmail.get(regle).tenter(email.toLowerCase());
+        }
+        if (attente == 0) {
+            return 0;
+        }
+
+        refus.get(regle).incrementAndGet();
+        return Math.max(1, Duration.ofNanos(attente).toSeconds() + 1);
+    }
+
+    private String adresseClient(HttpServletRequest request) {
+        if (fairConfianceForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int virgule = forwardedFor.indexOf(',');
+                return (virgule > 0 ? forwardedFor.substring(0, virgule) : forwardedFor).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // Retire les buckets redevenus pleins pour garder une mémoire bornée
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evincer() {
+        for (Regle regle : Regle.values()) {
+            parEmail.get(regle).evincer();
+            parIp.get(regle).evincer();
+        }
+    }
+
+    public Map<String, Object> getStatistiques() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Regle regle : Regle.values()) {
+            Map<String, Object> regleStats = new HashMap<>();
+            regleStats.put("refus", refus.get(regle).get());
+            regleStats.put("clesEmail", parEmail.get(regle).taille());
+            regleStats.put("clesIp", parIp.get(regle).taille());
+            regleStats.put("refusSaturation", parEmail.get(regle).getRefusSaturation() + parIp.get(regle).getRefusSaturation());
+            stats.put(regle.nom, regleStats);
+        }
+        return stats;
+    }
+}
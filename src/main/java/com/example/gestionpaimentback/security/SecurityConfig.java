@@ -1,9 +1,11 @@
 package com.example.gestionpaimentback.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -12,22 +14,38 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.function.Supplier;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    // Coût BCrypt (2^strength itérations) ; les hashs plus faibles sont recalculés à la connexion
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    // Jeton du scrape Prometheus (Authorization: Bearer <jeton>) ; vide : scrape réservé aux administrateurs
+    @Value("${app.metrics.scrape-token:}")
+    private String jetonScrape;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -44,7 +62,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService) throws Exception {
 
         http
                 // CORS OK
@@ -66,6 +84,10 @@ public class SecurityConfig {
 
                         .requestMatchers("/h2-console/**").permitAll()
 
+                        // 📈 Sonde de santé publique ; scrape Prometheus : administrateur ou jeton de scrape
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/prometheus").access(this::autoriserScrape)
+
                         // 🔒 Routes protégées
                         .requestMatchers("/api/home/**").authenticated()
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
@@ -76,27 +98,55 @@ public class SecurityConfig {
                 )
 
 
-                // ➤ Gestion des sessions (tu veux garder la logique session)
-                .sessionManagement(session -> session
-                        .maximumSessions(1)
-                        .maxSessionsPreventsLogin(false)
-                )
-
                 // Pas de formulaire login Spring (tu utilises ton API)
                 .formLogin(form -> form.disable())
 
                 // Pas de basic auth
-                .httpBasic(basic -> basic.disable())
-
-                // Important pour utiliser HttpSession
-                .securityContext(context ->
-                        context
-                                .securityContextRepository(new HttpSessionSecurityContextRepository())
-                );
+                .httpBasic(basic -> basic.disable());
+
+        if (tokenService.isActif()) {
+            // ➤ Mode jeton : aucune session, le contexte est reconstruit à chaque requête depuis le jeton
+            http
+                    .sessionManagement(session -> session
+                            .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                    )
+                    .securityContext(context ->
+                            context
+                                    .securityContextRepository(new RequestAttributeSecurityContextRepository())
+                    )
+                    .addFilterBefore(new TokenAuthenticationFilter(tokenService),
+                            UsernamePasswordAuthenticationFilter.class);
+        } else {
+            http
+                    // ➤ Gestion des sessions (tu veux garder la logique session)
+                    .sessionManagement(session -> session
+                            .maximumSessions(1)
+                            .maxSessionsPreventsLogin(false)
+                    )
+
+                    // Important pour utiliser HttpSession
+                    .securityContext(context ->
+                            context
+                                    .securityContextRepository(new HttpSessionSecurityContextRepository())
+                    );
+        }
 
         return http.build();
     }
 
+    // Les métriques (timers par endpoint, issues d'authentification, JVM) ne sont pas publiques
+    private AuthorizationDecision autoriserScrape(Supplier<Authentication> authentication,
+                                                  RequestAuthorizationContext contexte) {
+        String jeton = TokenAuthenticationFilter.extraireJeton(contexte.getRequest());
+        if (!jetonScrape.isBlank() && jeton != null && MessageDigest.isEqual(
+                jeton.getBytes(StandardCharsets.UTF_8), jetonScrape.getBytes(StandardCharsets.UTF_8))) {
+            return new AuthorizationDecision(true);
+        }
+        Authentication auth = authentication.get();
+        return new AuthorizationDecision(auth != null && auth.isAuthenticated() && auth.getAuthorities().stream()
+                .anyMatch(autorite -> "ROLE_ADMIN".equals(autorite.getAuthority())));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,124 @@
+package com.example.gestionpaimentback.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Jeton signé HMAC-SHA256 : base64url(kid|id|iat|exp|jti|rôles|email) "." base64url(signature)
+// Plusieurs clés (kid) peuvent vérifier, seule la clé active signe -> rotation sans déconnexion
+public class SignedTokenCodec {
+
+    private static final String ALGORITHME = "HmacSHA256";
+    private static final Base64.Encoder ENCODEUR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODEUR = Base64.getUrlDecoder();
+
+    public record Contenu(String kid, Long id, String email, List<String> roles,
+                          long emisLe, long expireLe, String jti) {
+
+        public UserDetailsImpl versUserDetails() {
+            List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+            for (String role : roles) {
+                authorities.add(new SimpleGrantedAuthority(role));
+            }
+            return new UserDetailsImpl(id, email, null, authorities);
+        }
+    }
+
+    private final Map<String, byte[]> cles;
+    private final String cleActive;
+    private final long dureeSecondes;
+
+    // Mac n'est pas thread-safe : une instance par clé et par thread
+    private final ThreadLocal<Map<String, Mac>> macs;
+
+    public SignedTokenCodec(Map<String, byte[]> cles, String cleActive, Duration duree) {
+        if (!cles.containsKey(cleActive)) {
+            throw new IllegalArgumentException("Clé active inconnue : " + cleActive);
+        }
+        for (String kid : cles.keySet()) {
+            if (kid.isEmpty() || kid.contains("|")) {
+                throw new IllegalArgumentException("Identifiant de clé invalide : " + kid);
+            }
+        }
+        this.cles = Map.copyOf(cles);
+        this.cleActive = cleActive;
+        this.dureeSecondes = duree.toSeconds();
+        this.macs = ThreadLocal.withInitial(HashMap::new);
+    }
+
+    public String emettre(Long id, String email, List<String> roles, long maintenantSecondes) {
+        String charge = cleActive + "|" + id + "|" + maintenantSecondes + "|" + (maintenantSecondes + dureeSecondes)
+                + "|" + UUID.randomUUID() + "|" + String.join(",", roles) + "|" + email;
+        String chargeEncodee = ENCODEUR.encodeToString(charge.getBytes(StandardCharsets.UTF_8));
+        return chargeEncodee + "." + ENCODEUR.encodeToString(signer(cleActive, chargeEncodee));
+    }
+
+    // null si le jeton est mal formé, signé par une clé inconnue, falsifié ou expiré
+    public Contenu lire(String jeton, long maintenantSecondes) {
+        int point = jeton.indexOf('.');
+        if (point <= 0 || point != jeton.lastIndexOf('.')) {
+            return null;
+        }
+        String chargeEncodee = jeton.substring(0, point);
+        String[] champs;
+        byte[] signature;
+        try {
+            champs = new String(DECODEUR.decode(chargeEncodee), StandardCharsets.UTF_8).split("\\|", 7);
+            signature = DECODEUR.decode(jeton.substring(point + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (champs.length != 7 || !cles.containsKey(champs[0])) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(signature, signer(champs[0], chargeEncodee))) {
+            return null;
+        }
+        try {
+            long expireLe = Long.parseLong(champs[3]);
+            if (expireLe <= maintenantSecondes) {
+                return null;
+            }
+            List<String> roles = champs[5].isEmpty() ? List.of() : List.of(champs[5].split(","));
+            return new Contenu(champs[0], Long.valueOf(champs[1]), champs[6], roles,
+                    Long.parseLong(champs[2]), expireLe, champs[4]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getDureeSecondes() {
+        return dureeSecondes;
+    }
+
+    public String getCleActive() {
+        return cleActive;
+    }
+
+    private byte[] signer(String kid, String chargeEncodee) {
+        Mac mac = macs.get().computeIfAbsent(kid, this::creerMac);
+        return mac.doFinal(chargeEncodee.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac creerMac(String kid) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHME);
+            mac.init(new SecretKeySpec(cles.get(kid), ALGORITHME));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponible", e);
+        }
+    }
+}
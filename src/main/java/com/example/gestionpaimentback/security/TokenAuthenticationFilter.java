@@ -0,0 +1,50 @@
+package com.example.gestionpaimentback.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Authentifie la requête à partir de l'en-tête "Authorization: Bearer <jeton>"
+// Jeton absent ou invalide : la requête continue en anonyme et les règles d'accès s'appliquent
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String PREFIXE = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    public static String extraireJeton(HttpServletRequest request) {
+        String entete = request.getHeader("Authorization");
+        if (entete == null || !entete.regionMatches(true, 0, PREFIXE, 0, PREFIXE.length())) {
+            return null;
+        }
+        return entete.substring(PREFIXE.length()).trim();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String jeton = extraireJeton(request);
+        if (jeton != null) {
+            SignedTokenCodec.Contenu contenu = tokenService.valider(jeton);
+            if (contenu != null) {
+                UserDetailsImpl userDetails = contenu.versUserDetails();
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()));
+                SecurityContextHolder.setContext(context);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
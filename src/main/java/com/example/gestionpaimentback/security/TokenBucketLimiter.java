@@ -0,0 +1,116 @@
+package com.example.gestionpaimentback.security;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket sans verrou, sous sa forme GCRA : l'état d'un bucket tient dans un seul long
+// (instant théorique où il sera de nouveau plein), mis à jour par CAS.
+// Les clés sont réparties sur plusieurs maps (stripes) pour borner la mémoire et l'éviction.
+// Stripe pleine : une nouvelle clé est refusée (jamais accordée sans limite, jamais à la place d'une autre)
+public class TokenBucketLimiter {
+
+    // Entrées examinées au plus sur le chemin d'une requête quand sa stripe est pleine
+    private static final int EVICTION_EN_LIGNE = 16;
+
+    private final long intervalleNanos;
+    private final long toleranceNanos;
+    private final int maxClesParStripe;
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final AtomicLong refusSaturation = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketLimiter(int capacite, long periodeNanos, int nbStripes, int maxClesParStripe) {
+        this.intervalleNanos = periodeNanos / capacite;
+        this.toleranceNanos = intervalleNanos * capacite;
+        this.maxClesParStripe = maxClesParStripe;
+        this.stripes = new ConcurrentHashMap[nbStripes];
+        for (int i = 0; i < nbStripes; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    // 0 si le jeton est accordé, sinon le délai d'attente en nanosecondes
+    public long tenter(String cle) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(cle, now);
+        if (bucket == null) {
+            // Limite mémoire atteinte (clés jetables) : refus pour une période entière, la victime d'une
+            // attaque par force brute ne retrouve pas de jetons neufs
+            refusSaturation.incrementAndGet();
+            return toleranceNanos;
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long nouveauTat = Math.max(tat, now) + intervalleNanos;
+            long attente = nouveauTat - now - toleranceNanos;
+            if (attente > 0) {
+                return attente;
+            }
+            if (bucket.compareAndSet(tat, nouveauTat)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String cle, long now) {
+        ConcurrentHashMap<String, AtomicLong> stripe = stripe(cle);
+        AtomicLong bucket = stripe.get(cle);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxClesParStripe && evincerQuelques(stripe, now) == 0) {
+            return null;
+        }
+        return stripe.computeIfAbsent(cle, k -> new AtomicLong(now));
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripe(String cle) {
+        int h = cle.hashCode();
+        return stripes[((h ^ (h >>> 16)) & 0x7fffffff) % stripes.length];
+    }
+
+    // Un bucket redevenu plein équivaut à une clé absente : on peut le retirer
+    public int evincer() {
+        long now = System.nanoTime();
+        int retires = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            retires += evincer(stripe, now);
+        }
+        return retires;
+    }
+
+    // Parcours borné : les buckets pleins rencontrés parmi les premières entrées, le reste à l'éviction planifiée
+    private static int evincerQuelques(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        int retires = 0;
+        int examinees = 0;
+        Iterator<AtomicLong> buckets = stripe.values().iterator();
+        while (buckets.hasNext() && examinees++ < EVICTION_EN_LIGNE) {
+            if (buckets.next().get() <= now) {
+                buckets.remove();
+                retires++;
+            }
+        }
+        return retires;
+    }
+
+    private int evincer(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        int avant = stripe.size();
+        stripe.values().removeIf(bucket -> bucket.get() <= now);
+        return avant - stripe.size();
+    }
+
+    // Nouvelles clés refusées faute de place
+    public long getRefusSaturation() {
+        return refusSaturation.get();
+    }
+
+    public int taille() {
+        int taille = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            taille += stripe.size();
+        }
+        return taille;
+    }
+}
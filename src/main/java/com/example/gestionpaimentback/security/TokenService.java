@@ -0,0 +1,157 @@
+package com.example.gestionpaimentback.security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Mode d'authentification sans HttpSession (app.auth.mode=token)
+// Clés : app.auth.token.keys = "<kid>:<secret base64>,..." ; app.auth.token.active-key signe les nouveaux jetons
+@Component
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final int TAILLE_MIN_CLE = 32;
+
+    @Value("${app.auth.mode:session}")
+    private String mode;
+
+    @Value("${app.auth.token.keys:}")
+    private String definitionCles;
+
+    @Value("${app.auth.token.active-key:}")
+    private String cleActive;
+
+    @Value("${app.auth.token.ttl-seconds:3600}")
+    private long dureeSecondes;
+
+    // Seuil de purge, pas une borne : une révocation n'est jamais refusée. Ancien nom : revocation.max-entries
+    @Value("${app.auth.token.revocation.purge-threshold:${app.auth.token.revocation.max-entries:100000}}")
+    private int seuilPurge;
+
+    private SignedTokenCodec codec;
+
+    // jti révoqués -> expiration du jeton ; locale au noeud, bornée par la durée de vie des jetons
+    private final Map<String, Long> revoques = new ConcurrentHashMap<>();
+
+    private final AtomicLong acceptes = new AtomicLong();
+    private final AtomicLong rejetes = new AtomicLong();
+    // Révocations enregistrées alors que la liste dépassait le seuil même après purge
+    private final AtomicLong revocationsAuDelaDuSeuil = new AtomicLong();
+    private final AtomicBoolean auDelaDuSeuil = new AtomicBoolean();
+
+    @PostConstruct
+    public void initialiser() {
+        if (!isActif()) {
+            return;
+        }
+        Map<String, byte[]> cles = new HashMap<>();
+        for (String entree : definitionCles.split(",")) {
+            if (entree.isBlank()) {
+                continue;
+            }
+            String[] parties = entree.trim().split(":", 2);
+            if (parties.length != 2) {
+                throw new IllegalStateException("Clé de jeton mal formée (attendu <kid>:<secret base64>)");
+            }
+            byte[] secret = Base64.getDecoder().decode(parties[1].trim());
+            if (secret.length < TAILLE_MIN_CLE) {
+                throw new IllegalStateException("Clé de jeton '" + parties[0] + "' trop courte (min "
+                        + TAILLE_MIN_CLE + " octets)");
+            }
+            cles.put(parties[0].trim(), secret);
+        }
+        if (cles.isEmpty()) {
+            throw new IllegalStateException("app.auth.mode=token requiert app.auth.token.keys");
+        }
+        codec = new SignedTokenCodec(cles, cleActive, Duration.ofSeconds(dureeSecondes));
+        log.atInfo().setMessage("🔑 Mode jeton actif").addKeyValue("cleActive", cleActive)
+                .addKeyValue("cles", cles.size()).log();
+    }
+
+    public boolean isActif() {
+        return "token".equalsIgnoreCase(mode);
+    }
+
+    public String emettre(UserDetailsImpl userDetails) {
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(item -> item.getAuthority())
+                .collect(Collectors.toList());
+        return codec.emettre(userDetails.getId(), userDetails.getEmail(), roles, maintenant());
+    }
+
+    // Aucun accès base ni session : signature, expiration puis liste de révocation
+    public SignedTokenCodec.Contenu valider(String jeton) {
+        SignedTokenCodec.Contenu contenu = codec.lire(jeton, maintenant());
+        if (contenu == null || revoques.containsKey(contenu.jti())) {
+            rejetes.incrementAndGet();
+            return null;
+        }
+        acceptes.incrementAndGet();
+        return contenu;
+    }
+
+    public boolean revoquer(String jeton) {
+        SignedTokenCodec.Contenu contenu = codec.lire(jeton, maintenant());
+        if (contenu == null) {
+            return false;
+        }
+        if (revoques.size() >= seuilPurge) {
+            purgerRevocations();
+            // Jetons encore valides (déconnexions en masse) : la liste grandit jusqu'à leur expiration
+            if (revoques.size() >= seuilPurge) {
+                revocationsAuDelaDuSeuil.incrementAndGet();
+                if (auDelaDuSeuil.compareAndSet(false, true)) {
+                    log.atWarn().setMessage("⚠️ Liste de révocation au-delà du seuil de purge")
+                            .addKeyValue("revoques", revoques.size()).addKeyValue("seuil", seuilPurge).log();
+                }
+            }
+        }
+        revoques.put(contenu.jti(), contenu.expireLe());
+        return true;
+    }
+
+    public long getDureeSecondes() {
+        return dureeSecondes;
+    }
+
+    // Un jeton expiré est déjà refusé : inutile de garder son jti
+    @Scheduled(fixedDelayString = "${app.auth.token.revocation.eviction-interval-ms:60000}")
+    public void purgerRevocations() {
+        long maintenant = maintenant();
+        revoques.values().removeIf(expireLe -> expireLe <= maintenant);
+        if (revoques.size() < seuilPurge && auDelaDuSeuil.compareAndSet(true, false)) {
+            log.atInfo().setMessage("✅ Liste de révocation revenue sous le seuil de purge")
+                    .addKeyValue("revoques", revoques.size()).log();
+        }
+    }
+
+    public Map<String, Object> getStatistiques() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", isActif() ? "token" : "session");
+        stats.put("cleActive", isActif() ? codec.getCleActive() : null);
+        stats.put("acceptes", acceptes.get());
+        stats.put("rejetes", rejetes.get());
+        stats.put("revoques", revoques.size());
+        stats.put("seuilPurgeRevocations", seuilPurge);
+        stats.put("revocationsAuDelaDuSeuil", revocationsAuDelaDuSeuil.get());
+        return stats;
+    }
+
+    private static long maintenant() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -15,13 +15,20 @@ public class UserDetailsImpl implements UserDetails {
     private String email;
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    private Integer status;
 
     public UserDetailsImpl(Long id, String email, String password,
                            Collection<? extends GrantedAuthority> authorities) {
+        this(id, email, password, authorities, null);
+    }
+
+    public UserDetailsImpl(Long id, String email, String password,
+                           Collection<? extends GrantedAuthority> authorities, Integer status) {
         this.id = id;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.status = status;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -33,12 +40,14 @@ public class UserDetailsImpl implements UserDetails {
                 user.getId(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getStatus());
     }
 
     // Getters
     public Long getId() { return id; }
     public String getEmail() { return email; }
+    public Integer getStatus() { return status; }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -1,40 +1,125 @@
 package com.example.gestionpaimentback.service;
 
+import com.example.gestionpaimentback.config.PhaseMetrics;
+import com.example.gestionpaimentback.dto.UserStreamRow;
 import com.example.gestionpaimentback.entity.Role;
 import com.example.gestionpaimentback.entity.User;
 import com.example.gestionpaimentback.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AdminService {
 
+    private static final Logger log = LoggerFactory.getLogger(AdminService.class);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private PhaseMetrics phaseMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Streaming : envoi au client après le premier utilisateur puis tous les N utilisateurs
+    private static final int FLUSH_TOUS_LES = 500;
+
     public List<User> getAllUsers() {
         try {
             List<User> users = userRepository.findAll();
-            System.out.println("✅ " + users.size() + " utilisateurs trouvés");
+            log.atDebug().setMessage("✅ Utilisateurs trouvés").addKeyValue("utilisateurs", users.size()).log();
             return users;
         } catch (Exception e) {
-            System.out.println("❌ Erreur dans getAllUsers: " + e.getMessage());
+            log.error("❌ Erreur dans getAllUsers", e);
             return new ArrayList<>();
         }
     }
 
+    // /api/admin/users?stream=true : mêmes champs que la sérialisation de User, sauf le mot de passe,
+    // écrits au fil d'un curseur en avant seulement (mémoire constante, premier octet immédiat)
+    @Transactional(readOnly = true)
+    public void ecrireUtilisateursJson(OutputStream sortie) throws IOException {
+        int utilisateurs = 0;
+        try (Stream<UserStreamRow> lignes = userRepository.streamAvecRoles();
+             JsonGenerator json = objectMapper.getFactory().createGenerator(sortie)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            Long courant = null;
+            for (Iterator<UserStreamRow> it = lignes.iterator(); it.hasNext(); ) {
+                UserStreamRow ligne = it.next();
+                if (!ligne.getId().equals(courant)) {
+                    if (courant != null) {
+                        terminerUtilisateurJson(json);
+                        if (++utilisateurs == 1 || utilisateurs % FLUSH_TOUS_LES == 0) {
+                            json.flush();
+                        }
+                    }
+                    courant = ligne.getId();
+                    json.writeStartObject();
+                    json.writeNumberField("id", ligne.getId());
+                    json.writeStringField("firstName", ligne.getFirstName());
+                    json.writeStringField("lastName", ligne.getLastName());
+                    json.writeStringField("email", ligne.getEmail());
+                    json.writePOJOField("createdAt", ligne.getCreatedAt());
+                    json.writePOJOField("status", ligne.getStatus());
+                    json.writeStringField("cin", ligne.getCin());
+                    json.writeStringField("rib", ligne.getRib());
+                    json.writeStringField("bankName", ligne.getBankName());
+                    json.writeStringField("fonctionnalite", ligne.getFonctionnalite());
+                    json.writeArrayFieldStart("roles");
+                }
+                if (ligne.getRoleId() != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", ligne.getRoleId());
+                    json.writeStringField("name", ligne.getRoleName().name());
+                    json.writeEndObject();
+                }
+            }
+            if (courant != null) {
+                terminerUtilisateurJson(json);
+                utilisateurs++;
+            }
+            json.writeEndArray();
+        } catch (IOException | RuntimeException e) {
+            log.atWarn().setMessage("❌ Streaming des utilisateurs interrompu").addKeyValue("utilisateurs", utilisateurs)
+                    .addKeyValue("erreur", e.getMessage()).log();
+            throw e;
+        }
+        log.atDebug().setMessage("📤 Utilisateurs en streaming").addKeyValue("utilisateurs", utilisateurs).log();
+    }
+
+    private static void terminerUtilisateurJson(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
     public List<User> getFormateurs() {
+        long debut = System.nanoTime();
         try {
             // Méthode 1: Via le repository avec une requête personnalisée
             List<User> formateurs = userRepository.findByRoles_Name(Role.ERole.ROLE_FORMATEUR);
 
             // Si la méthode 1 ne fonctionne pas, utilisez la méthode 2
             if (formateurs == null || formateurs.isEmpty()) {
-                System.out.println("🔄 Méthode 1 échouée, utilisation méthode 2...");
+                log.debug("🔄 Méthode 1 échouée, utilisation méthode 2...");
 
                 // Méthode 2: Filtrer manuellement
                 List<User> allUsers = userRepository.findAll();
@@ -44,19 +129,14 @@ public class AdminService {
                         .collect(Collectors.toList());
             }
 
-            System.out.println("✅ " + formateurs.size() + " formateurs trouvés dans le service");
-
-            // Debug: afficher les formateurs
-            for (User formateur : formateurs) {
-                System.out.println("👨‍🏫 Formateur: " + formateur.getFirstName() + " " + formateur.getLastName() +
-                        " - " + formateur.getEmail() + " - ID: " + formateur.getId());
-            }
+            log.atDebug().setMessage("✅ Formateurs trouvés").addKeyValue("formateurs", formateurs.size()).log();
 
             return formateurs;
         } catch (Exception e) {
-            System.out.println("❌ Erreur dans getFormateurs: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Erreur dans getFormateurs", e);
             return new ArrayList<>();
+        } finally {
+            phaseMetrics.enregistrer(PhaseMetrics.Phase.REQUETE_FORMATEURS, System.nanoTime() - debut);
         }
     }
 
@@ -67,7 +147,7 @@ public class AdminService {
 
             // Si la méthode 1 ne fonctionne pas, utilisez la méthode 2
             if (coordinateurs == null || coordinateurs.isEmpty()) {
-                System.out.println("🔄 Méthode 1 échouée, utilisation méthode 2...");
+                log.debug("🔄 Méthode 1 échouée, utilisation méthode 2...");
 
                 // Méthode 2: Filtrer manuellement
                 List<User> allUsers = userRepository.findAll();
@@ -77,25 +157,27 @@ public class AdminService {
                         .collect(Collectors.toList());
             }
 
-            System.out.println("✅ " + coordinateurs.size() + " coordinateurs trouvés dans le service");
+            log.atDebug().setMessage("✅ Coordinateurs trouvés").addKeyValue("coordinateurs", coordinateurs.size()).log();
             return coordinateurs;
         } catch (Exception e) {
-            System.out.println("❌ Erreur dans getCoordinateurs: " + e.getMessage());
+            log.error("❌ Erreur dans getCoordinateurs", e);
             return new ArrayList<>();
         }
     }
 
     public void deleteUser(Long id) {
         try {
-            if (userRepository.existsById(id)) {
-                userRepository.deleteById(id);
-                System.out.println("✅ Utilisateur " + id + " supprimé avec succès");
+            Optional<User> userOptional = userRepository.findById(id);
+            if (userOptional.isPresent()) {
+                userRepository.delete(userOptional.get());
+                userDetailsCache.invalider(userOptional.get().getEmail());
+                log.atInfo().setMessage("✅ Utilisateur supprimé").addKeyValue("id", id).log();
             } else {
-                System.out.println("❌ Utilisateur " + id + " non trouvé");
+                log.atInfo().setMessage("❌ Utilisateur non trouvé").addKeyValue("id", id).log();
                 throw new RuntimeException("Utilisateur non trouvé");
             }
         } catch (Exception e) {
-            System.out.println("❌ Erreur dans deleteUser: " + e.getMessage());
+            log.atWarn().setMessage("❌ Erreur dans deleteUser").addKeyValue("id", id).addKeyValue("erreur", e.getMessage()).log();
             throw new RuntimeException("Erreur lors de la suppression: " + e.getMessage());
         }
     }
@@ -0,0 +1,477 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.dto.AffectationPaire;
+import com.example.gestionpaimentback.dto.ConflitPlanning;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+// Index en mémoire des affectations : bitmaps compressés (Roaring) session -> formateurs et formateur -> sessions,
+// plus l'ensemble des sessions existantes. Reconstruit au démarrage depuis session_formateurs, puis tenu à jour
+// par les écritures (SessionService, SessionImportService, AffectationIndexListener pour celles de JPA).
+// Périodes des sessions datées et, par formateur, un IntervalTree de ses sessions : conflits de planning en
+// O(log n + k). Le calendrier de toutes les sessions est un index à part (SessionCalendrierIndex).
+// Un seul noeud : l'index ne voit que les écritures de cette JVM, celles d'un autre noeud n'y arrivent qu'au
+// redémarrage. Désactivé par défaut (app.sessions.index.enabled)
+@Component
+public class AffectationIndex extends IndexEnMemoire<AffectationIndex.Tables> {
+
+    private static final Logger log = LoggerFactory.getLogger(AffectationIndex.class);
+
+    // Identifiants par clause IN
+    private static final int TAILLE_LOT_IN = 1000;
+
+    @Value("${app.sessions.index.enabled:false}")
+    private boolean active;
+
+    public AffectationIndex() {
+        super(Tables::new);
+    }
+
+    // Contenu de l'index, remplacé d'un bloc à la reconstruction
+    static final class Tables {
+        final RoaringBitmap sessions = new RoaringBitmap();
+        final Map<Integer, RoaringBitmap> formateursParSession = new HashMap<>();
+        final Map<Integer, RoaringBitmap> sessionsParFormateur = new HashMap<>();
+        // Sessions datées : {debut, fin} en jours depuis l'epoch
+        final Map<Integer, int[]> periodes = new HashMap<>();
+        final Map<Integer, IntervalTree> planningParFormateur = new HashMap<>();
+        long couples;
+
+        boolean ajouterCouple(int session, int formateur) {
+            if (!formateursParSession.computeIfAbsent(session, s -> new RoaringBitmap()).checkedAdd(formateur)) {
+                return false;
+            }
+            sessionsParFormateur.computeIfAbsent(formateur, f -> new RoaringBitmap()).add(session);
+            int[] periode = periodes.get(session);
+            if (periode != null) {
+                planningParFormateur.computeIfAbsent(formateur, f -> new IntervalTree()).inserer(periode[0], periode[1], session);
+            }
+            couples++;
+            return true;
+        }
+
+        boolean retirerCouple(int session, int formateur) {
+            RoaringBitmap formateurs = formateursParSession.get(session);
+            if (formateurs == null || !formateurs.checkedRemove(formateur)) {
+                return false;
+            }
+            if (formateurs.isEmpty()) {
+                formateursParSession.remove(session);
+            }
+            RoaringBitmap ids = sessionsParFormateur.get(formateur);
+            if (ids != null) {
+                ids.remove(session);
+                if (ids.isEmpty()) {
+                    sessionsParFormateur.remove(formateur);
+                }
+            }
+            int[] periode = periodes.get(session);
+            IntervalTree planning = planningParFormateur.get(formateur);
+            if (periode != null && planning != null) {
+                planning.retirer(periode[0], session);
+                if (planning.taille() == 0) {
+                    planningParFormateur.remove(formateur);
+                }
+            }
+            couples--;
+            return true;
+        }
+
+        // Déplace la session dans le planning de chacun de ses formateurs ; null : session non datée
+        void definirPeriode(int session, int[] periode) {
+            int[] ancienne = periode != null ? periodes.put(session, periode) : periodes.remove(session);
+            if (Arrays.equals(ancienne, periode)) {
+                return;
+            }
+            RoaringBitmap formateurs = formateursParSession.get(session);
+            if (formateurs == null) {
+                return;
+            }
+            for (int formateur : formateurs.toArray()) {
+                IntervalTree planning = planningParFormateur.computeIfAbsent(formateur, f -> new IntervalTree());
+                if (ancienne != null) {
+                    planning.retirer(ancienne[0], session);
+                }
+                if (periode != null) {
+                    planning.inserer(periode[0], periode[1], session);
+                }
+                if (planning.taille() == 0) {
+                    planningParFormateur.remove(formateur);
+                }
+            }
+        }
+
+        int[] viderSession(int session) {
+            RoaringBitmap formateurs = formateursParSession.get(session);
+            if (formateurs == null) {
+                return new int[0];
+            }
+            int[] ids = formateurs.toArray();
+            for (int formateur : ids) {
+                retirerCouple(session, formateur);
+            }
+            return ids;
+        }
+
+        void restaurer(int session, int[] formateurs) {
+            for (int formateur : formateurs) {
+                ajouterCouple(session, formateur);
+            }
+        }
+    }
+
+    @Override
+    protected String nom() {
+        return "affectations";
+    }
+
+    @Override
+    protected boolean activeParConfiguration() {
+        return active;
+    }
+
+    // Relit sessions et session_formateurs
+    @Override
+    protected Tables charger() {
+        Tables nouvelles = new Tables();
+        lire("SELECT id_session, dated, datef FROM sessions", resultat -> {
+            int session = cle(resultat.getLong(1));
+            nouvelles.sessions.add(session);
+            int[] periode = SessionCalendrierIndex.periode(resultat.getObject(2, LocalDate.class), resultat.getObject(3, LocalDate.class));
+            if (periode != null) {
+                nouvelles.definirPeriode(session, periode);
+            }
+        });
+        lire("SELECT session_id, formateur_id FROM session_formateurs",
+                resultat -> nouvelles.ajouterCouple(cle(resultat.getLong(1)), cle(resultat.getLong(2))));
+        nouvelles.sessions.runOptimize();
+        nouvelles.formateursParSession.values().forEach(RoaringBitmap::runOptimize);
+        nouvelles.sessionsParFormateur.values().forEach(RoaringBitmap::runOptimize);
+        return nouvelles;
+    }
+
+    @Override
+    protected void journaliserReconstruction(Tables nouvelles, long dureeMs) {
+        log.atInfo().setMessage("🗂️ Index des affectations reconstruit").addKeyValue("sessions", nouvelles.sessions.getCardinality())
+                .addKeyValue("couples", nouvelles.couples).addKeyValue("octets", tailleEnOctets())
+                .addKeyValue("dureeMs", dureeMs).log();
+    }
+
+    // ----- Lectures : verrou partagé, aucune requête -----
+
+    public boolean sessionExiste(Long sessionId) {
+        verrou.readLock().lock();
+        try {
+            return sessionId <= Integer.MAX_VALUE && tables.sessions.contains(sessionId.intValue());
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public boolean contient(Long sessionId, Long formateurId) {
+        verrou.readLock().lock();
+        try {
+            RoaringBitmap formateurs = sessionId <= Integer.MAX_VALUE ? tables.formateursParSession.get(sessionId.intValue()) : null;
+            return formateurs != null && formateurId <= Integer.MAX_VALUE && formateurs.contains(formateurId.intValue());
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // Identifiants croissants
+    public List<Long> sessionsDuFormateur(Long formateurId) {
+        verrou.readLock().lock();
+        try {
+            RoaringBitmap ids = formateurId <= Integer.MAX_VALUE ? tables.sessionsParFormateur.get(formateurId.intValue()) : null;
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            List<Long> liste = new ArrayList<>(ids.getCardinality());
+            ids.forEach((int id) -> liste.add((long) id));
+            return liste;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // Sessions du formateur dont la période chevauche celle de la session (elle-même exclue) ; vide si non datée
+    public List<ConflitPlanning> conflits(Long sessionId, Long formateurId) {
+        return conflits(List.of(new AffectationPaire(sessionId, formateurId)));
+    }
+
+    // Conflits qu'entraîneraient ces couples : avec les sessions déjà affectées au formateur, et entre couples
+    // du même formateur dans la liste. Un couple déjà affecté n'est comparé qu'aux autres sessions
+    public List<ConflitPlanning> conflits(Collection<AffectationPaire> paires) {
+        verrou.readLock().lock();
+        try {
+            return conflits(tables, paires);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // Mêmes conflits, sur un planning lu en base : périodes des sessions demandées et sessions datées déjà
+    // affectées à ces formateurs, quel que soit le noeud qui les a écrites. Index désactivé (plusieurs noeuds)
+    public List<ConflitPlanning> conflitsEnBase(Collection<AffectationPaire> paires) {
+        Set<Long> sessionIds = new TreeSet<>();
+        Set<Long> formateurIds = new TreeSet<>();
+        for (AffectationPaire paire : paires) {
+            if (paire.sessionId() <= Integer.MAX_VALUE && paire.formateurId() <= Integer.MAX_VALUE) {
+                sessionIds.add(paire.sessionId());
+                formateurIds.add(paire.formateurId());
+            }
+        }
+        Tables planning = new Tables();
+        parLots(sessionIds, (marqueurs, lot) -> lire("SELECT id_session, dated, datef FROM sessions " +
+                "WHERE dated IS NOT NULL AND datef IS NOT NULL AND id_session IN (" + marqueurs + ")", resultat ->
+                planning.definirPeriode(cle(resultat.getLong(1)), SessionCalendrierIndex.periode(
+                        resultat.getObject(2, LocalDate.class), resultat.getObject(3, LocalDate.class))), lot));
+        parLots(formateurIds, (marqueurs, lot) -> lire("SELECT sf.session_id, sf.formateur_id, s.dated, s.datef " +
+                "FROM session_formateurs sf JOIN sessions s ON s.id_session = sf.session_id " +
+                "WHERE s.dated IS NOT NULL AND s.datef IS NOT NULL AND sf.formateur_id IN (" + marqueurs + ")", resultat -> {
+            int session = cle(resultat.getLong(1));
+            planning.definirPeriode(session, SessionCalendrierIndex.periode(
+                    resultat.getObject(3, LocalDate.class), resultat.getObject(4, LocalDate.class)));
+            planning.ajouterCouple(session, cle(resultat.getLong(2)));
+        }, lot));
+        return conflits(planning, paires);
+    }
+
+    private static void parLots(Set<Long> ids, BiConsumer<String, Object[]> requete) {
+        List<Long> liste = new ArrayList<>(ids);
+        for (int debut = 0; debut < liste.size(); debut += TAILLE_LOT_IN) {
+            List<Long> lot = liste.subList(debut, Math.min(debut + TAILLE_LOT_IN, liste.size()));
+            requete.accept(String.join(", ", Collections.nCopies(lot.size(), "?")), lot.toArray());
+        }
+    }
+
+    private static List<ConflitPlanning> conflits(Tables tables, Collection<AffectationPaire> paires) {
+        List<ConflitPlanning> conflits = new ArrayList<>();
+        Map<Integer, List<int[]>> nouvellesParFormateur = new HashMap<>();
+        for (AffectationPaire paire : paires) {
+            if (paire.sessionId() > Integer.MAX_VALUE || paire.formateurId() > Integer.MAX_VALUE) {
+                continue;
+            }
+            int session = paire.sessionId().intValue();
+            int formateur = paire.formateurId().intValue();
+            int[] periode = tables.periodes.get(session);
+            if (periode == null) {
+                continue;
+            }
+            IntervalTree planning = tables.planningParFormateur.get(formateur);
+            if (planning != null) {
+                planning.chevauchements(periode[0], periode[1], autre -> {
+                    if (autre != session) {
+                        conflits.add(conflit(formateur, session, periode, autre, tables.periodes.get(autre)));
+                    }
+                });
+            }
+            RoaringBitmap affectees = tables.sessionsParFormateur.get(formateur);
+            if (affectees == null || !affectees.contains(session)) {
+                nouvellesParFormateur.computeIfAbsent(formateur, f -> new ArrayList<>())
+                        .add(new int[]{periode[0], periode[1], session});
+            }
+        }
+        // Entre nouvelles sessions d'un même formateur : balayage par début croissant
+        nouvellesParFormateur.forEach((formateur, nouvelles) -> {
+            nouvelles.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[2], b[2]));
+            balayer(formateur, nouvelles, conflits, Integer.MAX_VALUE);
+        });
+        return conflits;
+    }
+
+    // Tous les conflits existants en un passage : chaque planning parcouru dans l'ordre des débuts. Renvoie
+    // le nombre total de conflits ; au plus <limite> sont ajoutés à la liste, par formateur croissant
+    public long tousLesConflits(int limite, List<ConflitPlanning> sortie) {
+        verrou.readLock().lock();
+        try {
+            Integer[] formateurs = tables.planningParFormateur.keySet().toArray(Integer[]::new);
+            Arrays.sort(formateurs);
+            long total = 0;
+            for (Integer formateur : formateurs) {
+                IntervalTree planning = tables.planningParFormateur.get(formateur);
+                List<int[]> intervalles = new ArrayList<>(planning.taille());
+                planning.parcourir((debut, fin, session) -> intervalles.add(new int[]{debut, fin, session}));
+                total += balayer(formateur, intervalles, sortie, limite);
+            }
+            return total;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // intervalles {debut, fin, session} triés par début : les intervalles encore ouverts (file par fin)
+    // chevauchent chaque nouvel arrivant. Renvoie le nombre de conflits trouvés
+    private static long balayer(int formateur, List<int[]> intervalles, List<ConflitPlanning> sortie, int limite) {
+        long trouves = 0;
+        PriorityQueue<int[]> ouverts = new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+        for (int[] intervalle : intervalles) {
+            while (!ouverts.isEmpty() && ouverts.peek()[1] < intervalle[0]) {
+                ouverts.poll();
+            }
+            for (int[] ouvert : ouverts) {
+                trouves++;
+                if (sortie.size() < limite) {
+                    sortie.add(conflit(formateur, intervalle[2], intervalle, ouvert[2], ouvert));
+                }
+            }
+            ouverts.add(intervalle);
+        }
+        return trouves;
+    }
+
+    private static ConflitPlanning conflit(int formateur, int session, int[] periode, int autre, int[] autrePeriode) {
+        return new ConflitPlanning((long) formateur, (long) session, (long) autre,
+                LocalDate.ofEpochDay(Math.max(periode[0], autrePeriode[0])),
+                LocalDate.ofEpochDay(Math.min(periode[1], autrePeriode[1])));
+    }
+
+    // Octets des bitmaps sérialisés (sans les tables de hachage qui les portent ni les plannings)
+    public long tailleEnOctets() {
+        verrou.readLock().lock();
+        try {
+            long octets = tables.sessions.getLongSizeInBytes();
+            for (RoaringBitmap bitmap : tables.formateursParSession.values()) {
+                octets += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : tables.sessionsParFormateur.values()) {
+                octets += bitmap.getLongSizeInBytes();
+            }
+            return octets;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStatistiques() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("actif", estActif());
+        response.put("octets", tailleEnOctets());
+        verrou.readLock().lock();
+        try {
+            response.put("sessions", tables.sessions.getLongCardinality());
+            response.put("sessionsDatees", tables.periodes.size());
+            response.put("sessionsAffectees", tables.formateursParSession.size());
+            response.put("formateurs", tables.sessionsParFormateur.size());
+            response.put("couples", tables.couples);
+            response.put("derniereReconstructionMs", getDerniereReconstructionMs());
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return response;
+    }
+
+    // ----- Écritures : à appeler dans la transaction qui modifie la base, après l'instruction SQL -----
+
+    public void affecter(Long sessionId, Long formateurId) {
+        modifier(t -> t.ajouterCouple(cle(sessionId), cle(formateurId))
+                ? () -> t.retirerCouple(sessionId.intValue(), formateurId.intValue()) : () -> {});
+    }
+
+    public void affecter(Collection<AffectationPaire> paires) {
+        modifier(t -> {
+            List<int[]> ajoutees = new ArrayList<>();
+            for (AffectationPaire paire : paires) {
+                int session = cle(paire.sessionId());
+                int formateur = cle(paire.formateurId());
+                if (t.ajouterCouple(session, formateur)) {
+                    ajoutees.add(new int[]{session, formateur});
+                }
+            }
+            return () -> ajoutees.forEach(couple -> t.retirerCouple(couple[0], couple[1]));
+        });
+    }
+
+    public void retirer(Long sessionId, Long formateurId) {
+        modifier(t -> t.retirerCouple(cle(sessionId), cle(formateurId))
+                ? () -> t.ajouterCouple(sessionId.intValue(), formateurId.intValue()) : () -> {});
+    }
+
+    public void retirer(Collection<AffectationPaire> paires) {
+        modifier(t -> {
+            List<int[]> retirees = new ArrayList<>();
+            for (AffectationPaire paire : paires) {
+                int session = cle(paire.sessionId());
+                int formateur = cle(paire.formateurId());
+                if (t.retirerCouple(session, formateur)) {
+                    retirees.add(new int[]{session, formateur});
+                }
+            }
+            return () -> retirees.forEach(couple -> t.ajouterCouple(couple[0], couple[1]));
+        });
+    }
+
+    // Nouvelle session, sa période et ses formateurs éventuels
+    public void creerSession(Long sessionId, LocalDate dateD, LocalDate dateF, Collection<Long> formateurIds) {
+        modifier(t -> {
+            int session = cle(sessionId);
+            boolean nouvelle = t.sessions.checkedAdd(session);
+            int[] anciennePeriode = t.periodes.get(session);
+            t.definirPeriode(session, SessionCalendrierIndex.periode(dateD, dateF));
+            List<Integer> ajoutes = new ArrayList<>();
+            for (Long formateurId : formateurIds) {
+                int formateur = cle(formateurId);
+                if (t.ajouterCouple(session, formateur)) {
+                    ajoutes.add(formateur);
+                }
+            }
+            return () -> {
+                ajoutes.forEach(formateur -> t.retirerCouple(session, formateur));
+                t.definirPeriode(session, anciennePeriode);
+                if (nouvelle) {
+                    t.sessions.remove(session);
+                }
+            };
+        });
+    }
+
+    // Dates modifiées : la session change de place dans le planning de ses formateurs
+    public void modifierPeriode(Long sessionId, LocalDate dateD, LocalDate dateF) {
+        modifier(t -> {
+            int session = cle(sessionId);
+            int[] ancienne = t.periodes.get(session);
+            t.definirPeriode(session, SessionCalendrierIndex.periode(dateD, dateF));
+            return () -> t.definirPeriode(session, ancienne);
+        });
+    }
+
+    public void retirerFormateurs(Long sessionId) {
+        modifier(t -> {
+            int[] formateurs = t.viderSession(cle(sessionId));
+            return () -> t.restaurer(sessionId.intValue(), formateurs);
+        });
+    }
+
+    public void supprimerSession(Long sessionId) {
+        modifier(t -> {
+            int session = cle(sessionId);
+            int[] formateurs = t.viderSession(session);
+            int[] periode = t.periodes.get(session);
+            t.definirPeriode(session, null);
+            boolean existait = t.sessions.checkedRemove(session);
+            return () -> {
+                if (existait) {
+                    t.sessions.add(session);
+                }
+                t.definirPeriode(session, periode);
+                t.restaurer(session, formateurs);
+            };
+        });
+    }
+}
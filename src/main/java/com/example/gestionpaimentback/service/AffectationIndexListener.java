@@ -0,0 +1,161 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.dto.AffectationPaire;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Répercute sur AffectationIndex et SessionCalendrierIndex les écritures de session faites par JPA (save d'une
+// session avec ses formateurs, modification de ses dates ou de Session.formateurs, delete). Les chemins JDBC
+// appellent les index eux-mêmes.
+// Événements de collection : Session n'a que formateurs
+@Component
+public class AffectationIndexListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionRemoveEventListener, PostCollectionUpdateEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AffectationIndex affectationIndex;
+
+    @Autowired
+    private SessionCalendrierIndex calendrierIndex;
+
+    @PostConstruct
+    public void enregistrer() {
+        EventListenerRegistry registre = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registre.appendListeners(EventType.POST_INSERT, this);
+        registre.appendListeners(EventType.POST_UPDATE, this);
+        registre.appendListeners(EventType.POST_DELETE, this);
+        registre.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registre.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+        registre.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Session session) {
+            affectationIndex.creerSession(session.getIdSession(), session.getDateD(), session.getDateF(),
+                    ids(session.getFormateurs()));
+            calendrierIndex.definirPeriode(session.getIdSession(), session.getDateD(), session.getDateF());
+        }
+    }
+
+    // Dates modifiées (PUT) : place de la session dans le calendrier et le planning de ses formateurs
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Session session) {
+            affectationIndex.modifierPeriode(session.getIdSession(), session.getDateD(), session.getDateF());
+            calendrierIndex.definirPeriode(session.getIdSession(), session.getDateD(), session.getDateF());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Session session) {
+            affectationIndex.supprimerSession(session.getIdSession());
+            calendrierIndex.supprimerSession(session.getIdSession());
+        }
+    }
+
+    // Collection remplacée (setFormateurs) : l'ancienne est supprimée puis la nouvelle recréée en entier
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof Session session) {
+            affectationIndex.retirerFormateurs(session.getIdSession());
+        }
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof Session session) {
+            affectationIndex.creerSession(session.getIdSession(), session.getDateD(), session.getDateF(),
+                    ids(session.getFormateurs()));
+        }
+    }
+
+    // Collection modifiée : seulement la différence avec l'état chargé, comme les INSERT / DELETE de Hibernate.
+    // Un couple ajouté entre-temps par une autre transaction reste dans l'index comme en base
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        if (!(event.getAffectedOwnerOrNull() instanceof Session session)) {
+            return;
+        }
+        Set<Long> avant = idsInstantane(event.getCollection());
+        Set<Long> apres = ids(session.getFormateurs());
+        List<AffectationPaire> ajoutees = new ArrayList<>();
+        List<AffectationPaire> retirees = new ArrayList<>();
+        for (Long formateurId : apres) {
+            if (!avant.contains(formateurId)) {
+                ajoutees.add(new AffectationPaire(session.getIdSession(), formateurId));
+            }
+        }
+        for (Long formateurId : avant) {
+            if (!apres.contains(formateurId)) {
+                retirees.add(new AffectationPaire(session.getIdSession(), formateurId));
+            }
+        }
+        if (!retirees.isEmpty()) {
+            affectationIndex.retirer(retirees);
+        }
+        if (!ajoutees.isEmpty()) {
+            affectationIndex.affecter(ajoutees);
+        }
+    }
+
+    // Instantané d'un Set persistant : Map élément -> élément (état chargé ou dernier flush)
+    private static Set<Long> idsInstantane(PersistentCollection<?> collection) {
+        Object instantane = collection.getStoredSnapshot();
+        Collection<?> elements = instantane instanceof Map<?, ?> map ? map.keySet()
+                : instantane instanceof Collection<?> liste ? liste : List.of();
+        Set<Long> ids = new HashSet<>();
+        for (Object element : elements) {
+            if (element instanceof User user) {
+                ids.add(user.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static Set<Long> ids(Collection<User> formateurs) {
+        Set<Long> ids = new HashSet<>();
+        if (formateurs != null) {
+            formateurs.forEach(formateur -> ids.add(formateur.getId()));
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
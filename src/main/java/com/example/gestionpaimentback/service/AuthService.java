@@ -1,12 +1,14 @@
 package com.example.gestionpaimentback.service;
 
+import com.example.gestionpaimentback.config.PhaseMetrics;
 import com.example.gestionpaimentback.dto.RegisterRequest;
 import com.example.gestionpaimentback.entity.Role;
 import com.example.gestionpaimentback.entity.User;
 import com.example.gestionpaimentback.repository.RoleRepository;
 import com.example.gestionpaimentback.repository.UserRepository;
+import com.example.gestionpaimentback.security.PasswordHasher;
+import com.example.gestionpaimentback.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.HashSet;
 import java.util.Set;
@@ -21,18 +23,40 @@ public class AuthService {
     private RoleRepository roleRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private PhaseMetrics phaseMetrics;
 
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
 
+    // Vérifie le mot de passe et remplace le hash s'il a été calculé avec un coût obsolète
+    public boolean verifierMotDePasse(UserDetailsImpl userDetails, String rawPassword) {
+        // Attente dans la file BCrypt comprise : c'est ce que voit l'utilisateur
+        boolean valide = phaseMetrics.mesurer(PhaseMetrics.Phase.MOT_DE_PASSE,
+                () -> passwordHasher.matches(rawPassword, userDetails.getPassword()));
+        if (!valide) {
+            return false;
+        }
+        passwordHasher.rehashSiNecessaire(rawPassword, userDetails.getPassword(), nouveauHash -> {
+            if (userRepository.updatePassword(userDetails.getId(), userDetails.getPassword(), nouveauHash) > 0) {
+                userDetailsCache.invalider(userDetails.getEmail());
+            }
+        });
+        return true;
+    }
+
     public User registerUser(RegisterRequest registerRequest) {
         User user = new User();
         user.setFirstName(registerRequest.getFirstName());
         user.setLastName(registerRequest.getLastName());
         user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        user.setPassword(passwordHasher.encode(registerRequest.getPassword()));
 
         Set<Role> roles = new HashSet<>();
 
@@ -65,6 +89,8 @@ public class AuthService {
         }
 
         user.setRoles(roles);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userDetailsCache.invalider(savedUser.getEmail());
+        return savedUser;
     }
 }
\ No newline at end of file
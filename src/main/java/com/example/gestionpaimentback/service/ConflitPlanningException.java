@@ -0,0 +1,20 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.dto.ConflitPlanning;
+
+import java.util.List;
+
+// Affectation refusée (app.sessions.conflits.mode=rejeter) : le formateur a déjà une session sur la période
+public class ConflitPlanningException extends RuntimeException {
+
+    private final List<ConflitPlanning> conflits;
+
+    public ConflitPlanningException(List<ConflitPlanning> conflits) {
+        super("Conflit de planning : " + conflits.size() + " chevauchement(s) avec des sessions déjà affectées");
+        this.conflits = conflits;
+    }
+
+    public List<ConflitPlanning> getConflits() {
+        return conflits;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.gestionpaimentback.service;
+
+// Publié quand un message est ajouté à l'outbox ; traité après le commit de la transaction
+public class EmailOutboxEvent {
+    private final Long outboxId;
+
+    public EmailOutboxEvent(Long outboxId) {
+        this.outboxId = outboxId;
+    }
+
+    public Long getOutboxId() { return outboxId; }
+}
@@ -0,0 +1,253 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.config.PhaseMetrics;
+import com.example.gestionpaimentback.entity.EmailOutbox;
+import com.example.gestionpaimentback.repository.EmailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Vide l'outbox des emails avec un pool borné, hors des threads HTTP
+@Service
+public class EmailOutboxWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxWorker.class);
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private JavaMailSender emailSender;
+
+    @Autowired
+    private SmtpTransportPool transportPool;
+
+    @Autowired
+    private PhaseMetrics phaseMetrics;
+
+    @Value("${app.mail.outbox.workers:4}")
+    private int nbWorkers;
+
+    @Value("${app.mail.outbox.queue-capacity:200}")
+    private int capaciteFile;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int tailleLot;
+
+    // Messages envoyés par connexion SMTP dans une même tâche
+    @Value("${app.mail.outbox.messages-per-task:20}")
+    private int messagesParTache;
+
+    @Value("${app.mail.outbox.max-attempts:5}")
+    private int maxTentatives;
+
+    @Value("${app.mail.outbox.backoff-initial-ms:2000}")
+    private long backoffInitialMs;
+
+    @Value("${app.mail.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    @Value("${app.mail.outbox.sending-timeout-ms:120000}")
+    private long delaiBlocageMs;
+
+    private ThreadPoolExecutor executor;
+
+    // Compteurs exposés via getStatistiques()
+    private final AtomicLong envoyes = new AtomicLong();
+    private final AtomicLong echecsTemporaires = new AtomicLong();
+    private final AtomicLong echecsDefinitifs = new AtomicLong();
+    private final AtomicLong latenceTotaleMs = new AtomicLong();
+    private final LongAccumulator latenceMaxMs = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void demarrer() {
+        // Threads plateforme même avec le profil "virtual" : l'envoi SMTP est synchronized (voir ThreadingConfig)
+        executor = new ThreadPoolExecutor(
+                nbWorkers, nbWorkers,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capaciteFile),
+                new CustomizableThreadFactory("mail-outbox-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void arreter() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Envoi immédiat dès que la transaction qui a créé le message est validée
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageEnfile(EmailOutboxEvent event) {
+        soumettre(List.of(event.getOutboxId()));
+    }
+
+    // Filet de sécurité : reprend les retries, les messages refusés par le pool et ceux des autres noeuds
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:5000}")
+    public void drainer() {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.libererBloques(now.minus(Duration.ofMillis(delaiBlocageMs)));
+
+        int place = executor.getQueue().remainingCapacity();
+        if (place <= 0) {
+            return;
+        }
+
+        List<Long> ids = outboxRepository.findIdsPrets(now, PageRequest.of(0, Math.min(tailleLot, place * messagesParTache)));
+        for (int debut = 0; debut < ids.size(); debut += messagesParTache) {
+            List<Long> lot = ids.subList(debut, Math.min(ids.size(), debut + messagesParTache));
+            if (!soumettre(new ArrayList<>(lot))) {
+                break;
+            }
+        }
+    }
+
+    private boolean soumettre(List<Long> outboxIds) {
+        try {
+            executor.execute(() -> traiter(outboxIds));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // File pleine : le message reste PENDING et sera repris par drainer()
+            return false;
+        }
+    }
+
+    // Chaque ligne est réservée juste avant son envoi : elle ne reste SENDING que le temps d'un message, et
+    // libererBloques ne remet pas en file les messages qui attendent encore leur tour dans un lot lent
+    void traiter(List<Long> outboxIds) {
+        // Une seule connexion SMTP pour tout le lot
+        try (SmtpTransportPool.Connexion connexion = transportPool.emprunter()) {
+            for (Long id : outboxIds) {
+                EmailOutbox outbox = reserver(id);
+                if (outbox == null) {
+                    continue; // déjà pris par un autre worker
+                }
+                try {
+                    MimeMessage message = creerMessage(outbox);
+                    long debut = System.nanoTime();
+                    connexion.envoyer(message);
+                    phaseMetrics.enregistrer(PhaseMetrics.Phase.ENVOI_SMTP, System.nanoTime() - debut);
+                    enregistrerEnvoi(outbox);
+                } catch (MessagingException | RuntimeException e) {
+                    enregistrerEchec(outbox, e);
+                }
+            }
+        } catch (MessagingException e) {
+            // Pas de connexion disponible : tout le lot repart en retry
+            for (Long id : outboxIds) {
+                EmailOutbox outbox = reserver(id);
+                if (outbox != null) {
+                    enregistrerEchec(outbox, e);
+                }
+            }
+        }
+    }
+
+    // null si un autre worker (ou un autre noeud) a déjà pris la ligne
+    private EmailOutbox reserver(Long id) {
+        if (outboxRepository.reserver(id, LocalDateTime.now()) == 0) {
+            return null;
+        }
+        return outboxRepository.findById(id).orElse(null);
+    }
+
+    private MimeMessage creerMessage(EmailOutbox outbox) throws MessagingException {
+        MimeMessage message = emailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setTo(outbox.getDestinataire());
+        helper.setSubject(outbox.getSujet());
+        helper.setText(outbox.getContenu());
+        return message;
+    }
+
+    private void enregistrerEnvoi(EmailOutbox outbox) {
+        LocalDateTime sentAt = LocalDateTime.now();
+        outbox.setStatut(EmailOutbox.EStatut.SENT);
+        outbox.setSentAt(sentAt);
+        outbox.setDerniereErreur(null);
+        outboxRepository.save(outbox);
+
+        long latence = Duration.between(outbox.getCreatedAt(), sentAt).toMillis();
+        envoyes.incrementAndGet();
+        latenceTotaleMs.addAndGet(latence);
+        latenceMaxMs.accumulate(latence);
+
+        log.atInfo().setMessage("✅ Email envoyé").addKeyValue("outboxId", outbox.getId())
+                .addKeyValue("destinataire", outbox.getDestinataire()).addKeyValue("latenceMs", latence).log();
+    }
+
+    private void enregistrerEchec(EmailOutbox outbox, Exception e) {
+        int tentatives = outbox.getTentatives() + 1;
+        outbox.setTentatives(tentatives);
+        outbox.setDerniereErreur(tronquer(e.getMessage()));
+
+        if (tentatives >= maxTentatives) {
+            outbox.setStatut(EmailOutbox.EStatut.FAILED);
+            echecsDefinitifs.incrementAndGet();
+            log.atError().setMessage("❌ Email abandonné").addKeyValue("outboxId", outbox.getId())
+                    .addKeyValue("destinataire", outbox.getDestinataire()).addKeyValue("tentatives", tentatives)
+                    .addKeyValue("erreur", e.getMessage()).log();
+        } else {
+            // Backoff exponentiel plafonné : 2s, 4s, 8s, ... (décalage borné : pas de débordement si max-attempts est grand)
+            long delai = Math.min(backoffMaxMs, backoffInitialMs << Math.min(tentatives - 1, 30));
+            outbox.setStatut(EmailOutbox.EStatut.PENDING);
+            outbox.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(delai)));
+            echecsTemporaires.incrementAndGet();
+            log.atWarn().setMessage("⚠️ Email non envoyé, nouvel essai planifié").addKeyValue("outboxId", outbox.getId())
+                    .addKeyValue("destinataire", outbox.getDestinataire()).addKeyValue("tentatives", tentatives)
+                    .addKeyValue("delaiMs", delai).addKeyValue("erreur", e.getMessage()).log();
+        }
+
+        outboxRepository.save(outbox);
+    }
+
+    private String tronquer(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    public Map<String, Object> getStatistiques() {
+        long nbEnvoyes = envoyes.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("profondeur", outboxRepository.countByStatut(EmailOutbox.EStatut.PENDING));
+        stats.put("enCours", outboxRepository.countByStatut(EmailOutbox.EStatut.SENDING));
+        stats.put("fileLocale", executor.getQueue().size());
+        stats.put("workersActifs", executor.getActiveCount());
+        stats.put("envoyes", nbEnvoyes);
+        stats.put("echecsTemporaires", echecsTemporaires.get());
+        stats.put("echecsDefinitifs", echecsDefinitifs.get());
+        stats.put("latenceMoyenneMs", nbEnvoyes > 0 ? latenceTotaleMs.get() / nbEnvoyes : 0);
+        stats.put("latenceMaxMs", latenceMaxMs.get());
+        stats.put("smtp", transportPool.getStatistiques());
+        return stats;
+    }
+}
@@ -1,27 +1,41 @@
 package com.example.gestionpaimentback.service;
 
-import com.example.gestionpaimentback.entity.VerificationCode;
+import com.example.gestionpaimentback.config.PhaseMetrics;
+import com.example.gestionpaimentback.entity.EmailOutbox;
 import com.example.gestionpaimentback.entity.User;
-import com.example.gestionpaimentback.repository.VerificationCodeRepository;
+import com.example.gestionpaimentback.repository.EmailOutboxRepository;
 import com.example.gestionpaimentback.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Random;
 import java.util.Optional;
 
 @Service
 public class EmailService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
-    private VerificationCodeRepository verificationCodeRepository;
+    private VerificationCodeStore verificationCodeStore;
 
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private JavaMailSender emailSender;
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PhaseMetrics phaseMetrics;
 
     // Générer un code à 6 chiffres
     public String genererCode() {
@@ -29,34 +43,20 @@ public class EmailService {
         return String.valueOf(100000 + random.nextInt(900000));
     }
 
-    // ENVOYER EMAIL
+    // METTRE L'EMAIL EN FILE (outbox) : l'envoi SMTP est fait par EmailOutboxWorker
     public void envoyerCode(String emailUtilisateur, String code) {
-        try {
-            // 1. Préparer l'email
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(emailUtilisateur);
-            message.setSubject("🔐 Ton code de vérification");
-            message.setText(
-                    "Bonjour !\n\n" +
-                            "Ton code de vérification est : " + code + "\n\n" +
-                            "Utilise-le pour te connecter à l'application.\n\n" +
-                            "L'équipe Gestion Paiement"
-            );
-
-            // 2. Envoyer l'email
-            emailSender.send(message);
-
-            // 3. Confirmation
-            System.out.println("✅ EMAIL ENVOYÉ : " + emailUtilisateur);
-            System.out.println("🔑 CODE : " + code);
-
-        } catch (Exception e) {
-            // Si erreur, on montre le code dans la console
-            System.out.println("❌ Email non envoyé, mais CODE DISPONIBLE :");
-            System.out.println("📧 Pour : " + emailUtilisateur);
-            System.out.println("🔑 Code : " + code);
-            System.out.println("📋 Copie ce code pour te connecter !");
-        }
+        EmailOutbox outbox = new EmailOutbox(
+                emailUtilisateur,
+                "🔐 Ton code de vérification",
+                "Bonjour !\n\n" +
+                        "Ton code de vérification est : " + code + "\n\n" +
+                        "Utilise-le pour te connecter à l'application.\n\n" +
+                        "L'équipe Gestion Paiement"
+        );
+        phaseMetrics.mesurer(PhaseMetrics.Phase.MISE_EN_FILE_MAIL, () -> emailOutboxRepository.save(outbox));
+
+        // Traité après le commit, pour ne jamais envoyer un code qui n'existe pas en base
+        eventPublisher.publishEvent(new EmailOutboxEvent(outbox.getId()));
     }
 
     // Vérifier si l'utilisateur a déjà reçu un code (première connexion)
@@ -70,58 +70,46 @@ public class EmailService {
     }
 
     // Sauvegarder et envoyer le code UNIQUEMENT pour la première connexion
+    // Le code et le message outbox sont validés dans la même transaction
+    @Transactional
     public void sauvegarderEtEnvoyerCode(String email) {
-        try {
-            // Vérifier si c'est la première connexion
-            if (!isPremiereConnexion(email)) {
-                System.out.println("ℹ️ Utilisateur déjà vérifié, pas d'envoi de code");
-                return;
-            }
-
-            // 1. Invalider anciens codes
-            verificationCodeRepository.invalidatePreviousCodes(email);
+        // Vérifier si c'est la première connexion
+        if (!isPremiereConnexion(email)) {
+            log.atInfo().setMessage("ℹ️ Utilisateur déjà vérifié, pas d'envoi de code").addKeyValue("email", email).log();
+            return;
+        }
 
-            // 2. Générer nouveau code
-            String code = genererCode();
+        envoyerCodePremiereConnexion(email);
+    }
 
-            // 3. Sauvegarder en base
-            VerificationCode verificationCode = new VerificationCode(email, code);
-            verificationCodeRepository.save(verificationCode);
+    // Variante sans relecture de l'utilisateur : l'appelant a déjà vérifié status == 0
+    @Transactional
+    public void envoyerCodePremiereConnexion(String email) {
+        // 1. Générer nouveau code
+        String code = genererCode();
 
-            // 4. Envoyer par email
-            envoyerCode(email, code);
+        // 2. Sauvegarder (invalide les anciens codes)
+        phaseMetrics.mesurer(PhaseMetrics.Phase.PERSISTANCE_CODE, () -> verificationCodeStore.enregistrer(email, code));
 
-            System.out.println("✅ Code envoyé pour première connexion : " + email);
+        // 3. Mettre l'email en file
+        envoyerCode(email, code);
 
-        } catch (Exception e) {
-            System.out.println("❌ Erreur envoi code : " + e.getMessage());
-        }
+        log.atInfo().setMessage("✅ Code mis en file pour première connexion").addKeyValue("email", email).log();
     }
 
     // Vérifier le code et activer l'utilisateur
     public boolean verifierCodeEtActiver(String email, String code) {
         try {
-            Optional<VerificationCode> verificationCode =
-                    verificationCodeRepository.findByEmailAndCodeAndUsedFalse(email, code);
-
-            if (verificationCode.isPresent()) {
-                VerificationCode vc = verificationCode.get();
-
-                if (vc.isExpired()) {
-                    return false;
-                }
-
-                // Marquer le code comme utilisé
-                vc.setUsed(true);
-                verificationCodeRepository.save(vc);
-
+            // Code valide, non expiré, et marqué comme utilisé
+            if (verificationCodeStore.verifierEtConsommer(email, code)) {
                 // Activer l'utilisateur (changer status de 0 à 1)
                 Optional<User> userOptional = userRepository.findByEmail(email);
                 if (userOptional.isPresent()) {
                     User user = userOptional.get();
                     user.setStatus(1); // Activer l'utilisateur
                     userRepository.save(user);
-                    System.out.println("✅ Utilisateur activé : " + email);
+                    userDetailsCache.invalider(email);
+                    log.atInfo().setMessage("✅ Utilisateur activé").addKeyValue("email", email).log();
                 }
 
                 return true;
@@ -130,7 +118,7 @@ public class EmailService {
             return false;
 
         } catch (Exception e) {
-            System.out.println("❌ Erreur vérification : " + e.getMessage());
+            log.atError().setMessage("❌ Erreur vérification").addKeyValue("email", email).setCause(e).log();
             return false;
         }
     }
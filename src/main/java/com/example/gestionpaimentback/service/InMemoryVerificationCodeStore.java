@@ -0,0 +1,135 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.entity.VerificationCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Codes en mémoire : aucune requête SQL à l'émission ni à la vérification
+// L'expiration passe par une roue temporelle (hashed timing wheel) : chaque tick ne
+// parcourt que la case des codes qui expirent maintenant, jamais toute la map.
+// Les codes sont perdus au redémarrage et ne sont pas partagés entre noeuds.
+@Service
+@ConditionalOnProperty(name = "app.verification.store", havingValue = "memory")
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private final ConcurrentHashMap<String, Entree> codes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entree>[] cases;
+    private final long tickMs;
+    private final long dureeValiditeMs;
+    // Millisecondes depuis l'epoch ; une horloge manuelle dans les tests
+    private final LongSupplier horloge;
+    private long tickCourant;
+    private final ReentrantLock verrouRoue = new ReentrantLock();
+
+    private final AtomicLong expirations = new AtomicLong();
+
+    @Autowired
+    public InMemoryVerificationCodeStore(@Value("${app.verification.memory.tick-ms:1000}") long tickMs,
+                                         @Value("${app.verification.memory.wheel-size:1024}") int nbCases) {
+        this(tickMs, nbCases, VerificationCode.DUREE_VALIDITE.toMillis(), System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    InMemoryVerificationCodeStore(long tickMs, int nbCases, long dureeValiditeMs, LongSupplier horloge) {
+        this.tickMs = tickMs;
+        this.dureeValiditeMs = dureeValiditeMs;
+        this.horloge = horloge;
+        this.cases = new ConcurrentLinkedQueue[nbCases];
+        for (int i = 0; i < nbCases; i++) {
+            cases[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.tickCourant = horloge.getAsLong() / tickMs;
+    }
+
+    @Override
+    public void enregistrer(String email, String code) {
+        Entree entree = new Entree(email, code, horloge.getAsLong() + dureeValiditeMs);
+        // Remplace (et donc invalide) le code précédent
+        codes.put(email, entree);
+        caseDe(entree.expireA).add(entree);
+    }
+
+    @Override
+    public boolean verifierEtConsommer(String email, String code) {
+        Entree entree = codes.get(email);
+        if (entree == null || !entree.code.equals(code)) {
+            return false;
+        }
+        if (entree.expireA <= horloge.getAsLong()) {
+            codes.remove(email, entree);
+            return false;
+        }
+        // remove(clé, valeur) : un seul appelant concurrent peut consommer le code
+        return codes.remove(email, entree);
+    }
+
+    // Avance la roue jusqu'à l'instant présent et retire les codes expirés
+    @Scheduled(fixedRateString = "${app.verification.memory.tick-ms:1000}")
+    public void avancer() {
+        // ReentrantLock plutôt que synchronized : pas d'épinglage si @Scheduled tourne sur un thread virtuel
+        verrouRoue.lock();
+        try {
+            avancerJusqua(horloge.getAsLong());
+        } finally {
+            verrouRoue.unlock();
+        }
+    }
+
+    private void avancerJusqua(long now) {
+        long cible = now / tickMs;
+        // Après une longue pause, un tour complet suffit
+        long debut = Math.max(tickCourant, cible - cases.length + 1);
+
+        for (long tick = debut; tick <= cible; tick++) {
+            ConcurrentLinkedQueue<Entree> file = cases[(int) (tick % cases.length)];
+            for (int n = file.size(); n > 0; n--) {
+                Entree entree = file.poll();
+                if (entree == null) {
+                    break;
+                }
+                if (entree.expireA <= now) {
+                    if (codes.remove(entree.email, entree)) {
+                        expirations.incrementAndGet();
+                    }
+                } else {
+                    // Expire dans un tour suivant de la roue
+                    file.add(entree);
+                }
+            }
+        }
+        tickCourant = cible + 1;
+    }
+
+    private ConcurrentLinkedQueue<Entree> caseDe(long expireA) {
+        return cases[(int) ((expireA / tickMs) % cases.length)];
+    }
+
+    public int taille() {
+        return codes.size();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    private static final class Entree {
+        private final String email;
+        private final String code;
+        private final long expireA;
+
+        private Entree(String email, String code, long expireA) {
+            this.email = email;
+            this.code = code;
+            this.expireA = expireA;
+        }
+    }
+}
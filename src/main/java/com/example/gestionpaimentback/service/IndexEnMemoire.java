@@ -0,0 +1,227 @@
+package com.example.gestionpaimentback.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Index en mémoire reconstruit depuis la base au démarrage, puis tenu à jour par les écritures transactionnelles :
+// lectures sous verrou partagé, écritures appliquées juste avant le commit et défaites si la transaction échoue.
+// Chaque index a son propre état : une erreur (id hors limites, table absente) ne désactive que lui, ses lectures
+// repassent alors par les requêtes
+public abstract class IndexEnMemoire<T> implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexEnMemoire.class);
+
+    private static final int TAILLE_LOT_LECTURE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Supplier<T> vide;
+    protected final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    // Contenu de l'index, remplacé d'un bloc à la reconstruction
+    protected T tables;
+    private volatile boolean pret;
+    // Écritures reçues pendant une reconstruction, rejouées sur les tables relues sauf si leur transaction échoue
+    private List<Ecriture<T>> journal;
+    private long derniereReconstructionMs = -1;
+
+    protected IndexEnMemoire(Supplier<T> vide) {
+        this.vide = vide;
+        this.tables = vide.get();
+    }
+
+    // Nom dans les journaux
+    protected abstract String nom();
+
+    // Propriété app....enabled
+    protected abstract boolean activeParConfiguration();
+
+    // Relit la base dans de nouvelles tables (lire : curseur en avant seulement)
+    protected abstract T charger();
+
+    protected abstract void journaliserReconstruction(T tables, long dureeMs);
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconstruire();
+    }
+
+    public boolean estActif() {
+        return pret;
+    }
+
+    protected long getDerniereReconstructionMs() {
+        return derniereReconstructionMs;
+    }
+
+    // Relit la base sans bloquer les lectures ; les écritures concurrentes sont journalisées
+    public void reconstruire() {
+        if (!activeParConfiguration()) {
+            return;
+        }
+        long debut = System.nanoTime();
+        verrou.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        try {
+            T nouvelles = charger();
+
+            verrou.writeLock().lock();
+            try {
+                tables = nouvelles;
+                for (Ecriture<T> ecriture : journal) {
+                    if (!ecriture.annulee) {
+                        ecriture.appliquer(nouvelles);
+                    }
+                }
+                journal = null;
+                pret = true;
+                derniereReconstructionMs = (System.nanoTime() - debut) / 1_000_000;
+            } finally {
+                verrou.writeLock().unlock();
+            }
+            journaliserReconstruction(nouvelles, derniereReconstructionMs);
+        } catch (RuntimeException e) {
+            desactiver(e);
+        }
+    }
+
+    // Curseur en avant seulement, par paquets (MySQL : useCursorFetch=true), sans tout charger en mémoire
+    protected void lire(String sql, RowCallbackHandler traitement, Object... parametres) {
+        jdbcTemplate.query(connexion -> {
+            PreparedStatement requete = connexion.prepareStatement(sql);
+            requete.setFetchSize(TAILLE_LOT_LECTURE);
+            for (int i = 0; i < parametres.length; i++) {
+                requete.setObject(i + 1, parametres[i]);
+            }
+            return requete;
+        }, traitement);
+    }
+
+    private void desactiver(RuntimeException cause) {
+        verrou.writeLock().lock();
+        try {
+            pret = false;
+            journal = null;
+            tables = vide.get();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        log.atError().setMessage("❌ Index en mémoire désactivé, lectures en base").addKeyValue("index", nom())
+                .setCause(cause).log();
+    }
+
+    protected static int cle(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Identifiant hors de l'index 32 bits : " + id);
+        }
+        return (int) id;
+    }
+
+    protected interface Operation<T> {
+        // Applique la modification et renvoie son inverse, pour ces mêmes tables
+        Runnable appliquer(T tables);
+    }
+
+    // Une écriture et l'inverse de son effet sur les dernières tables où elle a été appliquée : rejouée par une
+    // reconstruction, elle est défaite sur les tables relues, pas sur celles qu'elles remplacent
+    private static final class Ecriture<T> {
+        final Operation<T> operation;
+        T cible;
+        Runnable inverse;
+        // Transaction non aboutie : plus rejouée
+        boolean annulee;
+
+        Ecriture(Operation<T> operation) {
+            this.operation = operation;
+        }
+
+        void appliquer(T tables) {
+            inverse = operation.appliquer(tables);
+            cible = tables;
+        }
+    }
+
+    // Appliquée juste avant le commit, quand la transaction tient encore ses verrous de ligne : deux écritures
+    // de la même ligne arrivent à l'index dans l'ordre de la base. Défaite (opération inverse) si la transaction
+    // n'aboutit pas. Sans transaction, appliquée tout de suite
+    protected void modifier(Operation<T> operation) {
+        if (!activeParConfiguration()) {
+            return;
+        }
+        Ecriture<T> ecriture = new Ecriture<>(operation);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appliquer(ecriture);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean appliquee;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                appliquer(ecriture);
+                appliquee = true;
+            }
+
+            // Enregistrée pendant le flush du commit (suppression par JPA) : beforeCommit est déjà passé
+            @Override
+            public void afterCommit() {
+                if (!appliquee) {
+                    appliquer(ecriture);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int statut) {
+                if (appliquee && statut != STATUS_COMMITTED) {
+                    annuler(ecriture);
+                }
+            }
+        });
+    }
+
+    private void appliquer(Ecriture<T> ecriture) {
+        verrou.writeLock().lock();
+        try {
+            if (journal != null) {
+                journal.add(ecriture);
+            }
+            if (pret || journal != null) {
+                ecriture.appliquer(tables);
+            }
+        } catch (IllegalStateException e) {
+            desactiver(e);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // Reconstruction en cours : l'écriture ne sera pas rejouée. Déjà rejouée sur les tables en place : défaite
+    // sur celles-ci. Tables remplacées depuis, sans elle (relues en base, transaction non validée) : rien à défaire
+    private void annuler(Ecriture<T> ecriture) {
+        verrou.writeLock().lock();
+        try {
+            ecriture.annulee = true;
+            if (ecriture.cible == tables && ecriture.inverse != null) {
+                ecriture.inverse.run();
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+}
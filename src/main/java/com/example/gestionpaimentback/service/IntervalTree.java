@@ -0,0 +1,180 @@
+package com.example.gestionpaimentback.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+// Arbre d'intervalles [debut, fin] (bornes incluses, en jours depuis l'epoch) identifiés par un id : treap
+// ordonné par (debut, id) dont chaque nœud porte la plus grande fin de son sous-arbre. Insertion et retrait en
+// O(log n) attendu, intervalles qui chevauchent [debut, fin] en O(log n + k). Non synchronisé
+public final class IntervalTree {
+
+    public interface Visiteur {
+        void visiter(int debut, int fin, int id);
+    }
+
+    private static final class Noeud {
+        final int debut;
+        final int fin;
+        final int id;
+        final int priorite;
+        int finMax;
+        Noeud gauche;
+        Noeud droite;
+
+        Noeud(int debut, int fin, int id) {
+            this.debut = debut;
+            this.fin = fin;
+            this.id = id;
+            this.priorite = ThreadLocalRandom.current().nextInt();
+            this.finMax = fin;
+        }
+    }
+
+    private Noeud racine;
+    private int taille;
+
+    public int taille() {
+        return taille;
+    }
+
+    // Un id ne doit figurer qu'une fois
+    public void inserer(int debut, int fin, int id) {
+        racine = inserer(racine, new Noeud(debut, fin, id));
+        taille++;
+    }
+
+    // debut : celui donné à l'insertion. false si absent
+    public boolean retirer(int debut, int id) {
+        int avant = taille;
+        racine = retirer(racine, debut, id);
+        return taille < avant;
+    }
+
+    // ids des intervalles qui chevauchent [debut, fin], par debut croissant
+    public void chevauchements(int debut, int fin, IntConsumer action) {
+        chevauchements(racine, debut, fin, (d, f, id) -> action.accept(id));
+    }
+
+    // Idem, avec les bornes de chaque intervalle
+    public void chevauchements(int debut, int fin, Visiteur visiteur) {
+        chevauchements(racine, debut, fin, visiteur);
+    }
+
+    // Tous les intervalles par (debut, id) croissants
+    public void parcourir(Visiteur visiteur) {
+        parcourir(racine, visiteur);
+    }
+
+    private static int comparer(int debut, int id, Noeud noeud) {
+        int ordre = Integer.compare(debut, noeud.debut);
+        return ordre != 0 ? ordre : Integer.compare(id, noeud.id);
+    }
+
+    private static Noeud inserer(Noeud noeud, Noeud nouveau) {
+        if (noeud == null) {
+            return nouveau;
+        }
+        if (comparer(nouveau.debut, nouveau.id, noeud) < 0) {
+            noeud.gauche = inserer(noeud.gauche, nouveau);
+            if (noeud.gauche.priorite > noeud.priorite) {
+                return rotationDroite(noeud);
+            }
+        } else {
+            noeud.droite = inserer(noeud.droite, nouveau);
+            if (noeud.droite.priorite > noeud.priorite) {
+                return rotationGauche(noeud);
+            }
+        }
+        mettreAJour(noeud);
+        return noeud;
+    }
+
+    private Noeud retirer(Noeud noeud, int debut, int id) {
+        if (noeud == null) {
+            return null;
+        }
+        int ordre = comparer(debut, id, noeud);
+        if (ordre == 0) {
+            taille--;
+            return fusionner(noeud.gauche, noeud.droite);
+        }
+        if (ordre < 0) {
+            noeud.gauche = retirer(noeud.gauche, debut, id);
+        } else {
+            noeud.droite = retirer(noeud.droite, debut, id);
+        }
+        mettreAJour(noeud);
+        return noeud;
+    }
+
+    // Tous les nœuds de gauche précèdent ceux de droite
+    private static Noeud fusionner(Noeud gauche, Noeud droite) {
+        if (gauche == null) {
+            return droite;
+        }
+        if (droite == null) {
+            return gauche;
+        }
+        if (gauche.priorite > droite.priorite) {
+            gauche.droite = fusionner(gauche.droite, droite);
+            mettreAJour(gauche);
+            return gauche;
+        }
+        droite.gauche = fusionner(gauche, droite.gauche);
+        mettreAJour(droite);
+        return droite;
+    }
+
+    private static void chevauchements(Noeud noeud, int debut, int fin, Visiteur visiteur) {
+        // Aucun intervalle du sous-arbre ne se termine à temps
+        if (noeud == null || noeud.finMax < debut) {
+            return;
+        }
+        chevauchements(noeud.gauche, debut, fin, visiteur);
+        // Ce nœud et tout son sous-arbre droit commencent trop tard
+        if (noeud.debut > fin) {
+            return;
+        }
+        if (noeud.fin >= debut) {
+            visiteur.visiter(noeud.debut, noeud.fin, noeud.id);
+        }
+        chevauchements(noeud.droite, debut, fin, visiteur);
+    }
+
+    private static void parcourir(Noeud noeud, Visiteur visiteur) {
+        if (noeud != null) {
+            parcourir(noeud.gauche, visiteur);
+            visiteur.visiter(noeud.debut, noeud.fin, noeud.id);
+            parcourir(noeud.droite, visiteur);
+        }
+    }
+
+    private static Noeud rotationDroite(Noeud noeud) {
+        Noeud pivot = noeud.gauche;
+        noeud.gauche = pivot.droite;
+        pivot.droite = noeud;
+        mettreAJour(noeud);
+        mettreAJour(pivot);
+        return pivot;
+    }
+
+    private static Noeud rotationGauche(Noeud noeud) {
+        Noeud pivot = noeud.droite;
+        noeud.droite = pivot.gauche;
+        pivot.gauche = noeud;
+        mettreAJour(noeud);
+        mettreAJour(pivot);
+        return pivot;
+    }
+
+    private static void mettreAJour(Noeud noeud) {
+        int finMax = noeud.fin;
+        if (noeud.gauche != null && noeud.gauche.finMax > finMax) {
+            finMax = noeud.gauche.finMax;
+        }
+        if (noeud.droite != null && noeud.droite.finMax > finMax) {
+            finMax = noeud.droite.finMax;
+        }
+        noeud.finMax = finMax;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.entity.VerificationCode;
+import com.example.gestionpaimentback.repository.VerificationCodeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Codes en base (table verification_codes) : survivent aux redémarrages et sont partagés entre noeuds
+@Service
+@ConditionalOnProperty(name = "app.verification.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaVerificationCodeStore implements VerificationCodeStore {
+
+    private final VerificationCodeRepository verificationCodeRepository;
+
+    public JpaVerificationCodeStore(VerificationCodeRepository verificationCodeRepository) {
+        this.verificationCodeRepository = verificationCodeRepository;
+    }
+
+    @Override
+    @Transactional
+    public void enregistrer(String email, String code) {
+        verificationCodeRepository.invalidatePreviousCodes(email);
+        verificationCodeRepository.save(new VerificationCode(email, code));
+    }
+
+    @Override
+    @Transactional
+    public boolean verifierEtConsommer(String email, String code) {
+        Optional<VerificationCode> verificationCode =
+                verificationCodeRepository.findByEmailAndCodeAndUsedFalse(email, code);
+
+        if (verificationCode.isEmpty() || verificationCode.get().isExpired()) {
+            return false;
+        }
+
+        // Marquer le code comme utilisé
+        VerificationCode vc = verificationCode.get();
+        vc.setUsed(true);
+        verificationCodeRepository.save(vc);
+        return true;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.gestionpaimentback.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Calendrier en mémoire des sessions datées : un IntervalTree de leurs périodes, sessions en cours sur une période
+// en O(log n + k). Reconstruit au démarrage depuis sessions, puis tenu à jour par les mêmes écritures que
+// AffectationIndex (SessionImportService, AffectationIndexListener), dont il est indépendant : désactivé, seul
+// GET /api/sessions/active repasse par la requête de chevauchement. Un seul noeud, comme AffectationIndex :
+// désactivé par défaut (app.sessions.calendrier.enabled)
+@Component
+public class SessionCalendrierIndex extends IndexEnMemoire<SessionCalendrierIndex.Tables> {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionCalendrierIndex.class);
+
+    @Value("${app.sessions.calendrier.enabled:false}")
+    private boolean active;
+
+    public SessionCalendrierIndex() {
+        super(Tables::new);
+    }
+
+    // Contenu de l'index, remplacé d'un bloc à la reconstruction
+    static final class Tables {
+        // Sessions datées : {debut, fin} en jours depuis l'epoch
+        final Map<Integer, int[]> periodes = new HashMap<>();
+        final IntervalTree calendrier = new IntervalTree();
+
+        // Déplace la session dans le calendrier ; null : session non datée. Renvoie l'ancienne période
+        int[] definirPeriode(int session, int[] periode) {
+            int[] ancienne = periode != null ? periodes.put(session, periode) : periodes.remove(session);
+            if (Arrays.equals(ancienne, periode)) {
+                return ancienne;
+            }
+            if (ancienne != null) {
+                calendrier.retirer(ancienne[0], session);
+            }
+            if (periode != null) {
+                calendrier.inserer(periode[0], periode[1], session);
+            }
+            return ancienne;
+        }
+    }
+
+    @Override
+    protected String nom() {
+        return "calendrier";
+    }
+
+    @Override
+    protected boolean activeParConfiguration() {
+        return active;
+    }
+
+    @Override
+    protected Tables charger() {
+        Tables nouvelles = new Tables();
+        lire("SELECT id_session, dated, datef FROM sessions", resultat -> {
+            int[] periode = periode(resultat.getObject(2, LocalDate.class), resultat.getObject(3, LocalDate.class));
+            if (periode != null) {
+                nouvelles.definirPeriode(cle(resultat.getLong(1)), periode);
+            }
+        });
+        return nouvelles;
+    }
+
+    @Override
+    protected void journaliserReconstruction(Tables nouvelles, long dureeMs) {
+        log.atInfo().setMessage("📅 Calendrier des sessions reconstruit").addKeyValue("sessionsDatees", nouvelles.periodes.size())
+                .addKeyValue("dureeMs", dureeMs).log();
+    }
+
+    // Fin avant début : la session n'occupe que son premier jour
+    static int[] periode(LocalDate debut, LocalDate fin) {
+        if (debut == null || fin == null) {
+            return null;
+        }
+        int jourDebut = (int) debut.toEpochDay();
+        return new int[]{jourDebut, Math.max(jourDebut, (int) fin.toEpochDay())};
+    }
+
+    // ----- Lectures : verrou partagé, aucune requête -----
+
+    // Sessions datées en cours sur [du, au] (bornes incluses), par début croissant : O(log n + k), quel que soit
+    // le nombre de sessions passées ou à venir hors de la période
+    public List<Long> sessionsActives(LocalDate du, LocalDate au) {
+        List<Long> ids = new ArrayList<>();
+        verrou.readLock().lock();
+        try {
+            tables.calendrier.chevauchements((int) du.toEpochDay(), (int) au.toEpochDay(), id -> ids.add((long) id));
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return ids;
+    }
+
+    // Sessions en cours chaque jour de [du, au] dans parJour (indice 0 : du, parJour.length jours) : tableau de
+    // différences sur les k sessions de la période, O(log n + k + jours). Renvoie k
+    public long sessionsActivesParJour(LocalDate du, int[] parJour) {
+        int premier = (int) du.toEpochDay();
+        int dernier = premier + parJour.length - 1;
+        int[] differences = new int[parJour.length + 1];
+        long[] sessions = {0};
+        verrou.readLock().lock();
+        try {
+            tables.calendrier.chevauchements(premier, dernier, (debut, fin, id) -> {
+                differences[Math.max(debut, premier) - premier]++;
+                differences[Math.min(fin, dernier) - premier + 1]--;
+                sessions[0]++;
+            });
+        } finally {
+            verrou.readLock().unlock();
+        }
+        int enCours = 0;
+        for (int jour = 0; jour < parJour.length; jour++) {
+            enCours += differences[jour];
+            parJour[jour] = enCours;
+        }
+        return sessions[0];
+    }
+
+    public Map<String, Object> getStatistiques() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("actif", estActif());
+        verrou.readLock().lock();
+        try {
+            response.put("sessionsDatees", tables.periodes.size());
+            response.put("derniereReconstructionMs", getDerniereReconstructionMs());
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return response;
+    }
+
+    // ----- Écritures : à appeler dans la transaction qui modifie la base, après l'instruction SQL -----
+
+    // Session créée ou dates modifiées
+    public void definirPeriode(Long sessionId, LocalDate dateD, LocalDate dateF) {
+        modifier(t -> {
+            int session = cle(sessionId);
+            int[] ancienne = t.definirPeriode(session, periode(dateD, dateF));
+            return () -> t.definirPeriode(session, ancienne);
+        });
+    }
+
+    public void supprimerSession(Long sessionId) {
+        modifier(t -> {
+            int session = cle(sessionId);
+            int[] ancienne = t.definirPeriode(session, null);
+            return () -> t.definirPeriode(session, ancienne);
+        });
+    }
+}
@@ -0,0 +1,447 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Import en masse de sessions (CSV ou JSON Lines) : lecture enregistrement par enregistrement, validation,
+// puis INSERT par lots JDBC avec une transaction courte par lot (sessions et affectations du lot ensemble).
+// Les lignes invalides sont signalées et ignorées ; les lots déjà validés restent en base si l'import s'arrête
+@Service
+public class SessionImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionImportService.class);
+
+    public static final List<String> COLONNES = List.of("classe", "specialite", "promotion", "niveau", "semestre",
+            "dateD", "dateF");
+    public static final String COLONNE_FORMATEURS = "formateurIds";
+    private static final int LONGUEUR_MAX = 255;
+
+    private static final String INSERT_SESSION = "INSERT INTO sessions " +
+            "(classe, specialite, promotion, niveau, semestre, dated, datef) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_AFFECTATION = "INSERT INTO session_formateurs (session_id, formateur_id) VALUES (?, ?)";
+
+    public enum Format {
+        CSV, JSONL;
+
+        // Extension du fichier d'abord, type MIME ensuite ; null si aucun des deux n'est reconnu
+        public static Format depuis(String nomFichier, String contentType) {
+            String nom = nomFichier != null ? nomFichier.toLowerCase(Locale.ROOT) : "";
+            if (nom.endsWith(".csv")) {
+                return CSV;
+            }
+            if (nom.endsWith(".jsonl") || nom.endsWith(".ndjson")) {
+                return JSONL;
+            }
+            if (contentType != null && contentType.startsWith("text/csv")) {
+                return CSV;
+            }
+            if (contentType != null && (contentType.startsWith("application/x-ndjson")
+                    || contentType.startsWith("application/jsonl"))) {
+                return JSONL;
+            }
+            return null;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AffectationIndex affectationIndex;
+
+    @Autowired
+    private SessionCalendrierIndex calendrierIndex;
+
+    // Avec rewriteBatchedStatements=true (MySQL), un lot = un INSERT multi-lignes
+    @Value("${app.sessions.import.batch-size:1000}")
+    private int tailleLot;
+
+    // Au-delà, les lignes rejetées sont comptées sans être détaillées
+    @Value("${app.sessions.import.max-reported-errors:1000}")
+    private int maxErreursSignalees;
+
+    // Ouvre le fichier et contrôle l'en-tête (CSV) avant tout import : IllegalArgumentException si inexploitable
+    public SourceImport ouvrir(InputStream entree, Format format) throws IOException {
+        BufferedReader lecteur = new BufferedReader(new InputStreamReader(entree, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            return format == Format.CSV ? new SourceCsv(lecteur) : new SourceJsonl(lecteur, objectMapper);
+        } catch (IOException | RuntimeException e) {
+            lecteur.close();
+            throw e;
+        }
+    }
+
+    // Événements envoyés au fil de l'import : progression (après chaque lot), erreur (par ligne rejetée),
+    // puis termine avec le bilan, également renvoyé
+    public Map<String, Object> importer(SourceImport source, Consumer<Map<String, Object>> evenements) throws IOException {
+        long debut = System.nanoTime();
+        Set<Long> formateurs = new HashSet<>(userRepository.findIdsByRoleName(Role.ERole.ROLE_FORMATEUR));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        List<LigneImport> lot = new ArrayList<>(tailleLot);
+        long lues = 0, importees = 0, rejetees = 0, affectations = 0;
+        Map<String, String> enregistrement;
+        while ((enregistrement = source.suivant()) != null) {
+            lues++;
+            LigneImport ligne;
+            try {
+                if (source.erreurLecture != null) {
+                    throw new IllegalArgumentException(source.erreurLecture);
+                }
+                ligne = valider(source.ligne(), enregistrement, formateurs);
+            } catch (IllegalArgumentException e) {
+                rejetees++;
+                if (rejetees <= maxErreursSignalees) {
+                    evenements.accept(evenement("erreur", "ligne", source.ligne(), "message", e.getMessage()));
+                }
+                continue;
+            }
+            lot.add(ligne);
+            if (lot.size() == tailleLot) {
+                affectations += transaction.execute(statut -> insererLot(lot));
+                importees += lot.size();
+                lot.clear();
+                evenements.accept(evenement("progression", "lues", lues, "importees", importees, "rejetees", rejetees));
+            }
+        }
+        if (!lot.isEmpty()) {
+            affectations += transaction.execute(statut -> insererLot(lot));
+            importees += lot.size();
+        }
+
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        Map<String, Object> bilan = evenement("termine", "lues", lues, "importees", importees, "rejetees", rejetees);
+        bilan.put("affectations", affectations);
+        bilan.put("dureeMs", dureeMs);
+        bilan.put("lignesParSeconde", dureeMs > 0 ? lues * 1000 / dureeMs : lues);
+        evenements.accept(bilan);
+        log.atInfo().setMessage("📥 Import de sessions").addKeyValue("importees", importees)
+                .addKeyValue("rejetees", rejetees).addKeyValue("affectations", affectations)
+                .addKeyValue("dureeMs", dureeMs).log();
+        return bilan;
+    }
+
+    private static Map<String, Object> evenement(String type, Object... clesValeurs) {
+        Map<String, Object> evenement = new LinkedHashMap<>();
+        evenement.put("type", type);
+        for (int i = 0; i < clesValeurs.length; i += 2) {
+            evenement.put((String) clesValeurs[i], clesValeurs[i + 1]);
+        }
+        return evenement;
+    }
+
+    // Toutes les erreurs de la ligne dans un seul message
+    private LigneImport valider(long numero, Map<String, String> champs, Set<Long> formateurs) {
+        List<String> erreurs = new ArrayList<>();
+        Map<String, String> valeurs = new HashMap<>();
+        for (String colonne : COLONNES) {
+            String valeur = champs.get(colonne);
+            valeur = valeur != null ? valeur.trim() : "";
+            if (valeur.isEmpty()) {
+                erreurs.add(colonne + " obligatoire");
+            } else if (valeur.length() > LONGUEUR_MAX) {
+                erreurs.add(colonne + " dépasse " + LONGUEUR_MAX + " caractères");
+            }
+            valeurs.put(colonne, valeur);
+        }
+        LocalDate dateD = date(valeurs.get("dateD"), "dateD", erreurs);
+        LocalDate dateF = date(valeurs.get("dateF"), "dateF", erreurs);
+        if (dateD != null && dateF != null && dateF.isBefore(dateD)) {
+            erreurs.add("dateF antérieure à dateD");
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        String liste = champs.get(COLONNE_FORMATEURS);
+        if (liste != null && !liste.isBlank()) {
+            for (String id : liste.split("[|,\\s]+")) {
+                if (id.isEmpty()) {
+                    continue;
+                }
+                try {
+                    Long formateurId = Long.valueOf(id);
+                    if (formateurs.contains(formateurId)) {
+                        ids.add(formateurId);
+                    } else {
+                        erreurs.add("formateur " + id + " inconnu");
+                    }
+                } catch (NumberFormatException e) {
+                    erreurs.add("formateurIds invalide : " + id);
+                }
+            }
+        }
+        if (!erreurs.isEmpty()) {
+            throw new IllegalArgumentException(String.join(", ", erreurs));
+        }
+        return new LigneImport(numero, valeurs.get("classe"), valeurs.get("specialite"), valeurs.get("promotion"),
+                valeurs.get("niveau"), valeurs.get("semestre"), dateD, dateF, ids);
+    }
+
+    private static LocalDate date(String valeur, String colonne, List<String> erreurs) {
+        if (valeur.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(valeur);
+        } catch (DateTimeParseException e) {
+            erreurs.add(colonne + " invalide (AAAA-MM-JJ attendu) : " + valeur);
+            return null;
+        }
+    }
+
+    // Session IDENTITY : Hibernate n'insère pas par lots, d'où le JDBC direct. Les clés générées du lot
+    // (consécutives, dans l'ordre des lignes) donnent les session_id des affectations
+    private int insererLot(List<LigneImport> lot) {
+        long[] ids = jdbcTemplate.execute((ConnectionCallback<long[]>) connexion -> {
+            try (PreparedStatement insert = connexion.prepareStatement(INSERT_SESSION, Statement.RETURN_GENERATED_KEYS)) {
+                for (LigneImport ligne : lot) {
+                    insert.setString(1, ligne.classe());
+                    insert.setString(2, ligne.specialite());
+                    insert.setString(3, ligne.promotion());
+                    insert.setString(4, ligne.niveau());
+                    insert.setString(5, ligne.semestre());
+                    insert.setDate(6, Date.valueOf(ligne.dateD()));
+                    insert.setDate(7, Date.valueOf(ligne.dateF()));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                long[] cles = new long[lot.size()];
+                int i = 0;
+                try (ResultSet generees = insert.getGeneratedKeys()) {
+                    while (generees.next() && i < cles.length) {
+                        cles[i++] = generees.getLong(1);
+                    }
+                }
+                if (i != cles.length) {
+                    throw new IllegalStateException("Clés générées incomplètes : " + i + " pour " + cles.length + " sessions");
+                }
+                return cles;
+            }
+        });
+
+        List<Object[]> paires = new ArrayList<>();
+        for (int i = 0; i < lot.size(); i++) {
+            for (Long formateurId : lot.get(i).formateurIds()) {
+                paires.add(new Object[]{ids[i], formateurId});
+            }
+        }
+        if (!paires.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_AFFECTATION, paires);
+        }
+        for (int i = 0; i < lot.size(); i++) {
+            affectationIndex.creerSession(ids[i], lot.get(i).dateD(), lot.get(i).dateF(), lot.get(i).formateurIds());
+            calendrierIndex.definirPeriode(ids[i], lot.get(i).dateD(), lot.get(i).dateF());
+        }
+        return paires.size();
+    }
+
+    private record LigneImport(long numero, String classe, String specialite, String promotion, String niveau,
+                               String semestre, LocalDate dateD, LocalDate dateF, Set<Long> formateurIds) {}
+
+    // Fichier en cours de lecture : un enregistrement (nom de colonne -> valeur brute) à la fois
+    public abstract static class SourceImport implements Closeable {
+        protected final BufferedReader lecteur;
+        protected long ligne;
+        // Enregistrement courant illisible (JSON invalide...) : rejeté avec ce message
+        protected String erreurLecture;
+
+        SourceImport(BufferedReader lecteur) {
+            this.lecteur = lecteur;
+        }
+
+        // null en fin de fichier
+        abstract Map<String, String> suivant() throws IOException;
+
+        // Numéro (à partir de 1) de la ligne physique où commence l'enregistrement courant
+        long ligne() {
+            return ligne;
+        }
+
+        @Override
+        public void close() throws IOException {
+            lecteur.close();
+        }
+    }
+
+    // En-tête obligatoire (ordre libre, colonnes inconnues ignorées), séparateur ';' ou ',' déduit de l'en-tête,
+    // guillemets doubles pour les valeurs contenant séparateur, guillemet ou saut de ligne
+    static final class SourceCsv extends SourceImport {
+        private final char separateur;
+        private final String[] colonnes;
+        private long lignePhysique = 1;
+
+        SourceCsv(BufferedReader lecteur) throws IOException {
+            super(lecteur);
+            lecteur.mark(1);
+            if (lecteur.read() != '\uFEFF') {
+                lecteur.reset();
+            }
+            lecteur.mark(64 * 1024);
+            String premiere = lecteur.readLine();
+            if (premiere == null) {
+                throw new IllegalArgumentException("Fichier vide");
+            }
+            separateur = premiere.indexOf(';') >= 0 ? ';' : ',';
+            lecteur.reset();
+
+            List<String> entete = lireEnregistrement();
+            colonnes = entete.stream().map(String::trim).toArray(String[]::new);
+            List<String> manquantes = new ArrayList<>(COLONNES);
+            manquantes.removeAll(List.of(colonnes));
+            if (!manquantes.isEmpty()) {
+                throw new IllegalArgumentException("Colonnes manquantes dans l'en-tête : " + String.join(", ", manquantes));
+            }
+        }
+
+        @Override
+        Map<String, String> suivant() throws IOException {
+            List<String> valeurs;
+            do {
+                ligne = lignePhysique;
+                valeurs = lireEnregistrement();
+                if (valeurs == null) {
+                    return null;
+                }
+            } while (valeurs.size() == 1 && valeurs.get(0).isBlank()); // lignes vides ignorées
+            Map<String, String> enregistrement = new HashMap<>();
+            for (int i = 0; i < colonnes.length && i < valeurs.size(); i++) {
+                enregistrement.put(colonnes[i], valeurs.get(i));
+            }
+            return enregistrement;
+        }
+
+        // null en fin de fichier ; un saut de ligne entre guillemets fait partie de la valeur
+        private List<String> lireEnregistrement() throws IOException {
+            int c = lecteur.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> valeurs = new ArrayList<>();
+            StringBuilder valeur = new StringBuilder();
+            boolean guillemets = false;
+            while (c != -1) {
+                if (guillemets) {
+                    if (c == '"') {
+                        lecteur.mark(1);
+                        if (lecteur.read() == '"') {
+                            valeur.append('"');
+                        } else {
+                            lecteur.reset();
+                            guillemets = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lignePhysique++;
+                        }
+                        valeur.append((char) c);
+                    }
+                } else if (c == '"' && valeur.isEmpty()) {
+                    guillemets = true;
+                } else if (c == separateur) {
+                    valeurs.add(valeur.toString());
+                    valeur.setLength(0);
+                } else if (c == '\n') {
+                    lignePhysique++;
+                    break;
+                } else if (c != '\r') {
+                    valeur.append((char) c);
+                }
+                c = lecteur.read();
+            }
+            valeurs.add(valeur.toString());
+            return valeurs;
+        }
+    }
+
+    // Un objet JSON par ligne ; formateurIds : tableau d'identifiants ou chaîne "12|15"
+    static final class SourceJsonl extends SourceImport {
+        private final ObjectMapper objectMapper;
+
+        SourceJsonl(BufferedReader lecteur, ObjectMapper objectMapper) {
+            super(lecteur);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Map<String, String> suivant() throws IOException {
+            String texte;
+            do {
+                texte = lecteur.readLine();
+                if (texte == null) {
+                    return null;
+                }
+                ligne++;
+            } while (texte.isBlank());
+            erreurLecture = null;
+            if (ligne == 1 && texte.charAt(0) == '\uFEFF') {
+                texte = texte.substring(1);
+            }
+
+            Map<String, String> enregistrement = new HashMap<>();
+            JsonNode objet;
+            try {
+                objet = objectMapper.readTree(texte);
+            } catch (IOException e) {
+                erreurLecture = "JSON invalide";
+                return enregistrement;
+            }
+            if (objet == null || !objet.isObject()) {
+                erreurLecture = "objet JSON attendu";
+                return enregistrement;
+            }
+            for (Map.Entry<String, JsonNode> champ : objet.properties()) {
+                JsonNode valeur = champ.getValue();
+                if (valeur.isArray()) {
+                    List<String> elements = new ArrayList<>();
+                    valeur.forEach(element -> elements.add(element.asText()));
+                    enregistrement.put(champ.getKey(), String.join("|", elements));
+                } else if (!valeur.isNull()) {
+                    enregistrement.put(champ.getKey(), valeur.asText());
+                }
+            }
+            return enregistrement;
+        }
+    }
+}
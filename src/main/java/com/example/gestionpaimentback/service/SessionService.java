@@ -1,25 +1,104 @@
 package com.example.gestionpaimentback.service;
 
+import com.example.gestionpaimentback.config.LogSampler;
+import com.example.gestionpaimentback.config.PhaseMetrics;
+import com.example.gestionpaimentback.dto.AffectationPaire;
+import com.example.gestionpaimentback.dto.AffectationsBatchRequest;
+import com.example.gestionpaimentback.dto.ConflitPlanning;
+import com.example.gestionpaimentback.dto.FormateurDTO;
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.dto.SessionFormateurRow;
+import com.example.gestionpaimentback.dto.SessionStreamRow;
+import com.example.gestionpaimentback.dto.SessionFilter;
+import com.example.gestionpaimentback.dto.SessionPage;
+import com.example.gestionpaimentback.entity.Role;
 import com.example.gestionpaimentback.entity.Session;
 import com.example.gestionpaimentback.entity.User;
 import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.SessionSpecifications;
 
 import com.example.gestionpaimentback.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 @Service
 public class SessionService {
 
+    private static final Logger log = LoggerFactory.getLogger(SessionService.class);
+
     @Autowired
     private SessionRepository sessionRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LogSampler logSampler;
+
+    @Autowired
+    private PhaseMetrics phaseMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AffectationIndex affectationIndex;
+
+    @Autowired
+    private SessionCalendrierIndex calendrierIndex;
+
+    // Streaming JSON / CSV : envoi au client après le premier élément puis tous les N éléments
+    private static final int FLUSH_TOUTES_LES = 500;
+
+    @Value("${app.sessions.page.default-size:50}")
+    private int tailleParDefaut;
+
+    @Value("${app.sessions.page.max-size:200}")
+    private int tailleMax;
+
+    @Value("${app.sessions.affectations.max-pairs:50000}")
+    private int maxPairesAffectation;
+
+    // rejeter : affectation refusée si elle chevauche une autre session du formateur ; signaler : acceptée,
+    // chevauchements joints à la réponse
+    @Value("${app.sessions.conflits.mode:signaler}")
+    private String modeConflits;
+
+    @Value("${app.sessions.conflits.max-listed:10000}")
+    private int maxConflitsListes;
+
+    @Value("${app.sessions.active.max-days:366}")
+    private int maxJoursActives;
+
 
     public Session createSession(Session session) {
         return sessionRepository.save(session);
@@ -30,6 +109,188 @@ public class SessionService {
         return sessionRepository.findAll();
     }
 
+    // Liste complète en deux requêtes quel que soit le nombre de sessions : colonnes de sessions, puis
+    // couples session / formateur. readOnly : pas de flush ni de contrôle des modifications
+    @Transactional(readOnly = true)
+    public List<SessionDTO> listerSessions() {
+        List<SessionDTO> sessions = phaseMetrics.mesurer(PhaseMetrics.Phase.REQUETE_SESSIONS,
+                () -> sessionRepository.findSessionDTOs(null, Sort.Direction.ASC, null));
+        if (sessions.isEmpty()) {
+            return sessions;
+        }
+        return rattacherFormateurs(sessions, phaseMetrics.mesurer(PhaseMetrics.Phase.REQUETE_SESSIONS,
+                () -> sessionRepository.findAllFormateurRows()));
+    }
+
+    // Pagination par curseur : WHERE idSession < curseur ORDER BY idSession DESC LIMIT n+1, coût constant
+    // quelle que soit la profondeur (pas d'OFFSET). La ligne en trop indique seulement qu'une page suit.
+    // Formateurs de la page en une seconde requête (IN sur au plus <limite> ids).
+    // Le COUNT parcourt toutes les lignes filtrées : uniquement si avecTotal
+    @Transactional(readOnly = true)
+    public SessionPage getSessionsPage(SessionFilter filtre, Long curseur, Integer limite, boolean avecTotal) {
+        int taille = limite == null ? tailleParDefaut : Math.max(1, Math.min(limite, tailleMax));
+
+        List<SessionDTO> lignes = phaseMetrics.mesurer(PhaseMetrics.Phase.REQUETE_SESSIONS,
+                () -> sessionRepository.findSessionDTOs(SessionSpecifications.filtrer(filtre, curseur),
+                        Sort.Direction.DESC, taille + 1));
+        boolean suite = lignes.size() > taille;
+        List<SessionDTO> items = suite ? lignes.subList(0, taille) : lignes;
+        if (!items.isEmpty()) {
+            List<Long> ids = items.stream().map(SessionDTO::getIdSession).toList();
+            rattacherFormateurs(items, phaseMetrics.mesurer(PhaseMetrics.Phase.REQUETE_SESSIONS,
+                    () -> sessionRepository.findFormateurRowsBySessionIds(ids)));
+        }
+        Long prochainCurseur = suite ? items.get(items.size() - 1).getIdSession() : null;
+        Long total = avecTotal ? sessionRepository.count(SessionSpecifications.filtrer(filtre, null)) : null;
+
+        log.atDebug().setMessage("📄 Page de sessions").addKeyValue("curseur", curseur).addKeyValue("limite", taille)
+                .addKeyValue("sessions", items.size()).addKeyValue("suite", suite).log();
+        return new SessionPage(items, prochainCurseur, taille, total);
+    }
+
+    // Même tableau JSON que listerSessions, écrit au fil d'un curseur en avant seulement : mémoire constante
+    // et premier octet dès la première session. Le statut 200 part avec le premier flush : une erreur
+    // ultérieure ne peut plus que tronquer la réponse (journalisée)
+    @Transactional(readOnly = true)
+    public void ecrireSessionsJson(SessionFilter filtre, OutputStream sortie) throws IOException {
+        long debut = System.nanoTime();
+        int sessions = 0;
+        try (Stream<SessionStreamRow> lignes = sessionRepository.streamSessionsAvecFormateurs(
+                SessionSpecifications.filtrer(filtre, null));
+             JsonGenerator json = objectMapper.getFactory().createGenerator(sortie)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            Long courante = null;
+            for (Iterator<SessionStreamRow> it = lignes.iterator(); it.hasNext(); ) {
+                SessionStreamRow ligne = it.next();
+                // Lignes triées par idSession : une nouvelle valeur ferme la session précédente
+                if (!ligne.getIdSession().equals(courante)) {
+                    if (courante != null) {
+                        terminerSessionJson(json);
+                        if (++sessions == 1 || sessions % FLUSH_TOUTES_LES == 0) {
+                            json.flush();
+                        }
+                    }
+                    courante = ligne.getIdSession();
+                    json.writeStartObject();
+                    json.writeNumberField("idSession", ligne.getIdSession());
+                    json.writeStringField("classe", ligne.getClasse());
+                    json.writeStringField("specialite", ligne.getSpecialite());
+                    json.writeStringField("promotion", ligne.getPromotion());
+                    json.writeStringField("niveau", ligne.getNiveau());
+                    json.writeStringField("semestre", ligne.getSemestre());
+                    json.writePOJOField("dateD", ligne.getDateD());
+                    json.writePOJOField("dateF", ligne.getDateF());
+                    json.writeArrayFieldStart("formateurs");
+                }
+                if (ligne.getFormateurId() != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", ligne.getFormateurId());
+                    json.writeStringField("firstName", ligne.getFirstName());
+                    json.writeStringField("lastName", ligne.getLastName());
+                    json.writeStringField("email", ligne.getEmail());
+                    json.writeEndObject();
+                }
+            }
+            if (courante != null) {
+                terminerSessionJson(json);
+                sessions++;
+            }
+            json.writeEndArray();
+        } catch (IOException | RuntimeException e) {
+            log.atWarn().setMessage("❌ Streaming des sessions interrompu").addKeyValue("sessions", sessions)
+                    .addKeyValue("erreur", e.getMessage()).log();
+            throw e;
+        }
+        log.atDebug().setMessage("📤 Sessions en streaming").addKeyValue("sessions", sessions)
+                .addKeyValue("dureeMs", (System.nanoTime() - debut) / 1_000_000).log();
+    }
+
+    private static void terminerSessionJson(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeBooleanField("formateurAssigne", false);
+        json.writeEndObject();
+    }
+
+    // Export CSV (séparateur ';', UTF-8 avec BOM pour Excel) : une ligne par couple session / formateur,
+    // colonnes formateur vides pour une session sans formateur. Écrit au fil du curseur comme le JSON
+    @Transactional(readOnly = true)
+    public void ecrireSessionsCsv(SessionFilter filtre, OutputStream sortie) throws IOException {
+        long debut = System.nanoTime();
+        int lignesEcrites = 0;
+        Writer csv = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8), 16 * 1024);
+        try (Stream<SessionStreamRow> lignes = sessionRepository.streamSessionsAvecFormateurs(
+                SessionSpecifications.filtrer(filtre, null))) {
+            csv.write('\uFEFF');
+            csv.write("idSession;classe;specialite;promotion;niveau;semestre;dateD;dateF;" +
+                    "formateurId;formateurPrenom;formateurNom;formateurEmail\r\n");
+            for (Iterator<SessionStreamRow> it = lignes.iterator(); it.hasNext(); ) {
+                SessionStreamRow ligne = it.next();
+                csv.write(String.valueOf(ligne.getIdSession()));
+                champCsv(csv, ligne.getClasse());
+                champCsv(csv, ligne.getSpecialite());
+                champCsv(csv, ligne.getPromotion());
+                champCsv(csv, ligne.getNiveau());
+                champCsv(csv, ligne.getSemestre());
+                champCsv(csv, ligne.getDateD() != null ? ligne.getDateD().toString() : null);
+                champCsv(csv, ligne.getDateF() != null ? ligne.getDateF().toString() : null);
+                champCsv(csv, ligne.getFormateurId() != null ? ligne.getFormateurId().toString() : null);
+                champCsv(csv, ligne.getFirstName());
+                champCsv(csv, ligne.getLastName());
+                champCsv(csv, ligne.getEmail());
+                csv.write("\r\n");
+                if (++lignesEcrites == 1 || lignesEcrites % FLUSH_TOUTES_LES == 0) {
+                    csv.flush();
+                }
+            }
+            csv.flush();
+        } catch (IOException | RuntimeException e) {
+            log.atWarn().setMessage("❌ Export CSV des sessions interrompu").addKeyValue("lignes", lignesEcrites)
+                    .addKeyValue("erreur", e.getMessage()).log();
+            throw e;
+        }
+        log.atInfo().setMessage("📤 Export CSV des sessions").addKeyValue("lignes", lignesEcrites)
+                .addKeyValue("dureeMs", (System.nanoTime() - debut) / 1_000_000).log();
+    }
+
+    // Précédé du séparateur ; entre guillemets si nécessaire. Une valeur commençant par = + - @ est préfixée
+    // d'une apostrophe : un tableur l'interpréterait sinon comme une formule
+    private static void champCsv(Writer csv, String valeur) throws IOException {
+        csv.write(';');
+        if (valeur == null || valeur.isEmpty()) {
+            return;
+        }
+        char premier = valeur.charAt(0);
+        if (premier == '=' || premier == '+' || premier == '-' || premier == '@' || premier == '\t' || premier == '\r') {
+            valeur = "'" + valeur;
+        }
+        if (valeur.indexOf(';') >= 0 || valeur.indexOf('"') >= 0 || valeur.indexOf('\n') >= 0 || valeur.indexOf('\r') >= 0) {
+            csv.write('"');
+            csv.write(valeur.replace("\"", "\"\""));
+            csv.write('"');
+        } else {
+            csv.write(valeur);
+        }
+    }
+
+    private List<SessionDTO> rattacherFormateurs(List<SessionDTO> sessions, List<SessionFormateurRow> formateurs) {
+        return phaseMetrics.mesurer(PhaseMetrics.Phase.MAPPING_SESSIONS, () -> {
+            Map<Long, SessionDTO> parId = new HashMap<>(sessions.size() * 2);
+            for (SessionDTO session : sessions) {
+                session.setFormateurs(new LinkedHashSet<>());
+                parId.put(session.getIdSession(), session);
+            }
+            for (SessionFormateurRow ligne : formateurs) {
+                SessionDTO session = parId.get(ligne.getSessionId());
+                if (session != null) {
+                    session.getFormateurs().add(new FormateurDTO(ligne.getId(), ligne.getFirstName(),
+                            ligne.getLastName(), ligne.getEmail()));
+                }
+            }
+            return sessions;
+        });
+    }
+
     public Session getSessionById(Long id) {
         Optional<Session> session = sessionRepository.findById(id);
         if (session.isPresent()) {
@@ -40,8 +301,15 @@ public class SessionService {
     }
 
 
+    // Entité gérée modifiée sur place (pas de merge d'une copie détachée, qui réécrirait session_formateurs
+    // et effacerait une affectation faite entre-temps). Version envoyée par le client (facultative) différente
+    // de la version en base, ou modification concurrente : ObjectOptimisticLockingFailureException
+    @Transactional
     public Session updateSession(Long id, Session sessionDetails) {
         Session session = getSessionById(id);
+        if (sessionDetails.getVersion() != null && !sessionDetails.getVersion().equals(session.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Session.class, id);
+        }
 
         session.setClasse(sessionDetails.getClasse());
         session.setSpecialite(sessionDetails.getSpecialite());
@@ -60,73 +328,318 @@ public class SessionService {
     }
 
 
-    public List<Session> getSessionsByFormateur(Long formateurId) {
+    // Identifiants des sessions du formateur lus dans l'index (aucune requête), puis colonnes de sessions par clé
+    // primaire ; sans index, une jointure. formateurAssigne est vrai par construction
+    @Transactional(readOnly = true)
+    public List<SessionDTO> getSessionsByFormateur(Long formateurId) {
         try {
-            System.out.println("🔍 Recherche sessions pour formateur: " + formateurId);
-
-            List<Session> sessions = sessionRepository.findByFormateurId(formateurId);
-
-            System.out.println("✅ " + sessions.size() + " sessions trouvées pour formateur " + formateurId);
-
-            // Log des sessions trouvées
-            for (Session session : sessions) {
-                System.out.println("📋 Session " + session.getIdSession() + ": " + session.getClasse() +
-                        " - Formateurs: " + session.getFormateurs().size());
+            List<SessionDTO> sessions;
+            if (affectationIndex.estActif()) {
+                List<Long> ids = affectationIndex.sessionsDuFormateur(formateurId);
+                sessions = ids.isEmpty() ? new ArrayList<>() : sessionRepository.findSessionDTOs(
+                        (root, query, cb) -> root.get("idSession").in(ids), Sort.Direction.ASC, null);
+            } else {
+                sessions = sessionRepository.findDTOByFormateurId(formateurId);
+            }
+            sessions.forEach(session -> session.setFormateurAssigne(true));
+
+            log.atDebug().setMessage("✅ Sessions trouvées pour formateur").addKeyValue("formateurId", formateurId)
+                    .addKeyValue("sessions", sessions.size()).log();
+
+            // Log des sessions trouvées (DEBUG, échantillonné)
+            if (log.isDebugEnabled()) {
+                for (SessionDTO session : sessions) {
+                    if (logSampler.echantillonner()) {
+                        log.atDebug().setMessage("📋 Session").addKeyValue("idSession", session.getIdSession())
+                                .addKeyValue("classe", session.getClasse()).log();
+                    }
+                }
             }
 
             return sessions;
         } catch (Exception e) {
-            System.out.println("❌ Erreur getSessionsByFormateur: " + e.getMessage());
+            log.atError().setMessage("❌ Erreur getSessionsByFormateur").addKeyValue("formateurId", formateurId)
+                    .setCause(e).log();
             throw e;
         }
     }
 
-    public Session assignerFormateur(Long sessionId, Long formateurId) {
-        Session session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("Session non trouvée"));
+    // Affectations en masse dans une seule transaction : identifiants validés (tout ou rien), puis retraits et ajouts
+    // ensemblistes sur session_formateurs. Couples déjà présents à l'ajout et absents au retrait : ignorés
+    @Transactional
+    public Map<String, Object> appliquerAffectations(AffectationsBatchRequest requete) {
+        long debut = System.nanoTime();
+        Set<AffectationPaire> aAffecter = paires(requete.getAffecter());
+        Set<AffectationPaire> aRetirer = paires(requete.getRetirer());
+        if (aAffecter.size() + aRetirer.size() > maxPairesAffectation) {
+            throw new IllegalArgumentException("Trop de couples : " + (aAffecter.size() + aRetirer.size())
+                    + " (maximum " + maxPairesAffectation + ")");
+        }
+        for (AffectationPaire paire : aAffecter) {
+            if (aRetirer.contains(paire)) {
+                throw new IllegalArgumentException("Couple à la fois affecté et retiré : session " + paire.sessionId()
+                        + ", formateur " + paire.formateurId());
+            }
+        }
 
-        // Ajouter le formateur à la session (relation ManyToMany)
-        User formateur = userRepository.findById(formateurId)
-                .orElseThrow(() -> new RuntimeException("Formateur non trouvé"));
+        Set<Long> sessionIds = new HashSet<>();
+        Set<Long> formateurIds = new HashSet<>();
+        for (Set<AffectationPaire> ensemble : List.of(aAffecter, aRetirer)) {
+            ensemble.forEach(paire -> {
+                sessionIds.add(paire.sessionId());
+                formateurIds.add(paire.formateurId());
+            });
+        }
+        List<String> erreurs = new ArrayList<>();
+        if (!sessionIds.isEmpty()) {
+            Set<Long> inconnues = new TreeSet<>(sessionIds);
+            sessionRepository.findIdsExistants(sessionIds).forEach(inconnues::remove);
+            if (!inconnues.isEmpty()) {
+                erreurs.add("sessions inconnues " + inconnues);
+            }
+        }
+        // Le rôle n'est exigé que pour affecter : un compte qui l'a perdu doit pouvoir être retiré
+        Set<Long> formateursAffectes = new HashSet<>();
+        aAffecter.forEach(paire -> formateursAffectes.add(paire.formateurId()));
+        if (!formateursAffectes.isEmpty()) {
+            Set<Long> inconnus = new TreeSet<>(formateursAffectes);
+            userRepository.findIdsByRoleNameAndIdIn(Role.ERole.ROLE_FORMATEUR, formateursAffectes).forEach(inconnus::remove);
+            if (!inconnus.isEmpty()) {
+                erreurs.add("formateurs inconnus " + inconnus);
+            }
+        }
+        if (!erreurs.isEmpty()) {
+            throw new IllegalArgumentException(String.join(", ", erreurs));
+        }
 
-        session.getFormateurs().add(formateur);
-        return sessionRepository.save(session);
+        if (rejeterConflits()) {
+            sessionRepository.verrouillerFormateurs(formateursAffectes);
+        }
+        int retirees = aRetirer.isEmpty() ? 0 : sessionRepository.supprimerAffectations(aRetirer);
+        Set<AffectationPaire> dejaPresentes = aAffecter.isEmpty() ? Set.of()
+                : sessionRepository.findAffectationsExistantes(aAffecter);
+        List<AffectationPaire> nouvelles = new ArrayList<>(aAffecter.size() - dejaPresentes.size());
+        for (AffectationPaire paire : aAffecter) {
+            if (!dejaPresentes.contains(paire)) {
+                nouvelles.add(paire);
+            }
+        }
+        // Chevauchements avec les sessions du formateur et entre couples du lot ; une session retirée
+        // au formateur dans ce même lot ne compte plus
+        List<ConflitPlanning> conflits = new ArrayList<>();
+        if (!nouvelles.isEmpty()) {
+            for (ConflitPlanning conflit : conflits(nouvelles)) {
+                if (!aRetirer.contains(new AffectationPaire(conflit.autreSessionId(), conflit.formateurId()))) {
+                    conflits.add(conflit);
+                }
+            }
+        }
+        if (!conflits.isEmpty() && rejeterConflits()) {
+            throw new ConflitPlanningException(conflits);
+        }
+        // Un couple inséré entre-temps par une autre transaction n'est ni recompté ni repoussé dans l'index
+        List<AffectationPaire> ajoutees = nouvelles.isEmpty() ? List.of()
+                : sessionRepository.insererAffectations(nouvelles);
+        if (retirees > 0) {
+            affectationIndex.retirer(aRetirer);
+        }
+        if (!ajoutees.isEmpty()) {
+            affectationIndex.affecter(ajoutees);
+        }
+
+        int presentes = dejaPresentes.size() + nouvelles.size() - ajoutees.size();
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        Map<String, Object> bilan = new HashMap<>();
+        bilan.put("ajoutees", ajoutees.size());
+        bilan.put("dejaPresentes", presentes);
+        bilan.put("retirees", retirees);
+        bilan.put("absentes", aRetirer.size() - retirees);
+        bilan.put("conflits", conflits);
+        bilan.put("dureeMs", dureeMs);
+        log.atInfo().setMessage("🎯 Affectations en masse").addKeyValue("ajoutees", ajoutees.size())
+                .addKeyValue("dejaPresentes", presentes).addKeyValue("retirees", retirees)
+                .addKeyValue("conflits", conflits.size()).addKeyValue("dureeMs", dureeMs).log();
+        return bilan;
     }
 
-    public Session retirerFormateur(Long sessionId) {
-        Session session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("Session non trouvée"));
+    private static Set<AffectationPaire> paires(List<AffectationsBatchRequest.Ligne> lignes) {
+        Set<AffectationPaire> paires = new LinkedHashSet<>();
+        if (lignes == null) {
+            return paires;
+        }
+        for (AffectationsBatchRequest.Ligne ligne : lignes) {
+            if (ligne.getSessionId() == null) {
+                throw new IllegalArgumentException("sessionId obligatoire");
+            }
+            if (ligne.getFormateurIds() == null) {
+                continue;
+            }
+            for (Long formateurId : ligne.getFormateurIds()) {
+                if (formateurId == null) {
+                    throw new IllegalArgumentException("formateurIds de la session " + ligne.getSessionId() + " : null");
+                }
+                paires.add(new AffectationPaire(ligne.getSessionId(), formateurId));
+            }
+        }
+        return paires;
+    }
 
-        // Vider la liste des formateurs
-        session.getFormateurs().clear();
-        return sessionRepository.save(session);
+    // Affectation idempotente : un INSERT ... ON DUPLICATE KEY UPDATE sur session_formateurs, sans charger la session ni ses formateurs
+    // et sans verrou sur la ligne de sessions (seul le contrôle de clé étrangère la lit). Deux coordinateurs
+    // qui affectent en même temps ne s'écrasent pas. true si le couple a été ajouté, false s'il existait déjà
+    @Transactional
+    public boolean assignerFormateur(Long sessionId, Long formateurId) {
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new RuntimeException("Session non trouvée");
+        }
+        if (userRepository.findIdsByRoleNameAndIdIn(Role.ERole.ROLE_FORMATEUR, List.of(formateurId)).isEmpty()) {
+            throw new RuntimeException("Formateur non trouvé");
+        }
+        // Contrôle sous verrou du formateur ; réaffecter un couple existant reste accepté
+        if (rejeterConflits()) {
+            sessionRepository.verrouillerFormateurs(List.of(formateurId));
+            List<ConflitPlanning> conflits = conflits(List.of(new AffectationPaire(sessionId, formateurId)));
+            if (!conflits.isEmpty() && !isFormateurInSession(sessionId, formateurId)) {
+                throw new ConflitPlanningException(conflits);
+            }
+        }
+        boolean ajoute = sessionRepository.insererAffectation(sessionId, formateurId);
+        if (ajoute) {
+            affectationIndex.affecter(sessionId, formateurId);
+        }
+        return ajoute;
     }
 
+    // Retire tous les formateurs de la session
+    @Transactional
+    public int retirerFormateur(Long sessionId) {
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new RuntimeException("Session non trouvée");
+        }
+        int retires = sessionRepository.supprimerAffectationsDeSession(sessionId);
+        affectationIndex.retirerFormateurs(sessionId);
+        return retires;
+    }
 
-    public Session retirerFormateur(Long sessionId, Long formateurId) {
-        Session session = getSessionById(sessionId);
-        Optional<User> formateurOpt = userRepository.findById(formateurId);
+    // Retrait idempotent : un DELETE du couple. true si le formateur était affecté
+    @Transactional
+    public boolean retirerFormateur(Long sessionId, Long formateurId) {
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new RuntimeException("Session non trouvée avec l'ID: " + sessionId);
+        }
+        boolean retire = sessionRepository.supprimerAffectation(sessionId, formateurId);
+        if (retire) {
+            affectationIndex.retirer(sessionId, formateurId);
+        }
+        return retire;
+    }
 
-        if (formateurOpt.isPresent()) {
-            User formateur = formateurOpt.get();
+    // Une session et ses formateurs en projection (deux requêtes), sans entité
+    @Transactional(readOnly = true)
+    public SessionDTO getSessionDTO(Long sessionId) {
+        List<SessionDTO> sessions = sessionRepository.findSessionDTOs(
+                (root, query, cb) -> cb.equal(root.get("idSession"), sessionId), Sort.Direction.ASC, 1);
+        if (sessions.isEmpty()) {
+            throw new RuntimeException("Session non trouvée avec l'ID: " + sessionId);
+        }
+        return rattacherFormateurs(sessions, sessionRepository.findFormateurRowsBySessionIds(List.of(sessionId))).get(0);
+    }
 
-            if (!session.getFormateurs().contains(formateur)) {
-                throw new RuntimeException("Le formateur n'est pas assigné à cette session");
+    // Index en mémoire : deux tests de bitmap, aucune requête. Sans index : existence puis couple en base
+    public boolean isFormateurInSession(Long sessionId, Long formateurId) {
+        if (affectationIndex.estActif()) {
+            if (!affectationIndex.sessionExiste(sessionId)) {
+                throw new RuntimeException("Session non trouvée");
             }
+            return affectationIndex.contient(sessionId, formateurId);
+        }
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new RuntimeException("Session non trouvée");
+        }
+        return sessionRepository.isFormateurInSession(sessionId, formateurId);
+    }
 
-            session.getFormateurs().remove(formateur);
-            return sessionRepository.save(session);
-        } else {
-            throw new RuntimeException("Formateur non trouvé avec l'ID: " + formateurId);
+    // Sessions du formateur qui chevauchent celle-ci
+    public List<ConflitPlanning> getConflitsAffectation(Long sessionId, Long formateurId) {
+        return conflits(List.of(new AffectationPaire(sessionId, formateurId)));
+    }
+
+    // Index (O(log n), un seul noeud), sinon planning des formateurs lu en base
+    private List<ConflitPlanning> conflits(Collection<AffectationPaire> paires) {
+        return affectationIndex.estActif() ? affectationIndex.conflits(paires) : affectationIndex.conflitsEnBase(paires);
+    }
+
+    // Tous les chevauchements de planning, en un passage sur l'index ; au plus max-listed détaillés
+    public Map<String, Object> listerConflits(Integer limite) {
+        if (!affectationIndex.estActif()) {
+            throw new IllegalStateException("Index des affectations indisponible");
         }
+        long debut = System.nanoTime();
+        int taille = limite == null ? maxConflitsListes : Math.max(0, Math.min(limite, maxConflitsListes));
+        List<ConflitPlanning> conflits = new ArrayList<>();
+        long total = affectationIndex.tousLesConflits(taille, conflits);
+
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        Map<String, Object> response = new HashMap<>();
+        response.put("total", total);
+        response.put("conflits", conflits);
+        response.put("tronque", total > conflits.size());
+        response.put("dureeMs", dureeMs);
+        log.atInfo().setMessage("📅 Conflits de planning").addKeyValue("total", total).addKeyValue("dureeMs", dureeMs).log();
+        return response;
     }
 
+    // Sessions datées en cours sur [from, to] (bornes incluses ; to absent : le seul jour from), par idSession.
+    // Index : identifiants lus dans le calendrier en mémoire puis une requête IN. Sans index : chevauchement en SQL
+    @Transactional(readOnly = true)
+    public List<SessionDTO> getSessionsActives(LocalDate from, LocalDate to) {
+        LocalDate fin = verifierPeriode(from, to);
+        if (calendrierIndex.estActif()) {
+            List<Long> ids = calendrierIndex.sessionsActives(from, fin);
+            return ids.isEmpty() ? new ArrayList<>() : sessionRepository.findDTOByIds(ids);
+        }
+        return sessionRepository.findSessionDTOs(SessionSpecifications.actives(from, fin), Sort.Direction.ASC, null);
+    }
 
-    public boolean isFormateurInSession(Long sessionId, Long formateurId) {
-        Session session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("Session non trouvée"));
+    // Vues calendrier : nombre de sessions en cours chaque jour de [from, to], lu dans l'index sans requête
+    public Map<String, Object> compterSessionsActives(LocalDate from, LocalDate to) {
+        LocalDate fin = verifierPeriode(from, to);
+        if (!calendrierIndex.estActif()) {
+            throw new IllegalStateException("Calendrier des sessions indisponible");
+        }
+        int[] parJour = new int[(int) ChronoUnit.DAYS.between(from, fin) + 1];
+        long sessions = calendrierIndex.sessionsActivesParJour(from, parJour);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("from", from);
+        response.put("to", fin);
+        response.put("sessions", sessions);
+        response.put("parJour", parJour);
+        return response;
+    }
 
-        return session.getFormateurs().stream()
-                .anyMatch(formateur -> formateur.getId().equals(formateurId));
+    // Fin de la période demandée ; au plus max-days jours
+    private LocalDate verifierPeriode(LocalDate from, LocalDate to) {
+        LocalDate fin = to != null ? to : from;
+        if (fin.isBefore(from)) {
+            throw new IllegalArgumentException("Période invalide : " + from + " > " + fin);
+        }
+        if (ChronoUnit.DAYS.between(from, fin) >= maxJoursActives) {
+            throw new IllegalArgumentException("Période trop longue : " + (ChronoUnit.DAYS.between(from, fin) + 1)
+                    + " jours (maximum " + maxJoursActives + ")");
+        }
+        return fin;
+    }
+
+    private boolean rejeterConflits() {
+        return "rejeter".equalsIgnoreCase(modeConflits);
+    }
+
+    // Identifiants croissants des sessions du formateur
+    public List<Long> getSessionIdsByFormateur(Long formateurId) {
+        if (affectationIndex.estActif()) {
+            return affectationIndex.sessionsDuFormateur(formateurId);
+        }
+        return sessionRepository.findSessionIdsByFormateurId(formateurId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.example.gestionpaimentback.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pool de connexions SMTP authentifiées : connexion, STARTTLS et AUTH une seule fois
+// pour plusieurs messages au lieu d'une fois par email (JavaMailSender.send)
+@Component
+public class SmtpTransportPool {
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Value("${app.mail.smtp.pool-size:4}")
+    private int taille;
+
+    @Value("${app.mail.smtp.max-idle-ms:30000}")
+    private long maxInactiviteMs;
+
+    @Value("${app.mail.smtp.max-messages-per-connection:100}")
+    private int maxMessagesParConnexion;
+
+    @Value("${app.mail.smtp.borrow-timeout-ms:30000}")
+    private long delaiEmpruntMs;
+
+    // LIFO : les connexions chaudes sont réutilisées, les autres expirent
+    private final BlockingDeque<Connexion> libres = new LinkedBlockingDeque<>();
+    private Semaphore permis;
+
+    private final AtomicLong connexionsOuvertes = new AtomicLong();
+    private final AtomicLong connexionsFermees = new AtomicLong();
+    private final AtomicLong messagesEnvoyes = new AtomicLong();
+
+    @PostConstruct
+    public void initialiser() {
+        permis = new Semaphore(taille);
+    }
+
+    @PreDestroy
+    public void fermerTout() {
+        Connexion connexion;
+        while ((connexion = libres.pollFirst()) != null) {
+            connexion.fermer();
+        }
+    }
+
+    public Connexion emprunter() throws MessagingException {
+        try {
+            if (!permis.tryAcquire(delaiEmpruntMs, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Aucune connexion SMTP disponible");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Attente d'une connexion SMTP interrompue", e);
+        }
+
+        Connexion connexion;
+        while ((connexion = libres.pollFirst()) != null) {
+            if (connexion.estReutilisable()) {
+                connexion.aVerifier = true;
+                return connexion;
+            }
+            connexion.fermer();
+        }
+        return new Connexion();
+    }
+
+    private void rendre(Connexion connexion) {
+        if (connexion.estReutilisable()) {
+            connexion.derniereUtilisation = System.currentTimeMillis();
+            libres.offerFirst(connexion);
+        } else {
+            connexion.fermer();
+        }
+        permis.release();
+    }
+
+    // Recycle les connexions inactives avant que le serveur ne les coupe
+    @Scheduled(fixedDelayString = "${app.mail.smtp.eviction-interval-ms:10000}")
+    public void evincerInactives() {
+        long limite = System.currentTimeMillis() - maxInactiviteMs;
+        for (Connexion connexion : libres) {
+            if (connexion.derniereUtilisation < limite && libres.remove(connexion)) {
+                connexion.fermer();
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistiques() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("taille", taille);
+        stats.put("libres", libres.size());
+        stats.put("empruntees", taille - permis.availablePermits());
+        stats.put("connexionsOuvertes", connexionsOuvertes.get());
+        stats.put("connexionsFermees", connexionsFermees.get());
+        stats.put("messagesEnvoyes", messagesEnvoyes.get());
+        return stats;
+    }
+
+    // Connexion empruntée : à rendre avec close() (try-with-resources)
+    public class Connexion implements AutoCloseable {
+        private Transport transport;
+        private long derniereUtilisation = System.currentTimeMillis();
+        private int nbMessages = 0;
+        private boolean invalide = false;
+        // Sortie du pool : vérifier (NOOP) qu'elle est encore ouverte avant le premier envoi
+        private boolean aVerifier = false;
+
+        // Nouvel essai uniquement si rien n'est parti : connexion coupée par le serveur pendant son inactivité,
+        // ou transport déjà fermé. Un échec pendant ou après DATA (ex. timeout en attendant le 250) laisse
+        // ignorer si le serveur a accepté le message : pas de renvoi ici, l'outbox réessaiera avec son backoff
+        public void envoyer(MimeMessage message) throws MessagingException {
+            message.saveChanges();
+            if (transport != null && aVerifier && !transport.isConnected()) {
+                fermerTransport();
+            }
+            aVerifier = false;
+            if (transport == null) {
+                connecter();
+            }
+            try {
+                try {
+                    transport.sendMessage(message, message.getAllRecipients());
+                } catch (IllegalStateException e) {
+                    // Transport fermé entre deux envois : aucune commande envoyée, un seul nouvel essai
+                    connecter();
+                    transport.sendMessage(message, message.getAllRecipients());
+                }
+            } catch (SendFailedException e) {
+                // Destinataire refusé : la connexion reste utilisable
+                throw e;
+            } catch (MessagingException | IllegalStateException e) {
+                // État SMTP inconnu : on repart d'une connexion neuve au prochain message
+                fermerTransport();
+                throw e instanceof MessagingException m ? m : new MessagingException("Connexion SMTP fermée", e);
+            }
+            nbMessages++;
+            messagesEnvoyes.incrementAndGet();
+        }
+
+        private void connecter() throws MessagingException {
+            fermerTransport();
+            transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+            transport.connect(mailSender.getHost(), mailSender.getPort(),
+                    mailSender.getUsername(), mailSender.getPassword());
+            nbMessages = 0;
+            connexionsOuvertes.incrementAndGet();
+        }
+
+        private boolean estReutilisable() {
+            return !invalide && transport != null && nbMessages < maxMessagesParConnexion
+                    && System.currentTimeMillis() - derniereUtilisation < maxInactiviteMs;
+        }
+
+        private void fermerTransport() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException ignored) {
+                    // connexion déjà coupée côté serveur
+                }
+                transport = null;
+                connexionsFermees.incrementAndGet();
+            }
+        }
+
+        private void fermer() {
+            invalide = true;
+            fermerTransport();
+        }
+
+        @Override
+        public void close() {
+            rendre(this);
+        }
+    }
+}
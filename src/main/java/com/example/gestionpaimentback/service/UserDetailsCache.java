@@ -0,0 +1,71 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.security.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Cache borné des UserDetailsImpl par email (hash, statut, rôles)
+// À invalider à chaque changement de mot de passe, de rôles ou de statut
+@Component
+public class UserDetailsCache {
+
+    @Value("${app.cache.user-details.max-size:10000}")
+    private long tailleMax;
+
+    @Value("${app.cache.user-details.ttl-seconds:300}")
+    private long ttlSecondes;
+
+    private Cache<String, UserDetailsImpl> cache;
+
+    @PostConstruct
+    public void initialiser() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(Duration.ofSeconds(ttlSecondes))
+                .recordStats()
+                .build();
+    }
+
+    // Une seule requête en base par email, même avec plusieurs connexions simultanées
+    public UserDetailsImpl get(String email, Function<String, UserDetailsImpl> chargement) {
+        return cache.get(cle(email), cle -> chargement.apply(email));
+    }
+
+    public void invalider(String email) {
+        if (email != null) {
+            cache.invalidate(cle(email));
+        }
+    }
+
+    public void invaliderTout() {
+        cache.invalidateAll();
+    }
+
+    private String cle(String email) {
+        return email.toLowerCase();
+    }
+
+    public Map<String, Object> getStatistiques() {
+        CacheStats stats = cache.stats();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("taille", cache.estimatedSize());
+        response.put("tailleMax", tailleMax);
+        response.put("ttlSecondes", ttlSecondes);
+        response.put("hits", stats.hitCount());
+        response.put("misses", stats.missCount());
+        response.put("hitRate", stats.hitRate());
+        response.put("evictions", stats.evictionCount());
+        response.put("chargementMoyenMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return response;
+    }
+}
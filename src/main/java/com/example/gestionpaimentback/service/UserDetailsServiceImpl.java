@@ -1,14 +1,18 @@
 package com.example.gestionpaimentback.service;
 
-import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.config.PhaseMetrics;
 import com.example.gestionpaimentback.repository.UserRepository;
 import com.example.gestionpaimentback.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -16,12 +20,36 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private PhaseMetrics phaseMetrics;
+
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + email));
+        return loadUserForLogin(email);
+    }
+
+    // Chargement pour /signin et /verify-code : cache, sinon un seul SELECT (utilisateur + rôles), statut inclus
+    public UserDetailsImpl loadUserForLogin(String email) throws UsernameNotFoundException {
+        return userDetailsCache.get(email, this::chargerDepuisBase);
+    }
+
+    // Seuls les défauts de cache sont mesurés : le nombre d'échantillons donne le nombre de requêtes
+    private UserDetailsImpl chargerDepuisBase(String email) {
+        List<UserRepository.LoginRow> rows = phaseMetrics.mesurer(PhaseMetrics.Phase.RECHERCHE_UTILISATEUR,
+                () -> userRepository.findLoginRowsByEmail(email));
+        if (rows.isEmpty()) {
+            throw new UsernameNotFoundException("User Not Found with email: " + email);
+        }
+
+        UserRepository.LoginRow first = rows.get(0);
+        List<GrantedAuthority> authorities = rows.stream()
+                .filter(row -> row.getRoleName() != null)
+                .map(row -> new SimpleGrantedAuthority(row.getRoleName().name()))
+                .collect(Collectors.toList());
 
-        return UserDetailsImpl.build(user);
+        return new UserDetailsImpl(first.getId(), first.getEmail(), first.getPassword(), authorities, first.getStatus());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.repository.VerificationCodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Supprime les codes utilisés ou expirés par petits lots (une transaction courte par lot)
+// pour ne jamais verrouiller verification_codes longtemps
+@Service
+public class VerificationCodePurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificationCodePurgeJob.class);
+
+    @Autowired
+    private VerificationCodeRepository verificationCodeRepository;
+
+    @Value("${app.verification.purge.retention-hours:24}")
+    private long retentionHeures;
+
+    @Value("${app.verification.purge.batch-size:1000}")
+    private int tailleLot;
+
+    @Value("${app.verification.purge.max-batches-per-run:1000}")
+    private int maxLots;
+
+    @Value("${app.verification.purge.pause-ms:50}")
+    private long pauseMs;
+
+    private final AtomicBoolean enCours = new AtomicBoolean();
+
+    // Résultat de la dernière exécution
+    private volatile LocalDateTime derniereExecution;
+    private volatile long derniereSuppression;
+    private volatile long derniereDureeMs;
+    private volatile long totalSupprime;
+
+    @Scheduled(cron = "${app.verification.purge.cron:0 15 * * * *}")
+    public void planifie() {
+        purger();
+    }
+
+    public long purger() {
+        if (!enCours.compareAndSet(false, true)) {
+            return 0; // exécution précédente pas terminée
+        }
+        try {
+            long debut = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime limite = now.minusHours(retentionHeures);
+            long supprimes = 0;
+
+            for (int lot = 0; lot < maxLots; lot++) {
+                List<Long> ids = verificationCodeRepository.findIdsPurgeables(limite, now, PageRequest.of(0, tailleLot));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                supprimes += verificationCodeRepository.deleteByIdIn(ids);
+                if (ids.size() < tailleLot) {
+                    break;
+                }
+                pause();
+            }
+
+            derniereExecution = now;
+            derniereSuppression = supprimes;
+            derniereDureeMs = System.currentTimeMillis() - debut;
+            totalSupprime += supprimes;
+
+            log.atInfo().setMessage("🧹 Purge verification_codes").addKeyValue("supprimes", supprimes)
+                    .addKeyValue("dureeMs", derniereDureeMs).log();
+            return supprimes;
+        } finally {
+            enCours.set(false);
+        }
+    }
+
+    // Laisse passer les requêtes de connexion entre deux lots
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<String, Object> getStatistiques() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("derniereExecution", derniereExecution != null ? derniereExecution.toString() : null);
+        stats.put("lignesSupprimees", derniereSuppression);
+        stats.put("dureeMs", derniereDureeMs);
+        stats.put("totalSupprime", totalSupprime);
+        stats.put("retentionHeures", retentionHeures);
+        return stats;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.gestionpaimentback.service;
+
+// Stockage des codes de vérification (un seul code actif par email)
+// Implémentation choisie par app.verification.store : jpa (défaut) ou memory
+public interface VerificationCodeStore {
+
+    // Invalide les codes précédents de l'email et enregistre le nouveau
+    void enregistrer(String email, String code);
+
+    // Vrai une seule fois si le code est le code actif et non expiré ; il est alors consommé
+    boolean verifierEtConsommer(String email, String code);
+}
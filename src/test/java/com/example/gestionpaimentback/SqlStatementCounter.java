@@ -0,0 +1,23 @@
+package com.example.gestionpaimentback;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Compte les requêtes SQL émises par le thread courant (les workers en arrière-plan sont ignorés)
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COMPTEUR = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COMPTEUR.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COMPTEUR.get()[0] = 0;
+    }
+
+    public static int count() {
+        return COMPTEUR.get()[0];
+    }
+}
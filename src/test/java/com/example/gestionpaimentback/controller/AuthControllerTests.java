@@ -0,0 +1,253 @@
+package com.example.gestionpaimentback.controller;
+
+import com.example.gestionpaimentback.SqlStatementCounter;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.example.gestionpaimentback.service.AdminService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AdminService adminService;
+
+    private void creerUtilisateur(String email, int status) {
+        creerUtilisateur(email, status, passwordEncoder.encode("motdepasse"));
+    }
+
+    private void creerUtilisateur(String email, int status, String hash) {
+        if (userRepository.existsByEmail(email)) {
+            return;
+        }
+        User user = new User("Test", "Formateur", email, hash);
+        user.setStatus(status);
+        user.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow()));
+        userRepository.save(user);
+    }
+
+    private String credentials(String email, String password) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+    }
+
+    @Test
+    void signinUneSeuleRequeteParConnexion() throws Exception {
+        String email = "login-verifie@test.tn";
+        creerUtilisateur(email, 1);
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "motdepasse")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("success"))
+                .andExpect(jsonPath("$.roles[0]").value("ROLE_FORMATEUR"));
+
+        assertEquals(1, SqlStatementCounter.count());
+    }
+
+    @Test
+    void signinMotDePasseInvalide() throws Exception {
+        String email = "login-invalide@test.tn";
+        creerUtilisateur(email, 1);
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "mauvais")))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1, SqlStatementCounter.count());
+    }
+
+    @Test
+    void signinPremiereConnexionEnvoieCode() throws Exception {
+        String email = "login-premiere@test.tn";
+        creerUtilisateur(email, 0);
+
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "motdepasse")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("code_sent"));
+    }
+
+    @Test
+    void signinRecalculeUnHashObsolete() throws Exception {
+        String email = "login-rehash@test.tn";
+        creerUtilisateur(email, 1, new BCryptPasswordEncoder(4).encode("motdepasse"));
+
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "motdepasse")))
+                .andExpect(status().isOk());
+
+        // Le nouveau hash est écrit en arrière-plan avec le coût configuré (6 en test)
+        for (int i = 0; i < 50 && !userRepository.findByEmail(email).orElseThrow().getPassword().startsWith("$2a$06$"); i++) {
+            Thread.sleep(100);
+        }
+        String hash = userRepository.findByEmail(email).orElseThrow().getPassword();
+        assertTrue(hash.startsWith("$2a$06$"));
+        assertTrue(passwordEncoder.matches("motdepasse", hash));
+    }
+
+    @Test
+    void rehashNEcrasePasUnMotDePasseChange() {
+        String email = "login-rehash-cas@test.tn";
+        creerUtilisateur(email, 1, new BCryptPasswordEncoder(4).encode("motdepasse"));
+        User user = userRepository.findByEmail(email).orElseThrow();
+        String verifie = user.getPassword();
+        String change = passwordEncoder.encode("nouveau");
+        assertEquals(1, userRepository.updatePassword(user.getId(), verifie, change));
+
+        // Rehash calculé sur l'ancien hash : plus rien à remplacer
+        assertEquals(0, userRepository.updatePassword(user.getId(), verifie, passwordEncoder.encode("motdepasse")));
+        assertEquals(change, userRepository.findByEmail(email).orElseThrow().getPassword());
+    }
+
+    @Test
+    void signinSuivantServiDepuisLeCache() throws Exception {
+        String email = "login-cache@test.tn";
+        creerUtilisateur(email, 1);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth/signin")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(credentials(email, "motdepasse")))
+                    .andExpect(status().isOk());
+        }
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "motdepasse")))
+                .andExpect(status().isOk());
+        assertEquals(0, SqlStatementCounter.count());
+    }
+
+    @Test
+    void utilisateurSupprimeRetireDuCache() throws Exception {
+        String email = "login-supprime@test.tn";
+        creerUtilisateur(email, 1);
+
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "motdepasse")))
+                .andExpect(status().isOk());
+
+        adminService.deleteUser(userRepository.findByEmail(email).orElseThrow().getId());
+
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "motdepasse")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Utilisateur non trouvé avec cet email"));
+    }
+
+    @Test
+    void signinLimiteParEmail() throws Exception {
+        String email = "login-limite@test.tn";
+        creerUtilisateur(email, 1);
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/auth/signin")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(credentials(email, "mauvais")))
+                    .andExpect(status().isBadRequest());
+        }
+
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "motdepasse")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void checkAuthEtHomeSansRequeteSqlAvecEtag() throws Exception {
+        String email = "check-auth@test.tn";
+        creerUtilisateur(email, 1);
+
+        MockHttpSession session = (MockHttpSession) mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(email, "motdepasse")))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+
+        SqlStatementCounter.reset();
+        MvcResult checkAuth = mockMvc.perform(get("/api/auth/check-auth").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.authenticated").value(true))
+                .andExpect(jsonPath("$.email").value(email))
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        MvcResult home = mockMvc.perform(get("/api/home").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user").value(email))
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        assertEquals(0, SqlStatementCounter.count());
+
+        // Polling : même ETag -> 304 sans corps
+        mockMvc.perform(get("/api/auth/check-auth").session(session)
+                        .header("If-None-Match", checkAuth.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/home").session(session)
+                        .header("If-None-Match", home.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified());
+        assertEquals(0, SqlStatementCounter.count());
+    }
+
+    @Test
+    void checkAuthNonAuthentifie() throws Exception {
+        mockMvc.perform(get("/api/auth/check-auth"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.authenticated").value(false));
+    }
+
+    @Test
+    void identifiantDeCorrelationRenvoye() throws Exception {
+        mockMvc.perform(get("/api/auth/check-auth").header("X-Request-Id", "front-123"))
+                .andExpect(header().string("X-Request-Id", "front-123"));
+
+        // Absent ou invalide : un nouvel identifiant est généré
+        mockMvc.perform(get("/api/auth/check-auth").header("X-Request-Id", "<script>"))
+                .andExpect(header().string("X-Request-Id", matchesPattern("[0-9a-f]{1,16}")));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.gestionpaimentback.controller;
+
+import com.example.gestionpaimentback.SqlStatementCounter;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.auth.mode=token",
+        "app.auth.token.keys=ancienne:Y2xlLWRlLXRlc3QtYW5jaWVubmUtMzItb2N0ZXRzISE=,active:Y2xlLWRlLXRlc3QtYWN0aXZlLTMyLW9jdGV0cyEhISE=",
+        "app.auth.token.active-key=active"
+})
+@AutoConfigureMockMvc
+class AuthTokenModeTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String connecter(String email) throws Exception {
+        if (!userRepository.existsByEmail(email)) {
+            User user = new User("Test", "Formateur", email, passwordEncoder.encode("motdepasse"));
+            user.setStatus(1);
+            user.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow()));
+            userRepository.save(user);
+        }
+        MvcResult result = mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"motdepasse\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.sessionCreated").value(false))
+                .andReturn();
+        assertNull(result.getRequest().getSession(false));
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    @Test
+    void requeteAuthentifieeSansSessionNiBase() throws Exception {
+        String token = connecter("jeton-home@test.tn");
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/home").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user").value("jeton-home@test.tn"))
+                .andExpect(jsonPath("$.sessionActive").value(false));
+        assertEquals(0, SqlStatementCounter.count());
+    }
+
+    @Test
+    void jetonAbsentOuFalsifieRefuse() throws Exception {
+        String token = connecter("jeton-falsifie@test.tn");
+
+        mockMvc.perform(get("/api/home"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/home").header("Authorization", "Bearer " + token + "x"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void logoutRevoqueLeJeton() throws Exception {
+        String token = connecter("jeton-logout@test.tn");
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/home").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+}
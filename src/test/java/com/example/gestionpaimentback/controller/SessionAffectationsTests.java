@@ -0,0 +1,135 @@
+package com.example.gestionpaimentback.controller;
+
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SessionAffectationsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockHttpSession session;
+    private final List<Long> formateurs = new ArrayList<>();
+    private final List<Long> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void initialiser() throws Exception {
+        Role formateurRole = roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow();
+        User admin = new User("Test", "Affectations", "affectations-" + System.nanoTime() + "@test.tn",
+                passwordEncoder.encode("motdepasse"));
+        admin.setStatus(1);
+        admin.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_ADMIN).orElseThrow()));
+        userRepository.save(admin);
+        for (int i = 0; i < 3; i++) {
+            User formateur = new User("Formateur" + i, "Lot", "lot" + i + "-" + System.nanoTime() + "@test.tn", "motdepasse");
+            formateur.setRoles(Set.of(formateurRole));
+            formateurs.add(userRepository.save(formateur).getId());
+        }
+        LocalDate debut = LocalDate.of(2035, 9, 1);
+        for (int i = 0; i < 3; i++) {
+            Session s = new Session(null, "Lot " + i, "Réseaux", "2035", "L1", "S1", debut, debut.plusWeeks(10));
+            if (i == 0) {
+                s.getFormateurs().add(userRepository.findById(formateurs.get(0)).orElseThrow());
+            }
+            sessions.add(sessionRepository.save(s).getIdSession());
+        }
+        session = (MockHttpSession) mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + admin.getEmail() + "\",\"password\":\"motdepasse\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+
+    private List<Long> formateursDe(Long sessionId) {
+        return jdbcTemplate.queryForList("SELECT formateur_id FROM session_formateurs WHERE session_id = ? " +
+                "ORDER BY formateur_id", Long.class, sessionId);
+    }
+
+    @Test
+    void affecterEtRetirerEnUneRequete() throws Exception {
+        Long s0 = sessions.get(0), s1 = sessions.get(1), s2 = sessions.get(2);
+        Long f0 = formateurs.get(0), f1 = formateurs.get(1), f2 = formateurs.get(2);
+        String corps = "{\"affecter\": [" +
+                "{\"sessionId\": " + s0 + ", \"formateurIds\": [" + f0 + ", " + f1 + "]}," +
+                "{\"sessionId\": " + s1 + ", \"formateurIds\": [" + f0 + ", " + f1 + ", " + f2 + ", " + f2 + "]}]," +
+                "\"retirer\": [{\"sessionId\": " + s0 + ", \"formateurIds\": [" + f2 + "]}," +
+                "{\"sessionId\": " + s2 + ", \"formateurIds\": [" + f0 + "]}]}";
+
+        mockMvc.perform(post("/api/sessions/affectations").session(session)
+                        .contentType(MediaType.APPLICATION_JSON).content(corps))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ajoutees").value(4))
+                .andExpect(jsonPath("$.dejaPresentes").value(1))
+                .andExpect(jsonPath("$.retirees").value(0))
+                .andExpect(jsonPath("$.absentes").value(2));
+        assertEquals(List.of(f0, f1), formateursDe(s0));
+        assertEquals(List.of(f0, f1, f2), formateursDe(s1));
+
+        // Rejouer la même requête ne change rien
+        mockMvc.perform(post("/api/sessions/affectations").session(session)
+                        .contentType(MediaType.APPLICATION_JSON).content(corps))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ajoutees").value(0))
+                .andExpect(jsonPath("$.dejaPresentes").value(5));
+
+        mockMvc.perform(post("/api/sessions/affectations").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"retirer\": [{\"sessionId\": " + s1 + ", \"formateurIds\": [" + f0 + ", " + f2 + "]}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.retirees").value(2));
+        assertEquals(List.of(f1), formateursDe(s1));
+    }
+
+    @Test
+    void identifiantInconnuRienNestApplique() throws Exception {
+        Long s1 = sessions.get(1);
+        mockMvc.perform(post("/api/sessions/affectations").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"affecter\": [{\"sessionId\": " + s1 + ", \"formateurIds\": [" + formateurs.get(1) + "]}," +
+                                "{\"sessionId\": 99999999, \"formateurIds\": [" + formateurs.get(1) + ", 88888888]}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("sessions inconnues [99999999], formateurs inconnus [88888888]"));
+        assertEquals(List.of(), formateursDe(s1));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.gestionpaimentback.controller;
+
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Serveur réel : la compression gzip est faite par Tomcat, invisible avec MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SessionExportTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void initialiser() throws Exception {
+        if (!userRepository.existsByEmail("export@test.tn")) {
+            User user = new User("Jean; \"JJ\"", "=Export", "export@test.tn", passwordEncoder.encode("motdepasse"));
+            user.setStatus(1);
+            user.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_ADMIN).orElseThrow(),
+                    roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow()));
+            userRepository.save(user);
+
+            LocalDate debut = LocalDate.of(2033, 1, 10);
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                Session s = new Session(null, "Export " + i, "Génie logiciel", "2033", "L3", "S1",
+                        debut.plusDays(i), debut.plusDays(i + 30));
+                if (i % 3 == 0) {
+                    s.getFormateurs().add(user);
+                }
+                sessions.add(s);
+            }
+            sessionRepository.saveAll(sessions);
+        }
+        client = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        HttpResponse<String> connexion = client.send(HttpRequest.newBuilder(url("/api/auth/signin"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"export@test.tn\",\"password\":\"motdepasse\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, connexion.statusCode());
+    }
+
+    private URI url(String chemin) {
+        return URI.create("http://localhost:" + port + chemin);
+    }
+
+    private HttpResponse<byte[]> exporter(String requete, boolean gzip) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(url("/api/sessions/export" + requete)).GET();
+        if (gzip) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    void exportCsvFiltreAvecFormateurs() throws Exception {
+        HttpResponse<byte[]> reponse = exporter("?promotion=2033&dateDMin=2033-02-01", false);
+
+        assertEquals(200, reponse.statusCode());
+        assertTrue(reponse.headers().firstValue("Content-Type").orElseThrow().startsWith("text/csv"));
+        assertTrue(reponse.headers().firstValue("Content-Disposition").orElseThrow().contains("attachment"));
+        String csv = new String(reponse.body(), StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("\uFEFFidSession;classe;"));
+
+        String[] lignes = csv.substring(1).split("\r\n");
+        // Débuts : 10/01 + i jours ; >= 01/02 pour i >= 22 -> 278 sessions, une ligne chacune
+        assertEquals(1 + 278, lignes.length);
+        String avecFormateur = null;
+        for (int i = 1; i < lignes.length; i++) {
+            if (lignes[i].contains(";Export 24;")) {
+                avecFormateur = lignes[i];
+            }
+            if (lignes[i].contains(";Export 23;")) {
+                assertTrue(lignes[i].endsWith(";;;;"));
+            }
+        }
+        // Échappement des ';' et '"', neutralisation de la formule
+        assertTrue(avecFormateur.endsWith(";\"Jean; \"\"JJ\"\"\";'=Export;export@test.tn"), avecFormateur);
+    }
+
+    @Test
+    void exportCsvCompresseEnGzip() throws Exception {
+        String attendu = new String(exporter("?promotion=2033", false).body(), StandardCharsets.UTF_8);
+        HttpResponse<byte[]> reponse = exporter("?promotion=2033", true);
+
+        assertEquals(200, reponse.statusCode());
+        assertEquals("gzip", reponse.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(reponse.body().length < attendu.getBytes(StandardCharsets.UTF_8).length);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(reponse.body()))) {
+            assertEquals(attendu, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
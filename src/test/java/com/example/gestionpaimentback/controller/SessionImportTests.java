@@ -0,0 +1,166 @@
+package com.example.gestionpaimentback.controller;
+
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.dto.SessionFilter;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.example.gestionpaimentback.service.SessionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.sessions.import.batch-size=2")
+@AutoConfigureMockMvc
+class SessionImportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockHttpSession session;
+    private Long formateurId;
+
+    @BeforeEach
+    void initialiser() throws Exception {
+        User user = userRepository.findByEmail("import@test.tn").orElseGet(() -> {
+            User nouveau = new User("Test", "Import", "import@test.tn", passwordEncoder.encode("motdepasse"));
+            nouveau.setStatus(1);
+            nouveau.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_ADMIN).orElseThrow(),
+                    roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow()));
+            return userRepository.save(nouveau);
+        });
+        formateurId = user.getId();
+        session = (MockHttpSession) mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"import@test.tn\",\"password\":\"motdepasse\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+
+    private List<JsonNode> importer(String nomFichier, String contenu) throws Exception {
+        MockMultipartFile fichier = new MockMultipartFile("file", nomFichier, null, contenu.getBytes(StandardCharsets.UTF_8));
+        MvcResult asynchrone = mockMvc.perform(multipart("/api/sessions/import").file(fichier).session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String reponse = mockMvc.perform(asyncDispatch(asynchrone))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<JsonNode> evenements = new ArrayList<>();
+        for (String ligne : reponse.split("\n")) {
+            evenements.add(objectMapper.readTree(ligne));
+        }
+        return evenements;
+    }
+
+    private List<SessionDTO> sessionsDeLaPromotion(String promotion) {
+        SessionFilter filtre = new SessionFilter();
+        filtre.setPromotion(promotion);
+        return sessionService.getSessionsPage(filtre, null, 200, false).getItems();
+    }
+
+    @Test
+    void importCsvAvecErreursParLigne() throws Exception {
+        String csv = "\uFEFFclasse;specialite;promotion;niveau;semestre;dateD;dateF;formateurIds;commentaire\r\n" +
+                "Import A;Réseaux;2040;L1;S1;2040-09-01;2040-12-20;" + formateurId + ";ignoré\r\n" +
+                "\"Import; B\";Réseaux;2040;L1;S1;2040-09-01;2040-12-20;;\"sur\ndeux lignes\"\r\n" +
+                "Import C;Réseaux;2040;L1;S1;2040-12-20;2040-09-01;;\r\n" +
+                "Import D;Réseaux;2040;L1;;2040-09-01;2040-12-20;999999;\r\n" +
+                "Import E;Réseaux;2040;L2;S2;2041-01-05;2041-05-30;" + formateurId + ";\r\n";
+
+        List<JsonNode> evenements = importer("sessions.csv", csv);
+
+        List<JsonNode> erreurs = evenements.stream().filter(e -> "erreur".equals(e.get("type").asText())).toList();
+        assertEquals(2, erreurs.size());
+        // Ligne physique : la valeur entre guillemets de la ligne 3 s'étend sur la ligne 4
+        assertEquals(5, erreurs.get(0).get("ligne").asLong());
+        assertTrue(erreurs.get(0).get("message").asText().contains("dateF antérieure à dateD"));
+        assertEquals(6, erreurs.get(1).get("ligne").asLong());
+        assertTrue(erreurs.get(1).get("message").asText().contains("semestre obligatoire"));
+        assertTrue(erreurs.get(1).get("message").asText().contains("formateur 999999 inconnu"));
+        assertTrue(evenements.stream().anyMatch(e -> "progression".equals(e.get("type").asText())));
+
+        JsonNode bilan = evenements.get(evenements.size() - 1);
+        assertEquals("termine", bilan.get("type").asText());
+        assertEquals(5, bilan.get("lues").asInt());
+        assertEquals(3, bilan.get("importees").asInt());
+        assertEquals(2, bilan.get("rejetees").asInt());
+        assertEquals(2, bilan.get("affectations").asInt());
+
+        List<SessionDTO> importees = sessionsDeLaPromotion("2040");
+        assertEquals(3, importees.size());
+        for (SessionDTO dto : importees) {
+            int attendus = dto.getClasse().equals("Import; B") ? 0 : 1;
+            assertEquals(attendus, dto.getFormateurs().size(), dto.getClasse());
+        }
+    }
+
+    @Test
+    void importJsonLines() throws Exception {
+        String jsonl = "{\"classe\":\"Jsonl 1\",\"specialite\":\"Data\",\"promotion\":\"2041\",\"niveau\":\"M1\"," +
+                "\"semestre\":\"S1\",\"dateD\":\"2041-09-01\",\"dateF\":\"2041-12-20\",\"formateurIds\":[" + formateurId + "]}\n" +
+                "\n" +
+                "{pas du json\n" +
+                "{\"classe\":\"Jsonl 2\",\"specialite\":\"Data\",\"promotion\":\"2041\",\"niveau\":\"M1\"," +
+                "\"semestre\":\"S1\",\"dateD\":\"2041-09-01\",\"dateF\":\"2041-12-20\"}\n";
+
+        List<JsonNode> evenements = importer("sessions.jsonl", jsonl);
+
+        JsonNode erreur = evenements.get(0);
+        assertEquals("erreur", erreur.get("type").asText());
+        assertEquals(3, erreur.get("ligne").asLong());
+        JsonNode bilan = evenements.get(evenements.size() - 1);
+        assertEquals(2, bilan.get("importees").asInt());
+        assertEquals(1, bilan.get("rejetees").asInt());
+        assertEquals(2, sessionsDeLaPromotion("2041").size());
+    }
+
+    @Test
+    void enteteIncompletRefuse() throws Exception {
+        MockMultipartFile fichier = new MockMultipartFile("file", "sessions.csv", "text/csv",
+                "classe,specialite,promotion\nA,B,2042\n".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/sessions/import").file(fichier).session(session))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Colonnes manquantes dans l'en-tête : niveau, semestre, dateD, dateF"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.gestionpaimentback.controller;
+
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SessionPaginationTests {
+
+    // Promotion propre à cette classe : les autres tests partagent la base
+    private static final String PROMOTION = "2099";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockHttpSession session;
+
+    @BeforeEach
+    void initialiser() throws Exception {
+        if (!userRepository.existsByEmail("pagination@test.tn")) {
+            User user = new User("Test", "Pagination", "pagination@test.tn", passwordEncoder.encode("motdepasse"));
+            user.setStatus(1);
+            user.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow()));
+            userRepository.save(user);
+
+            LocalDate debut = LocalDate.of(2099, 1, 5);
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                sessions.add(new Session(null, "Classe " + i, "Informatique", PROMOTION, "L" + (i % 2 + 1),
+                        "S1", debut.plusWeeks(i), debut.plusWeeks(i + 4)));
+            }
+            sessionRepository.saveAll(sessions);
+        }
+        session = (MockHttpSession) mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"pagination@test.tn\",\"password\":\"motdepasse\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+
+    private JsonNode page(String parametres) throws Exception {
+        String corps = mockMvc.perform(get("/api/sessions?promotion=" + PROMOTION + parametres).session(session))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corps);
+    }
+
+    @Test
+    void parcoursParCurseurSansDoublonNiTrou() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        JsonNode page = page("&limit=3");
+        int pages = 1;
+        while (true) {
+            assertTrue(page.get("items").size() <= 3);
+            page.get("items").forEach(item -> ids.add(item.get("idSession").asLong()));
+            if (page.get("nextCursor").isNull()) {
+                break;
+            }
+            page = page("&limit=3&cursor=" + page.get("nextCursor").asLong());
+            pages++;
+        }
+
+        assertEquals(3, pages);
+        assertEquals(7, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) < ids.get(i - 1), "ordre idSession décroissant : " + ids);
+        }
+        assertFalse(page.has("total"));
+    }
+
+    @Test
+    void filtresEtTotalOptionnel() throws Exception {
+        JsonNode page = page("&niveau=L1&dateDMin=2099-01-12&includeTotal=true");
+
+        // L1 : i = 0, 2, 4, 6 ; début >= 12/01 exclut i = 0
+        assertEquals(3, page.get("total").asLong());
+        assertEquals(3, page.get("items").size());
+        page.get("items").forEach(item -> {
+            assertEquals("L1", item.get("niveau").asText());
+            assertTrue(item.get("dateD").asText().compareTo("2099-01-12") >= 0);
+        });
+        assertTrue(page.get("nextCursor").isNull());
+    }
+
+    @Test
+    void sansParametreTableauComplet() throws Exception {
+        String corps = mockMvc.perform(get("/api/sessions").session(session))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(objectMapper.readTree(corps).isArray());
+    }
+}
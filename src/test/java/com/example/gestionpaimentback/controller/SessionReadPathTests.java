@@ -0,0 +1,129 @@
+package com.example.gestionpaimentback.controller;
+
+import com.example.gestionpaimentback.SqlStatementCounter;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SessionReadPathTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private MockHttpSession session;
+    private User formateur;
+
+    @BeforeEach
+    void initialiser() throws Exception {
+        formateur = userRepository.findByEmail("lecture@test.tn").orElseGet(() -> {
+            User user = new User("Test", "Lecture", "lecture@test.tn", passwordEncoder.encode("motdepasse"));
+            user.setStatus(1);
+            user.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow(),
+                    roleRepository.findByName(Role.ERole.ROLE_COORDINATEUR).orElseThrow()));
+            return userRepository.save(user);
+        });
+        session = (MockHttpSession) mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"lecture@test.tn\",\"password\":\"motdepasse\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+
+    private void creerSessions(int nombre) {
+        User second = userRepository.save(new User("Second", "Formateur",
+                "lecture-" + System.nanoTime() + "@test.tn", "motdepasse-non-hache"));
+        LocalDate debut = LocalDate.of(2030, 1, 7);
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            Session s = new Session(null, "Lecture " + i, "Informatique", "2030", "L1", "S1",
+                    debut.plusWeeks(i), debut.plusWeeks(i + 4));
+            s.getFormateurs().add(formateur);
+            s.getFormateurs().add(second);
+            sessions.add(s);
+        }
+        sessionRepository.saveAll(sessions);
+    }
+
+    private int requetesPour(String url) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(url).session(session)).andExpect(status().isOk());
+        return SqlStatementCounter.count();
+    }
+
+    @Test
+    void listeCompleteNombreDeRequetesConstant() throws Exception {
+        creerSessions(3);
+        int avant = requetesPour("/api/sessions");
+        creerSessions(30);
+        int apres = requetesPour("/api/sessions");
+
+        // Colonnes des sessions, puis couples session / formateur
+        assertEquals(2, avant);
+        assertEquals(avant, apres);
+    }
+
+    @Test
+    void pageEtSessionsDuFormateurNombreDeRequetesConstant() throws Exception {
+        creerSessions(5);
+        assertEquals(2, requetesPour("/api/sessions?promotion=2030&limit=4"));
+        int avant = requetesPour("/api/sessions/formateur/" + formateur.getId());
+        creerSessions(20);
+        assertEquals(1, requetesPour("/api/sessions/formateur/" + formateur.getId()));
+        assertEquals(1, avant);
+    }
+
+    @Test
+    void reponseSansDonneesSensibles() throws Exception {
+        creerSessions(1);
+        String corps = mockMvc.perform(get("/api/sessions?promotion=2030&limit=1").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].formateurs.length()").value(2))
+                .andExpect(jsonPath("$.items[0].dateD").value("2030-01-07"))
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(corps.contains("password"));
+        assertFalse(corps.contains("roles"));
+
+        mockMvc.perform(get("/api/sessions/formateur/" + formateur.getId()).session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].formateurAssigne").value(true))
+                .andExpect(jsonPath("$[0].formateurs").doesNotExist());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.gestionpaimentback.controller;
+
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StreamingJsonTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockHttpSession session;
+
+    @BeforeEach
+    void initialiser() throws Exception {
+        if (!userRepository.existsByEmail("streaming@test.tn")) {
+            User user = new User("Test", "Streaming", "streaming@test.tn", passwordEncoder.encode("motdepasse"));
+            user.setStatus(1);
+            user.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_ADMIN).orElseThrow(),
+                    roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow()));
+            userRepository.save(user);
+
+            LocalDate debut = LocalDate.of(2031, 2, 3);
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                Session s = new Session(null, "Flux " + i, "Réseaux", "2031", "L2", "S2",
+                        debut.plusWeeks(i), debut.plusWeeks(i + 3));
+                // Sessions paires : 1 formateur ; impaires : aucun
+                if (i % 2 == 0) {
+                    s.getFormateurs().add(user);
+                }
+                sessions.add(s);
+            }
+            sessionRepository.saveAll(sessions);
+        }
+        session = (MockHttpSession) mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"streaming@test.tn\",\"password\":\"motdepasse\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getRequest().getSession(false);
+    }
+
+    private String lireEnStreaming(String url) throws Exception {
+        MvcResult asynchrone = mockMvc.perform(get(url).session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(asynchrone))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void sessionsEnStreamingIdentiquesALaListe() throws Exception {
+        String liste = mockMvc.perform(get("/api/sessions").session(session))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String flux = lireEnStreaming("/api/sessions?stream=true");
+
+        assertEquals(normaliser(objectMapper.readTree(liste)), normaliser(objectMapper.readTree(flux)));
+    }
+
+    @Test
+    void sessionsEnStreamingFiltrees() throws Exception {
+        JsonNode flux = objectMapper.readTree(lireEnStreaming("/api/sessions?stream=true&promotion=2031&dateDMin=2031-03-01"));
+
+        // Débuts : 03/02 + i semaines ; >= 01/03 pour i >= 4
+        assertEquals(8, flux.size());
+        flux.forEach(s -> {
+            assertEquals("2031", s.get("promotion").asText());
+            int i = Integer.parseInt(s.get("classe").asText().substring("Flux ".length()));
+            assertEquals(i % 2 == 0 ? 1 : 0, s.get("formateurs").size());
+        });
+    }
+
+    @Test
+    void utilisateursEnStreamingSansMotDePasse() throws Exception {
+        String flux = lireEnStreaming("/api/admin/users?stream=true");
+        JsonNode utilisateurs = objectMapper.readTree(flux);
+
+        assertTrue(utilisateurs.size() >= 1);
+        assertFalse(flux.contains("password"));
+        JsonNode moi = null;
+        for (JsonNode u : utilisateurs) {
+            if ("streaming@test.tn".equals(u.get("email").asText())) {
+                moi = u;
+            }
+        }
+        assertEquals(2, moi.get("roles").size());
+        assertEquals(1, moi.get("status").asInt());
+    }
+
+    // L'ordre des formateurs dans une session n'est pas garanti : triés par id avant comparaison
+    private JsonNode normaliser(JsonNode sessions) {
+        for (JsonNode s : sessions) {
+            List<JsonNode> formateurs = new ArrayList<>();
+            s.get("formateurs").forEach(formateurs::add);
+            formateurs.sort((a, b) -> Long.compare(a.get("id").asLong(), b.get("id").asLong()));
+            ArrayNode tries = objectMapper.createArrayNode();
+            formateurs.forEach(tries::add);
+            ((ObjectNode) s).set("formateurs", tries);
+        }
+        return sessions;
+    }
+}
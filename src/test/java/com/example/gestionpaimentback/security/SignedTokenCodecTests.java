@@ -0,0 +1,62 @@
+package com.example.gestionpaimentback.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedTokenCodecTests {
+
+    private static final byte[] CLE_1 = "cle-de-test-numero-un-32-octets!".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CLE_2 = "cle-de-test-numero-deux-32-octet".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void emissionPuisLecture() {
+        SignedTokenCodec codec = new SignedTokenCodec(Map.of("k1", CLE_1), "k1", Duration.ofHours(1));
+        String jeton = codec.emettre(42L, "a|b@test.tn", List.of("ROLE_ADMIN", "ROLE_FORMATEUR"), 1000);
+
+        SignedTokenCodec.Contenu contenu = codec.lire(jeton, 1000);
+        assertNotNull(contenu);
+        assertEquals(42L, contenu.id());
+        assertEquals("a|b@test.tn", contenu.email());
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_FORMATEUR"), contenu.roles());
+        assertEquals(4600, contenu.expireLe());
+        assertEquals("k1", contenu.kid());
+    }
+
+    @Test
+    void jetonExpireOuFalsifieRefuse() {
+        SignedTokenCodec codec = new SignedTokenCodec(Map.of("k1", CLE_1), "k1", Duration.ofSeconds(60));
+        String jeton = codec.emettre(1L, "a@test.tn", List.of("ROLE_FORMATEUR"), 1000);
+
+        assertNull(codec.lire(jeton, 1060));
+
+        // Charge modifiée (rôle ADMIN) avec l'ancienne signature
+        String signature = jeton.substring(jeton.indexOf('.'));
+        String falsifie = codec.emettre(1L, "a@test.tn", List.of("ROLE_ADMIN"), 1000);
+        assertNull(codec.lire(falsifie.substring(0, falsifie.indexOf('.')) + signature, 1000));
+
+        assertNull(codec.lire("pas-un-jeton", 1000));
+        assertNull(codec.lire("a.b.c", 1000));
+        assertNull(codec.lire("%%%.%%%", 1000));
+    }
+
+    @Test
+    void rotationDesCles() {
+        SignedTokenCodec ancien = new SignedTokenCodec(Map.of("k1", CLE_1), "k1", Duration.ofHours(1));
+        String jetonAncien = ancien.emettre(1L, "a@test.tn", List.of("ROLE_FORMATEUR"), 1000);
+
+        // Nouvelle clé active, l'ancienne vérifie encore
+        SignedTokenCodec transition = new SignedTokenCodec(Map.of("k1", CLE_1, "k2", CLE_2), "k2", Duration.ofHours(1));
+        assertNotNull(transition.lire(jetonAncien, 1000));
+        assertEquals("k2", transition.lire(transition.emettre(1L, "a@test.tn", List.of(), 1000), 1000).kid());
+
+        // Ancienne clé retirée : ses jetons sont refusés
+        SignedTokenCodec apres = new SignedTokenCodec(Map.of("k2", CLE_2), "k2", Duration.ofHours(1));
+        assertNull(apres.lire(jetonAncien, 1000));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.gestionpaimentback.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTests {
+
+    @Test
+    void capaciteEnRafalePuisRefus() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofMinutes(1).toNanos(), 4, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tenter("a@test.tn"));
+        }
+        long attente = limiter.tenter("a@test.tn");
+        assertTrue(attente > 0 && attente <= Duration.ofSeconds(20).toNanos());
+
+        // Les autres clés ne sont pas affectées
+        assertEquals(0, limiter.tenter("b@test.tn"));
+    }
+
+    @Test
+    void rechargeEtEviction() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofMillis(100).toNanos(), 4, 100);
+        limiter.tenter("a@test.tn");
+        limiter.tenter("a@test.tn");
+        assertTrue(limiter.tenter("a@test.tn") > 0);
+
+        Thread.sleep(120);
+        assertEquals(1, limiter.evincer());
+        assertEquals(0, limiter.taille());
+        assertEquals(0, limiter.tenter("a@test.tn"));
+    }
+
+    @Test
+    void aucunJetonEnTropSousContention() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, Duration.ofHours(1).toNanos(), 4, 100);
+        AtomicInteger accordes = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    depart.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tenter("chaud@test.tn") == 0) {
+                        accordes.incrementAndGet();
+                    }
+                }
+            });
+        }
+        depart.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, accordes.get());
+    }
+
+    @Test
+    void memoireBorneeParStripe() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofHours(1).toNanos(), 2, 5);
+        for (int i = 0; i < 100; i++) {
+            limiter.tenter("ip-" + i);
+        }
+        assertTrue(limiter.taille() <= 10);
+    }
+
+    @Test
+    void stripePleineRefuseLesNouvellesCles() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(5, Duration.ofMinutes(1).toNanos(), 1, 10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tenter("jetable-" + i));
+        }
+        // Clés jetables encore actives : la victime n'obtient pas de bucket neuf
+        assertEquals(Duration.ofMinutes(1).toNanos(), limiter.tenter("victime@test.tn"));
+        assertEquals(1, limiter.getRefusSaturation());
+        assertEquals(10, limiter.taille());
+    }
+}
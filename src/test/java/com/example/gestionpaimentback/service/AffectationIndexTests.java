@@ -0,0 +1,221 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.dto.AffectationPaire;
+import com.example.gestionpaimentback.dto.AffectationsBatchRequest;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+class AffectationIndexTests {
+
+    @Autowired
+    private AffectationIndex affectationIndex;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    // Espion : la lecture d'une reconstruction peut être suspendue
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<User> formateurs = new ArrayList<>();
+
+    @BeforeEach
+    void initialiser() {
+        Role formateurRole = roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow();
+        for (int i = 0; i < 3; i++) {
+            User user = new User("Index" + i, "Formateur", "index" + i + "-" + System.nanoTime() + "@test.tn", "motdepasse");
+            user.setRoles(Set.of(formateurRole));
+            formateurs.add(userRepository.save(user));
+        }
+    }
+
+    private Session nouvelleSession(User... affectes) {
+        LocalDate debut = LocalDate.of(2037, 1, 5);
+        Session session = new Session(null, "Indexée", "Réseaux", "2037", "L2", "S1", debut, debut.plusWeeks(6));
+        session.getFormateurs().addAll(List.of(affectes));
+        return sessionRepository.save(session);
+    }
+
+    // L'index et session_formateurs donnent les mêmes sessions pour chaque formateur du test
+    private void assertCoherent() {
+        for (User formateur : formateurs) {
+            assertEquals(jdbcTemplate.queryForList("SELECT session_id FROM session_formateurs WHERE formateur_id = ? " +
+                            "ORDER BY session_id", Long.class, formateur.getId()),
+                    affectationIndex.sessionsDuFormateur(formateur.getId()), "formateur " + formateur.getId());
+        }
+    }
+
+    @Test
+    void suitLesEcrituresJpaEtJdbc() {
+        assertTrue(affectationIndex.estActif());
+        User a = formateurs.get(0), b = formateurs.get(1), c = formateurs.get(2);
+
+        // save JPA d'une session avec ses formateurs
+        Long sessionId = nouvelleSession(a).getIdSession();
+        assertTrue(sessionService.isFormateurInSession(sessionId, a.getId()));
+        assertFalse(sessionService.isFormateurInSession(sessionId, b.getId()));
+
+        // INSERT / DELETE directs
+        assertTrue(sessionService.assignerFormateur(sessionId, b.getId()));
+        assertFalse(sessionService.assignerFormateur(sessionId, b.getId()));
+        assertTrue(sessionService.retirerFormateur(sessionId, a.getId()));
+        assertEquals(List.of(sessionId), sessionService.getSessionIdsByFormateur(b.getId()));
+        assertCoherent();
+
+        // Lot
+        Long seconde = nouvelleSession().getIdSession();
+        sessionService.appliquerAffectations(new AffectationsBatchRequest(
+                List.of(new AffectationsBatchRequest.Ligne(seconde, List.of(a.getId(), c.getId()))),
+                List.of(new AffectationsBatchRequest.Ligne(sessionId, List.of(b.getId())))));
+        assertEquals(List.of(seconde), sessionService.getSessionIdsByFormateur(a.getId()));
+        assertTrue(sessionService.getSessionIdsByFormateur(b.getId()).isEmpty());
+        assertCoherent();
+
+        // Modification de Session.formateurs par l'entité : seule la différence est appliquée
+        Session entite = sessionRepository.findById(seconde).orElseThrow();
+        entite.getFormateurs().removeIf(formateur -> formateur.getId().equals(c.getId()));
+        entite.getFormateurs().add(b);
+        sessionRepository.save(entite);
+        assertTrue(sessionService.isFormateurInSession(seconde, b.getId()));
+        assertFalse(sessionService.isFormateurInSession(seconde, c.getId()));
+        assertCoherent();
+
+        // Suppression de la session
+        sessionService.deleteSession(seconde);
+        assertThrows(RuntimeException.class, () -> sessionService.isFormateurInSession(seconde, a.getId()));
+        assertCoherent();
+    }
+
+    @Test
+    void insertionParLotsRenvoieLesCouplesAjoutes() {
+        Long sessionId = nouvelleSession(formateurs.get(0)).getIdSession();
+        AffectationPaire existante = new AffectationPaire(sessionId, formateurs.get(0).getId());
+        AffectationPaire nouvelle = new AffectationPaire(sessionId, formateurs.get(1).getId());
+        assertEquals(List.of(nouvelle), sessionRepository.insererAffectations(List.of(existante, nouvelle)));
+
+        // Session inexistante : la clé étrangère n'est pas absorbée comme un doublon
+        assertThrows(DataIntegrityViolationException.class,
+                () -> sessionRepository.insererAffectations(List.of(new AffectationPaire(-1L, formateurs.get(2).getId()))));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> sessionRepository.insererAffectation(-1L, formateurs.get(2).getId()));
+    }
+
+    @Test
+    void transactionAnnuleeNeModifiePasLIndex() {
+        Long sessionId = nouvelleSession().getIdSession();
+        Long formateurId = formateurs.get(0).getId();
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+            assertTrue(sessionService.assignerFormateur(sessionId, formateurId));
+            statut.setRollbackOnly();
+        });
+        assertFalse(sessionService.isFormateurInSession(sessionId, formateurId));
+        assertCoherent();
+    }
+
+    @Test
+    void reconstructionRelitLaBase() {
+        Long sessionId = nouvelleSession(formateurs.get(0)).getIdSession();
+        // Écriture hors application : visible après reconstruction seulement
+        jdbcTemplate.update("INSERT INTO session_formateurs (session_id, formateur_id) VALUES (?, ?)",
+                sessionId, formateurs.get(1).getId());
+        assertFalse(affectationIndex.contient(sessionId, formateurs.get(1).getId()));
+
+        affectationIndex.reconstruire();
+        assertTrue(affectationIndex.contient(sessionId, formateurs.get(1).getId()));
+        assertCoherent();
+        assertTrue((Long) affectationIndex.getStatistiques().get("couples") >= 2);
+    }
+
+    @Test
+    void annulationPendantLaReconstructionNEstPasRejouee() throws Exception {
+        annulerPendantUneReconstruction(false);
+    }
+
+    @Test
+    void annulationApresLaReconstructionDefaitLEcritureRejouee() throws Exception {
+        annulerPendantUneReconstruction(true);
+    }
+
+    // Affectation écrite dans l'index (beforeCommit) pendant une reconstruction, puis commit en échec, avant ou
+    // après le remplacement des tables : l'affectation n'est nulle part
+    private void annulerPendantUneReconstruction(boolean reconstructionTerminee) throws Exception {
+        Long sessionId = nouvelleSession().getIdSession();
+        Long formateurId = formateurs.get(0).getId();
+        CountDownLatch enLecture = new CountDownLatch(1);
+        CountDownLatch reprise = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            enLecture.countDown();
+            assertTrue(reprise.await(10, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        Thread reconstruction = new Thread(affectationIndex::reconstruire);
+        reconstruction.start();
+        assertTrue(enLecture.await(10, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+            assertTrue(sessionService.assignerFormateur(sessionId, formateurId));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (reconstructionTerminee) {
+                        reprise.countDown();
+                        try {
+                            reconstruction.join(10_000);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    throw new IllegalStateException("Commit refusé");
+                }
+            });
+        }));
+        reprise.countDown();
+        reconstruction.join(10_000);
+
+        assertTrue(affectationIndex.estActif());
+        assertFalse(affectationIndex.contient(sessionId, formateurId));
+        assertCoherent();
+    }
+}
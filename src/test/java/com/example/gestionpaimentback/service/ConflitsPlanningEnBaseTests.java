@@ -0,0 +1,110 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.dto.AffectationsBatchRequest;
+import com.example.gestionpaimentback.dto.ConflitPlanning;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Index désactivé (plusieurs noeuds) : conflits lus en base sous le verrou du formateur
+@SpringBootTest(properties = {"app.sessions.conflits.mode=rejeter", "app.sessions.index.enabled=false"})
+class ConflitsPlanningEnBaseTests {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Long formateurId;
+
+    @BeforeEach
+    void initialiser() {
+        Role formateurRole = roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow();
+        User user = new User("EnBase", "Formateur", "en-base-" + System.nanoTime() + "@test.tn", "motdepasse");
+        user.setRoles(Set.of(formateurRole));
+        formateurId = userRepository.save(user).getId();
+    }
+
+    private Long session(LocalDate debut, LocalDate fin) {
+        return sessionRepository.save(new Session(null, "EnBase", "Réseaux", "2039", "L3", "S2", debut, fin))
+                .getIdSession();
+    }
+
+    @Test
+    void chevauchementRefuseSansIndex() {
+        Long janvier = session(LocalDate.of(2039, 1, 1), LocalDate.of(2039, 1, 31));
+        Long miJanvier = session(LocalDate.of(2039, 1, 31), LocalDate.of(2039, 2, 15));
+        Long mars = session(LocalDate.of(2039, 3, 1), LocalDate.of(2039, 3, 31));
+        assertTrue(sessionService.assignerFormateur(janvier, formateurId));
+
+        ConflitPlanningException refus = assertThrows(ConflitPlanningException.class,
+                () -> sessionService.assignerFormateur(miJanvier, formateurId));
+        assertEquals(List.of(new ConflitPlanning(formateurId, miJanvier, janvier,
+                LocalDate.of(2039, 1, 31), LocalDate.of(2039, 1, 31))), refus.getConflits());
+        assertFalse(sessionService.assignerFormateur(janvier, formateurId));
+
+        // Lot : contre les sessions en base et entre couples du lot
+        assertThrows(ConflitPlanningException.class, () -> sessionService.appliquerAffectations(new AffectationsBatchRequest(
+                List.of(new AffectationsBatchRequest.Ligne(mars, List.of(formateurId)),
+                        new AffectationsBatchRequest.Ligne(miJanvier, List.of(formateurId))), List.of())));
+        assertEquals(List.of(janvier), sessionService.getSessionIdsByFormateur(formateurId));
+    }
+
+    // Deux affectations concurrentes de sessions qui se chevauchent : le verrou en base n'en laisse passer qu'une
+    @Test
+    void affectationsConcurrentesSerialisees() throws Exception {
+        ExecutorService executeur = Executors.newFixedThreadPool(2);
+        try {
+            for (int essai = 0; essai < 5; essai++) {
+                LocalDate debut = LocalDate.of(2039, 6, 1).plusWeeks(3L * essai);
+                Long a = session(debut, debut.plusDays(10));
+                Long b = session(debut.plusDays(5), debut.plusDays(15));
+                CountDownLatch depart = new CountDownLatch(1);
+                List<Future<Boolean>> resultats = new ArrayList<>();
+                for (Long sessionId : List.of(a, b)) {
+                    resultats.add(executeur.submit(() -> {
+                        depart.await();
+                        try {
+                            return sessionService.assignerFormateur(sessionId, formateurId);
+                        } catch (ConflitPlanningException e) {
+                            return false;
+                        }
+                    }));
+                }
+                depart.countDown();
+                int acceptees = 0;
+                for (Future<Boolean> resultat : resultats) {
+                    acceptees += resultat.get() ? 1 : 0;
+                }
+                assertEquals(1, acceptees, "essai " + essai);
+            }
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.dto.AffectationsBatchRequest;
+import com.example.gestionpaimentback.dto.ConflitPlanning;
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.sessions.conflits.mode=rejeter")
+class ConflitsPlanningTests {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Long formateurId;
+    private Long janvier;
+    private Long miJanvier;
+    private Long mars;
+
+    @BeforeEach
+    void initialiser() {
+        Role formateurRole = roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow();
+        User user = new User("Planning", "Formateur", "planning-" + System.nanoTime() + "@test.tn", "motdepasse");
+        user.setRoles(Set.of(formateurRole));
+        formateurId = userRepository.save(user).getId();
+        janvier = session(LocalDate.of(2038, 1, 1), LocalDate.of(2038, 1, 31));
+        miJanvier = session(LocalDate.of(2038, 1, 31), LocalDate.of(2038, 2, 15));
+        mars = session(LocalDate.of(2038, 3, 1), LocalDate.of(2038, 3, 31));
+    }
+
+    private Long session(LocalDate debut, LocalDate fin) {
+        return sessionRepository.save(new Session(null, "Planning", "Réseaux", "2038", "L3", "S2", debut, fin))
+                .getIdSession();
+    }
+
+    private List<ConflitPlanning> conflitsDuFormateur() {
+        @SuppressWarnings("unchecked")
+        List<ConflitPlanning> conflits = (List<ConflitPlanning>) sessionService.listerConflits(null).get("conflits");
+        return conflits.stream().filter(conflit -> conflit.formateurId().equals(formateurId)).toList();
+    }
+
+    @Test
+    void affectationQuiChevaucheEstRefusee() {
+        assertTrue(sessionService.assignerFormateur(janvier, formateurId));
+        assertTrue(sessionService.assignerFormateur(mars, formateurId));
+
+        // Un jour commun (31 janvier, bornes incluses)
+        ConflitPlanningException refus = assertThrows(ConflitPlanningException.class,
+                () -> sessionService.assignerFormateur(miJanvier, formateurId));
+        assertEquals(List.of(new ConflitPlanning(formateurId, miJanvier, janvier,
+                LocalDate.of(2038, 1, 31), LocalDate.of(2038, 1, 31))), refus.getConflits());
+        assertFalse(sessionService.isFormateurInSession(miJanvier, formateurId));
+
+        // Réaffecter un couple existant reste idempotent
+        assertFalse(sessionService.assignerFormateur(janvier, formateurId));
+        assertTrue(conflitsDuFormateur().isEmpty());
+    }
+
+    @Test
+    void lotControleAussiLesCouplesEntreEux() {
+        AffectationsBatchRequest deuxChevauchantes = new AffectationsBatchRequest(
+                List.of(new AffectationsBatchRequest.Ligne(janvier, List.of(formateurId)),
+                        new AffectationsBatchRequest.Ligne(miJanvier, List.of(formateurId))), List.of());
+        ConflitPlanningException refus = assertThrows(ConflitPlanningException.class,
+                () -> sessionService.appliquerAffectations(deuxChevauchantes));
+        assertEquals(1, refus.getConflits().size());
+        assertTrue(sessionService.getSessionIdsByFormateur(formateurId).isEmpty());
+
+        // Retrait et ajout dans le même lot : la session retirée ne compte plus
+        sessionService.assignerFormateur(janvier, formateurId);
+        Map<String, Object> bilan = sessionService.appliquerAffectations(new AffectationsBatchRequest(
+                List.of(new AffectationsBatchRequest.Ligne(miJanvier, List.of(formateurId))),
+                List.of(new AffectationsBatchRequest.Ligne(janvier, List.of(formateurId)))));
+        assertEquals(1, bilan.get("ajoutees"));
+        assertEquals(List.of(miJanvier), sessionService.getSessionIdsByFormateur(formateurId));
+    }
+
+    @Test
+    void datesModifieesApparaissentDansLaListe() {
+        sessionService.assignerFormateur(janvier, formateurId);
+        sessionService.assignerFormateur(mars, formateurId);
+        assertTrue(conflitsDuFormateur().isEmpty());
+
+        // mars déplacée sur la fin janvier : conflit créé par la modification, visible dans la liste globale
+        Session modification = new Session(null, "Planning", "Réseaux", "2038", "L3", "S2",
+                LocalDate.of(2038, 1, 20), LocalDate.of(2038, 2, 10));
+        sessionService.updateSession(mars, modification);
+        assertEquals(List.of(new ConflitPlanning(formateurId, mars, janvier,
+                LocalDate.of(2038, 1, 20), LocalDate.of(2038, 1, 31))), conflitsDuFormateur());
+
+        sessionService.deleteSession(mars);
+        assertTrue(conflitsDuFormateur().isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.entity.EmailOutbox;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.entity.VerificationCode;
+import com.example.gestionpaimentback.repository.EmailOutboxRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import com.example.gestionpaimentback.repository.VerificationCodeRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class EmailOutboxWorkerTests {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VerificationCodeRepository verificationCodeRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private User creerUtilisateur(String email) {
+        return userRepository.save(new User("Test", "Formateur", email, "motdepasse"));
+    }
+
+    @Test
+    void codeEnvoyeApresCommit() throws Exception {
+        String email = "outbox-ok@test.tn";
+        creerUtilisateur(email);
+
+        emailService.sauvegarderEtEnvoyerCode(email);
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage[] messages = greenMail.getReceivedMessages();
+        VerificationCode code = verificationCodeRepository
+                .findTopByEmailAndUsedFalseOrderByCreatedAtDesc(email).orElseThrow();
+        assertTrue(GreenMailUtil.getBody(messages[0]).contains(code.getCode()));
+    }
+
+    @Test
+    void codeRenvoyeQuandSmtpRevient() throws Exception {
+        String email = "outbox-retry@test.tn";
+        creerUtilisateur(email);
+
+        greenMail.stop();
+        emailService.sauvegarderEtEnvoyerCode(email);
+
+        // La requête ne dépend pas du SMTP : le message attend dans l'outbox
+        waitForTentative(email);
+
+        greenMail.start();
+        assertTrue(greenMail.waitForIncomingEmail(10000, 1));
+    }
+
+    private void waitForTentative(String email) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<EmailOutbox> messages = emailOutboxRepository.findAll();
+            boolean echec = messages.stream()
+                    .anyMatch(m -> m.getDestinataire().equals(email) && m.getTentatives() > 0);
+            if (echec) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        fail("Aucune tentative d'envoi enregistrée");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.gestionpaimentback.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTests {
+
+    @Test
+    void chevauchementsBornesIncluses() {
+        IntervalTree arbre = new IntervalTree();
+        arbre.inserer(10, 20, 1);
+        arbre.inserer(21, 30, 2);
+        arbre.inserer(5, 5, 3);
+
+        assertEquals(List.of(1), chevauchements(arbre, 20, 20));
+        assertEquals(List.of(1, 2), chevauchements(arbre, 15, 21));
+        assertEquals(List.of(3), chevauchements(arbre, 0, 9));
+        assertEquals(List.of(), chevauchements(arbre, 31, 40));
+
+        assertTrue(arbre.retirer(10, 1));
+        assertFalse(arbre.retirer(10, 1));
+        assertEquals(List.of(2), chevauchements(arbre, 15, 21));
+        assertEquals(2, arbre.taille());
+    }
+
+    // Insertions et retraits aléatoires, résultats comparés à un parcours exhaustif
+    @Test
+    void conformeAuParcoursExhaustif() {
+        Random aleatoire = new Random(42);
+        IntervalTree arbre = new IntervalTree();
+        Map<Integer, int[]> reference = new HashMap<>();
+        for (int operation = 0; operation < 20_000; operation++) {
+            int id = aleatoire.nextInt(2000);
+            int[] existant = reference.get(id);
+            if (existant != null) {
+                assertTrue(arbre.retirer(existant[0], id));
+                reference.remove(id);
+            } else {
+                int debut = aleatoire.nextInt(3650);
+                int fin = debut + aleatoire.nextInt(120);
+                arbre.inserer(debut, fin, id);
+                reference.put(id, new int[]{debut, fin});
+            }
+            if (operation % 100 == 0) {
+                int debut = aleatoire.nextInt(3650);
+                int fin = debut + aleatoire.nextInt(60);
+                List<Integer> attendus = new ArrayList<>();
+                reference.forEach((cle, intervalle) -> {
+                    if (intervalle[0] <= fin && intervalle[1] >= debut) {
+                        attendus.add(cle);
+                    }
+                });
+                List<Integer> trouves = chevauchements(arbre, debut, fin);
+                attendus.sort(null);
+                trouves.sort(null);
+                assertEquals(attendus, trouves);
+            }
+        }
+        assertEquals(reference.size(), arbre.taille());
+        int[] precedent = {Integer.MIN_VALUE};
+        arbre.parcourir((debut, fin, id) -> {
+            assertTrue(debut >= precedent[0]);
+            precedent[0] = debut;
+        });
+    }
+
+    private static List<Integer> chevauchements(IntervalTree arbre, int debut, int fin) {
+        List<Integer> ids = new ArrayList<>();
+        arbre.chevauchements(debut, fin, ids::add);
+        return ids;
+    }
+}
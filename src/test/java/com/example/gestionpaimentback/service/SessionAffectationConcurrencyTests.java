@@ -0,0 +1,148 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.entity.Role;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.entity.User;
+import com.example.gestionpaimentback.repository.RoleRepository;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SessionAffectationConcurrencyTests {
+
+    private static final int THREADS = 8;
+    private static final int PAR_THREAD = 10;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long sessionId;
+    private final List<Long> formateurs = new ArrayList<>();
+
+    @BeforeEach
+    void initialiser() {
+        Role formateurRole = roleRepository.findByName(Role.ERole.ROLE_FORMATEUR).orElseThrow();
+        List<User> users = new ArrayList<>();
+        // Un formateur par couple (thread, rang), plus un dernier commun à tous les threads
+        for (int i = 0; i <= THREADS * PAR_THREAD; i++) {
+            User user = new User("Concurrent" + i, "Formateur", "concurrent" + i + "-" + System.nanoTime() + "@test.tn",
+                    "motdepasse");
+            user.setRoles(Set.of(formateurRole));
+            users.add(user);
+        }
+        userRepository.saveAll(users).forEach(user -> formateurs.add(user.getId()));
+        LocalDate debut = LocalDate.of(2036, 9, 1);
+        sessionId = sessionRepository.save(new Session(null, "Concurrente", "Réseaux", "2036", "L1", "S1",
+                debut, debut.plusWeeks(12))).getIdSession();
+    }
+
+    private Set<Long> formateursEnBase() {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT formateur_id FROM session_formateurs WHERE session_id = ?", Long.class, sessionId));
+    }
+
+    // Chaque thread affecte ses formateurs à la même session, plus un formateur commun affecté par tous
+    @Test
+    void affectationsConcurrentesSansPerte() throws Exception {
+        Long commun = formateurs.get(THREADS * PAR_THREAD);
+        AtomicInteger ajoutsCommun = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> taches = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Long> miens = formateurs.subList(t * PAR_THREAD, (t + 1) * PAR_THREAD);
+            taches.add(pool.submit(() -> {
+                depart.await();
+                for (Long formateurId : miens) {
+                    sessionService.assignerFormateur(sessionId, formateurId);
+                    if (sessionService.assignerFormateur(sessionId, commun)) {
+                        ajoutsCommun.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        depart.countDown();
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        pool.shutdown();
+
+        assertEquals(new HashSet<>(formateurs), formateursEnBase());
+        assertEquals(1, ajoutsCommun.get(), "un seul INSERT du formateur commun prend effet");
+
+        // Retraits concurrents d'une moitié, chaque couple retiré par deux threads à la fois
+        List<Long> aRetirer = formateurs.subList(0, formateurs.size() / 2);
+        AtomicInteger retraits = new AtomicInteger();
+        ExecutorService pool2 = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> retraitsTaches = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            retraitsTaches.add(pool2.submit(() -> {
+                for (Long formateurId : aRetirer) {
+                    if (sessionService.retirerFormateur(sessionId, formateurId)) {
+                        retraits.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tache : retraitsTaches) {
+            tache.get();
+        }
+        pool2.shutdown();
+
+        assertEquals(aRetirer.size(), retraits.get());
+        assertEquals(new HashSet<>(formateurs.subList(formateurs.size() / 2, formateurs.size())), formateursEnBase());
+    }
+
+    @Test
+    void versionProtegeLesChampsSansBloquerLesAffectations() {
+        Session lue = sessionService.getSessionById(sessionId);
+        Long version = lue.getVersion();
+
+        // Les affectations ne touchent pas à la version : la modification reste valide
+        sessionService.assignerFormateur(sessionId, formateurs.get(1));
+        Session modification = new Session(null, "Renommée", "Réseaux", "2036", "L1", "S1",
+                lue.getDateD(), lue.getDateF());
+        modification.setVersion(version);
+        Session enregistree = sessionService.updateSession(sessionId, modification);
+        assertEquals(version + 1, enregistree.getVersion());
+        assertEquals(Set.of(formateurs.get(1)), formateursEnBase());
+
+        // Même version une seconde fois : la session a changé entre-temps
+        modification.setClasse("Renommée encore");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> sessionService.updateSession(sessionId, modification));
+        assertEquals("Renommée", sessionService.getSessionDTO(sessionId).getClasse());
+    }
+}
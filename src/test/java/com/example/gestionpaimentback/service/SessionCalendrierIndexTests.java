@@ -0,0 +1,84 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Index des affectations désactivé : le calendrier est reconstruit et tenu à jour sans lui
+@SpringBootTest(properties = "app.sessions.index.enabled=false")
+class SessionCalendrierIndexTests {
+
+    @Autowired
+    private SessionCalendrierIndex calendrierIndex;
+
+    @Autowired
+    private AffectationIndex affectationIndex;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Session nouvelleSession(LocalDate debut, LocalDate fin) {
+        return new Session(null, "Calendrier", "Réseaux", "2047", "L3", "S1", debut, fin);
+    }
+
+    private List<Long> actives(LocalDate du, LocalDate au) {
+        return sessionService.getSessionsActives(du, au).stream().map(SessionDTO::getIdSession).toList();
+    }
+
+    @Test
+    void fonctionneSansIndexDesAffectations() {
+        assertFalse(affectationIndex.estActif());
+        assertTrue(calendrierIndex.estActif());
+
+        Long a = sessionRepository.save(nouvelleSession(LocalDate.of(2047, 5, 3), LocalDate.of(2047, 5, 9))).getIdSession();
+        Long b = sessionRepository.save(nouvelleSession(LocalDate.of(2047, 5, 8), LocalDate.of(2047, 5, 12))).getIdSession();
+        assertEquals(List.of(a, b), calendrierIndex.sessionsActives(LocalDate.of(2047, 5, 8), LocalDate.of(2047, 5, 9)));
+
+        Map<String, Object> parJour = sessionService.compterSessionsActives(LocalDate.of(2047, 5, 7), LocalDate.of(2047, 5, 10));
+        assertArrayEquals(new int[]{1, 2, 2, 1}, (int[]) parJour.get("parJour"));
+
+        // Reconstruit seul, depuis sessions
+        calendrierIndex.reconstruire();
+        assertTrue(calendrierIndex.estActif());
+        assertFalse(affectationIndex.estActif());
+        sessionService.deleteSession(a);
+        assertEquals(List.of(b), actives(LocalDate.of(2047, 5, 3), LocalDate.of(2047, 5, 9)));
+    }
+
+    @Test
+    void ecritureAnnuleeDefaite() {
+        LocalDate jour = LocalDate.of(2047, 9, 14);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(statut -> {
+            sessionRepository.save(nouvelleSession(jour, jour));
+            // Échec au commit, après que le calendrier a reçu la session
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("commit refusé");
+                }
+            });
+        }));
+        assertTrue(calendrierIndex.sessionsActives(jour, jour).isEmpty());
+        assertTrue(calendrierIndex.estActif());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.dto.SessionDTO;
+import com.example.gestionpaimentback.entity.Session;
+import com.example.gestionpaimentback.repository.SessionRepository;
+import com.example.gestionpaimentback.repository.SessionSpecifications;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SessionsActivesTests {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    private Long nouvelleSession(LocalDate debut, LocalDate fin) {
+        return sessionRepository.save(new Session(null, "Active", "Réseaux", "2046", "L1", "S2", debut, fin)).getIdSession();
+    }
+
+    private List<Long> actives(LocalDate du, LocalDate au) {
+        return sessionService.getSessionsActives(du, au).stream().map(SessionDTO::getIdSession).toList();
+    }
+
+    // Même résultat que la requête de repli
+    private void assertCommeEnBase(LocalDate du, LocalDate au) {
+        assertEquals(sessionRepository.findSessionDTOs(SessionSpecifications.actives(du, au), Sort.Direction.ASC, null)
+                .stream().map(SessionDTO::getIdSession).toList(), actives(du, au));
+    }
+
+    @Test
+    void calendrierSuitCreationModificationEtSuppression() {
+        Long a = nouvelleSession(LocalDate.of(2046, 3, 2), LocalDate.of(2046, 3, 8));
+        Long b = nouvelleSession(LocalDate.of(2046, 3, 6), LocalDate.of(2046, 3, 20));
+        Long c = nouvelleSession(LocalDate.of(2046, 4, 1), LocalDate.of(2046, 4, 10));
+        // Fin avant début : le seul 10 mars
+        Long d = nouvelleSession(LocalDate.of(2046, 3, 10), LocalDate.of(2046, 3, 1));
+        nouvelleSession(null, null);
+
+        LocalDate du = LocalDate.of(2046, 3, 7), au = LocalDate.of(2046, 3, 10);
+        assertEquals(List.of(a, b, d), actives(du, au));
+        assertEquals(List.of(b, d), actives(LocalDate.of(2046, 3, 10), null));
+        assertCommeEnBase(du, au);
+
+        Map<String, Object> calendrier = sessionService.compterSessionsActives(LocalDate.of(2046, 3, 5), LocalDate.of(2046, 3, 11));
+        assertArrayEquals(new int[]{1, 2, 2, 2, 1, 2, 1}, (int[]) calendrier.get("parJour"));
+        assertEquals(3L, calendrier.get("sessions"));
+
+        // Dates modifiées : la session change de place dans le calendrier
+        Session details = sessionRepository.findById(c).orElseThrow();
+        details.setDateD(LocalDate.of(2046, 3, 9));
+        details.setDateF(LocalDate.of(2046, 3, 9));
+        sessionService.updateSession(c, details);
+        assertEquals(List.of(a, b, c, d), actives(du, au));
+        assertTrue(actives(LocalDate.of(2046, 4, 1), LocalDate.of(2046, 4, 10)).isEmpty());
+
+        sessionService.deleteSession(a);
+        assertEquals(List.of(b, c, d), actives(du, au));
+        assertCommeEnBase(du, au);
+    }
+
+    @Test
+    void periodeInvalideRefusee() {
+        LocalDate jour = LocalDate.of(2046, 6, 1);
+        assertThrows(IllegalArgumentException.class, () -> sessionService.getSessionsActives(jour, jour.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> sessionService.compterSessionsActives(jour, jour.plusYears(2)));
+        assertEquals(366, ((int[]) sessionService.compterSessionsActives(jour, jour.plusDays(365)).get("parJour")).length);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.gestionpaimentback.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SmtpTransportPoolTests {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private SmtpTransportPool transportPool;
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    private MimeMessage message(int i) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setTo("formateur" + i + "@test.tn");
+        helper.setSubject("Code " + i);
+        helper.setText("Ton code de vérification est : " + (100000 + i));
+        return message;
+    }
+
+    private long connexionsOuvertes() {
+        return (Long) transportPool.getStatistiques().get("connexionsOuvertes");
+    }
+
+    @Test
+    void lotEnvoyeSurUneSeuleConnexion() throws Exception {
+        long avant = connexionsOuvertes();
+
+        try (SmtpTransportPool.Connexion connexion = transportPool.emprunter()) {
+            for (int i = 0; i < 10; i++) {
+                connexion.envoyer(message(i));
+            }
+        }
+        // Connexion rendue au pool puis réutilisée
+        try (SmtpTransportPool.Connexion connexion = transportPool.emprunter()) {
+            connexion.envoyer(message(10));
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 11));
+        assertEquals(1, connexionsOuvertes() - avant);
+    }
+
+    // Connexion du pool coupée par le serveur pendant son inactivité : détectée avant l'envoi, message remis une fois
+    @Test
+    void connexionCoupeeDetecteeAvantEnvoi() throws Exception {
+        try (SmtpTransportPool.Connexion connexion = transportPool.emprunter()) {
+            connexion.envoyer(message(0));
+        }
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        greenMail.reset();
+        long avant = connexionsOuvertes();
+
+        try (SmtpTransportPool.Connexion connexion = transportPool.emprunter()) {
+            connexion.envoyer(message(1));
+        }
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals(1, connexionsOuvertes() - avant);
+    }
+}
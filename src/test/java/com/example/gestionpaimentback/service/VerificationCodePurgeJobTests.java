@@ -0,0 +1,49 @@
+package com.example.gestionpaimentback.service;
+
+import com.example.gestionpaimentback.entity.VerificationCode;
+import com.example.gestionpaimentback.repository.VerificationCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.verification.purge.batch-size=3",
+        "app.verification.purge.pause-ms=0"
+})
+class VerificationCodePurgeJobTests {
+
+    @Autowired
+    private VerificationCodePurgeJob purgeJob;
+
+    @Autowired
+    private VerificationCodeRepository verificationCodeRepository;
+
+    private VerificationCode code(String email, LocalDateTime createdAt, boolean used) {
+        VerificationCode vc = new VerificationCode(email, "123456");
+        vc.setCreatedAt(createdAt);
+        vc.setExpiresAt(createdAt.plus(VerificationCode.DUREE_VALIDITE));
+        vc.setUsed(used);
+        return verificationCodeRepository.save(vc);
+    }
+
+    @Test
+    void purgeParLotsSansToucherAuxCodesRecents() {
+        LocalDateTime ancien = LocalDateTime.now().minusDays(3);
+        for (int i = 0; i < 7; i++) {
+            code("purge-" + i + "@test.tn", ancien, i % 2 == 0); // utilisés ou expirés
+        }
+        VerificationCode recentUtilise = code("purge-recent@test.tn", LocalDateTime.now().minusMinutes(1), true);
+        VerificationCode actif = code("purge-actif@test.tn", LocalDateTime.now(), false);
+
+        long supprimes = purgeJob.purger();
+
+        assertEquals(7, supprimes);
+        assertTrue(verificationCodeRepository.existsById(recentUtilise.getId()));
+        assertTrue(verificationCodeRepository.existsById(actif.getId()));
+        assertEquals(7L, purgeJob.getStatistiques().get("lignesSupprimees"));
+    }
+}
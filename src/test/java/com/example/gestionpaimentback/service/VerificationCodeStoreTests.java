@@ -0,0 +1,97 @@
+package com.example.gestionpaimentback.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class VerificationCodeStoreTests {
+
+    @Autowired
+    private VerificationCodeStore jpaStore;
+
+    private final InMemoryVerificationCodeStore memoryStore = new InMemoryVerificationCodeStore(10, 64);
+
+    @Test
+    void jpaStoreEstLeDefaut() {
+        assertInstanceOf(JpaVerificationCodeStore.class, jpaStore);
+    }
+
+    @Test
+    void codeConsommeUneSeuleFois() {
+        for (VerificationCodeStore store : List.of(jpaStore, memoryStore)) {
+            String email = "unique-" + store.getClass().getSimpleName() + "@test.tn";
+            store.enregistrer(email, "123456");
+
+            assertFalse(store.verifierEtConsommer(email, "000000"));
+            assertTrue(store.verifierEtConsommer(email, "123456"));
+            assertFalse(store.verifierEtConsommer(email, "123456"));
+        }
+    }
+
+    @Test
+    void nouveauCodeInvalideLePrecedent() {
+        for (VerificationCodeStore store : List.of(jpaStore, memoryStore)) {
+            String email = "renvoi-" + store.getClass().getSimpleName() + "@test.tn";
+            store.enregistrer(email, "111111");
+            store.enregistrer(email, "222222");
+
+            assertFalse(store.verifierEtConsommer(email, "111111"));
+            assertTrue(store.verifierEtConsommer(email, "222222"));
+        }
+    }
+
+    @Test
+    void consommationConcurrenteUnSeulGagnant() throws Exception {
+        memoryStore.enregistrer("concurrent@test.tn", "333333");
+        AtomicInteger succes = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> taches = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            taches.add(pool.submit(() -> {
+                if (memoryStore.verifierEtConsommer("concurrent@test.tn", "333333")) {
+                    succes.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> tache : taches) {
+            tache.get();
+        }
+        pool.shutdown();
+
+        assertEquals(1, succes.get());
+    }
+
+    @Test
+    void roueTemporelleRetireLesCodesExpires() {
+        // Validité 50 ms, ticks de 10 ms sur une roue de 4 cases (plusieurs tours), horloge avancée à la main
+        AtomicLong horloge = new AtomicLong(1_000_000);
+        InMemoryVerificationCodeStore store = new InMemoryVerificationCodeStore(10, 4, 50, horloge::get);
+        store.enregistrer("roue@test.tn", "444444");
+
+        horloge.addAndGet(20);
+        store.avancer();
+        assertEquals(1, store.taille());
+
+        horloge.addAndGet(29);
+        store.avancer();
+        assertEquals(1, store.taille());
+
+        horloge.addAndGet(1);
+        store.avancer();
+        assertEquals(0, store.taille());
+        assertEquals(1, store.getExpirations());
+        assertFalse(store.verifierEtConsommer("roue@test.tn", "444444"));
+    }
+}